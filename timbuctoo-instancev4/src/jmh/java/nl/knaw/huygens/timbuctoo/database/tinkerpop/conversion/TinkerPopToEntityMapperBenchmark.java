@@ -0,0 +1,129 @@
+package nl.knaw.huygens.timbuctoo.database.tinkerpop.conversion;
+
+import com.google.common.collect.Lists;
+import nl.knaw.huygens.timbuctoo.core.dto.ReadEntity;
+import nl.knaw.huygens.timbuctoo.core.dto.dataset.Collection;
+import nl.knaw.huygens.timbuctoo.core.dto.dataset.CollectionBuilder;
+import nl.knaw.huygens.timbuctoo.model.vre.Vres;
+import nl.knaw.huygens.timbuctoo.model.vre.vres.VresBuilder;
+import nl.knaw.huygens.timbuctoo.util.TestGraphBuilder;
+import org.apache.tinkerpop.gremlin.neo4j.structure.Neo4jGraph;
+import org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.GraphTraversalSource;
+import org.apache.tinkerpop.gremlin.structure.Vertex;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import static nl.knaw.huygens.timbuctoo.model.properties.PropertyTypes.localProperty;
+import static nl.knaw.huygens.timbuctoo.util.TestGraphBuilder.newGraph;
+
+/**
+ * Measures the time it takes to map a page of entities with their relations: with the mapper as it was before the
+ * projections ({@link BaselineTinkerPopToEntityMapper}), one entity at a time (like getCollection used to) and in
+ * batches (like getCollection does now).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TinkerPopToEntityMapperBenchmark {
+  private static final int ENTITIES = 1000;
+  private static final int BATCH_SIZE = 100;
+
+  private Neo4jGraph graph;
+  private BaselineTinkerPopToEntityMapper baselineMapper;
+  private TinkerPopToEntityMapper mapper;
+  private List<Vertex> entities;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    TestGraphBuilder graphBuilder = newGraph();
+    for (int i = 0; i < ENTITIES; i++) {
+      final int index = i;
+      graphBuilder
+        .withVertex("thing" + index, v -> v
+          .withType("thing")
+          .withVre("test")
+          .isLatest(true)
+          .withTimId(UUID.randomUUID())
+          .withProperty("rev", 1)
+          .withProperty("testthing_prop1", "value1 of thing " + index)
+          .withProperty("testthing_prop2", "value2 of thing " + index)
+          .withProperty("testthing_displayName", "thing " + index)
+          .withOutgoingRelation("isCreatorOf", "stuff" + index)
+        )
+        .withVertex("stuff" + index, v -> v
+          .withType("stuff")
+          .withVre("test")
+          .isLatest(true)
+          .withTimId(UUID.randomUUID())
+        );
+    }
+    graph = graphBuilder.build();
+    GraphTraversalSource traversalSource = graph.traversal();
+
+    Vres vres = new VresBuilder()
+      .withVre("testVre", "test", vre -> vre
+        .withCollection("testthings", col -> col
+          .withProperty("prop1", localProperty("testthing_prop1"))
+          .withProperty("prop2", localProperty("testthing_prop2"))
+          .withDisplayName(localProperty("testthing_displayName"))
+        )
+        .withCollection("teststuffs")
+        .withCollection("testrelations", CollectionBuilder::isRelationCollection)
+      )
+      .build();
+    Collection collection = vres.getCollection("testthings").get();
+    baselineMapper = new BaselineTinkerPopToEntityMapper(collection, traversalSource, vres);
+    mapper = new TinkerPopToEntityMapper(collection, traversalSource, vres);
+    entities = traversalSource.V().has("testthing_prop1").toList();
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() throws Exception {
+    graph.close();
+  }
+
+  @Benchmark
+  public List<ReadEntity> mapWithTheBaselineMapper() {
+    List<ReadEntity> result = new ArrayList<>(entities.size());
+    for (Vertex entity : entities) {
+      result.add(baselineMapper.mapEntity(entity, true));
+    }
+    return result;
+  }
+
+  @Benchmark
+  public List<ReadEntity> mapOneByOne() {
+    List<ReadEntity> result = new ArrayList<>(entities.size());
+    for (Vertex entity : entities) {
+      result.add(mapper.mapEntity(entity, true));
+    }
+    return result;
+  }
+
+  @Benchmark
+  public List<ReadEntity> mapInBatches() {
+    List<ReadEntity> result = new ArrayList<>(entities.size());
+    for (List<Vertex> batch : Lists.partition(entities, BATCH_SIZE)) {
+      result.addAll(mapper.mapEntities(batch, true));
+    }
+    return result;
+  }
+}
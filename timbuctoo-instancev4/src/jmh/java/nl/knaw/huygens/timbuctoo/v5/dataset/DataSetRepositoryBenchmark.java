@@ -0,0 +1,136 @@
+package nl.knaw.huygens.timbuctoo.v5.dataset;
+
+import com.google.common.io.Files;
+import nl.knaw.huygens.timbuctoo.v5.dataset.dto.DataSet;
+import nl.knaw.huygens.timbuctoo.v5.dataset.dto.DataSetMetaData;
+import nl.knaw.huygens.timbuctoo.v5.datastorage.implementations.filesystem.FileSystemDataStorage;
+import nl.knaw.huygens.timbuctoo.v5.dropwizard.BdbNonPersistentEnvironmentCreator;
+import nl.knaw.huygens.timbuctoo.v5.rdfio.RdfIoFactory;
+import nl.knaw.huygens.timbuctoo.v5.security.PermissionFetcher;
+import nl.knaw.huygens.timbuctoo.v5.security.dto.Permission;
+import nl.knaw.huygens.timbuctoo.v5.security.dto.User;
+import nl.knaw.huygens.timbuctoo.v5.util.TimbuctooRdfIdHelper;
+import org.apache.commons.io.FileUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.util.Collections;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.Mockito.RETURNS_DEEP_STUBS;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Measures the throughput of the data set lookups that every GraphQL request does, with 1, 4 and as many threads as
+ * there are processors. Lookups that do not block each other should scale with the number of threads.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DataSetRepositoryBenchmark {
+  private static final int DATA_SETS = 100;
+  private static final User USER = User.create(null, "user");
+
+  private final String[] dataSetNames = new String[DATA_SETS];
+  private File dataDir;
+  private DataSetRepository dataSetRepository;
+  private String ownerId;
+
+  @Setup(Level.Trial)
+  public void setUp() throws Exception {
+    dataDir = Files.createTempDir();
+    dataSetRepository = new DataSetRepository(
+      Executors.newSingleThreadExecutor(),
+      new AllowEverything(),
+      new BdbNonPersistentEnvironmentCreator(),
+      new TimbuctooRdfIdHelper("http://example.org/timbuctoo/"),
+      combinedId -> {
+      },
+      true,
+      ImmutableDataSetConfiguration.builder()
+        .dataStorage(
+          new FileSystemDataStorage(dataDir.getAbsolutePath(), mock(RdfIoFactory.class, RETURNS_DEEP_STUBS))
+        )
+        .importBatchSize(1000)
+        .listenerPartitions(1)
+        .maxOpenDataSets(1) // lazy data sets, so the data sets are created without opening their databases
+        .build()
+    );
+    for (int i = 0; i < DATA_SETS; i++) {
+      dataSetNames[i] = "dataset" + i;
+      ownerId = dataSetRepository.createDataSet(USER, dataSetNames[i]).getMetadata().getOwnerId();
+    }
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() throws Exception {
+    dataSetRepository.stop();
+    FileUtils.deleteDirectory(dataDir);
+  }
+
+  @Benchmark
+  @Threads(1)
+  public Optional<DataSet> getDataSetWithOneThread() {
+    return getRandomDataSet();
+  }
+
+  @Benchmark
+  @Threads(4)
+  public Optional<DataSet> getDataSetWithFourThreads() {
+    return getRandomDataSet();
+  }
+
+  @Benchmark
+  @Threads(Threads.MAX)
+  public Optional<DataSet> getDataSetWithAllProcessors() {
+    return getRandomDataSet();
+  }
+
+  private Optional<DataSet> getRandomDataSet() {
+    return dataSetRepository.getDataSet(USER, ownerId, dataSetNames[ThreadLocalRandom.current().nextInt(DATA_SETS)]);
+  }
+
+  private static class AllowEverything implements PermissionFetcher {
+    @Override
+    public Set<Permission> getPermissions(User user, DataSetMetaData dataSetMetadata) {
+      return Collections.singleton(Permission.READ);
+    }
+
+    @Override
+    public boolean hasPermission(User user, DataSetMetaData dataSet, Permission permission) {
+      return true;
+    }
+
+    @Override
+    public Set<Permission> getOldPermissions(User user, String vreId) {
+      return Collections.singleton(Permission.READ);
+    }
+
+    @Override
+    public void initializeOwnerAuthorization(User user, String ownerId, String dataSetId) {
+    }
+
+    @Override
+    public void removeAuthorizations(String combinedId) {
+    }
+  }
+}
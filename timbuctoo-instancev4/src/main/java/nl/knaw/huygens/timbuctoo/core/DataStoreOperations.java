@@ -1,5 +1,6 @@
 package nl.knaw.huygens.timbuctoo.core;
 
+import nl.knaw.huygens.timbuctoo.core.dto.CollectionPage;
 import nl.knaw.huygens.timbuctoo.core.dto.CreateEntity;
 import nl.knaw.huygens.timbuctoo.core.dto.CreateRelation;
 import nl.knaw.huygens.timbuctoo.core.dto.DataStream;
@@ -45,6 +46,18 @@ public interface DataStoreOperations extends AutoCloseable {
                                        CustomEntityProperties customEntityProperties,
                                        CustomRelationProperties customRelationProperties);
 
+  /**
+   * Retrieves at most {@code rows} entities of the collection that come after the cursor, or the first entities of
+   * the collection when there is no cursor. Unlike {@link #getCollection} the costs of a page do not depend on how
+   * deep into the collection it is.
+   *
+   * @throws IllegalArgumentException when the cursor is not a cursor returned by this method
+   */
+  CollectionPage<ReadEntity> getCollectionPage(Collection collection, Optional<String> cursor, int rows,
+                                               boolean withRelations,
+                                               CustomEntityProperties customEntityProperties,
+                                               CustomRelationProperties customRelationProperties);
+
   List<QuickSearchResult> doQuickSearch(Collection collection, QuickSearch quickSearch, int limit);
 
   List<QuickSearchResult> doKeywordQuickSearch(Collection collection, String keywordType, QuickSearch quickSearch,
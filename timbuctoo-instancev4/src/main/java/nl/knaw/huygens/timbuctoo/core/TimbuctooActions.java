@@ -1,5 +1,6 @@
 package nl.knaw.huygens.timbuctoo.core;
 
+import nl.knaw.huygens.timbuctoo.core.dto.CollectionPage;
 import nl.knaw.huygens.timbuctoo.core.dto.CreateEntity;
 import nl.knaw.huygens.timbuctoo.core.dto.CreateRelation;
 import nl.knaw.huygens.timbuctoo.core.dto.DataStream;
@@ -181,6 +182,12 @@ public class TimbuctooActions implements AutoCloseable {
     return dataStoreOperations.getCollection(collection, start, rows, withRelations, entityProps, relationProps);
   }
 
+  public CollectionPage<ReadEntity> getCollectionPage(Collection collection, Optional<String> cursor, int rows,
+                                                      boolean withRelations, CustomEntityProperties entityProps,
+                                                      CustomRelationProperties relationProps) {
+    return dataStoreOperations.getCollectionPage(collection, cursor, rows, withRelations, entityProps, relationProps);
+  }
+
   public List<QuickSearchResult> doQuickSearch(Collection collection, QuickSearch quickSearch, String keywordType,
                                                int limit) {
     if (collection.getAbstractType().equals("keyword")) {
@@ -0,0 +1,24 @@
+package nl.knaw.huygens.timbuctoo.core.dto;
+
+import org.immutables.value.Value;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * A page of the entities of a collection. The next cursor is an opaque token that retrieves the page after this one
+ * and is absent when this is the last page.
+ */
+@Value.Immutable
+public interface CollectionPage<T> {
+  List<T> getEntities();
+
+  Optional<String> getNextCursor();
+
+  static <U> CollectionPage<U> collectionPage(List<U> entities, Optional<String> nextCursor) {
+    return ImmutableCollectionPage.<U>builder()
+      .entities(entities)
+      .nextCursor(nextCursor)
+      .build();
+  }
+}
@@ -7,6 +7,7 @@ import nl.knaw.huygens.timbuctoo.core.NotFoundException;
 import nl.knaw.huygens.timbuctoo.core.TimbuctooActions;
 import nl.knaw.huygens.timbuctoo.crud.conversion.EntityToJsonMapper;
 import nl.knaw.huygens.timbuctoo.crud.conversion.JsonToEntityMapper;
+import nl.knaw.huygens.timbuctoo.core.dto.CollectionPage;
 import nl.knaw.huygens.timbuctoo.core.dto.CreateRelation;
 import nl.knaw.huygens.timbuctoo.core.dto.DataStream;
 import nl.knaw.huygens.timbuctoo.core.dto.ReadEntity;
@@ -25,6 +26,8 @@ import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
+import static java.util.stream.Collectors.toList;
+import static nl.knaw.huygens.timbuctoo.core.dto.CollectionPage.collectionPage;
 import static nl.knaw.huygens.timbuctoo.util.JsonBuilder.jsn;
 import static nl.knaw.huygens.timbuctoo.util.JsonBuilder.jsnO;
 
@@ -153,6 +156,29 @@ public class JsonCrudService {
     return result;
   }
 
+  public CollectionPage<ObjectNode> getCollectionPage(String collectionName, int rows, Optional<String> cursor,
+                                                      boolean withRelations) throws InvalidCollectionException {
+    final Collection collection = mappings.getCollection(collectionName)
+                                          .orElseThrow(() -> new InvalidCollectionException(collectionName));
+
+    CollectionPage<ReadEntity> page = timDbAccess.getCollectionPage(collection, cursor, rows, withRelations,
+      (traversalSource, vre) -> {
+
+      },
+      (entity1, entityVertex, target, relationRef) -> {
+
+      }
+    );
+    List<ObjectNode> result = page.getEntities().stream().map(entity ->
+      entityToJsonMapper.mapEntity(collection, entity, withRelations,
+        (readEntity, resultJson) -> {
+        },
+        (relationRef, resultJson) -> {
+        })
+    ).collect(toList());
+    return collectionPage(result, page.getNextCursor());
+  }
+
 
   public void replace(String collectionName, UUID id, ObjectNode data, User user)
     throws InvalidCollectionException, IOException, NotFoundException, AlreadyUpdatedException,
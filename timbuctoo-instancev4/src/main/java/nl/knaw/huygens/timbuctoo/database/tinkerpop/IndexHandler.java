@@ -28,6 +28,13 @@ public interface IndexHandler {
 
   void deleteQuickSearchIndex(Collection collection);
 
+  /**
+   * Called after the transaction in which the indices were changed has been committed.
+   */
+  default void afterCommit() {
+
+  }
+
   //=====================tim_id index=====================
   Optional<Vertex> findById(UUID timId);
 
@@ -1,7 +1,10 @@
 package nl.knaw.huygens.timbuctoo.database.tinkerpop;
 
 import nl.knaw.huygens.timbuctoo.core.dto.QuickSearch;
+import nl.knaw.huygens.timbuctoo.core.dto.QuickSearchResult;
 import nl.knaw.huygens.timbuctoo.core.dto.dataset.Collection;
+import nl.knaw.huygens.timbuctoo.database.tinkerpop.quicksearch.QuickSearchIndexes;
+import nl.knaw.huygens.timbuctoo.database.tinkerpop.quicksearch.QuickSearchResultMapper;
 import nl.knaw.huygens.timbuctoo.server.TinkerPopGraphManager;
 import nl.knaw.huygens.timbuctoo.util.StreamIterator;
 import org.apache.lucene.queryparser.flexible.standard.QueryParserUtil;
@@ -21,6 +24,7 @@ import org.neo4j.helpers.collection.MapUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -28,17 +32,23 @@ import java.util.UUID;
 
 import static java.util.stream.Collectors.joining;
 import static java.util.stream.Collectors.toList;
+import static nl.knaw.huygens.timbuctoo.model.GraphReadUtils.getProp;
 
 public class Neo4jIndexHandler implements IndexHandler {
   private static final String QUICK_SEARCH_PROP_NAME = "quickSearch";
   private static final String ID_INDEX = "idIndex";
   private static final String TIM_ID = "tim_id";
+  private static final String KEYWORD_TYPE = "keyword_type";
   private static final Logger LOG = LoggerFactory.getLogger(Neo4jIndexHandler.class);
   private final TinkerPopGraphManager tinkerPopGraphManager;
+  private final QuickSearchIndexes quickSearchIndexes;
+  // the changes to the in-memory quick search indices are applied when the transaction is committed
+  private final List<Runnable> pendingQuickSearchChanges = new ArrayList<>();
   private GraphTraversalSource cachedTraversal;
 
   public Neo4jIndexHandler(TinkerPopGraphManager tinkerPopGraphManager) {
     this.tinkerPopGraphManager = tinkerPopGraphManager;
+    this.quickSearchIndexes = tinkerPopGraphManager.getQuickSearchIndexes();
   }
 
   //=====================quick search index=====================
@@ -56,7 +66,7 @@ public class Neo4jIndexHandler implements IndexHandler {
   public GraphTraversal<Vertex, Vertex> findKeywordsByQuickSearch(Collection collection, QuickSearch quickSearch,
                                                                   String keywordType) {
     if (keywordType != null) {
-      return traversalFromIndex(collection, quickSearch).has("keyword_type", keywordType);
+      return traversalFromIndex(collection, quickSearch).has(KEYWORD_TYPE, keywordType);
     }
     return traversalFromIndex(collection, quickSearch);
   }
@@ -107,6 +117,11 @@ public class Neo4jIndexHandler implements IndexHandler {
     if (node.isPresent()) {
       index.remove(node.get(), QUICK_SEARCH_PROP_NAME);
     }
+    if (quickSearchIndexes.isEnabled()) {
+      final String collectionName = getQuicksearchIndexName(collection);
+      final long vertexId = (Long) vertex.id();
+      pendingQuickSearchChanges.add(() -> quickSearchIndexes.remove(collectionName, vertexId));
+    }
   }
 
   @Override
@@ -119,12 +134,32 @@ public class Neo4jIndexHandler implements IndexHandler {
     Index<Node> index = getQuickSearchIndex(collection);
 
     vertexToNode(vertex).ifPresent(node -> index.add(node, QUICK_SEARCH_PROP_NAME, quickSearchValue));
+
+    if (quickSearchIndexes.isEnabled()) {
+      final String collectionName = getQuicksearchIndexName(collection);
+      final long vertexId = (Long) vertex.id();
+      final QuickSearchResult result = new QuickSearchResultMapper(traversal()).map(collection, vertex);
+      final String keywordType = getProp(vertex, KEYWORD_TYPE, String.class).orElse(null);
+      pendingQuickSearchChanges.add(
+        () -> quickSearchIndexes.put(collectionName, vertexId, quickSearchValue, result, keywordType)
+      );
+    }
   }
 
   @Override
   public void deleteQuickSearchIndex(Collection collection) {
     Index<Node> index = getQuickSearchIndex(collection);
     index.delete();
+    if (quickSearchIndexes.isEnabled()) {
+      final String collectionName = getQuicksearchIndexName(collection);
+      pendingQuickSearchChanges.add(() -> quickSearchIndexes.delete(collectionName));
+    }
+  }
+
+  @Override
+  public void afterCommit() {
+    pendingQuickSearchChanges.forEach(Runnable::run);
+    pendingQuickSearchChanges.clear();
   }
 
   private String getQuicksearchIndexName(Collection collection) {
@@ -2,13 +2,15 @@ package nl.knaw.huygens.timbuctoo.database.tinkerpop;
 
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.node.ArrayNode;
-import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Iterators;
+import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 import com.google.common.collect.Sets;
 import nl.knaw.huygens.timbuctoo.core.AlreadyUpdatedException;
 import nl.knaw.huygens.timbuctoo.core.DataStoreOperations;
 import nl.knaw.huygens.timbuctoo.core.NotFoundException;
 import nl.knaw.huygens.timbuctoo.core.RelationNotPossibleException;
+import nl.knaw.huygens.timbuctoo.core.dto.CollectionPage;
 import nl.knaw.huygens.timbuctoo.core.dto.CreateEntity;
 import nl.knaw.huygens.timbuctoo.core.dto.CreateRelation;
 import nl.knaw.huygens.timbuctoo.core.dto.DataStream;
@@ -28,23 +30,21 @@ import nl.knaw.huygens.timbuctoo.database.tinkerpop.changelistener.AddLabelChang
 import nl.knaw.huygens.timbuctoo.database.tinkerpop.changelistener.ChangeListener;
 import nl.knaw.huygens.timbuctoo.database.tinkerpop.changelistener.CollectionHasEntityRelationChangeListener;
 import nl.knaw.huygens.timbuctoo.database.tinkerpop.changelistener.CompositeChangeListener;
+import nl.knaw.huygens.timbuctoo.database.tinkerpop.changelistener.FacetIndexChangeListener;
 import nl.knaw.huygens.timbuctoo.database.tinkerpop.changelistener.FulltextIndexChangeListener;
 import nl.knaw.huygens.timbuctoo.database.tinkerpop.changelistener.IdIndexChangeListener;
 import nl.knaw.huygens.timbuctoo.database.tinkerpop.conversion.TinkerPopPropertyConverter;
 import nl.knaw.huygens.timbuctoo.database.tinkerpop.conversion.TinkerPopToEntityMapper;
+import nl.knaw.huygens.timbuctoo.database.tinkerpop.quicksearch.QuickSearchIndex;
+import nl.knaw.huygens.timbuctoo.database.tinkerpop.quicksearch.QuickSearchIndexes;
+import nl.knaw.huygens.timbuctoo.database.tinkerpop.quicksearch.QuickSearchResultMapper;
+import nl.knaw.huygens.timbuctoo.database.tinkerpop.quicksearch.QuickSearchValues;
 import nl.knaw.huygens.timbuctoo.logging.Logmarkers;
 import nl.knaw.huygens.timbuctoo.model.Change;
-import nl.knaw.huygens.timbuctoo.model.LocationNames;
-import nl.knaw.huygens.timbuctoo.model.PersonNames;
-import nl.knaw.huygens.timbuctoo.model.TempName;
 import nl.knaw.huygens.timbuctoo.model.properties.LocalProperty;
 import nl.knaw.huygens.timbuctoo.model.vre.Vre;
 import nl.knaw.huygens.timbuctoo.model.vre.Vres;
 import nl.knaw.huygens.timbuctoo.rdf.SystemPropertyModifier;
-import nl.knaw.huygens.timbuctoo.search.description.PropertyDescriptor;
-import nl.knaw.huygens.timbuctoo.search.description.property.PropertyDescriptorFactory;
-import nl.knaw.huygens.timbuctoo.search.description.property.WwDocumentDisplayNameDescriptor;
-import nl.knaw.huygens.timbuctoo.search.description.propertyparser.PropertyParserFactory;
 import nl.knaw.huygens.timbuctoo.server.TinkerPopGraphManager;
 import nl.knaw.huygens.timbuctoo.server.databasemigration.DatabaseMigrator;
 import nl.knaw.huygens.timbuctoo.util.Tuple;
@@ -68,8 +68,11 @@ import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
 import java.net.URI;
+import java.nio.charset.StandardCharsets;
 import java.time.Clock;
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Base64;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
@@ -83,6 +86,7 @@ import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 import static java.util.stream.Collectors.toList;
+import static nl.knaw.huygens.timbuctoo.core.dto.CollectionPage.collectionPage;
 import static nl.knaw.huygens.timbuctoo.core.dto.dataset.Collection.HAS_ENTITY_RELATION_NAME;
 import static nl.knaw.huygens.timbuctoo.database.tinkerpop.EdgeManipulator.duplicateEdge;
 import static nl.knaw.huygens.timbuctoo.database.tinkerpop.VertexDuplicator.VERSION_OF;
@@ -100,6 +104,9 @@ import static org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.__.has;
 
 public class TinkerPopOperations implements DataStoreOperations {
   private static final Logger LOG = LoggerFactory.getLogger(TinkerPopOperations.class);
+  private static final int MAPPING_BATCH_SIZE = 100;
+  private static final Base64.Encoder BASE64_ENCODER = Base64.getUrlEncoder().withoutPadding();
+  private static final Base64.Decoder BASE64_DECODER = Base64.getUrlDecoder();
   private final Transaction transaction;
   private final ChangeListener listener;
   private final EntityFetcher entityFetcher;
@@ -112,19 +119,9 @@ public class TinkerPopOperations implements DataStoreOperations {
   private final GraphDatabaseService graphDatabase;
   private final boolean ownTransaction;
   private final Map<String, Vertex> defaultCollectionVerticesCache = new HashMap<>();
-  private final PropertyDescriptorFactory propertyDescriptorFactory =
-    new PropertyDescriptorFactory(new PropertyParserFactory());
-  private final Map<String, PropertyDescriptor> customDescriptors = ImmutableMap.<String, PropertyDescriptor>builder()
-    .put("wwdocuments", new WwDocumentDisplayNameDescriptor())
-    .put("wwpersons", propertyDescriptorFactory.getComposite(
-      propertyDescriptorFactory.getLocal("wwperson_names", PersonNames.class),
-      propertyDescriptorFactory.getLocal("wwperson_tempName", TempName.class))
-    )
-    .put("wwkeywords", propertyDescriptorFactory.getLocal("wwkeyword_value", String.class))
-    .put("wwlanguages", propertyDescriptorFactory.getLocal("wwlanguage_name", String.class))
-    .put("wwlocations", propertyDescriptorFactory.getLocal("names", LocationNames.class))
-    .put("wwcollectives", propertyDescriptorFactory.getLocal("wwcollective_name", String.class))
-    .build();
+  private final QuickSearchIndexes quickSearchIndexes;
+  private final QuickSearchResultMapper quickSearchResultMapper;
+  private final QuickSearchValues quickSearchValues;
   private boolean requireCommit = false; //we only need an explicit success() call when the database is changed
   private Optional<Boolean> isSuccess = Optional.empty();
 
@@ -136,7 +133,8 @@ public class TinkerPopOperations implements DataStoreOperations {
         new AddLabelChangeListener(),
         new FulltextIndexChangeListener(indexHandler, graphManager),
         new IdIndexChangeListener(indexHandler),
-        new CollectionHasEntityRelationChangeListener(graphManager)
+        new CollectionHasEntityRelationChangeListener(graphManager),
+        new FacetIndexChangeListener(graphManager.getFacetIndexes())
       ),
       indexHandler -> new Neo4jLuceneEntityFetcher(graphManager, indexHandler),
       null,
@@ -177,6 +175,9 @@ public class TinkerPopOperations implements DataStoreOperations {
     this.mappings = mappings == null ? loadVres() : mappings;
     this.systemPropertyModifier = new SystemPropertyModifier(Clock.systemDefaultZone());
     this.graphDatabase = graphManager.getGraphDatabase(); //FIXME move to IndexHandler
+    this.quickSearchIndexes = graphManager.getQuickSearchIndexes();
+    this.quickSearchResultMapper = new QuickSearchResultMapper(traversal);
+    this.quickSearchValues = new QuickSearchValues(graphManager);
 
   }
 
@@ -296,6 +297,8 @@ public class TinkerPopOperations implements DataStoreOperations {
       if (isSuccess.isPresent()) {
         if (isSuccess.get()) {
           transaction.commit();
+          listener.afterCommit();
+          indexHandler.afterCommit();
         } else {
           transaction.rollback();
         }
@@ -456,13 +459,67 @@ public class TinkerPopOperations implements DataStoreOperations {
     TinkerPopToEntityMapper tinkerPopToEntityMapper =
       new TinkerPopToEntityMapper(collection, traversal, mappings, customEntityProperties, customRelationProperties);
 
+    // map the entities in batches, so the relations of a batch can be retrieved with one traversal
     return new TinkerPopGetCollection(
-      entities.toStream().map(vertex -> tinkerPopToEntityMapper.mapEntity(vertex, withRelations))
+      stream(Iterators.partition(entities, MAPPING_BATCH_SIZE))
+        .flatMap(batch -> tinkerPopToEntityMapper.mapEntities(batch, withRelations).stream())
     );
   }
 
+  @Override
+  public CollectionPage<ReadEntity> getCollectionPage(Collection collection, Optional<String> cursor, int rows,
+                                                      boolean withRelations,
+                                                      CustomEntityProperties customEntityProperties,
+                                                      CustomRelationProperties customRelationProperties) {
+    if (rows < 0) {
+      throw new IllegalArgumentException("rows should not be negative");
+    }
+    List<Vertex> vertices = getCollectionPageTraversal(collection.getEntityTypeName(), cursor).limit(rows).toList();
+
+    TinkerPopToEntityMapper tinkerPopToEntityMapper =
+      new TinkerPopToEntityMapper(collection, traversal, mappings, customEntityProperties, customRelationProperties);
+    List<ReadEntity> page = new ArrayList<>(vertices.size());
+    for (List<Vertex> batch : Lists.partition(vertices, MAPPING_BATCH_SIZE)) {
+      page.addAll(tinkerPopToEntityMapper.mapEntities(batch, withRelations));
+    }
+
+    Optional<String> nextCursor = vertices.size() == rows && rows > 0 ?
+      Optional.of(encodeCursor((Long) vertices.get(vertices.size() - 1).id())) :
+      Optional.empty();
+    return collectionPage(page, nextCursor);
+  }
+
+  /**
+   * Neo4j returns the vertices of a label in the order of their ids, so the vertices of the previous pages can be
+   * skipped on their id alone. The traversal starts from the unfiltered source, because the latest state source would
+   * evaluate its isLatest filter for each of the skipped vertices before the id predicate.
+   */
+  GraphTraversal<Vertex, Vertex> getCollectionPageTraversal(String entityTypeName, Optional<String> cursor) {
+    GraphTraversal<Vertex, Vertex> entities = traversal.V().has(T.label, LabelP.of(entityTypeName));
+    if (cursor.isPresent()) {
+      entities = entities.has(T.id, P.gt(decodeCursor(cursor.get())));
+    }
+    return entities.has("isLatest", true);
+  }
+
+  private static String encodeCursor(long vertexId) {
+    return BASE64_ENCODER.encodeToString(Long.toString(vertexId).getBytes(StandardCharsets.UTF_8));
+  }
+
+  private static long decodeCursor(String cursor) {
+    try {
+      return Long.parseLong(new String(BASE64_DECODER.decode(cursor), StandardCharsets.UTF_8));
+    } catch (IllegalArgumentException e) {
+      throw new IllegalArgumentException("Invalid cursor: " + cursor, e);
+    }
+  }
+
   @Override
   public List<QuickSearchResult> doQuickSearch(Collection collection, QuickSearch quickSearch, int limit) {
+    final Optional<QuickSearchIndex> quickSearchIndex = getQuickSearchIndex(collection);
+    if (quickSearchIndex.isPresent()) {
+      return quickSearchIndex.get().find(quickSearch, null, limit);
+    }
     return asQuickSearchResult(
       collection,
       indexHandler.findByQuickSearch(collection, quickSearch).limit(limit).toStream()
@@ -472,6 +529,10 @@ public class TinkerPopOperations implements DataStoreOperations {
   @Override
   public List<QuickSearchResult> doKeywordQuickSearch(Collection collection, String keywordType,
                                                       QuickSearch quickSearch, int limit) {
+    final Optional<QuickSearchIndex> quickSearchIndex = getQuickSearchIndex(collection);
+    if (quickSearchIndex.isPresent()) {
+      return quickSearchIndex.get().find(quickSearch, keywordType, limit);
+    }
     return asQuickSearchResult(
       collection,
       indexHandler.findKeywordsByQuickSearch(collection, quickSearch, keywordType).limit(limit).toStream()
@@ -479,31 +540,41 @@ public class TinkerPopOperations implements DataStoreOperations {
   }
 
   private List<QuickSearchResult> asQuickSearchResult(Collection collection, Stream<Vertex> result) {
-    String collectionName = collection.getCollectionName();
     return result
-      .map(vertex -> {
-        //FIXME: this is special case handling for women writers where the autocomplete labels are different
-        //from the labels used elsewhere. Either we make this available everywhere (and configure this using the VRE)
-        //or we remove it from women writers
-        String displayName;
-        if (customDescriptors.containsKey(collectionName)) {
-          displayName = customDescriptors.get(collectionName).get(vertex);
-        } else {
-          displayName = traversal.V(vertex.id()).union(collection.getDisplayName().traversalJson()).next()
-                                 .getOrElseGet(e -> {
-                                   LOG.error("Displayname generation for vertix with id " + vertex.id() + " failed", e);
-                                   return jsn("#Error#");
-                                 }).asText();
-        }
-        return QuickSearchResult.create(
-          displayName,
-          UUID.fromString(vertex.value("tim_id")),
-          vertex.value("rev")
-        );
-      })
+      .map(vertex -> quickSearchResultMapper.map(collection, vertex))
       .collect(toList());
   }
 
+  /**
+   * @return an empty Optional when the in-memory indices are disabled or while the index of the collection is built
+   */
+  private Optional<QuickSearchIndex> getQuickSearchIndex(Collection collection) {
+    if (!quickSearchIndexes.isEnabled()) {
+      return Optional.empty();
+    }
+    return quickSearchIndexes.getIndex(collection.getCollectionName(), index -> {
+      // the index is built on another thread, which gets its own transaction
+      final boolean buildTransaction = !graph.tx().isOpen();
+      try {
+        final String entityTypeName = collection.getEntityTypeName();
+        latestState.V().has(T.label, LabelP.of(entityTypeName)).not(has("deleted", true))
+          .filter(vertex -> getProp(vertex.get(), "types", String.class).orElse("[]")
+            .contains("\"" + entityTypeName + "\""))
+          .forEachRemaining(vertex -> {
+            final QuickSearchResult result = quickSearchResultMapper.map(collection, vertex);
+            final String keywordType = getProp(vertex, "keyword_type", String.class).orElse(null);
+            for (String value : quickSearchValues.get(collection, vertex)) {
+              index.put((Long) vertex.id(), value, result, keywordType);
+            }
+          });
+      } finally {
+        if (buildTransaction && graph.tx().isOpen()) {
+          graph.tx().close();
+        }
+      }
+    });
+  }
+
   @Override
   public int replaceEntity(Collection collection, UpdateEntity updateEntity)
     throws NotFoundException, AlreadyUpdatedException, IOException {
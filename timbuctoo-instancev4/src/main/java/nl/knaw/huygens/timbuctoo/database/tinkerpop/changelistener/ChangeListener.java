@@ -18,4 +18,11 @@ public interface ChangeListener {
   void onCreateEdge(Collection collection, Edge edge);
 
   void onEdgeUpdate(Collection collection, Edge oldEdge, Edge newEdge);
+
+  /**
+   * Called when the transaction in which the changes were made has been committed.
+   */
+  default void afterCommit() {
+
+  }
 }
@@ -45,4 +45,9 @@ public class CompositeChangeListener implements ChangeListener {
   public void onEdgeUpdate(Collection collection, Edge oldEdge, Edge newEdge) {
     subListeners.forEach(l -> l.onEdgeUpdate(collection, oldEdge, newEdge));
   }
+
+  @Override
+  public void afterCommit() {
+    subListeners.forEach(ChangeListener::afterCommit);
+  }
 }
@@ -0,0 +1,101 @@
+package nl.knaw.huygens.timbuctoo.database.tinkerpop.changelistener;
+
+import nl.knaw.huygens.timbuctoo.core.dto.dataset.Collection;
+import nl.knaw.huygens.timbuctoo.search.facetindex.FacetIndexes;
+import org.apache.tinkerpop.gremlin.structure.Direction;
+import org.apache.tinkerpop.gremlin.structure.Edge;
+import org.apache.tinkerpop.gremlin.structure.Vertex;
+
+import java.util.HashSet;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Collects the vertices of which the facet values might have changed during the transaction and reports them to the
+ * facet indices when the transaction is committed. The vertices up to two relations away from a changed vertex are
+ * reported as well, because derived facets read the vertices that are related to the related vertices (e.g. the
+ * gender of the author of a document). Only the relations that the facets follow are walked, so that the edges of
+ * the collection entity nodes (which connect all the entities of a collection) are not.
+ */
+public class FacetIndexChangeListener implements ChangeListener {
+  private final FacetIndexes facetIndexes;
+  private final Set<Long> changed = new HashSet<>();
+
+  public FacetIndexChangeListener(FacetIndexes facetIndexes) {
+    this.facetIndexes = facetIndexes;
+  }
+
+  @Override
+  public void onCreate(Collection collection, Vertex vertex) {
+    addWithNeighbours(vertex);
+  }
+
+  @Override
+  public void onPropertyUpdate(Collection collection, Optional<Vertex> oldVertex, Vertex newVertex) {
+    oldVertex.ifPresent(this::add);
+    addWithNeighbours(newVertex);
+  }
+
+  @Override
+  public void onRemoveFromCollection(Collection collection, Optional<Vertex> oldVertex, Vertex newVertex) {
+    oldVertex.ifPresent(this::add);
+    addWithNeighbours(newVertex);
+  }
+
+  @Override
+  public void onAddToCollection(Collection collection, Optional<Vertex> oldVertex, Vertex newVertex) {
+    oldVertex.ifPresent(this::add);
+    addWithNeighbours(newVertex);
+  }
+
+  @Override
+  public void onCreateEdge(Collection collection, Edge edge) {
+    add(edge);
+  }
+
+  @Override
+  public void onEdgeUpdate(Collection collection, Edge oldEdge, Edge newEdge) {
+    add(oldEdge);
+    add(newEdge);
+  }
+
+  @Override
+  public void afterCommit() {
+    facetIndexes.markChanged(changed);
+    changed.clear();
+  }
+
+  private void add(Vertex vertex) {
+    if (facetIndexes.isEnabled()) {
+      changed.add((Long) vertex.id());
+    }
+  }
+
+  /**
+   * The vertices on both sides of the edge and, when the facets follow the edge, their neighbours, which are two
+   * relations away from the other side
+   */
+  private void add(Edge edge) {
+    if (facetIndexes.isEnabled()) {
+      final Set<String> relationNames = facetIndexes.getRelationNames();
+      final int relations = relationNames.contains(edge.label()) ? 1 : 0;
+      addWithinRelations(edge.outVertex(), relations, relationNames);
+      addWithinRelations(edge.inVertex(), relations, relationNames);
+    }
+  }
+
+  private void addWithNeighbours(Vertex vertex) {
+    if (facetIndexes.isEnabled()) {
+      addWithinRelations(vertex, 2, facetIndexes.getRelationNames());
+    }
+  }
+
+  private void addWithinRelations(Vertex vertex, int relations, Set<String> relationNames) {
+    changed.add((Long) vertex.id());
+    // vertices() without labels would follow all the edges
+    if (relations > 0 && !relationNames.isEmpty()) {
+      vertex.vertices(Direction.BOTH, relationNames.toArray(new String[relationNames.size()]))
+            .forEachRemaining(neighbour -> addWithinRelations(neighbour, relations - 1, relationNames));
+    }
+  }
+}
@@ -0,0 +1,153 @@
+package nl.knaw.huygens.timbuctoo.database.tinkerpop.conversion;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import io.vavr.control.Try;
+import nl.knaw.huygens.timbuctoo.core.dto.dataset.Collection;
+import nl.knaw.huygens.timbuctoo.model.properties.LocalProperty;
+import nl.knaw.huygens.timbuctoo.model.properties.ReadableProperty;
+import nl.knaw.huygens.timbuctoo.util.Tuple;
+import org.apache.tinkerpop.gremlin.process.traversal.Traversal;
+import org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.GraphTraversal;
+import org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.GraphTraversalSource;
+import org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.__;
+import org.apache.tinkerpop.gremlin.structure.Vertex;
+import org.apache.tinkerpop.gremlin.structure.VertexProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static nl.knaw.huygens.timbuctoo.logging.Logmarkers.databaseInvariant;
+import static nl.knaw.huygens.timbuctoo.util.Tuple.tuple;
+
+/**
+ * What {@link TinkerPopToEntityMapper} reads for the entities of a collection, worked out once per collection. The
+ * local properties are read from the vertex directly, only the derived properties (e.g. display names that combine
+ * other properties) and the display name need a traversal. Those traversals are built once as well; each vertex
+ * gets a copy that starts at the vertex.
+ */
+class EntityProjection {
+  private static final Logger LOG = LoggerFactory.getLogger(EntityProjection.class);
+  private static final Cache<Collection, EntityProjection> PROJECTIONS = CacheBuilder.newBuilder().weakKeys().build();
+
+  private final String entityTypeName;
+  private final List<String> propertyNames;
+  private final Map<String, String> localProperties;
+  private final GraphTraversal<Vertex, Tuple<String, Try<Object>>> derivedPropertiesGetter;
+  private final GraphTraversal<Vertex, Try<JsonNode>> displayNameGetter;
+  private final Optional<String> ownRelationType;
+
+  private EntityProjection(Collection collection) {
+    entityTypeName = collection.getEntityTypeName();
+    propertyNames = new ArrayList<>(collection.getReadableProperties().keySet());
+    localProperties = new LinkedHashMap<>();
+    final List<GraphTraversal> derivedGetters = new ArrayList<>();
+    for (Map.Entry<String, ReadableProperty> property : collection.getReadableProperties().entrySet()) {
+      if (property.getValue() instanceof LocalProperty) {
+        localProperties.put(property.getKey(), ((LocalProperty) property.getValue()).getDatabasePropertyName());
+      } else {
+        final String propertyName = property.getKey();
+        derivedGetters.add(property.getValue().traversalRaw().map(value -> tuple(propertyName, value.get())));
+      }
+    }
+    derivedPropertiesGetter = derivedGetters.isEmpty() ? null :
+      __.<Vertex, Tuple<String, Try<Object>>>union(derivedGetters.toArray(new GraphTraversal[0]));
+    displayNameGetter = collection.getDisplayName() == null ? null :
+      __.<Vertex, Try<JsonNode>>union(collection.getDisplayName().traversalJson());
+    ownRelationType = collection.getVre().getCollections().values().stream()
+      .filter(Collection::isRelationCollection)
+      .findAny()
+      .map(Collection::getEntityTypeName);
+  }
+
+  static EntityProjection forCollection(Collection collection) {
+    return PROJECTIONS.asMap().computeIfAbsent(collection, EntityProjection::new);
+  }
+
+  /**
+   * @return the entity type name of the relation collection of the VRE
+   */
+  Optional<String> getOwnRelationType() {
+    return ownRelationType;
+  }
+
+  /**
+   * @return the values of the readable properties of the vertex (a property might have more than one value) in the
+   *         order of the collection.
+   */
+  List<Tuple<String, Try<Object>>> readProperties(GraphTraversalSource traversalSource, Vertex vertex) {
+    final Map<String, List<Try<Object>>> derivedValues = readDerivedProperties(traversalSource, vertex);
+    final List<Tuple<String, Try<Object>>> result = new ArrayList<>();
+    for (String propertyName : propertyNames) {
+      final String databaseName = localProperties.get(propertyName);
+      if (databaseName != null) {
+        for (Iterator<VertexProperty<Object>> values = vertex.properties(databaseName); values.hasNext(); ) {
+          final VertexProperty<Object> value = values.next();
+          result.add(tuple(propertyName, Try.of(value::value)));
+        }
+      } else {
+        for (Try<Object> value : derivedValues.getOrDefault(propertyName, Collections.emptyList())) {
+          result.add(tuple(propertyName, value));
+        }
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Reads the display name like {@link nl.knaw.huygens.timbuctoo.core.dto.DisplayNameHelper} does.
+   */
+  Optional<String> readDisplayName(GraphTraversalSource traversalSource, Vertex vertex) {
+    if (displayNameGetter == null) {
+      LOG.debug("No displayname configured for " + entityTypeName);
+      return Optional.empty();
+    }
+    final Traversal.Admin<Vertex, Try<JsonNode>> getter = startAt(displayNameGetter, traversalSource, vertex);
+    if (!getter.hasNext()) {
+      LOG.debug(databaseInvariant, "Displayname traversal resulted in no results: " + getter);
+      return Optional.empty();
+    }
+    final Try<JsonNode> traversalResult = getter.next();
+    if (!traversalResult.isSuccess()) {
+      LOG.debug(databaseInvariant, "Retrieving displayname failed", traversalResult.getCause());
+    } else if (traversalResult.get() == null) {
+      LOG.debug(databaseInvariant, "Displayname was null");
+    } else if (!traversalResult.get().isTextual()) {
+      LOG.debug(databaseInvariant, "Displayname was not a string but " + traversalResult.get().toString());
+    } else {
+      return Optional.of(traversalResult.get().asText());
+    }
+    return Optional.empty();
+  }
+
+  private Map<String, List<Try<Object>>> readDerivedProperties(GraphTraversalSource traversalSource, Vertex vertex) {
+    final Map<String, List<Try<Object>>> result = new LinkedHashMap<>();
+    if (derivedPropertiesGetter == null) {
+      return result;
+    }
+    startAt(derivedPropertiesGetter, traversalSource, vertex).forEachRemaining(propertyValue ->
+      result.computeIfAbsent(propertyValue.getLeft(), key -> new ArrayList<>()).add(propertyValue.getRight())
+    );
+    return result;
+  }
+
+  /**
+   * @return a copy of the getter that starts at the vertex. The getter itself is never run, so it can be shared.
+   */
+  private static <E> Traversal.Admin<Vertex, E> startAt(GraphTraversal<Vertex, E> getter,
+                                                         GraphTraversalSource traversalSource, Vertex vertex) {
+    final Traversal.Admin<Vertex, E> traversal = getter.asAdmin().clone();
+    traversalSource.getGraph().ifPresent(traversal::setGraph);
+    traversal.applyStrategies();
+    traversal.addStart(traversal.getTraverserGenerator().generate(vertex, traversal.getStartStep(), 1L));
+    return traversal;
+  }
+}
@@ -0,0 +1,133 @@
+package nl.knaw.huygens.timbuctoo.database.tinkerpop.quicksearch;
+
+import com.google.common.collect.Ordering;
+import nl.knaw.huygens.timbuctoo.core.dto.QuickSearch;
+import nl.knaw.huygens.timbuctoo.core.dto.QuickSearchResult;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+/**
+ * The quick search values of the current entities of one collection, kept in memory so that the autocomplete does not
+ * have to touch the graph. The values are split into lower case tokens on white space, like the Lucene fulltext index
+ * does. The tokens are kept sorted, so that the tokens with a prefix form one contiguous range.
+ *
+ * <p>Like the Lucene index, an entity can have several values; it is found when one of them matches.</p>
+ *
+ * <p>The index is filled before it is shared (see {@link QuickSearchIndexes}), so the lock only guards the short
+ * updates of committed changes against the searches.</p>
+ */
+public class QuickSearchIndex {
+  private static final Comparator<Entry> BY_DISPLAY_NAME = Comparator
+    .comparing((Entry entry) -> entry.result.getIndexedValue(), Comparator.nullsLast(String.CASE_INSENSITIVE_ORDER))
+    .thenComparingLong(entry -> entry.vertexId);
+
+  private final Map<Long, Entry> entries = new HashMap<>();
+  private final TreeMap<String, Set<Long>> tokens = new TreeMap<>();
+
+  QuickSearchIndex() {
+  }
+
+  /**
+   * Adds a value to the values of the vertex. The result and the keyword type replace the ones that were added before.
+   */
+  public synchronized void put(long vertexId, String value, QuickSearchResult result, String keywordType) {
+    final Entry entry = entries.computeIfAbsent(vertexId, Entry::new);
+    entry.result = result;
+    entry.keywordType = keywordType;
+    if (entry.values.add(value)) {
+      for (String token : tokenize(value)) {
+        tokens.computeIfAbsent(token, key -> new HashSet<>()).add(vertexId);
+      }
+    }
+  }
+
+  public synchronized void remove(long vertexId) {
+    final Entry entry = entries.remove(vertexId);
+    if (entry != null) {
+      for (String value : entry.values) {
+        for (String token : tokenize(value)) {
+          final Set<Long> vertexIds = tokens.get(token);
+          if (vertexIds != null) {
+            vertexIds.remove(vertexId);
+            if (vertexIds.isEmpty()) {
+              tokens.remove(token);
+            }
+          }
+        }
+      }
+    }
+  }
+
+  /**
+   * Returns the first results of the entities that have a value with a token that equals one of the full matches or
+   * starts with one of the partial matches. Like the Lucene query, which combines its terms with OR, an entity does
+   * not have to match every term. The entities that match the most terms come first, the others are ordered by display
+   * name.
+   *
+   * @param keywordType only the entities with this keyword type are returned, unless it is null
+   */
+  public synchronized List<QuickSearchResult> find(QuickSearch quickSearch, String keywordType, int limit) {
+    final List<Set<Long>> candidates = new ArrayList<>();
+    for (String fullMatch : quickSearch.fullMatches()) {
+      if (!fullMatch.isEmpty()) {
+        candidates.add(tokens.getOrDefault(fullMatch.toLowerCase(Locale.ROOT), new HashSet<>()));
+      }
+    }
+    for (String partialMatch : quickSearch.partialMatches()) {
+      if (!partialMatch.isEmpty()) {
+        final String prefix = partialMatch.toLowerCase(Locale.ROOT);
+        final Set<Long> vertexIds = new HashSet<>();
+        tokens.subMap(prefix, prefix + Character.MAX_VALUE).values().forEach(vertexIds::addAll);
+        candidates.add(vertexIds);
+      }
+    }
+
+    final Map<Entry, Integer> matchedTerms = new HashMap<>();
+    if (candidates.isEmpty()) {
+      entries.values().forEach(entry -> matchedTerms.put(entry, 0));
+    } else {
+      for (Set<Long> vertexIds : candidates) {
+        for (Long vertexId : vertexIds) {
+          matchedTerms.merge(entries.get(vertexId), 1, Integer::sum);
+        }
+      }
+    }
+    final List<Entry> matching = matchedTerms.keySet().stream()
+      .filter(entry -> keywordType == null || Objects.equals(keywordType, entry.keywordType))
+      .collect(Collectors.toList());
+
+    final Comparator<Entry> byMatchedTerms = Comparator.comparing(matchedTerms::get, Comparator.reverseOrder());
+    return Ordering.from(byMatchedTerms.thenComparing(BY_DISPLAY_NAME)).leastOf(matching, limit).stream()
+      .map(entry -> entry.result)
+      .collect(Collectors.toList());
+  }
+
+  synchronized int size() {
+    return entries.size();
+  }
+
+  private static String[] tokenize(String value) {
+    return value.toLowerCase(Locale.ROOT).trim().split("\\s+");
+  }
+
+  private static class Entry {
+    private final long vertexId;
+    private final Set<String> values = new HashSet<>();
+    private QuickSearchResult result;
+    private String keywordType;
+
+    Entry(long vertexId) {
+      this.vertexId = vertexId;
+    }
+  }
+}
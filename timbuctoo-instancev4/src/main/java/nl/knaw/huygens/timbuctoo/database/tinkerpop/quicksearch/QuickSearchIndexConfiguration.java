@@ -0,0 +1,26 @@
+package nl.knaw.huygens.timbuctoo.database.tinkerpop.quicksearch;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import org.immutables.value.Value;
+
+@Value.Immutable
+public interface QuickSearchIndexConfiguration {
+
+  @JsonCreator
+  static QuickSearchIndexConfiguration create(@JsonProperty("enabled") Boolean enabled) {
+    ImmutableQuickSearchIndexConfiguration.Builder builder = ImmutableQuickSearchIndexConfiguration.builder();
+    if (enabled != null) {
+      builder.isEnabled(enabled);
+    }
+    return builder.build();
+  }
+
+  /**
+   * Whether the autocomplete is answered from in-memory indices instead of from the Lucene quick search indices.
+   */
+  @Value.Default
+  default boolean isEnabled() {
+    return false;
+  }
+}
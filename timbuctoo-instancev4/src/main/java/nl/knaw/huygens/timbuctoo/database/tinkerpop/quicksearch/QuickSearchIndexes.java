@@ -0,0 +1,138 @@
+package nl.knaw.huygens.timbuctoo.database.tinkerpop.quicksearch;
+
+import nl.knaw.huygens.timbuctoo.core.dto.QuickSearchResult;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
+
+/**
+ * The in-memory quick search indices, one per collection. An index is built in the background after the first
+ * autocomplete request for its collection and kept up to date with the changes to the Lucene quick search index once
+ * they are committed, see {@link nl.knaw.huygens.timbuctoo.database.tinkerpop.Neo4jIndexHandler}. Until the index is
+ * built, the autocomplete is answered from the Lucene index.
+ */
+public class QuickSearchIndexes {
+  private static final Logger LOG = LoggerFactory.getLogger(QuickSearchIndexes.class);
+  private final QuickSearchIndexConfiguration configuration;
+  private final Executor buildExecutor;
+  private final Map<String, IndexHolder> indexes = new ConcurrentHashMap<>();
+
+  /**
+   * Builds the indices on the thread that requests them
+   */
+  public QuickSearchIndexes(QuickSearchIndexConfiguration configuration) {
+    this(configuration, Runnable::run);
+  }
+
+  public QuickSearchIndexes(QuickSearchIndexConfiguration configuration, Executor buildExecutor) {
+    this.configuration = configuration;
+    this.buildExecutor = buildExecutor;
+  }
+
+  public boolean isEnabled() {
+    return configuration.isEnabled();
+  }
+
+  /**
+   * Returns the index of the collection once it is built. When there is none yet, the builder fills a new index on the
+   * build executor.
+   *
+   * @return an empty Optional while the index is being built
+   */
+  public Optional<QuickSearchIndex> getIndex(String collectionName, Consumer<QuickSearchIndex> builder) {
+    final IndexHolder holder = indexes.computeIfAbsent(collectionName, key -> new IndexHolder());
+    if (holder.startBuild()) {
+      buildExecutor.execute(() -> build(collectionName, holder, builder));
+    }
+    return holder.getIndex();
+  }
+
+  private void build(String collectionName, IndexHolder holder, Consumer<QuickSearchIndex> builder) {
+    // the new index is not shared until it is built, so neither the requests nor the writers wait for the build
+    final QuickSearchIndex index = new QuickSearchIndex();
+    try {
+      builder.accept(index);
+      holder.finishBuild(index);
+    } catch (RuntimeException e) {
+      LOG.error("Building the quick search index of '{}' failed", collectionName, e);
+      holder.failBuild();
+    }
+  }
+
+  public void put(String collectionName, long vertexId, String value, QuickSearchResult result, String keywordType) {
+    final IndexHolder holder = indexes.get(collectionName);
+    if (holder != null) {
+      holder.apply(index -> index.put(vertexId, value, result, keywordType));
+    }
+  }
+
+  public void remove(String collectionName, long vertexId) {
+    final IndexHolder holder = indexes.get(collectionName);
+    if (holder != null) {
+      holder.apply(index -> index.remove(vertexId));
+    }
+  }
+
+  public void delete(String collectionName) {
+    // a build that is still running fills a holder that is no longer used
+    indexes.remove(collectionName);
+  }
+
+  /**
+   * The index of a collection. The changes that are committed while the index is built are kept, because the builder
+   * might have read the graph before they were committed. They are applied in order before the index is used.
+   */
+  private static class IndexHolder {
+    private volatile QuickSearchIndex index;
+    private boolean building = false;
+    private final List<Consumer<QuickSearchIndex>> changesDuringBuild = new ArrayList<>();
+
+    synchronized boolean startBuild() {
+      if (building || index != null) {
+        return false;
+      }
+      building = true;
+      return true;
+    }
+
+    Optional<QuickSearchIndex> getIndex() {
+      return Optional.ofNullable(index);
+    }
+
+    synchronized void finishBuild(QuickSearchIndex built) {
+      changesDuringBuild.forEach(change -> change.accept(built));
+      changesDuringBuild.clear();
+      building = false;
+      index = built;
+    }
+
+    synchronized void failBuild() {
+      // the next request starts a new build, which reads the committed changes from the graph
+      changesDuringBuild.clear();
+      building = false;
+    }
+
+    void apply(Consumer<QuickSearchIndex> change) {
+      QuickSearchIndex current = index;
+      if (current == null) {
+        synchronized (this) {
+          if (index == null) {
+            if (building) {
+              changesDuringBuild.add(change);
+            }
+            return;
+          }
+          current = index;
+        }
+      }
+      change.accept(current);
+    }
+  }
+}
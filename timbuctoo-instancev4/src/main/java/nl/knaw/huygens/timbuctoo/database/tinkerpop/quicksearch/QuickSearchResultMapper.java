@@ -0,0 +1,69 @@
+package nl.knaw.huygens.timbuctoo.database.tinkerpop.quicksearch;
+
+import com.google.common.collect.ImmutableMap;
+import nl.knaw.huygens.timbuctoo.core.dto.QuickSearchResult;
+import nl.knaw.huygens.timbuctoo.core.dto.dataset.Collection;
+import nl.knaw.huygens.timbuctoo.model.LocationNames;
+import nl.knaw.huygens.timbuctoo.model.PersonNames;
+import nl.knaw.huygens.timbuctoo.model.TempName;
+import nl.knaw.huygens.timbuctoo.search.description.PropertyDescriptor;
+import nl.knaw.huygens.timbuctoo.search.description.property.PropertyDescriptorFactory;
+import nl.knaw.huygens.timbuctoo.search.description.property.WwDocumentDisplayNameDescriptor;
+import nl.knaw.huygens.timbuctoo.search.description.propertyparser.PropertyParserFactory;
+import org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.GraphTraversalSource;
+import org.apache.tinkerpop.gremlin.structure.Vertex;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Map;
+import java.util.UUID;
+
+import static nl.knaw.huygens.timbuctoo.util.JsonBuilder.jsn;
+
+/**
+ * Creates the autocomplete entry of a vertex.
+ */
+public class QuickSearchResultMapper {
+  private static final Logger LOG = LoggerFactory.getLogger(QuickSearchResultMapper.class);
+
+  private final PropertyDescriptorFactory propertyDescriptorFactory =
+    new PropertyDescriptorFactory(new PropertyParserFactory());
+  private final Map<String, PropertyDescriptor> customDescriptors = ImmutableMap.<String, PropertyDescriptor>builder()
+    .put("wwdocuments", new WwDocumentDisplayNameDescriptor())
+    .put("wwpersons", propertyDescriptorFactory.getComposite(
+      propertyDescriptorFactory.getLocal("wwperson_names", PersonNames.class),
+      propertyDescriptorFactory.getLocal("wwperson_tempName", TempName.class))
+    )
+    .put("wwkeywords", propertyDescriptorFactory.getLocal("wwkeyword_value", String.class))
+    .put("wwlanguages", propertyDescriptorFactory.getLocal("wwlanguage_name", String.class))
+    .put("wwlocations", propertyDescriptorFactory.getLocal("names", LocationNames.class))
+    .put("wwcollectives", propertyDescriptorFactory.getLocal("wwcollective_name", String.class))
+    .build();
+  private final GraphTraversalSource traversal;
+
+  public QuickSearchResultMapper(GraphTraversalSource traversal) {
+    this.traversal = traversal;
+  }
+
+  public QuickSearchResult map(Collection collection, Vertex vertex) {
+    String collectionName = collection.getCollectionName();
+    //FIXME: this is special case handling for women writers where the autocomplete labels are different
+    //from the labels used elsewhere. Either we make this available everywhere (and configure this using the VRE)
+    //or we remove it from women writers
+    String displayName;
+    if (customDescriptors.containsKey(collectionName)) {
+      displayName = customDescriptors.get(collectionName).get(vertex);
+    } else {
+      displayName = traversal.V(vertex.id()).union(collection.getDisplayName().traversalJson()).next()
+                             .getOrElseGet(e -> {
+                               LOG.error("Displayname generation for vertix with id " + vertex.id() + " failed", e);
+                               return jsn("#Error#");
+                             }).asText();
+    }
+    return QuickSearchResult.create(
+      displayName,
+      UUID.fromString(vertex.value("tim_id")),
+      vertex.value("rev")
+    );
+  }
+}
@@ -0,0 +1,86 @@
+package nl.knaw.huygens.timbuctoo.database.tinkerpop.quicksearch;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import io.vavr.control.Try;
+import nl.knaw.huygens.timbuctoo.core.dto.dataset.Collection;
+import nl.knaw.huygens.timbuctoo.server.GraphWrapper;
+import org.apache.tinkerpop.gremlin.process.traversal.Traverser;
+import org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.GraphTraversalSource;
+import org.apache.tinkerpop.gremlin.structure.Direction;
+import org.apache.tinkerpop.gremlin.structure.Vertex;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static nl.knaw.huygens.timbuctoo.logging.Logmarkers.databaseInvariant;
+import static nl.knaw.huygens.timbuctoo.util.JsonBuilder.jsn;
+
+/**
+ * Generates the values by which a vertex can be found with the quick search of its collection.
+ */
+public class QuickSearchValues {
+  private static final Logger LOG = LoggerFactory.getLogger(QuickSearchValues.class);
+
+  private final GraphWrapper graphWrapper;
+
+  public QuickSearchValues(GraphWrapper graphWrapper) {
+    this.graphWrapper = graphWrapper;
+  }
+
+  public List<String> get(Collection collection, Vertex vertex) {
+    long vertexId = (long) vertex.id();
+    GraphTraversalSource traversalSource = graphWrapper.getGraph().traversal();
+    List<String> values = new ArrayList<>();
+
+    if (collection.getEntityTypeName().equals("wwdocument")) {
+      Collection wwPersonsCollection = collection.getVre().getCollectionForTypeName("wwperson");
+      values.add(getWwDocumentsQuickSearchValue(collection, wwPersonsCollection, vertexId, traversalSource));
+    } else if (collection.getEntityTypeName().equals("wwperson")) {
+      Collection wwDocumentCollection = collection.getVre().getCollectionForTypeName("wwdocument");
+      vertex.vertices(Direction.OUT, "isCreatedBy").forEachRemaining(doc -> values.add(
+        getWwDocumentsQuickSearchValue(wwDocumentCollection, collection, vertexId, traversalSource)
+      ));
+      values.add(getGenericQuickSearchValue(collection, vertexId, traversalSource));
+    } else {
+      values.add(getGenericQuickSearchValue(collection, vertexId, traversalSource));
+    }
+    return values;
+  }
+
+  private String getWwDocumentsQuickSearchValue(Collection wwDocumentsCollection, Collection wwPersonsCollection,
+                                                long nodeId, GraphTraversalSource traversalS) {
+    String docCaption = getGenericQuickSearchValue(wwDocumentsCollection, nodeId, traversalS);
+
+    String authors = traversalS.V(nodeId)
+      .outE("isCreatedBy").has("wwrelation_accepted", true).has("isLatest", true).otherV()
+      .toStream()
+      .map(v -> getGenericQuickSearchValue(wwPersonsCollection, (long) v.id(), traversalS))
+      .sorted()
+
+      .collect(Collectors.joining("; "));
+    return authors + " " + docCaption;
+  }
+
+  private String getGenericQuickSearchValue(Collection collection, long nodeId, GraphTraversalSource traversalS) {
+    return traversalS.V(nodeId)
+      .union(collection.getDisplayName().traversalJson())
+      .map(nodeOrException -> unwrapError(nodeId, nodeOrException))
+      .toStream().findAny()
+      .orElseGet(() -> {
+        LOG.warn(databaseInvariant,
+          "Displayname traversal resulted in no results vertexId={} collection={} propertyType={}",
+          nodeId, collection.getCollectionName(), collection.getDisplayName().getUniqueTypeId());
+        return "(empty)";
+      });
+  }
+
+  private String unwrapError(long nodeId, Traverser<Try<JsonNode>> nodeOrException) {
+    return nodeOrException.get().getOrElseGet(e -> {
+      LOG.error("An error occurred while generating the displayName for " + nodeId);
+      return jsn("#Error#");
+    }).asText("");
+  }
+}
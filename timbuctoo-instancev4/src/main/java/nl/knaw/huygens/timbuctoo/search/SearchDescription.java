@@ -1,5 +1,6 @@
 package nl.knaw.huygens.timbuctoo.search;
 
+import nl.knaw.huygens.timbuctoo.search.facetindex.FacetIndexes;
 import nl.knaw.huygens.timbuctoo.server.GraphWrapper;
 import nl.knaw.huygens.timbuctoo.server.mediatypes.v2.search.SearchRequestV2_1;
 import org.apache.tinkerpop.gremlin.structure.Vertex;
@@ -17,5 +18,13 @@ public interface SearchDescription {
 
   SearchResult execute(GraphWrapper graphWrapper, SearchRequestV2_1 searchRequest);
 
+  /**
+   * Executes the search with the help of the facet indices, when the description supports them.
+   */
+  default SearchResult execute(GraphWrapper graphWrapper, SearchRequestV2_1 searchRequest,
+                               FacetIndexes facetIndexes) {
+    return execute(graphWrapper, searchRequest);
+  }
+
   String getType();
 }
@@ -1,18 +1,26 @@
 package nl.knaw.huygens.timbuctoo.search;
 
+import com.google.common.collect.Lists;
 import nl.knaw.huygens.timbuctoo.search.description.facet.Facet;
+import org.apache.tinkerpop.gremlin.structure.Graph;
 import org.apache.tinkerpop.gremlin.structure.Vertex;
 
+import java.util.Arrays;
 import java.util.List;
 import java.util.UUID;
 
 import static java.util.stream.Collectors.toList;
 
+/**
+ * The result of a v2.1 search. Only the ids of the found vertices are kept, so that a stored result stays small. The
+ * vertices are read from the graph again when a page of the result is requested.
+ */
 public class SearchResult {
 
-  // TODO add id used to store the result
+  private static final long[] NO_RESULTS = new long[0];
 
-  private List<Vertex> searchResults;
+  private final long[] vertexIds;
+  private final Graph graph;
   private SearchDescription searchDescription;
   private List<Facet> facets;
   private UUID id;
@@ -21,7 +29,13 @@ public class SearchResult {
                       SearchDescription description,
                       List<Facet> facets) {
 
-    this.searchResults = searchResults;
+    if (searchResults == null || searchResults.isEmpty()) {
+      this.vertexIds = NO_RESULTS;
+      this.graph = null;
+    } else {
+      this.vertexIds = searchResults.stream().mapToLong(vertex -> (Long) vertex.id()).toArray();
+      this.graph = searchResults.get(0).graph();
+    }
     this.searchDescription = description;
     this.facets = facets;
   }
@@ -31,8 +45,7 @@ public class SearchResult {
   }
 
   public List<EntityRef> getRefs(long offset, int limit) {
-    return searchResults.stream()
-            .skip(offset).limit(limit)
+    return getVertices(offset, limit).stream()
             .map(result -> searchDescription.createRef(result))
             .collect(toList());
   }
@@ -58,14 +71,37 @@ public class SearchResult {
   }
 
   public int getCount() {
-    return searchResults.size();
+    return vertexIds.length;
   }
 
   public SearchDescription getSearchDescription() {
     return searchDescription;
   }
 
+  /**
+   * @return the ids of the vertices that were found, in the order of the result
+   */
+  public long[] getVertexIds() {
+    return vertexIds;
+  }
+
+  /**
+   * Reads all the vertices of the result from the graph, prefer {@link #getRefs(long, int)} for large results.
+   */
   public List<Vertex> getSearchResult() {
-    return searchResults;
+    return getVertices(0, vertexIds.length);
+  }
+
+  private List<Vertex> getVertices(long offset, int limit) {
+    if (offset >= vertexIds.length || limit <= 0) {
+      return Lists.newArrayList();
+    }
+    final Object[] window = Arrays.stream(vertexIds)
+      .skip(offset)
+      .limit(limit)
+      .boxed()
+      .toArray();
+    // vertices that have been removed from the database since the search was executed are skipped
+    return Lists.newArrayList(graph.vertices(window));
   }
 }
@@ -1,6 +1,8 @@
 package nl.knaw.huygens.timbuctoo.search;
 
 
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.MetricRegistry;
 import com.google.common.cache.Cache;
 import com.google.common.cache.CacheBuilder;
 import nl.knaw.huygens.timbuctoo.util.Timeout;
@@ -8,16 +10,36 @@ import nl.knaw.huygens.timbuctoo.util.Timeout;
 import java.util.Optional;
 import java.util.UUID;
 
+import static com.codahale.metrics.MetricRegistry.name;
+
+/**
+ * Keeps the search results until they have not been used for the availability time, or until they have to make room
+ * for newer results, because the maximum number of stored vertex ids is reached.
+ */
 public class SearchStore {
 
   private final Cache<UUID, SearchResult> cache;
 
-  public SearchStore(Timeout searchResultAvailabilityTime) {
-    cache = createCache(searchResultAvailabilityTime);
+  public SearchStore(Timeout searchResultAvailabilityTime, SearchStoreConfiguration configuration,
+                     MetricRegistry metrics) {
+    cache = createCache(searchResultAvailabilityTime, configuration);
+    metrics.register(name(SearchStore.class, "hits"), (Gauge<Long>) () -> cache.stats().hitCount());
+    metrics.register(name(SearchStore.class, "misses"), (Gauge<Long>) () -> cache.stats().missCount());
+    metrics.register(name(SearchStore.class, "evictions"), (Gauge<Long>) () -> cache.stats().evictionCount());
+    metrics.register(name(SearchStore.class, "size"), (Gauge<Long>) cache::size);
   }
 
-  private static Cache<UUID, SearchResult> createCache(Timeout timeout) {
-    return CacheBuilder.newBuilder().expireAfterAccess(timeout.duration, timeout.timeUnit).build();
+  private static Cache<UUID, SearchResult> createCache(Timeout timeout, SearchStoreConfiguration configuration) {
+    return CacheBuilder.newBuilder()
+      .expireAfterAccess(timeout.duration, timeout.timeUnit)
+      // Guava divides the maximum weight over the segments of the cache, so with the default 4 segments a result with
+      // more than a quarter of maxStoredVertexIds would be removed right away
+      .concurrencyLevel(1)
+      .maximumWeight(configuration.getMaxStoredVertexIds())
+      // an empty result is not free to store either
+      .<UUID, SearchResult>weigher((id, searchResult) -> searchResult.getCount() + 1)
+      .recordStats()
+      .build();
   }
 
   public Optional<SearchResult> getSearchResult(UUID id) {
@@ -0,0 +1,27 @@
+package nl.knaw.huygens.timbuctoo.search;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import org.immutables.value.Value;
+
+@Value.Immutable
+public interface SearchStoreConfiguration {
+
+  @JsonCreator
+  static SearchStoreConfiguration create(@JsonProperty("maxStoredVertexIds") Long maxStoredVertexIds) {
+    ImmutableSearchStoreConfiguration.Builder builder = ImmutableSearchStoreConfiguration.builder();
+    if (maxStoredVertexIds != null) {
+      builder.maxStoredVertexIds(maxStoredVertexIds);
+    }
+    return builder.build();
+  }
+
+  /**
+   * The total number of found vertices that the stored search results may contain. The least recently used results
+   * are removed when a new result does not fit. Each vertex id takes 8 bytes.
+   */
+  @Value.Default
+  default long getMaxStoredVertexIds() {
+    return 10_000_000;
+  }
+}
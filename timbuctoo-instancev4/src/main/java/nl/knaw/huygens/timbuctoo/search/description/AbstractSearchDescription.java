@@ -9,16 +9,19 @@ import nl.knaw.huygens.timbuctoo.search.SearchResult;
 import nl.knaw.huygens.timbuctoo.search.description.facet.Facet;
 import nl.knaw.huygens.timbuctoo.search.description.fulltext.FullTextSearchDescription;
 import nl.knaw.huygens.timbuctoo.search.description.sort.SortDescription;
+import nl.knaw.huygens.timbuctoo.search.facetindex.FacetIndex;
+import nl.knaw.huygens.timbuctoo.search.facetindex.FacetIndexes;
 import nl.knaw.huygens.timbuctoo.server.GraphWrapper;
 import nl.knaw.huygens.timbuctoo.server.mediatypes.v2.search.SearchRequestV2_1;
 import org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.GraphTraversal;
 import org.apache.tinkerpop.gremlin.structure.Vertex;
 
+import java.util.BitSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
-import java.util.Set;
+import java.util.function.Predicate;
 
 import static java.util.stream.Collectors.toList;
 
@@ -52,18 +55,7 @@ public abstract class AbstractSearchDescription implements SearchDescription {
     GraphTraversal<Vertex, Vertex> vertices = initializeVertices(graphWrapper);
     // filter by facets
     getFacetDescriptions().forEach(desc -> desc.filter(vertices, searchRequest.getFacetValues()));
-    // filter by full text search
-    searchRequest.getFullTextSearchParameters().forEach(param -> {
-      Optional<FullTextSearchDescription> first = getFullTextSearchDescriptions()
-        .stream()
-        .filter(desc -> Objects.equals(param.getName(), desc.getName()))
-        .findFirst();
-      if (first.isPresent()) {
-        first.get().filter(vertices, param);
-      }
-    });
-    // order / sort
-    getSortDescription().sort(vertices, searchRequest.getSortParameters());
+    filterAndSort(vertices, searchRequest);
     List<FacetCounter> facetCounters = getFacetDescriptions()
       .stream()
       .filter(desc -> !getOnlyFilterFacetList().contains(desc.getName()))
@@ -80,6 +72,66 @@ public abstract class AbstractSearchDescription implements SearchDescription {
     return new SearchResult(searchResult, this, facets);
   }
 
+  /**
+   * Uses the facet index of the type, when it is enabled, to filter by the facets that support it and to count the
+   * facet values of the search hits. The other filters and the sorting are still done by the graph.
+   */
+  @Override
+  public SearchResult execute(GraphWrapper graphWrapper, SearchRequestV2_1 searchRequest,
+                              FacetIndexes facetIndexes) {
+    if (!facetIndexes.isEnabled() || !canUseFacetIndex()) {
+      return execute(graphWrapper, searchRequest);
+    }
+    FacetIndex index = facetIndexes.getIndex(getType(), getFacetDescriptions(), graphWrapper);
+    BitSet hits = index.getEntities();
+    List<FacetDescription> graphFilters = Lists.newArrayList();
+    for (FacetDescription desc : getFacetDescriptions()) {
+      Optional<Predicate<String>> valueFilter = desc.getValueFilter(searchRequest.getFacetValues());
+      if (valueFilter.isPresent()) {
+        hits.and(index.getMatching(desc.getName(), valueFilter.get()));
+      } else {
+        graphFilters.add(desc);
+      }
+    }
+
+    GraphTraversal<Vertex, Vertex> vertices = graphWrapper.getLatestState().V(index.getVertexIds(hits));
+    graphFilters.forEach(desc -> desc.filter(vertices, searchRequest.getFacetValues()));
+    filterAndSort(vertices, searchRequest);
+    List<Vertex> searchResult = vertices.toList();
+
+    BitSet resultHits = index.getEntities(searchResult);
+    List<Facet> facets = getFacetDescriptions()
+      .stream()
+      .filter(desc -> !getOnlyFilterFacetList().contains(desc.getName()))
+      .map(desc -> desc.getFacet(index.count(desc.getName(), resultHits)))
+      .collect(toList());
+
+    return new SearchResult(searchResult, this, facets);
+  }
+
+  private void filterAndSort(GraphTraversal<Vertex, Vertex> vertices, SearchRequestV2_1 searchRequest) {
+    // filter by full text search
+    searchRequest.getFullTextSearchParameters().forEach(param -> {
+      Optional<FullTextSearchDescription> first = getFullTextSearchDescriptions()
+        .stream()
+        .filter(desc -> Objects.equals(param.getName(), desc.getName()))
+        .findFirst();
+      if (first.isPresent()) {
+        first.get().filter(vertices, param);
+      }
+    });
+    // order / sort
+    getSortDescription().sort(vertices, searchRequest.getSortParameters());
+  }
+
+  /**
+   * Whether the search hits can be found in the facet index of the type. This is not the case when
+   * {@link #initializeVertices(GraphWrapper)} selects other vertices than the current entities of the type.
+   */
+  protected boolean canUseFacetIndex() {
+    return true;
+  }
+
   protected List<String> getOnlyFilterFacetList() {
     return Lists.newArrayList();
   }
@@ -104,7 +156,7 @@ public abstract class AbstractSearchDescription implements SearchDescription {
 
   private static class FacetCounter {
     private FacetDescription facetDescription;
-    private Map<String, Set<Vertex>> counts;
+    private Map<String, Integer> counts;
 
     public FacetCounter(FacetDescription facetDescription) {
       this.facetDescription = facetDescription;
@@ -115,13 +167,6 @@ public abstract class AbstractSearchDescription implements SearchDescription {
       return facetDescription.getName();
     }
 
-    public void addSearchHitForValue(String value, Vertex vertex) {
-      if (!counts.containsKey(value)) {
-        counts.put(value, Sets.newHashSet());
-      }
-      counts.get(value).add(vertex);
-    }
-
     public Facet createFacet() {
       return facetDescription.getFacet(counts);
     }
@@ -129,12 +174,9 @@ public abstract class AbstractSearchDescription implements SearchDescription {
     public void addSearchHits(Vertex vertex) {
       final List<String> facetValues = facetDescription.getValues(vertex);
       if (facetValues != null) {
-        facetValues.stream().forEach(facetValue -> {
-          this.addSearchHitForValue(facetValue, vertex);
-        });
+        // a vertex is counted once for each of its distinct values
+        Sets.newHashSet(facetValues).forEach(facetValue -> counts.merge(facetValue, 1, Integer::sum));
       }
     }
   }
 }
-
-
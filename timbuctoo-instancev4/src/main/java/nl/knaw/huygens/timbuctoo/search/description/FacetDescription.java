@@ -5,15 +5,20 @@ import nl.knaw.huygens.timbuctoo.search.description.facet.Facet;
 import org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.GraphTraversal;
 import org.apache.tinkerpop.gremlin.structure.Vertex;
 
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
-import java.util.Set;
+import java.util.Optional;
+import java.util.function.Predicate;
 
 public interface FacetDescription {
 
   String getName();
 
-  Facet getFacet(Map<String, Set<Vertex>> values);
+  /**
+   * Creates the facet from the number of search hits for each of the values returned by {@link #getValues(Vertex)}.
+   */
+  Facet getFacet(Map<String, Integer> counts);
 
   /**
    * Adds a filter to the graphTraversal if the searchRequest contains a facet for the description.
@@ -22,4 +27,21 @@ public interface FacetDescription {
 
   List<String> getValues(Vertex vertex);
 
+  /**
+   * Returns the filter of {@link #filter(GraphTraversal, List)} as a test on the values of {@link #getValues(Vertex)},
+   * so that the facet index can be used instead of the graph. Empty when the searchRequest contains no facet for the
+   * description, or when the filter cannot be expressed as such a test.
+   */
+  default Optional<Predicate<String>> getValueFilter(List<FacetValue> facets) {
+    return Optional.empty();
+  }
+
+  /**
+   * Returns the labels of the edges that {@link #getValues(Vertex)} follows to the vertices it reads, so that the facet
+   * index knows which vertices to read again when a related vertex changes.
+   */
+  default List<String> getRelationNames() {
+    return Collections.emptyList();
+  }
+
 }
@@ -5,7 +5,6 @@ import nl.knaw.huygens.timbuctoo.search.SearchResult;
 import nl.knaw.huygens.timbuctoo.search.description.facet.FacetDescriptionFactory;
 import nl.knaw.huygens.timbuctoo.search.description.property.PropertyDescriptorFactory;
 import nl.knaw.huygens.timbuctoo.server.GraphWrapper;
-import org.apache.tinkerpop.gremlin.process.traversal.P;
 import org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.GraphTraversal;
 import org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.__;
 import org.apache.tinkerpop.gremlin.structure.Direction;
@@ -13,7 +12,7 @@ import org.apache.tinkerpop.gremlin.structure.Edge;
 import org.apache.tinkerpop.gremlin.structure.Vertex;
 import org.apache.tinkerpop.gremlin.structure.util.empty.EmptyGraph;
 
-import java.util.List;
+import java.util.Arrays;
 
 public class ReceptionSearchDescription extends WwDocumentSearchDescription {
   private final SearchResult otherSearch;
@@ -75,10 +74,10 @@ public class ReceptionSearchDescription extends WwDocumentSearchDescription {
 
   @Override
   protected GraphTraversal<Vertex, Vertex> initializeVertices(GraphWrapper graphWrapper) {
-    // Get the stored search results
-    List<Vertex> otherResults = otherSearch.getSearchResult();
+    // Get the ids of the stored search results
+    Object[] otherResults = Arrays.stream(otherSearch.getVertexIds()).boxed().toArray();
 
-    if (otherResults == null) {
+    if (otherResults.length == 0) {
       return EmptyGraph.instance().traversal().V();
     }
     // Filter by type as normal
@@ -86,7 +85,13 @@ public class ReceptionSearchDescription extends WwDocumentSearchDescription {
 
     // Return all the vertices which have a reception relation to the store results (other results):
     // The fact that all reception relations are inbound is a pure historical coincidence.
-    return vertices.where(__.inE(getRelationNames()).otherV().is(P.within(otherResults)));
+    return vertices.where(__.inE(getRelationNames()).otherV().hasId(otherResults));
+  }
+
+  @Override
+  protected boolean canUseFacetIndex() {
+    // the receptions of the other search are no index of their own
+    return false;
   }
 
   @Override
@@ -5,7 +5,6 @@ import org.apache.tinkerpop.gremlin.structure.Vertex;
 
 import java.util.List;
 import java.util.Map;
-import java.util.Set;
 
 public abstract class AbstractFacetDescription implements FacetDescription {
 
@@ -28,8 +27,8 @@ public abstract class AbstractFacetDescription implements FacetDescription {
   }
 
   @Override
-  public Facet getFacet(Map<String, Set<Vertex>> values) {
-    return facetGetter.getFacet(facetName, values);
+  public Facet getFacet(Map<String, Integer> counts) {
+    return facetGetter.getFacet(facetName, counts);
   }
 
   @Override
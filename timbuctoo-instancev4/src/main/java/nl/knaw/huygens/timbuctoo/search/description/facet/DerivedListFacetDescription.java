@@ -9,10 +9,13 @@ import org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.GraphTraversal;
 import org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.__;
 import org.apache.tinkerpop.gremlin.structure.Vertex;
 
+import java.util.Arrays;
 import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.stream.Stream;
 
+import static java.util.stream.Collectors.toList;
 import static org.apache.tinkerpop.gremlin.process.traversal.P.within;
 
 public class DerivedListFacetDescription extends AbstractFacetDescription {
@@ -67,4 +70,9 @@ public class DerivedListFacetDescription extends AbstractFacetDescription {
             .map(value -> parser.parse((String) value.get()))
             .is(within(values)));
   }
+
+  @Override
+  public List<String> getRelationNames() {
+    return Stream.concat(Arrays.stream(relations), Arrays.stream(relationNames)).collect(toList());
+  }
 }
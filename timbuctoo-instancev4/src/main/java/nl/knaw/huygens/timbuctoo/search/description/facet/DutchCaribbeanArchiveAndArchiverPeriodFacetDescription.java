@@ -13,7 +13,6 @@ import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
-import java.util.Set;
 import java.util.function.Predicate;
 
 import static java.util.stream.Collectors.toList;
@@ -42,8 +41,8 @@ class DutchCaribbeanArchiveAndArchiverPeriodFacetDescription implements FacetDes
   }
 
   @Override
-  public Facet getFacet(Map<String, Set<Vertex>> values) {
-    return facetGetter.getFacet(facetName, values);
+  public Facet getFacet(Map<String, Integer> counts) {
+    return facetGetter.getFacet(facetName, counts);
   }
 
   @Override
@@ -13,6 +13,7 @@ import org.apache.tinkerpop.gremlin.structure.Vertex;
 import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.function.Predicate;
 
 public class ListFacetDescription extends AbstractFacetDescription {
 
@@ -43,4 +44,16 @@ public class ListFacetDescription extends AbstractFacetDescription {
       }
     }
   }
+
+  @Override
+  public Optional<Predicate<String>> getValueFilter(List<FacetValue> facets) {
+    return facets.stream()
+      .filter(facet -> Objects.equals(facet.getName(), facetName))
+      .findFirst()
+      .filter(facet -> facet instanceof ListFacetValue && !((ListFacetValue) facet).getValues().isEmpty())
+      .map(facet -> {
+        List<String> values = ((ListFacetValue) facet).getValues();
+        return value -> values.contains(parser.parse(value));
+      });
+  }
 }
@@ -12,6 +12,7 @@ import org.apache.tinkerpop.gremlin.structure.Vertex;
 import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.function.Predicate;
 
 class MultiValueListFacetDescription extends AbstractFacetDescription {
 
@@ -45,4 +46,15 @@ class MultiValueListFacetDescription extends AbstractFacetDescription {
                     ((List<?>) o2).stream().anyMatch(value -> ((String) o1).contains("\"" + value + "\"")), values)));
 
   }
+
+  @Override
+  public Optional<Predicate<String>> getValueFilter(List<FacetValue> facetValues) {
+    return facetValues.stream()
+      .filter(facetValue -> Objects.equals(facetValue.getName(), facetName))
+      .findFirst()
+      .filter(facetValue -> facetValue instanceof ListFacetValue)
+      .map(facetValue -> ((ListFacetValue) facetValue).getValues())
+      .filter(values -> !values.isEmpty())
+      .map(values -> values::contains);
+  }
 }
@@ -17,6 +17,7 @@ import org.slf4j.LoggerFactory;
 
 import java.text.ParseException;
 import java.text.SimpleDateFormat;
+import java.util.Arrays;
 import java.util.Date;
 import java.util.List;
 import java.util.Objects;
@@ -79,4 +80,9 @@ public class RelatedDatableRangeFacetDescription extends AbstractFacetDescriptio
     }
 
   }
+
+  @Override
+  public List<String> getRelationNames() {
+    return Arrays.asList(relations);
+  }
 }
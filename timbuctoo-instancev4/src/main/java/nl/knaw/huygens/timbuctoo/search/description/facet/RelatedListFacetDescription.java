@@ -11,6 +11,7 @@ import org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.GraphTraversal;
 import org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.__;
 import org.apache.tinkerpop.gremlin.structure.Vertex;
 
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
@@ -50,4 +51,9 @@ public class RelatedListFacetDescription extends AbstractFacetDescription {
       }
     }
   }
+
+  @Override
+  public List<String> getRelationNames() {
+    return Arrays.asList(relations);
+  }
 }
@@ -14,6 +14,7 @@ import org.apache.tinkerpop.gremlin.structure.Direction;
 import org.apache.tinkerpop.gremlin.structure.Vertex;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
@@ -51,4 +52,9 @@ public class RelatedMultiValueListFacetDescription extends AbstractFacetDescript
       }
     }
   }
+
+  @Override
+  public List<String> getRelationNames() {
+    return Arrays.asList(relations);
+  }
 }
@@ -4,7 +4,6 @@ import com.google.common.collect.Lists;
 import nl.knaw.huygens.timbuctoo.model.Change;
 import nl.knaw.huygens.timbuctoo.search.description.facet.Facet;
 import nl.knaw.huygens.timbuctoo.search.description.facet.FacetGetter;
-import org.apache.tinkerpop.gremlin.structure.Vertex;
 import org.apache.tinkerpop.shaded.jackson.databind.ObjectMapper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -15,7 +14,6 @@ import java.time.LocalDate;
 import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
 import java.util.Map;
-import java.util.Set;
 
 public class ChangeRangeFacetGetter implements FacetGetter {
   private final ObjectMapper objectMapper = new ObjectMapper();
@@ -28,11 +26,11 @@ public class ChangeRangeFacetGetter implements FacetGetter {
   }
 
   @Override
-  public Facet getFacet(String facetName, Map<String, Set<Vertex>> values) {
+  public Facet getFacet(String facetName, Map<String, Integer> counts) {
     long lowerLimit = 0;
     long upperLimit = 0;
 
-    for (String key : values.keySet()) {
+    for (String key : counts.keySet()) {
       try {
         LocalDate localDate = getChangeLocalDate(key);
         long dateStamp = Long.valueOf(FORMATTER.format(localDate));
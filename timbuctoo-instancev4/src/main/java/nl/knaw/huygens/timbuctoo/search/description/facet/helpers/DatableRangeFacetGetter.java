@@ -5,21 +5,19 @@ import nl.knaw.huygens.timbuctoo.model.Datable;
 import nl.knaw.huygens.timbuctoo.search.description.facet.Facet;
 import nl.knaw.huygens.timbuctoo.search.description.facet.FacetGetter;
 import org.apache.commons.lang.StringUtils;
-import org.apache.tinkerpop.gremlin.structure.Vertex;
 
 import java.text.SimpleDateFormat;
 import java.util.Map;
-import java.util.Set;
 
 public class DatableRangeFacetGetter implements FacetGetter {
   private static final SimpleDateFormat FORMAT = new SimpleDateFormat("yyyyMMdd");
 
   @Override
-  public Facet getFacet(String facetName, Map<String, Set<Vertex>> values) {
+  public Facet getFacet(String facetName, Map<String, Integer> counts) {
     long lowerLimit = 0;
     long upperLimit = 0;
 
-    for (String key : values.keySet()) {
+    for (String key : counts.keySet()) {
       Datable datable = getDatable(key);
       if (datable.isValid()) {
         long fromDate = Long.valueOf(FORMAT.format(datable.getFromDate()));
@@ -4,11 +4,9 @@ package nl.knaw.huygens.timbuctoo.search.description.facet.helpers;
 import nl.knaw.huygens.timbuctoo.search.description.PropertyParser;
 import nl.knaw.huygens.timbuctoo.search.description.facet.Facet;
 import nl.knaw.huygens.timbuctoo.search.description.facet.FacetGetter;
-import org.apache.tinkerpop.gremlin.structure.Vertex;
 
 import java.util.List;
 import java.util.Map;
-import java.util.Set;
 
 import static java.util.stream.Collectors.toList;
 
@@ -29,9 +27,9 @@ public class ListFacetGetter implements FacetGetter {
   }
 
   @Override
-  public Facet getFacet(String facetName, Map<String, Set<Vertex>> values) {
-    List<Facet.Option> options = values.entrySet().stream()
-            .map(entry -> new Facet.DefaultOption(parseValue(entry.getKey()), entry.getValue().size()))
+  public Facet getFacet(String facetName, Map<String, Integer> counts) {
+    List<Facet.Option> options = counts.entrySet().stream()
+            .map(entry -> new Facet.DefaultOption(parseValue(entry.getKey()), entry.getValue()))
             .filter(facetOption -> facetOption.getName() != null)
             .collect(toList());
 
@@ -0,0 +1,274 @@
+package nl.knaw.huygens.timbuctoo.search.facetindex;
+
+import nl.knaw.huygens.timbuctoo.search.description.FacetDescription;
+import nl.knaw.huygens.timbuctoo.server.GraphWrapper;
+import org.apache.tinkerpop.gremlin.neo4j.process.traversal.LabelP;
+import org.apache.tinkerpop.gremlin.structure.T;
+import org.apache.tinkerpop.gremlin.structure.Vertex;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Predicate;
+
+/**
+ * An inverted index of the facet values of the current entities of one type: for each value of each facet a bitmap of
+ * the entities that have that value. The entities are numbered in the order in which they are added to the index, so
+ * that the bitmaps stay dense and the numbers follow the order of the vertex ids. A number is not reused when its
+ * entity is removed, see {@link #getRemovedCount()}.
+ *
+ * <p>Changed vertices are registered with {@link #markChanged(Collection)} and read again on the next
+ * {@link #refresh(GraphWrapper)}.</p>
+ */
+public class FacetIndex {
+  private static final int INITIAL_CAPACITY = 1024;
+
+  private final String type;
+  private final Map<String, FacetValues> facets;
+  private final Set<String> relationNames = new HashSet<>();
+  private final long created;
+  private final Set<Long> changed = new HashSet<>();
+  private final Map<Long, Integer> ordinals = new HashMap<>();
+  private final BitSet entities = new BitSet();
+  private long[] vertexIds = new long[INITIAL_CAPACITY];
+  private int size = 0;
+  private boolean built = false;
+
+  FacetIndex(String type, List<FacetDescription> facetDescriptions, long created) {
+    this.type = type;
+    this.created = created;
+    this.facets = new LinkedHashMap<>();
+    for (FacetDescription facetDescription : facetDescriptions) {
+      facets.put(facetDescription.getName(), new FacetValues(facetDescription));
+      relationNames.addAll(facetDescription.getRelationNames());
+    }
+  }
+
+  long getCreated() {
+    return created;
+  }
+
+  /**
+   * The labels of the edges that the facets follow to the vertices they read.
+   */
+  Set<String> getRelationNames() {
+    return relationNames;
+  }
+
+  /**
+   * Reads all the current entities of the type, when that has not happened yet.
+   */
+  synchronized void build(GraphWrapper graphWrapper) {
+    if (!built) {
+      graphWrapper.getCurrentEntitiesFor(type).forEachRemaining(this::add);
+      built = true;
+    }
+  }
+
+  void markChanged(Collection<Long> vertexIds) {
+    synchronized (changed) {
+      changed.addAll(vertexIds);
+    }
+  }
+
+  /**
+   * Reads the vertices that have changed since the last refresh again.
+   */
+  synchronized void refresh(GraphWrapper graphWrapper) {
+    final Object[] changedIds;
+    synchronized (changed) {
+      changedIds = changed.toArray();
+      changed.clear();
+    }
+    if (changedIds.length == 0) {
+      return;
+    }
+    for (Object vertexId : changedIds) {
+      remove((Long) vertexId);
+    }
+    graphWrapper.getLatestState().V(changedIds).has(T.label, LabelP.of(type)).forEachRemaining(this::add);
+  }
+
+  /**
+   * @return the number of entities that were removed from the index since it was built
+   */
+  synchronized int getRemovedCount() {
+    return size - entities.cardinality();
+  }
+
+  synchronized int getEntityCount() {
+    return entities.cardinality();
+  }
+
+  public synchronized BitSet getEntities() {
+    return (BitSet) entities.clone();
+  }
+
+  /**
+   * @return the entities of the vertices, vertices that are not in the index are ignored
+   */
+  public synchronized BitSet getEntities(List<Vertex> vertices) {
+    final BitSet result = new BitSet();
+    for (Vertex vertex : vertices) {
+      final Integer ordinal = ordinals.get((Long) vertex.id());
+      if (ordinal != null) {
+        result.set(ordinal);
+      }
+    }
+    return result;
+  }
+
+  /**
+   * @return the entities that have at least one value of the facet that matches the filter
+   */
+  public synchronized BitSet getMatching(String facetName, Predicate<String> valueFilter) {
+    final FacetValues facetValues = facets.get(facetName);
+    final BitSet result = new BitSet();
+    if (facetValues != null) {
+      for (int valueId = 0; valueId < facetValues.values.size(); valueId++) {
+        if (valueFilter.test(facetValues.values.get(valueId))) {
+          result.or(facetValues.bitmaps.get(valueId));
+        }
+      }
+    }
+    return result;
+  }
+
+  /**
+   * @return the number of entities of the hits that have the value, for each value of the facet that has hits
+   */
+  public synchronized Map<String, Integer> count(String facetName, BitSet hits) {
+    final FacetValues facetValues = facets.get(facetName);
+    final Map<String, Integer> result = new HashMap<>();
+    if (facetValues == null) {
+      return result;
+    }
+    final int hitCount = hits.cardinality();
+    if (hitCount < facetValues.values.size()) {
+      // cheaper to look up the values of each hit than to intersect the bitmap of each value
+      final int[] counts = new int[facetValues.values.size()];
+      for (int ordinal = hits.nextSetBit(0); ordinal >= 0; ordinal = hits.nextSetBit(ordinal + 1)) {
+        for (int valueId : facetValues.getValueIds(ordinal)) {
+          counts[valueId]++;
+        }
+      }
+      for (int valueId = 0; valueId < counts.length; valueId++) {
+        if (counts[valueId] > 0) {
+          result.put(facetValues.values.get(valueId), counts[valueId]);
+        }
+      }
+    } else {
+      for (int valueId = 0; valueId < facetValues.values.size(); valueId++) {
+        final BitSet intersection = (BitSet) facetValues.bitmaps.get(valueId).clone();
+        intersection.and(hits);
+        final int count = intersection.cardinality();
+        if (count > 0) {
+          result.put(facetValues.values.get(valueId), count);
+        }
+      }
+    }
+    return result;
+  }
+
+  /**
+   * @return the vertex ids of the entities in the order of the index
+   */
+  public synchronized Object[] getVertexIds(BitSet entities) {
+    final Object[] result = new Object[entities.cardinality()];
+    int index = 0;
+    for (int ordinal = entities.nextSetBit(0); ordinal >= 0; ordinal = entities.nextSetBit(ordinal + 1)) {
+      result[index++] = vertexIds[ordinal];
+    }
+    return result;
+  }
+
+  private void add(Vertex vertex) {
+    final long vertexId = (Long) vertex.id();
+    if (ordinals.containsKey(vertexId)) {
+      return;
+    }
+    final int ordinal = size++;
+    if (ordinal == vertexIds.length) {
+      vertexIds = Arrays.copyOf(vertexIds, vertexIds.length * 2);
+    }
+    vertexIds[ordinal] = vertexId;
+    ordinals.put(vertexId, ordinal);
+    entities.set(ordinal);
+    for (FacetValues facetValues : facets.values()) {
+      facetValues.add(ordinal, facetValues.description.getValues(vertex));
+    }
+  }
+
+  private void remove(long vertexId) {
+    final Integer ordinal = ordinals.remove(vertexId);
+    if (ordinal != null) {
+      entities.clear(ordinal);
+      for (FacetValues facetValues : facets.values()) {
+        facetValues.remove(ordinal);
+      }
+    }
+  }
+
+  private static class FacetValues {
+    private static final int[] NO_VALUES = new int[0];
+
+    private final FacetDescription description;
+    private final List<String> values = new ArrayList<>();
+    private final Map<String, Integer> valueIds = new HashMap<>();
+    private final List<BitSet> bitmaps = new ArrayList<>();
+    private int[][] valueIdsByOrdinal = new int[INITIAL_CAPACITY][];
+
+    FacetValues(FacetDescription description) {
+      this.description = description;
+    }
+
+    void add(int ordinal, List<String> entityValues) {
+      if (entityValues == null || entityValues.isEmpty()) {
+        return;
+      }
+      final int[] entityValueIds = entityValues.stream()
+        .filter(value -> value != null)
+        .mapToInt(this::getValueId)
+        .distinct()
+        .toArray();
+      for (int valueId : entityValueIds) {
+        bitmaps.get(valueId).set(ordinal);
+      }
+      if (ordinal >= valueIdsByOrdinal.length) {
+        valueIdsByOrdinal = Arrays.copyOf(valueIdsByOrdinal, Math.max(ordinal + 1, valueIdsByOrdinal.length * 2));
+      }
+      valueIdsByOrdinal[ordinal] = entityValueIds;
+    }
+
+    void remove(int ordinal) {
+      for (int valueId : getValueIds(ordinal)) {
+        bitmaps.get(valueId).clear(ordinal);
+      }
+      if (ordinal < valueIdsByOrdinal.length) {
+        valueIdsByOrdinal[ordinal] = null;
+      }
+    }
+
+    int[] getValueIds(int ordinal) {
+      if (ordinal >= valueIdsByOrdinal.length || valueIdsByOrdinal[ordinal] == null) {
+        return NO_VALUES;
+      }
+      return valueIdsByOrdinal[ordinal];
+    }
+
+    private int getValueId(String value) {
+      return valueIds.computeIfAbsent(value, key -> {
+        values.add(key);
+        bitmaps.add(new BitSet());
+        return values.size() - 1;
+      });
+    }
+  }
+}
@@ -0,0 +1,39 @@
+package nl.knaw.huygens.timbuctoo.search.facetindex;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import org.immutables.value.Value;
+
+@Value.Immutable
+public interface FacetIndexConfiguration {
+
+  @JsonCreator
+  static FacetIndexConfiguration create(@JsonProperty("enabled") Boolean enabled,
+                                        @JsonProperty("maxAgeInMinutes") Long maxAgeInMinutes) {
+    ImmutableFacetIndexConfiguration.Builder builder = ImmutableFacetIndexConfiguration.builder();
+    if (enabled != null) {
+      builder.isEnabled(enabled);
+    }
+    if (maxAgeInMinutes != null) {
+      builder.maxAgeInMinutes(maxAgeInMinutes);
+    }
+    return builder.build();
+  }
+
+  /**
+   * Whether the v2.1 search uses facet indices instead of traversing the whole collection for each search.
+   */
+  @Value.Default
+  default boolean isEnabled() {
+    return false;
+  }
+
+  /**
+   * An index is rebuilt when it is older, so that changes that do not pass through the change listeners (e.g. bulk
+   * uploads) are picked up eventually. 0 means the indices are never rebuilt.
+   */
+  @Value.Default
+  default long getMaxAgeInMinutes() {
+    return 60;
+  }
+}
@@ -0,0 +1,80 @@
+package nl.knaw.huygens.timbuctoo.search.facetindex;
+
+import nl.knaw.huygens.timbuctoo.search.description.FacetDescription;
+import nl.knaw.huygens.timbuctoo.server.GraphWrapper;
+
+import java.time.Clock;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The facet indices of the v2.1 search, one per entity type. An index is built on the first search for its type and
+ * kept up to date with the vertices that the change listeners report, see
+ * {@link nl.knaw.huygens.timbuctoo.database.tinkerpop.changelistener.FacetIndexChangeListener}.
+ */
+public class FacetIndexes {
+  private final FacetIndexConfiguration configuration;
+  private final Clock clock;
+  private final Map<String, FacetIndex> indexes = new ConcurrentHashMap<>();
+
+  public FacetIndexes(FacetIndexConfiguration configuration) {
+    this(configuration, Clock.systemUTC());
+  }
+
+  FacetIndexes(FacetIndexConfiguration configuration, Clock clock) {
+    this.configuration = configuration;
+    this.clock = clock;
+  }
+
+  public boolean isEnabled() {
+    return configuration.isEnabled();
+  }
+
+  /**
+   * Returns the up to date index of the type. The index is built when there is none, or when it has become too old or
+   * has more removed than current entities.
+   */
+  public FacetIndex getIndex(String type, List<FacetDescription> facetDescriptions, GraphWrapper graphWrapper) {
+    final FacetIndex index = indexes.compute(type, (key, current) ->
+      current == null || isOutdated(current) ? new FacetIndex(type, facetDescriptions, clock.millis()) : current
+    );
+    // the index is in the map before it is built, so that it receives the changes that are made while it is built
+    index.build(graphWrapper);
+    index.refresh(graphWrapper);
+    return index;
+  }
+
+  /**
+   * Returns the labels of the edges that the facets of the current indices follow to the vertices they read. A change
+   * of a vertex can only change the facet values of the vertices that are connected to it by these edges.
+   */
+  public Set<String> getRelationNames() {
+    final Set<String> relationNames = new HashSet<>();
+    indexes.values().forEach(index -> relationNames.addAll(index.getRelationNames()));
+    return relationNames;
+  }
+
+  /**
+   * Registers vertices that were created, changed or removed (or of which a related vertex has changed) in a
+   * committed transaction.
+   */
+  public void markChanged(Collection<Long> vertexIds) {
+    if (!vertexIds.isEmpty()) {
+      indexes.values().forEach(index -> index.markChanged(vertexIds));
+    }
+  }
+
+  private boolean isOutdated(FacetIndex index) {
+    final long maxAge = TimeUnit.MINUTES.toMillis(configuration.getMaxAgeInMinutes());
+    if (maxAge > 0 && clock.millis() - index.getCreated() > maxAge) {
+      return true;
+    }
+    final int removed = index.getRemovedCount();
+    return removed > 1024 && removed > index.getEntityCount();
+  }
+}
@@ -1,7 +1,10 @@
 package nl.knaw.huygens.timbuctoo.server;
 
+import nl.knaw.huygens.timbuctoo.search.SearchStoreConfiguration;
 import nl.knaw.huygens.timbuctoo.util.Timeout;
 
 public interface SearchConfig {
   Timeout getSearchResultAvailabilityTimeout();
+
+  SearchStoreConfiguration getSearchStoreConfiguration();
 }
@@ -14,6 +14,12 @@ import io.dropwizard.metrics.MetricsFactory;
 import io.dropwizard.server.DefaultServerFactory;
 import io.dropwizard.server.ServerFactory;
 import nl.knaw.huygens.timbuctoo.database.tinkerpop.TinkerPopConfig;
+import nl.knaw.huygens.timbuctoo.database.tinkerpop.quicksearch.ImmutableQuickSearchIndexConfiguration;
+import nl.knaw.huygens.timbuctoo.database.tinkerpop.quicksearch.QuickSearchIndexConfiguration;
+import nl.knaw.huygens.timbuctoo.search.ImmutableSearchStoreConfiguration;
+import nl.knaw.huygens.timbuctoo.search.SearchStoreConfiguration;
+import nl.knaw.huygens.timbuctoo.search.facetindex.FacetIndexConfiguration;
+import nl.knaw.huygens.timbuctoo.search.facetindex.ImmutableFacetIndexConfiguration;
 import nl.knaw.huygens.timbuctoo.solr.WebhookFactory;
 import nl.knaw.huygens.timbuctoo.util.Timeout;
 import nl.knaw.huygens.timbuctoo.util.TimeoutFactory;
@@ -23,7 +29,11 @@ import nl.knaw.huygens.timbuctoo.v5.berkeleydb.BdbPersistentEnvironmentCreator;
 import nl.knaw.huygens.timbuctoo.v5.dataset.DataSetConfiguration;
 import nl.knaw.huygens.timbuctoo.v5.dropwizard.config.SecurityFactoryConfiguration;
 import nl.knaw.huygens.timbuctoo.v5.graphql.collectionfilter.CollectionFilter;
+import nl.knaw.huygens.timbuctoo.v5.graphql.datafetchers.FetcherExecutorConfiguration;
+import nl.knaw.huygens.timbuctoo.v5.graphql.datafetchers.ImmutableFetcherExecutorConfiguration;
 import nl.knaw.huygens.timbuctoo.v5.graphql.defaultconfiguration.DefaultSummaryProps;
+import nl.knaw.huygens.timbuctoo.v5.graphql.querycost.ImmutableQueryCostConfiguration;
+import nl.knaw.huygens.timbuctoo.v5.graphql.querycost.QueryCostConfiguration;
 import nl.knaw.huygens.timbuctoo.v5.redirectionservice.RedirectionServiceFactory;
 import nl.knaw.huygens.timbuctoo.v5.util.TimbuctooRdfIdHelper;
 import org.immutables.value.Value;
@@ -71,6 +81,13 @@ public abstract class TimbuctooConfiguration extends Configuration implements Ac
   @JsonProperty("searchResultAvailabilityTimeout")
   public abstract TimeoutFactory getSearchResultAvailabilityTimeoutFactory();
 
+  @JsonProperty("searchStore")
+  @Value.Default
+  @Override
+  public SearchStoreConfiguration getSearchStoreConfiguration() {
+    return ImmutableSearchStoreConfiguration.builder().build();
+  }
+
   @JsonProperty("httpClient")
   @Valid
   @Value.Default
@@ -108,6 +125,30 @@ public abstract class TimbuctooConfiguration extends Configuration implements Ac
   @Valid
   public abstract DefaultSummaryProps getDefaultSummaryProps();
 
+  @JsonProperty("queryCost")
+  @Value.Default
+  public QueryCostConfiguration getQueryCostConfiguration() {
+    return ImmutableQueryCostConfiguration.builder().build();
+  }
+
+  @JsonProperty("graphQlFetchers")
+  @Value.Default
+  public FetcherExecutorConfiguration getFetcherExecutorConfiguration() {
+    return ImmutableFetcherExecutorConfiguration.builder().build();
+  }
+
+  @JsonProperty("facetIndex")
+  @Value.Default
+  public FacetIndexConfiguration getFacetIndexConfiguration() {
+    return ImmutableFacetIndexConfiguration.builder().build();
+  }
+
+  @JsonProperty("quickSearchIndex")
+  @Value.Default
+  public QuickSearchIndexConfiguration getQuickSearchIndexConfiguration() {
+    return ImmutableQuickSearchIndexConfiguration.builder().build();
+  }
+
   public abstract Map<String, CollectionFilter> getCollectionFilters();
 
   @JsonIgnore
@@ -20,6 +20,7 @@ import nl.knaw.huygens.timbuctoo.crud.UrlGenerator;
 import nl.knaw.huygens.timbuctoo.database.tinkerpop.TinkerPopConfig;
 import nl.knaw.huygens.timbuctoo.database.tinkerpop.TinkerPopOperations;
 import nl.knaw.huygens.timbuctoo.database.tinkerpop.TransactionFilter;
+import nl.knaw.huygens.timbuctoo.database.tinkerpop.quicksearch.QuickSearchIndexes;
 import nl.knaw.huygens.timbuctoo.experimental.womenwriters.WomenWritersEntityGet;
 import nl.knaw.huygens.timbuctoo.logging.LoggingFilter;
 import nl.knaw.huygens.timbuctoo.model.properties.JsonMetadata;
@@ -31,6 +32,7 @@ import nl.knaw.huygens.timbuctoo.remote.rs.download.ResourceSyncFileLoader;
 import nl.knaw.huygens.timbuctoo.remote.rs.xml.ResourceSyncContext;
 import nl.knaw.huygens.timbuctoo.search.AutocompleteService;
 import nl.knaw.huygens.timbuctoo.search.FacetValue;
+import nl.knaw.huygens.timbuctoo.search.facetindex.FacetIndexes;
 import nl.knaw.huygens.timbuctoo.security.OldStyleSecurityFactory;
 import nl.knaw.huygens.timbuctoo.server.databasemigration.DatabaseMigration;
 import nl.knaw.huygens.timbuctoo.server.databasemigration.FixDcarKeywordDisplayNameMigration;
@@ -70,6 +72,7 @@ import nl.knaw.huygens.timbuctoo.server.tasks.BackupTask;
 import nl.knaw.huygens.timbuctoo.server.tasks.BdbDumpTask;
 import nl.knaw.huygens.timbuctoo.server.tasks.DatabaseValidationTask;
 import nl.knaw.huygens.timbuctoo.server.tasks.DbLogCreatorTask;
+import nl.knaw.huygens.timbuctoo.server.tasks.MigrateToBinaryQuadStoreTask;
 import nl.knaw.huygens.timbuctoo.server.tasks.MigrateTruePatchStoresTask;
 import nl.knaw.huygens.timbuctoo.server.tasks.MoveEdgesTask;
 import nl.knaw.huygens.timbuctoo.server.tasks.ReplaceBlankNodeUrisTask;
@@ -79,11 +82,13 @@ import nl.knaw.huygens.timbuctoo.util.UriHelper;
 import nl.knaw.huygens.timbuctoo.v5.dataset.DataSetRepository;
 import nl.knaw.huygens.timbuctoo.v5.datastores.rssource.RsDocumentBuilder;
 import nl.knaw.huygens.timbuctoo.v5.dropwizard.DataSetRepositoryManager;
+import nl.knaw.huygens.timbuctoo.v5.dropwizard.DataSetUseFilter;
 import nl.knaw.huygens.timbuctoo.v5.dropwizard.contenttypes.CsvWriter;
 import nl.knaw.huygens.timbuctoo.v5.dropwizard.contenttypes.GraphVizWriter;
 import nl.knaw.huygens.timbuctoo.v5.dropwizard.contenttypes.JsonLdWriter;
 import nl.knaw.huygens.timbuctoo.v5.dropwizard.contenttypes.JsonWriter;
 import nl.knaw.huygens.timbuctoo.v5.dropwizard.contenttypes.SerializerWriterRegistry;
+import nl.knaw.huygens.timbuctoo.v5.dropwizard.endpoints.CollectionDump;
 import nl.knaw.huygens.timbuctoo.v5.dropwizard.endpoints.ErrorResponseHelper;
 import nl.knaw.huygens.timbuctoo.v5.dropwizard.endpoints.GetEntity;
 import nl.knaw.huygens.timbuctoo.v5.dropwizard.endpoints.GraphQl;
@@ -98,6 +103,8 @@ import nl.knaw.huygens.timbuctoo.v5.dropwizard.healthchecks.DatabaseAvailability
 import nl.knaw.huygens.timbuctoo.v5.dropwizard.tasks.ReloadDataSet;
 import nl.knaw.huygens.timbuctoo.v5.dropwizard.tasks.StagingBackup;
 import nl.knaw.huygens.timbuctoo.v5.dropwizard.tasks.StopBdbDataStore;
+import nl.knaw.huygens.timbuctoo.v5.graphql.datafetchers.FetcherExecutor;
+import nl.knaw.huygens.timbuctoo.v5.graphql.datafetchers.FetcherExecutorConfiguration;
 import nl.knaw.huygens.timbuctoo.v5.graphql.datafetchers.PaginationArgumentsHelper;
 import nl.knaw.huygens.timbuctoo.v5.graphql.datafetchers.RdfWiringFactory;
 import nl.knaw.huygens.timbuctoo.v5.graphql.derivedschema.DerivedSchemaGenerator;
@@ -112,14 +119,18 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import javax.management.ObjectName;
+import javax.servlet.DispatcherType;
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.InetSocketAddress;
 import java.net.URI;
 import java.nio.channels.ServerSocketChannel;
 import java.time.Clock;
+import java.util.EnumSet;
 import java.util.LinkedHashMap;
 import java.util.Properties;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
 
 import static com.codahale.metrics.MetricRegistry.name;
 import static nl.knaw.huygens.timbuctoo.handle.HandleAdder.HANDLE_QUEUE;
@@ -197,7 +208,13 @@ public class TimbuctooV4 extends Application<TimbuctooConfiguration> {
     environment.lifecycle().addServerLifecycleListener(new BaseUriDeriver(configuration));
 
     TinkerPopConfig tinkerPopConfig = configuration.getDatabaseConfiguration();
-    final TinkerPopGraphManager graphManager = new TinkerPopGraphManager(tinkerPopConfig, migrations);
+    final FacetIndexes facetIndexes = new FacetIndexes(configuration.getFacetIndexConfiguration());
+    final QuickSearchIndexes quickSearchIndexes = new QuickSearchIndexes(
+      configuration.getQuickSearchIndexConfiguration(),
+      environment.lifecycle().executorService("QuickSearchIndexBuild").maxThreads(1).build()
+    );
+    final TinkerPopGraphManager graphManager =
+      new TinkerPopGraphManager(tinkerPopConfig, migrations, facetIndexes, quickSearchIndexes);
 
     final UrlGenerator uriToRedirectToFromPersistentUrls = (coll, id, rev) ->
       uriHelper.fromResourceUri(SingleEntity.makeUrl(coll, id, rev));
@@ -226,6 +243,8 @@ public class TimbuctooV4 extends Application<TimbuctooConfiguration> {
 
     environment.lifecycle().manage(new DataSetRepositoryManager(dataSetRepository));
     register(environment, "dataStoreAvailabilityCheck", new DatabaseAvailabilityCheck(dataSetRepository));
+    environment.servlets().addFilter("dataSetUse", new DataSetUseFilter(dataSetRepository))
+      .addMappingForUrlPatterns(EnumSet.of(DispatcherType.REQUEST), true, "/*");
 
     RedirectionServiceFactory redirectionServiceFactory = configuration.getRedirectionServiceFactory();
     RedirectionService redirectionService = redirectionServiceFactory.makeRedirectionService(
@@ -299,6 +318,19 @@ public class TimbuctooV4 extends Application<TimbuctooConfiguration> {
     );
 
     final PaginationArgumentsHelper argHelper = new PaginationArgumentsHelper(configuration.getCollectionFilters());
+    final FetcherExecutorConfiguration fetcherConfig = configuration.getFetcherExecutorConfiguration();
+    final int fetcherThreads = fetcherConfig.getThreads();
+    final int fetcherQueueSize = fetcherThreads * Math.max(1, fetcherConfig.getMaxConcurrentFetchesPerRequest());
+    final FetcherExecutor fetcherExecutor = new FetcherExecutor(
+      fetcherThreads <= 0 ? null : environment.lifecycle().executorService("GraphQLFetchers")
+        .minThreads(fetcherThreads)
+        .maxThreads(fetcherThreads)
+        // a full queue runs the fetch on the thread that submits it
+        .workQueue(new ArrayBlockingQueue<>(fetcherQueueSize))
+        .rejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy())
+        .build(),
+      fetcherConfig.getMaxConcurrentFetchesPerRequest()
+    );
     final GraphQl graphQlEndpoint = new GraphQl(
       new RootQuery(
         dataSetRepository,
@@ -316,12 +348,16 @@ public class TimbuctooV4 extends Application<TimbuctooConfiguration> {
         environment.getObjectMapper(),
         new ResourceSyncFileLoader(httpClient),
         resourceSyncService,
-        environment.lifecycle().executorService("GraphQLSchemaUpdate").maxThreads(1).build()
+        environment.lifecycle().executorService("GraphQLSchemaUpdate").maxThreads(1).build(),
+        environment.metrics()
       ),
       serializerWriterRegistry,
       securityConfig.getUserValidator(),
       uriHelper,
-      securityConfig.getPermissionFetcher(), dataSetRepository
+      securityConfig.getPermissionFetcher(), dataSetRepository,
+      configuration.getQueryCostConfiguration(),
+      fetcherExecutor,
+      environment.metrics()
     );
     register(environment, graphQlEndpoint);
 
@@ -331,7 +367,7 @@ public class TimbuctooV4 extends Application<TimbuctooConfiguration> {
     register(environment, new RootEndpoint(uriHelper, configuration.getUserRedirectUrl()));
 
     register(environment, new Me(securityConfig.getUserValidator()));
-    register(environment, new Search(configuration, uriHelper, graphManager));
+    register(environment, new Search(configuration, uriHelper, graphManager, facetIndexes, environment.metrics()));
     register(environment, new Autocomplete(autocompleteServiceFactory, transactionEnforcer));
     register(
       environment,
@@ -376,6 +412,7 @@ public class TimbuctooV4 extends Application<TimbuctooConfiguration> {
 
     GetEntity getEntity = new GetEntity(dataSetRepository, securityConfig.getUserValidator());
     register(environment, getEntity);
+    register(environment, new CollectionDump(dataSetRepository, securityConfig.getUserValidator()));
 
     // Admin resources
     environment.admin().addTask(new ReloadDataSet(dataSetRepository));
@@ -419,6 +456,7 @@ public class TimbuctooV4 extends Application<TimbuctooConfiguration> {
         uriToRedirectToFromPersistentUrls)
     );
     environment.admin().addTask(new MigrateTruePatchStoresTask(dataSetRepository));
+    environment.admin().addTask(new MigrateToBinaryQuadStoreTask(dataSetRepository));
     environment.admin().addTask(new ReplaceBlankNodeUrisTask(dataSetRepository));
 
     // register health checks
@@ -4,6 +4,10 @@ import com.codahale.metrics.health.HealthCheck;
 import com.google.common.collect.Lists;
 import io.dropwizard.lifecycle.Managed;
 import nl.knaw.huygens.timbuctoo.database.tinkerpop.TinkerPopConfig;
+import nl.knaw.huygens.timbuctoo.database.tinkerpop.quicksearch.ImmutableQuickSearchIndexConfiguration;
+import nl.knaw.huygens.timbuctoo.database.tinkerpop.quicksearch.QuickSearchIndexes;
+import nl.knaw.huygens.timbuctoo.search.facetindex.FacetIndexes;
+import nl.knaw.huygens.timbuctoo.search.facetindex.ImmutableFacetIndexConfiguration;
 import nl.knaw.huygens.timbuctoo.server.databasemigration.DatabaseMigration;
 import nl.knaw.huygens.timbuctoo.server.databasemigration.DatabaseMigrator;
 import org.apache.tinkerpop.gremlin.neo4j.process.traversal.LabelP;
@@ -46,6 +50,8 @@ public class TinkerPopGraphManager extends HealthCheck implements Managed, Graph
   private String lastHealthCheckLog = "";
   private final TinkerPopConfig configuration;
   private final LinkedHashMap<String, DatabaseMigration> migrations;
+  private final FacetIndexes facetIndexes;
+  private final QuickSearchIndexes quickSearchIndexes;
   protected final List<Consumer<Graph>> graphWaitList;
 
   private File databasePath;
@@ -55,10 +61,23 @@ public class TinkerPopGraphManager extends HealthCheck implements Managed, Graph
 
   public TinkerPopGraphManager(TinkerPopConfig configuration,
                                LinkedHashMap<String, DatabaseMigration> migrations) {
+    this(
+      configuration,
+      migrations,
+      new FacetIndexes(ImmutableFacetIndexConfiguration.builder().build()),
+      new QuickSearchIndexes(ImmutableQuickSearchIndexConfiguration.builder().build())
+    );
+  }
+
+  public TinkerPopGraphManager(TinkerPopConfig configuration,
+                               LinkedHashMap<String, DatabaseMigration> migrations, FacetIndexes facetIndexes,
+                               QuickSearchIndexes quickSearchIndexes) {
     this.configuration = configuration;
     graphWaitList = Lists.newArrayList();
 
     this.migrations = migrations;
+    this.facetIndexes = facetIndexes;
+    this.quickSearchIndexes = quickSearchIndexes;
   }
 
   @Override
@@ -229,6 +248,14 @@ public class TinkerPopGraphManager extends HealthCheck implements Managed, Graph
     }
   }
 
+  public FacetIndexes getFacetIndexes() {
+    return facetIndexes;
+  }
+
+  public QuickSearchIndexes getQuickSearchIndexes() {
+    return quickSearchIndexes;
+  }
+
   public GraphDatabaseService getGraphDatabase() {
     initGraphDatabaseService();
     return graphDatabase;
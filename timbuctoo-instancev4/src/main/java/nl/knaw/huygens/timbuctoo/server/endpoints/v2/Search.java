@@ -1,5 +1,6 @@
 package nl.knaw.huygens.timbuctoo.server.endpoints.v2;
 
+import com.codahale.metrics.MetricRegistry;
 import com.codahale.metrics.annotation.Timed;
 import com.google.common.base.Stopwatch;
 import io.dropwizard.jersey.params.UUIDParam;
@@ -7,6 +8,7 @@ import nl.knaw.huygens.timbuctoo.search.SearchDescription;
 import nl.knaw.huygens.timbuctoo.search.SearchResult;
 import nl.knaw.huygens.timbuctoo.search.SearchStore;
 import nl.knaw.huygens.timbuctoo.search.description.SearchDescriptionFactory;
+import nl.knaw.huygens.timbuctoo.search.facetindex.FacetIndexes;
 import nl.knaw.huygens.timbuctoo.server.GraphWrapper;
 import nl.knaw.huygens.timbuctoo.server.SearchConfig;
 import nl.knaw.huygens.timbuctoo.util.UriHelper;
@@ -38,11 +40,18 @@ public class Search {
   private final SearchResponseV2_1Factory searchResponseFactory;
   private final SearchDescriptionFactory searchDescriptionFactory;
   private final GraphWrapper graphWrapper;
+  private final FacetIndexes facetIndexes;
   private SearchStore searchStore;
 
-  public Search(SearchConfig searchConfig, UriHelper uriHelper, GraphWrapper graphWrapper) {
-    this.searchStore = new SearchStore(searchConfig.getSearchResultAvailabilityTimeout());
+  public Search(SearchConfig searchConfig, UriHelper uriHelper, GraphWrapper graphWrapper,
+                FacetIndexes facetIndexes, MetricRegistry metrics) {
+    this.searchStore = new SearchStore(
+      searchConfig.getSearchResultAvailabilityTimeout(),
+      searchConfig.getSearchStoreConfiguration(),
+      metrics
+    );
     this.graphWrapper = graphWrapper;
+    this.facetIndexes = facetIndexes;
     this.searchResponseFactory = new SearchResponseV2_1Factory(uriHelper);
     searchDescriptionFactory = new SearchDescriptionFactory();
 
@@ -82,7 +91,7 @@ public class Search {
        * this feature is omitted, until proven necessary. Execute will just ignore unknown facets, full text search
        * fields and sort fields.
        */
-      UUID uuid = searchStore.add(description.get().execute(graphWrapper, searchRequest));
+      UUID uuid = searchStore.add(description.get().execute(graphWrapper, searchRequest, facetIndexes));
 
       URI uri = createUri(uuid);
       LOG.info("Duration of search request: {}", stopwatch);
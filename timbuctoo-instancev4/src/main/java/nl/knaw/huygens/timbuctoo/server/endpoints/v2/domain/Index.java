@@ -3,6 +3,7 @@ package nl.knaw.huygens.timbuctoo.server.endpoints.v2.domain;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 import com.google.common.collect.ImmutableMap;
 import nl.knaw.huygens.timbuctoo.core.TransactionEnforcer;
+import nl.knaw.huygens.timbuctoo.core.dto.CollectionPage;
 import nl.knaw.huygens.timbuctoo.crud.CrudServiceFactory;
 import nl.knaw.huygens.timbuctoo.crud.InvalidCollectionException;
 import nl.knaw.huygens.timbuctoo.crud.JsonCrudService;
@@ -99,24 +100,45 @@ public class Index {
     }
   }
 
+  /**
+   * Lists the entities of the collection. Clients that page through the whole collection should follow the "next"
+   * link in the response headers, which uses a cursor instead of an offset. Paging with start has to skip all the
+   * entities before start for each page.
+   */
   @GET
   public Response list(@PathParam("collection") String collectionName,
                        @QueryParam("rows") @DefaultValue("200") int rows,
                        @QueryParam("start") @DefaultValue("0") int start,
+                       @QueryParam("cursor") String cursor,
                        @QueryParam("withRelations") @DefaultValue("false") boolean withRelations) {
 
     return transactionEnforcer.executeAndReturn(timbuctooActions -> {
       JsonCrudService crudService = crudServiceFactory.newJsonCrudService(timbuctooActions);
       try {
-        List<ObjectNode> jsonNodes = crudService.getCollection(collectionName, rows, start, withRelations);
-        return commitAndReturn(Response.ok(jsonNodes).build());
+        if (start > 0 && cursor == null) {
+          List<ObjectNode> jsonNodes = crudService.getCollection(collectionName, rows, start, withRelations);
+          return commitAndReturn(Response.ok(jsonNodes).build());
+        }
+        CollectionPage<ObjectNode> page =
+          crudService.getCollectionPage(collectionName, rows, Optional.ofNullable(cursor), withRelations);
+        Response.ResponseBuilder response = Response.ok(page.getEntities());
+        page.getNextCursor().ifPresent(nextCursor -> response.link(
+          UriBuilder.fromUri(makeUrl(collectionName))
+            .queryParam("rows", rows)
+            .queryParam("cursor", nextCursor)
+            .queryParam("withRelations", withRelations)
+            .build(),
+          "next"
+        ));
+        return commitAndReturn(response.build());
       } catch (InvalidCollectionException e) {
         return rollbackAndReturn(
           Response.status(Response.Status.NOT_FOUND).entity(jsnO("message", jsn(e.getMessage()))).build()
         );
       } catch (IllegalArgumentException e) {
-        String message =
-          String.format("Could not process parameters rows=%d start=%d", rows, start);
+        String message = cursor == null ?
+          String.format("Could not process parameters rows=%d start=%d", rows, start) :
+          String.format("Could not process parameters rows=%d cursor=%s", rows, cursor);
         return rollbackAndReturn(
           Response.status(Response.Status.BAD_REQUEST).entity(jsnO("message", jsn(message))).build()
         );
@@ -27,17 +27,19 @@ public class BackupTask extends Task {
       output.flush();
       return;
     }
-    for (DataSet dataSet : dataSetRepository.getDataSets()) {
-      try {
-        dataSet.backupDatabases(parameters.get(BACKUP_PATH).iterator().next());
-        LOG.info("backup dataset: {}", dataSet.getMetadata().getCombinedId());
-        output.println("backup dataset: " + dataSet.getMetadata().getCombinedId());
-        output.flush();
-      } catch (Throwable t) {
-        LOG.error("sync of {} failed", dataSet.getMetadata().getCombinedId());
-        output.println("sync of '" + dataSet.getMetadata().getCombinedId() + "' failed");
-        output.flush();
-        LOG.error("Exception thrown", t);
+    try (DataSetRepository.DataSetUse use = dataSetRepository.startUse()) {
+      for (DataSet dataSet : dataSetRepository.getDataSets()) {
+        try {
+          dataSet.backupDatabases(parameters.get(BACKUP_PATH).iterator().next());
+          LOG.info("backup dataset: {}", dataSet.getMetadata().getCombinedId());
+          output.println("backup dataset: " + dataSet.getMetadata().getCombinedId());
+          output.flush();
+        } catch (Throwable t) {
+          LOG.error("sync of {} failed", dataSet.getMetadata().getCombinedId());
+          output.println("sync of '" + dataSet.getMetadata().getCombinedId() + "' failed");
+          output.flush();
+          LOG.error("Exception thrown", t);
+        }
       }
     }
     LOG.info("backup complete");
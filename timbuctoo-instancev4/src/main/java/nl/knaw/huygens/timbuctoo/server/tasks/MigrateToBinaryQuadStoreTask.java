@@ -0,0 +1,36 @@
+package nl.knaw.huygens.timbuctoo.server.tasks;
+
+import com.google.common.collect.ImmutableMultimap;
+import io.dropwizard.servlets.tasks.Task;
+import nl.knaw.huygens.timbuctoo.v5.dataset.DataSetRepository;
+import nl.knaw.huygens.timbuctoo.v5.dataset.dto.DataSet;
+
+import java.io.PrintWriter;
+
+public class MigrateToBinaryQuadStoreTask extends Task {
+  private final DataSetRepository dataSetRepository;
+
+  public MigrateToBinaryQuadStoreTask(DataSetRepository dataSetRepository) {
+    super("migrateToBinaryQuadStore");
+    this.dataSetRepository = dataSetRepository;
+  }
+
+  @Override
+  public void execute(ImmutableMultimap<String, String> parameters, PrintWriter output) throws Exception {
+    try (DataSetRepository.DataSetUse use = dataSetRepository.startUse()) {
+      for (DataSet dataSet : dataSetRepository.getDataSets()) {
+        final String combinedId = dataSet.getMetadata().getCombinedId();
+        output.println("Migrate dataset: " + combinedId);
+        output.flush();
+
+        if (dataSet.migrateToBinaryQuadStore()) {
+          dataSetRepository.reloadDataSet(combinedId);
+          output.println("Finished migration of dataset: " + combinedId);
+        } else {
+          output.println("Dataset already uses the binary quad store: " + combinedId);
+        }
+        output.flush();
+      }
+    }
+  }
+}
@@ -17,14 +17,16 @@ public class MigrateTruePatchStoresTask extends Task {
 
   @Override
   public void execute(ImmutableMultimap<String, String> parameters, PrintWriter output) throws Exception {
-    for (DataSet dataSet : dataSetRepository.getDataSets()) {
-      output.println("Migrate dataset: " + dataSet.getMetadata().getCombinedId());
-      output.flush();
+    try (DataSetRepository.DataSetUse use = dataSetRepository.startUse()) {
+      for (DataSet dataSet : dataSetRepository.getDataSets()) {
+        output.println("Migrate dataset: " + dataSet.getMetadata().getCombinedId());
+        output.flush();
 
-      dataSet.getTruePatchStore().migrate();
+        dataSet.getTruePatchStore().migrate();
 
-      output.println("Finished migration of dataset: " + dataSet.getMetadata().getCombinedId());
-      output.flush();
+        output.println("Finished migration of dataset: " + dataSet.getMetadata().getCombinedId());
+        output.flush();
+      }
     }
   }
 }
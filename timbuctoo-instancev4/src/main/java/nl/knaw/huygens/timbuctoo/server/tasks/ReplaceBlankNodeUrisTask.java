@@ -3,22 +3,22 @@ package nl.knaw.huygens.timbuctoo.server.tasks;
 import com.google.common.collect.ImmutableMultimap;
 import io.dropwizard.servlets.tasks.Task;
 import nl.knaw.huygens.timbuctoo.util.Tuple;
-import nl.knaw.huygens.timbuctoo.v5.berkeleydb.BdbWrapper;
-import nl.knaw.huygens.timbuctoo.v5.berkeleydb.exceptions.BdbDbCreationException;
 import nl.knaw.huygens.timbuctoo.v5.berkeleydb.exceptions.DatabaseWriteException;
 import nl.knaw.huygens.timbuctoo.v5.dataset.DataSetRepository;
 import nl.knaw.huygens.timbuctoo.v5.dataset.dto.DataSet;
-import nl.knaw.huygens.timbuctoo.v5.datastores.implementations.bdb.BdbTripleStore;
+import nl.knaw.huygens.timbuctoo.v5.datastores.implementations.bdb.BdbQuadIndex;
+import nl.knaw.huygens.timbuctoo.v5.datastores.implementations.bdb.BdbQuadStore;
 import nl.knaw.huygens.timbuctoo.v5.datastores.implementations.bdb.BdbTruePatchStore;
 import nl.knaw.huygens.timbuctoo.v5.datastores.implementations.bdb.UpdatedPerPatchStore;
 import nl.knaw.huygens.timbuctoo.v5.datastores.quadstore.dto.CursorQuad;
 import org.apache.commons.codec.digest.DigestUtils;
 
 import java.io.PrintWriter;
+import java.util.List;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
-
-import static nl.knaw.huygens.timbuctoo.v5.datastores.quadstore.dto.Direction.OUT;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 public class ReplaceBlankNodeUrisTask extends Task {
   private static final Pattern BLANK_NODE = Pattern.compile("^BlankNode:(.*)/(.*)$");
@@ -31,124 +31,115 @@ public class ReplaceBlankNodeUrisTask extends Task {
 
   @Override
   public void execute(ImmutableMultimap<String, String> parameters, PrintWriter output) throws Exception {
-    for (DataSet dataSet : dataSetRepository.getDataSets()) {
-      output.println("Replace blank node URIs in dataset: " + dataSet.getMetadata().getCombinedId());
-      output.flush();
-
-      String baseUri = dataSet.getMetadata().getBaseUri();
-      updateQuadStore((BdbTripleStore) dataSet.getQuadStore(), baseUri);
-      updateTruePatchStore(dataSet.getTruePatchStore(), dataSet.getUpdatedPerPatchStore(), baseUri);
-      updateUpdatedPerPatchStore(dataSet.getUpdatedPerPatchStore(), baseUri);
-
-      output.println("Finished replacing blank node URIs in dataset: " + dataSet.getMetadata().getCombinedId());
-      output.flush();
+    try (DataSetRepository.DataSetUse use = dataSetRepository.startUse()) {
+      for (DataSet dataSet : dataSetRepository.getDataSets()) {
+        output.println("Replace blank node URIs in dataset: " + dataSet.getMetadata().getCombinedId());
+        output.flush();
+
+        String baseUri = dataSet.getMetadata().getBaseUri();
+        updateQuadStore((BdbQuadStore) dataSet.getQuadStore(), dataSet.getQuadIndex(), baseUri);
+        updateTruePatchStore(dataSet.getTruePatchStore(), dataSet.getUpdatedPerPatchStore(), baseUri);
+        updateUpdatedPerPatchStore(dataSet.getUpdatedPerPatchStore(), baseUri);
+
+        output.println("Finished replacing blank node URIs in dataset: " + dataSet.getMetadata().getCombinedId());
+        output.flush();
+      }
     }
   }
 
-  private void updateQuadStore(BdbTripleStore quadStore, String baseUri) {
-    quadStore
-        .getAllQuads()
-        .filter(cursorQuad ->
-            cursorQuad.getSubject().startsWith("BlankNode") || cursorQuad.getObject().startsWith("BlankNode"))
-        .forEach(cursorQuad -> {
-          try {
-            Tuple<String, String> newValues = withQuad(cursorQuad, baseUri);
-
-            quadStore.deleteQuad(
-                cursorQuad.getSubject(),
-                cursorQuad.getPredicate(),
-                cursorQuad.getDirection(),
-                cursorQuad.getObject(),
-                cursorQuad.getValuetype().orElse(null),
-                cursorQuad.getLanguage().orElse(null)
-            );
-
-            quadStore.putQuad(
-                newValues.getLeft(),
-                cursorQuad.getPredicate(),
-                cursorQuad.getDirection(),
-                newValues.getRight(),
-                cursorQuad.getValuetype().orElse(null),
-                cursorQuad.getLanguage().orElse(null)
-            );
-          } catch (DatabaseWriteException e) {
-            e.printStackTrace();
-          }
-        });
+  /**
+   * Writes the replacements to the quad index as well, like the StoreUpdater does, so that the lookups by predicate
+   * and object and the quad counts stay in line with the quad store.
+   */
+  private void updateQuadStore(BdbQuadStore quadStore, BdbQuadIndex quadIndex, String baseUri)
+    throws DatabaseWriteException {
+    List<CursorQuad> quads;
+    // collect the quads first, because the replacements are written to the same store
+    try (Stream<CursorQuad> allQuads = quadStore.getAllQuads()) {
+      quads = allQuads
+          .filter(cursorQuad ->
+              cursorQuad.getSubject().startsWith("BlankNode") || cursorQuad.getObject().startsWith("BlankNode"))
+          .collect(Collectors.toList());
+    }
+
+    // the stores are marked as not clean until the commit, so an interrupted task leads to a reimport
+    quadStore.start();
+    quadIndex.start();
+    quads.forEach(cursorQuad -> {
+      try {
+        Tuple<String, String> newValues = withQuad(cursorQuad, baseUri);
+        final String valueType = cursorQuad.getValuetype().orElse(null);
+        final String language = cursorQuad.getLanguage().orElse(null);
+
+        if (quadStore.deleteQuad(cursorQuad.getSubject(), cursorQuad.getPredicate(), cursorQuad.getDirection(),
+            cursorQuad.getObject(), valueType, language)) {
+          quadIndex.delete(cursorQuad.getSubject(), cursorQuad.getPredicate(), cursorQuad.getDirection(),
+              cursorQuad.getObject(), valueType, language);
+        }
+
+        if (quadStore.putQuad(newValues.getLeft(), cursorQuad.getPredicate(), cursorQuad.getDirection(),
+            newValues.getRight(), valueType, language)) {
+          quadIndex.put(newValues.getLeft(), cursorQuad.getPredicate(), cursorQuad.getDirection(),
+              newValues.getRight(), valueType, language);
+        }
+      } catch (DatabaseWriteException e) {
+        e.printStackTrace();
+      }
+    });
+    quadIndex.applyCountChanges();
 
     quadStore.commit();
+    quadIndex.commit();
   }
 
   private void updateTruePatchStore(BdbTruePatchStore truePatchStore,
                                     UpdatedPerPatchStore updatedPerPatchStore, String baseUri) {
     updatedPerPatchStore.getVersions().forEach(version -> {
+      updateTruePatchStore(truePatchStore, version, true, baseUri);
+      updateTruePatchStore(truePatchStore, version, false, baseUri);
+    });
+
+    truePatchStore.commit();
+  }
+
+  private void updateTruePatchStore(BdbTruePatchStore truePatchStore, int version, boolean assertions,
+                                    String baseUri) {
+    List<CursorQuad> changes;
+    // collect the changes first, because the replacements are written to the same range of the store
+    try (Stream<CursorQuad> changesOfVersion = truePatchStore.getChangesOfVersion(version, assertions)) {
+      changes = changesOfVersion
+          .filter(cursorQuad ->
+              cursorQuad.getSubject().startsWith("BlankNode") ||
+                  cursorQuad.getObject().startsWith("BlankNode"))
+          .collect(Collectors.toList());
+    }
+
+    changes.forEach(cursorQuad -> {
       try {
-        BdbWrapper<String, String> bdbWrapper = truePatchStore.getOrCreateBdbWrapper(version);
-
-        truePatchStore
-            .getChangesOfVersion(version, true)
-            .filter(cursorQuad ->
-                cursorQuad.getSubject().startsWith("BlankNode") ||
-                    cursorQuad.getObject().startsWith("BlankNode"))
-            .forEach(cursorQuad -> {
-              try {
-                Tuple<String, String> newValues = withQuad(cursorQuad, baseUri);
-
-                bdbWrapper.delete(
-                    cursorQuad.getSubject() + "\n" + version + "\n" + 1,
-                    cursorQuad.getPredicate() + "\n" +
-                        (cursorQuad.getDirection() == OUT ? "1" : "0") + "\n" +
-                        cursorQuad.getValuetype().orElse("") + "\n" +
-                        cursorQuad.getLanguage().orElse("") + "\n" +
-                        cursorQuad.getObject()
-                );
-
-                bdbWrapper.put(
-                    newValues.getLeft() + "\n" + version + "\n" + 1,
-                    cursorQuad.getPredicate() + "\n" +
-                        (cursorQuad.getDirection() == OUT ? "1" : "0") + "\n" +
-                        cursorQuad.getValuetype().orElse("") + "\n" +
-                        cursorQuad.getLanguage().orElse("") + "\n" +
-                        newValues.getRight()
-                );
-              } catch (DatabaseWriteException e) {
-                e.printStackTrace();
-              }
-            });
-
-        truePatchStore
-            .getChangesOfVersion(version, false)
-            .filter(cursorQuad ->
-                cursorQuad.getSubject().startsWith("BlankNode") ||
-                    cursorQuad.getObject().startsWith("BlankNode"))
-            .forEach(cursorQuad -> {
-              try {
-                Tuple<String, String> newValues = withQuad(cursorQuad, baseUri);
-
-                bdbWrapper.delete(
-                    cursorQuad.getSubject() + "\n" + version + "\n" + 0,
-                    cursorQuad.getPredicate() + "\n" +
-                        (cursorQuad.getDirection() == OUT ? "1" : "0") + "\n" +
-                        cursorQuad.getValuetype().orElse("") + "\n" +
-                        cursorQuad.getLanguage().orElse("") + "\n" +
-                        cursorQuad.getObject()
-                );
-
-                bdbWrapper.put(
-                    newValues.getLeft() + "\n" + version + "\n" + 0,
-                    cursorQuad.getPredicate() + "\n" +
-                        (cursorQuad.getDirection() == OUT ? "1" : "0") + "\n" +
-                        cursorQuad.getValuetype().orElse("") + "\n" +
-                        cursorQuad.getLanguage().orElse("") + "\n" +
-                        newValues.getRight()
-                );
-              } catch (DatabaseWriteException e) {
-                e.printStackTrace();
-              }
-            });
-
-        bdbWrapper.commit();
-      } catch (BdbDbCreationException e) {
+        Tuple<String, String> newValues = withQuad(cursorQuad, baseUri);
+
+        truePatchStore.delete(
+            cursorQuad.getSubject(),
+            version,
+            cursorQuad.getPredicate(),
+            cursorQuad.getDirection(),
+            assertions,
+            cursorQuad.getObject(),
+            cursorQuad.getValuetype().orElse(null),
+            cursorQuad.getLanguage().orElse(null)
+        );
+
+        truePatchStore.put(
+            newValues.getLeft(),
+            version,
+            cursorQuad.getPredicate(),
+            cursorQuad.getDirection(),
+            assertions,
+            newValues.getRight(),
+            cursorQuad.getValuetype().orElse(null),
+            cursorQuad.getLanguage().orElse(null)
+        );
+      } catch (DatabaseWriteException e) {
         e.printStackTrace();
       }
     });
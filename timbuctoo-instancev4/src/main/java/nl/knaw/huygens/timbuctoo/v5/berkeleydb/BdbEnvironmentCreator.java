@@ -27,5 +27,15 @@ public interface BdbEnvironmentCreator {
 
   void closeDatabase(String ownerId, String dataSetId, String dataStore);
 
+  /**
+   * Checks if the environment of the data set contains a database with this name, without creating it
+   */
+  boolean databaseExists(String ownerId, String dataSetId, String databaseName) throws BdbDbCreationException;
+
+  /**
+   * Closes the database and removes it with all its data from the environment of the data set
+   */
+  void removeDatabase(String ownerId, String dataSetId, String databaseName) throws BdbDbCreationException;
+
   void backUpDatabases(String backupPath, String ownerId, String dataSetId) throws IOException;
 }
@@ -19,12 +19,12 @@ import java.io.File;
 import java.io.IOException;
 import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 
 public class BdbPersistentEnvironmentCreator implements BdbEnvironmentCreator {
@@ -32,8 +32,9 @@ public class BdbPersistentEnvironmentCreator implements BdbEnvironmentCreator {
   protected final EnvironmentConfig configuration;
   private final String databaseLocation;
   private final BdbBackupper bdbBackupper;
-  private Map<String, Environment> environmentMap = new HashMap<>();
-  private Map<String, Database> databases = new HashMap<>();
+  // opened environments and databases are looked up without locking, opening and closing them synchronizes on this
+  private final Map<String, Environment> environmentMap = new ConcurrentHashMap<>();
+  private final Map<String, Database> databases = new ConcurrentHashMap<>();
   private FileHelper fileHelper;
 
   @JsonCreator
@@ -60,25 +61,24 @@ public class BdbPersistentEnvironmentCreator implements BdbEnvironmentCreator {
 
     String environmentKey = environmentKey(userId, dataSetName);
     String databaseKey = databaseKey(environmentKey, databaseName);
-    if (!databases.containsKey(databaseKey)) {
-      if (!environmentMap.containsKey(environmentKey)) {
-        try {
-          File dbDir = databasesPath(userId, dataSetName);
-          Environment dataSetEnvironment = new Environment(dbDir, configuration);
-          environmentMap.put(environmentKey, dataSetEnvironment);
-        } catch (DatabaseException e) {
-          throw new BdbDbCreationException(e);
+    Database database = databases.get(databaseKey);
+    if (database == null) {
+      synchronized (this) {
+        database = databases.get(databaseKey);
+        if (database == null) {
+          Environment environment = getEnvironment(userId, dataSetName);
+          try {
+            database = environment.openDatabase(null, databaseName, config);
+          } catch (DatabaseException e) {
+            throw new BdbDbCreationException(e);
+          }
+          databases.put(databaseKey, database);
         }
       }
-      try {
-        databases.put(databaseKey, environmentMap.get(environmentKey).openDatabase(null, databaseName, config));
-      } catch (DatabaseException e) {
-        throw new BdbDbCreationException(e);
-      }
     }
     return new BdbWrapper<>(
-      environmentMap.get(environmentKey),
-      databases.get(databaseKey),
+      getEnvironment(userId, dataSetName),
+      database,
       config,
       keyBinder,
       valueBinder,
@@ -86,6 +86,53 @@ public class BdbPersistentEnvironmentCreator implements BdbEnvironmentCreator {
     );
   }
 
+  @Override
+  public boolean databaseExists(String ownerId, String dataSetId, String databaseName)
+    throws BdbDbCreationException {
+    if (databases.containsKey(databaseKey(environmentKey(ownerId, dataSetId), databaseName))) {
+      return true;
+    }
+    try {
+      return getEnvironment(ownerId, dataSetId).getDatabaseNames().contains(databaseName);
+    } catch (DatabaseException e) {
+      throw new BdbDbCreationException(e);
+    }
+  }
+
+  @Override
+  public synchronized void removeDatabase(String ownerId, String dataSetId, String databaseName)
+    throws BdbDbCreationException {
+    final String databaseKey = databaseKey(environmentKey(ownerId, dataSetId), databaseName);
+    try {
+      if (databases.containsKey(databaseKey)) {
+        databases.remove(databaseKey).close();
+      }
+      getEnvironment(ownerId, dataSetId).removeDatabase(null, databaseName);
+    } catch (DatabaseException e) {
+      throw new BdbDbCreationException(e);
+    }
+  }
+
+  private Environment getEnvironment(String userId, String dataSetName) throws BdbDbCreationException {
+    String environmentKey = environmentKey(userId, dataSetName);
+    Environment environment = environmentMap.get(environmentKey);
+    if (environment == null) {
+      synchronized (this) {
+        environment = environmentMap.get(environmentKey);
+        if (environment == null) {
+          try {
+            File dbDir = databasesPath(userId, dataSetName);
+            environment = new Environment(dbDir, configuration);
+          } catch (DatabaseException e) {
+            throw new BdbDbCreationException(e);
+          }
+          environmentMap.put(environmentKey, environment);
+        }
+      }
+    }
+    return environment;
+  }
+
   private File databasesPath(String userId, String dataSetName) {
     return fileHelper.pathInDataSet(userId, dataSetName, "databases");
   }
@@ -118,7 +165,7 @@ public class BdbPersistentEnvironmentCreator implements BdbEnvironmentCreator {
     );
   }
 
-  public void closeEnvironment(String ownerId, String dataSetId) {
+  public synchronized void closeEnvironment(String ownerId, String dataSetId) {
     String environmentKey = environmentKey(ownerId, dataSetId);
 
     Set<String> keys = new HashSet<>(databases.keySet());
@@ -159,7 +206,8 @@ public class BdbPersistentEnvironmentCreator implements BdbEnvironmentCreator {
   @Override
   public List<String> getUnavailableDatabases(String ownerId, String dataSetName) {
     final String environmentKey = environmentKey(ownerId, dataSetName);
-    return databases.keySet().stream().filter(key -> key.startsWith(environmentKey)).map(key -> databases.get(key))
+    return databases.entrySet().stream().filter(entry -> entry.getKey().startsWith(environmentKey))
+                    .map(Map.Entry::getValue)
                     .filter(db -> {
                       try {
                         db.getConfig();
@@ -175,7 +223,7 @@ public class BdbPersistentEnvironmentCreator implements BdbEnvironmentCreator {
   }
 
   @Override
-  public void closeDatabase(String ownerId, String dataSetId, String dataStore) {
+  public synchronized void closeDatabase(String ownerId, String dataSetId, String dataStore) {
     final String databaseKey = databaseKey(environmentKey(ownerId, dataSetId), dataStore);
     if (databases.containsKey(databaseKey)) {
       databases.get(databaseKey).close();
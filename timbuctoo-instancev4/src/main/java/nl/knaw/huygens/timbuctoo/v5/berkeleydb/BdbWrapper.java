@@ -18,11 +18,11 @@ import nl.knaw.huygens.timbuctoo.v5.berkeleydb.isclean.IsCleanHandler;
 import org.slf4j.Logger;
 
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.BiFunction;
 import java.util.function.Function;
 import java.util.stream.Stream;
@@ -40,8 +40,10 @@ public class BdbWrapper<KeyT, ValueT> {
   private final IsCleanHandler<KeyT, ValueT> isCleanHandler;
   private final DatabaseEntry keyEntry = new DatabaseEntry();
   private final DatabaseEntry valueEntry = new DatabaseEntry();
-  private final Map<Cursor, String> cursors = new HashMap<>();
+  // the readers of all threads register their cursors here
+  private final Map<Cursor, String> cursors = new ConcurrentHashMap<>();
   private Transaction transaction;
+  private Cursor batchCursor;
 
   public BdbWrapper(Environment dbEnvironment, Database database, DatabaseConfig databaseConfig,
                     EntryBinding<KeyT> keyBinder, EntryBinding<ValueT> valueBinder,
@@ -74,6 +76,7 @@ public class BdbWrapper<KeyT, ValueT> {
   }
 
   public void close() {
+    finishBatch();
     if (transaction != null) {
       transaction.abort();
     }
@@ -115,6 +118,7 @@ public class BdbWrapper<KeyT, ValueT> {
   }
 
   public void commit() {
+    finishBatch();
     if (transaction != null) {
       transaction.commit();
     }
@@ -132,6 +136,37 @@ public class BdbWrapper<KeyT, ValueT> {
     dbEnvironment.sync(); // needed for better recoverability
   }
 
+  /**
+   * Until {@link #finishBatch()} is called all writes go through one cursor instead of opening a cursor per write.
+   * Writing the items in key order keeps the cursor close to where it has to be.
+   */
+  public void startBatch() {
+    synchronized (keyEntry) {
+      if (batchCursor == null) {
+        batchCursor = database.openCursor(transaction, CursorConfig.DEFAULT);
+      }
+    }
+  }
+
+  public void finishBatch() {
+    synchronized (keyEntry) {
+      if (batchCursor != null) {
+        batchCursor.close();
+        batchCursor = null;
+      }
+    }
+  }
+
+  private Cursor openWriteCursor() {
+    return batchCursor != null ? batchCursor : database.openCursor(transaction, CursorConfig.DEFAULT);
+  }
+
+  private void closeWriteCursor(Cursor cursor) {
+    if (cursor != batchCursor) {
+      cursor.close();
+    }
+  }
+
   public void replace(KeyT key, ValueT initialValue, Function<ValueT, ValueT> replacer) throws DatabaseWriteException {
     synchronized (keyEntry) {
       try (Cursor cursor = database.openCursor(transaction, CursorConfig.DEFAULT)) {
@@ -155,19 +190,24 @@ public class BdbWrapper<KeyT, ValueT> {
         keyBinder.objectToEntry(key, keyEntry);
         if (databaseConfig.getSortedDuplicates()) {
           valueBinder.objectToEntry(value, valueEntry);
-          OperationStatus operationStatus = database.putNoDupData(transaction, keyEntry, valueEntry);
+          OperationStatus operationStatus = batchCursor != null ?
+            batchCursor.putNoDupData(keyEntry, valueEntry) :
+            database.putNoDupData(transaction, keyEntry, valueEntry);
           // operation status is only SUCCESS if the data was not in the database before
           return operationStatus.equals(OperationStatus.SUCCESS);
         } else {
-          try (Cursor cursor = database.openCursor(transaction, CursorConfig.DEFAULT)) {
+          Cursor cursor = openWriteCursor();
+          try {
             OperationStatus searchResult = cursor.getSearchKey(keyEntry, valueEntry, LockMode.DEFAULT);
             if (searchResult == SUCCESS && Objects.equals(value, valueBinder.entryToObject(valueEntry))) {
               return false;
             } else {
               valueBinder.objectToEntry(value, valueEntry);
-              database.put(transaction, keyEntry, valueEntry); // returns OperationStatus.SUCCESS or throws an exception
+              cursor.put(keyEntry, valueEntry); // returns OperationStatus.SUCCESS or throws an exception
               return true;
             }
+          } finally {
+            closeWriteCursor(cursor);
           }
         }
       } catch (Exception e) {
@@ -179,7 +219,9 @@ public class BdbWrapper<KeyT, ValueT> {
   public boolean delete(KeyT key, ValueT value) throws DatabaseWriteException {
     boolean wasChange = false;
     synchronized (keyEntry) {
-      try (Cursor cursor = database.openCursor(transaction, CursorConfig.DEFAULT)) {
+      Cursor cursor = null;
+      try {
+        cursor = openWriteCursor();
         keyBinder.objectToEntry(key, keyEntry);
         valueBinder.objectToEntry(value, valueEntry);
         OperationStatus searchResult = cursor.getSearchBoth(keyEntry, valueEntry, LockMode.DEFAULT);
@@ -188,6 +230,10 @@ public class BdbWrapper<KeyT, ValueT> {
         }
       } catch (Exception e) {
         throw new DatabaseWriteException(e);
+      } finally {
+        if (cursor != null) {
+          closeWriteCursor(cursor);
+        }
       }
     }
     return wasChange;
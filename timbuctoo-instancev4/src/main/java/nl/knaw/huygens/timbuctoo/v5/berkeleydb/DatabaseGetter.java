@@ -14,9 +14,11 @@ import nl.knaw.huygens.timbuctoo.v5.berkeleydb.BdbWrapper.ValueRetriever;
 import org.apache.commons.lang3.exception.ExceptionUtils;
 import org.slf4j.Logger;
 
+import java.util.Arrays;
 import java.util.Iterator;
 import java.util.Map;
 import java.util.NoSuchElementException;
+import java.util.Objects;
 import java.util.function.BiFunction;
 import java.util.function.Supplier;
 import java.util.stream.Stream;
@@ -33,12 +35,14 @@ public class DatabaseGetter<KeyT, ValueT> {
   private final DatabaseFunction iterator;
   private final Database database;
   private final Map<Cursor, String> cursors;
+  private final DatabaseEntry keyToIgnore;
+  private final DatabaseEntry valueToIgnore;
 
   private static final Logger LOG = getLogger(DatabaseGetter.class);
 
   DatabaseGetter(EntryBinding<KeyT> keyBinder, EntryBinding<ValueT> valueBinder, DatabaseFunction initializer,
                  DatabaseFunction iterator, Database database, Map<Cursor, String> cursors, DatabaseEntry key,
-                 DatabaseEntry value) {
+                 DatabaseEntry value, DatabaseEntry keyToIgnore, DatabaseEntry valueToIgnore) {
     this.keyBinder = keyBinder;
     this.valueBinder = valueBinder;
     this.initializer = initializer;
@@ -47,6 +51,8 @@ public class DatabaseGetter<KeyT, ValueT> {
     this.cursors = cursors;
     this.key = key;
     this.value = value;
+    this.keyToIgnore = keyToIgnore;
+    this.valueToIgnore = valueToIgnore;
   }
 
   public Stream<KeyT> getKeys(KeyRetriever<KeyT> keyRetriever) {
@@ -64,6 +70,51 @@ public class DatabaseGetter<KeyT, ValueT> {
       .filter(keyValueConverter::filter).map(keyValueConverter::convert);
   }
 
+  /**
+   * Streams the raw entries without deserializing them. The converter is called with the same two DatabaseEntry
+   * instances for every item, so it should decode what it needs and must not keep a reference to them. Entries for
+   * which the converter returns null are skipped, as is the isClean marker.
+   */
+  public <U> Stream<U> getEntries(EntryConverter<U> entryConverter) {
+    return getItems(() -> isIgnored() ? null : entryConverter.convert(key, value)).filter(Objects::nonNull);
+  }
+
+  /**
+   * Counts the items without deserializing them
+   */
+  public long count() {
+    try (Stream<Boolean> entries = getEntries((key, value) -> Boolean.TRUE)) {
+      return entries.count();
+    }
+  }
+
+  /**
+   * Checks if there is at least one item without deserializing it
+   */
+  public boolean exists() {
+    try (Stream<Boolean> entries = getEntries((key, value) -> Boolean.TRUE)) {
+      return entries.findAny().isPresent();
+    }
+  }
+
+  private boolean isIgnored() {
+    return sameBytes(key, keyToIgnore) && sameBytes(value, valueToIgnore);
+  }
+
+  private static boolean sameBytes(DatabaseEntry left, DatabaseEntry right) {
+    return Arrays.equals(
+      left.getData(), left.getOffset(), left.getOffset() + left.getSize(),
+      right.getData(), right.getOffset(), right.getOffset() + right.getSize()
+    );
+  }
+
+  private static boolean startsWith(DatabaseEntry entry, byte[] prefix) {
+    return entry.getSize() >= prefix.length && Arrays.equals(
+      entry.getData(), entry.getOffset(), entry.getOffset() + prefix.length,
+      prefix, 0, prefix.length
+    );
+  }
+
   private <U> Stream<U> getItems(Supplier<U> valueMaker) {
     CursorIterator<U> data = new CursorIterator<>(
       initializer,
@@ -93,6 +144,10 @@ public class DatabaseGetter<KeyT, ValueT> {
     return new DatabaseGetterBuilderImpl<>(keyBinder, valueBinder, database, cursors, keyToIgnore, valueToIgnore);
   }
 
+  public interface EntryConverter<U> {
+    U convert(DatabaseEntry key, DatabaseEntry value);
+  }
+
   private interface DatabaseFunctionMaker<KeyT, ValueT> {
     DatabaseFunction make(DatabaseEntry keyEntry, DatabaseEntry valueEntry, DatabaseFunction iterator,
                           EntryBinding<KeyT> keyBinder, EntryBinding<ValueT> valueBinder);
@@ -114,6 +169,12 @@ public class DatabaseGetter<KeyT, ValueT> {
      * item whose key is greater or equal to "key"
      */
     ScopedBuilder<KeyT, ValueT> partialKey(KeyT key, BiFunction<KeyT, KeyT, Boolean> isNearEnough);
+
+    /**
+     * Like partialKey, but compares the first prefixLength bytes of the serialized keys instead of deserializing
+     * every key
+     */
+    ScopedBuilder<KeyT, ValueT> keyPrefix(KeyT key, int prefixLength);
   }
 
   public interface ScopedBuilder<KeyT, ValueT> {
@@ -182,6 +243,7 @@ public class DatabaseGetter<KeyT, ValueT> {
 
     private KeyT key = null;
     private BiFunction<KeyT, KeyT, Boolean> keyCheck = null;
+    private int keyPrefixLength = -1;
 
     private ValueT startValue = null;
     private boolean partialValue = false;
@@ -215,7 +277,9 @@ public class DatabaseGetter<KeyT, ValueT> {
         iterator,
         database,
         cursors,
-        key, value);
+        key, value,
+        keyToIgnoreEntry(),
+        valueToIgnoreEntry());
     }
 
     @Override
@@ -231,6 +295,13 @@ public class DatabaseGetter<KeyT, ValueT> {
       return this;
     }
 
+    @Override
+    public ScopedBuilder<KeyT, ValueT> keyPrefix(KeyT key, int prefixLength) {
+      this.key = key;
+      this.keyPrefixLength = prefixLength;
+      return this;
+    }
+
     @Override
     public PrimedBuilder<KeyT, ValueT> skipOne() {
       skipCount++;
@@ -292,9 +363,15 @@ public class DatabaseGetter<KeyT, ValueT> {
       final DatabaseEntry keyEntry = new DatabaseEntry();
       final DatabaseEntry valueEntry = new DatabaseEntry();
       keyBinder.objectToEntry(key, keyEntry);
+      final boolean partialKey = keyCheck != null || keyPrefixLength >= 0;
 
       if (startValue == null) {
-        if (keyCheck == null) {
+        if (keyPrefixLength >= 0) {
+          final byte[] prefix = Arrays.copyOfRange(keyEntry.getData(), keyEntry.getOffset(),
+            keyEntry.getOffset() + keyPrefixLength);
+          initializer = dbCursor -> dbCursor.getSearchKeyRange(keyEntry, valueEntry, LockMode.DEFAULT);
+          check = () -> startsWith(keyEntry, prefix) ? OperationStatus.SUCCESS : OperationStatus.NOTFOUND;
+        } else if (keyCheck == null) {
           initializer = dbCursor -> dbCursor.getSearchKey(keyEntry, valueEntry, LockMode.DEFAULT);
           check = () -> OperationStatus.SUCCESS;
         } else {
@@ -308,7 +385,7 @@ public class DatabaseGetter<KeyT, ValueT> {
           };
         }
       } else {
-        if (keyCheck != null) {
+        if (partialKey) {
           throw new UnsupportedOperationException("You can't skip to a partial key and then to value within the " +
             "keys that match that partial key.That would require iterating over all keys and testing them until " +
             "one is reached that doesn't match");
@@ -330,7 +407,7 @@ public class DatabaseGetter<KeyT, ValueT> {
         }
       }
 
-      if (keyCheck == null) {
+      if (!partialKey) {
         if (valueCheck == null) {
           if (direction == Iterate.FORWARDS) {
             iterator = dbCursor -> dbCursor.getNextDup(keyEntry, valueEntry, LockMode.DEFAULT);
@@ -416,10 +493,24 @@ public class DatabaseGetter<KeyT, ValueT> {
         database,
         cursors,
         keyEntry,
-        valueEntry
+        valueEntry,
+        keyToIgnoreEntry(),
+        valueToIgnoreEntry()
       );
     }
 
+    private DatabaseEntry keyToIgnoreEntry() {
+      final DatabaseEntry entry = new DatabaseEntry();
+      keyBinder.objectToEntry(keyToIgnore, entry);
+      return entry;
+    }
+
+    private DatabaseEntry valueToIgnoreEntry() {
+      final DatabaseEntry entry = new DatabaseEntry();
+      valueBinder.objectToEntry(valueToIgnore, entry);
+      return entry;
+    }
+
   }
 
   private class CursorIterator<T> implements Iterator<T> {
@@ -1,6 +1,6 @@
 package nl.knaw.huygens.timbuctoo.v5.dataset;
 
-import nl.knaw.huygens.timbuctoo.v5.datastores.implementations.bdb.BdbTripleStore;
+import nl.knaw.huygens.timbuctoo.v5.datastores.implementations.bdb.BdbQuadStore;
 import nl.knaw.huygens.timbuctoo.v5.datastores.quadstore.dto.CursorQuad;
 import nl.knaw.huygens.timbuctoo.v5.datastores.quadstore.dto.Direction;
 
@@ -8,9 +8,9 @@ import java.util.stream.Stream;
 
 public class  CurrentStateRetriever {
 
-  private final BdbTripleStore bdbTripleStore;
+  private final BdbQuadStore bdbTripleStore;
 
-  public CurrentStateRetriever(BdbTripleStore bdbTripleStore) {
+  public CurrentStateRetriever(BdbQuadStore bdbTripleStore) {
     this.bdbTripleStore = bdbTripleStore;
   }
 
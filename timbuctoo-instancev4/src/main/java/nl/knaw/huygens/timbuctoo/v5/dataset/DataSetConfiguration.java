@@ -15,14 +15,87 @@ import java.util.function.Consumer;
 public interface DataSetConfiguration {
 
   @JsonCreator
-  static DataSetConfiguration create(@JsonProperty("dataStorage") DataStorage dataStorage) {
-    return ImmutableDataSetConfiguration.builder()
-                                        .dataStorage(dataStorage)
-                                        .build();
+  static DataSetConfiguration create(@JsonProperty("dataStorage") DataStorage dataStorage,
+                                     @JsonProperty("binaryQuadStore") boolean binaryQuadStore,
+                                     @JsonProperty("importBatchSize") Integer importBatchSize,
+                                     @JsonProperty("pipelinedImport") Boolean pipelinedImport,
+                                     @JsonProperty("listenerPartitions") Integer listenerPartitions,
+                                     @JsonProperty("maxOpenDataSets") Integer maxOpenDataSets,
+                                     @JsonProperty("dataSetIdleMinutes") Integer dataSetIdleMinutes) {
+    ImmutableDataSetConfiguration.Builder builder = ImmutableDataSetConfiguration.builder()
+      .dataStorage(dataStorage)
+      .isBinaryQuadStore(binaryQuadStore);
+    if (importBatchSize != null) {
+      builder.importBatchSize(importBatchSize);
+    }
+    if (pipelinedImport != null) {
+      builder.isPipelinedImport(pipelinedImport);
+    }
+    if (listenerPartitions != null) {
+      builder.listenerPartitions(listenerPartitions);
+    }
+    if (maxOpenDataSets != null) {
+      builder.maxOpenDataSets(maxOpenDataSets);
+    }
+    if (dataSetIdleMinutes != null) {
+      builder.dataSetIdleMinutes(dataSetIdleMinutes);
+    }
+    return builder.build();
   }
 
   DataStorage getDataStorage();
 
+  /**
+   * New data sets store their quads in the dictionary encoded binary layout. Existing data sets keep their layout
+   * until they are migrated with the migrateToBinaryQuadStore task.
+   */
+  @Value.Default
+  default boolean isBinaryQuadStore() {
+    return false;
+  }
+
+  /**
+   * The number of changed quads that the import buffers, sorts and writes to the stores in one go.
+   */
+  @Value.Default
+  default int getImportBatchSize() {
+    return 10_000;
+  }
+
+  /**
+   * Parse the uploaded logs on one thread while the stores are updated on another.
+   */
+  @Value.Default
+  default boolean isPipelinedImport() {
+    return true;
+  }
+
+  /**
+   * The number of threads that update the schema for the changed subjects after an import. 1 updates it on the
+   * import thread.
+   */
+  @Value.Default
+  default int getListenerPartitions() {
+    return Runtime.getRuntime().availableProcessors();
+  }
+
+  /**
+   * When larger than 0, data sets are opened when they are first used and at most this many are kept open. The least
+   * recently used ones are closed first. When 0, all data sets are opened at startup.
+   */
+  @Value.Default
+  default int getMaxOpenDataSets() {
+    return 0;
+  }
+
+  /**
+   * The number of minutes after which an unused data set is closed, when maxOpenDataSets is set.
+   */
+  @Value.Default
+  default int getDataSetIdleMinutes() {
+    return 30;
+  }
+
   default DataSetRepository createRepository(ExecutorService executorService, PermissionFetcher permissionFetcher,
                                              BdbPersistentEnvironmentCreator databases,
                                              TimbuctooRdfIdHelper rdfIdHelper,
@@ -34,7 +107,7 @@ public interface DataSetConfiguration {
       rdfIdHelper,
       onUpdated,
       publicByDefault,
-      getDataStorage()
+      this
     );
   }
 }
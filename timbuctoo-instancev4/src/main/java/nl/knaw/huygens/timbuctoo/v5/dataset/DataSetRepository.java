@@ -7,6 +7,7 @@ import nl.knaw.huygens.timbuctoo.v5.dataset.dto.BasicDataSetMetaData;
 import nl.knaw.huygens.timbuctoo.v5.dataset.dto.DataSet;
 import nl.knaw.huygens.timbuctoo.v5.dataset.dto.DataSetMetaData;
 import nl.knaw.huygens.timbuctoo.v5.dataset.dto.ImportInfo;
+import nl.knaw.huygens.timbuctoo.v5.dataset.dto.LazyDataSet;
 import nl.knaw.huygens.timbuctoo.v5.dataset.exceptions.DataSetCreationException;
 import nl.knaw.huygens.timbuctoo.v5.dataset.exceptions.DataSetPublishException;
 import nl.knaw.huygens.timbuctoo.v5.dataset.exceptions.DataStoreCreationException;
@@ -28,12 +29,13 @@ import javax.annotation.Nullable;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collection;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
@@ -52,6 +54,7 @@ public class DataSetRepository {
   private final ExecutorService executorService;
   private final PermissionFetcher permissionFetcher;
   private final BdbEnvironmentCreator dataStoreFactory;
+  // lookups read the concurrent maps without locking, changes to the data sets synchronize on dataSetMap
   private final Map<String, Map<String, DataSet>> dataSetMap;
   private final TimbuctooRdfIdHelper rdfIdHelper;
   private final String rdfBaseUri;
@@ -60,11 +63,13 @@ public class DataSetRepository {
   private final List<Runnable> dataSetsUpdatedListeners;
   private Consumer<String> onUpdated;
   private final DataStorage dataStorage;
+  private final DataSetConfiguration configuration;
+  private final IdleDataSetCloser idleDataSetCloser;
 
   public DataSetRepository(ExecutorService executorService, PermissionFetcher permissionFetcher,
                            BdbEnvironmentCreator dataStoreFactory,
                            TimbuctooRdfIdHelper rdfIdHelper, Consumer<String> onUpdated,
-                           boolean publicByDefault, DataStorage dataStorage) {
+                           boolean publicByDefault, DataSetConfiguration configuration) {
     this.executorService = executorService;
     this.permissionFetcher = permissionFetcher;
     this.dataStoreFactory = dataStoreFactory;
@@ -72,9 +77,14 @@ public class DataSetRepository {
     this.rdfIdHelper = rdfIdHelper;
     this.rdfBaseUri = rdfIdHelper.instanceBaseUri();
     this.publicByDefault = publicByDefault;
-    dataSetMap = new HashMap<>();
+    dataSetMap = new ConcurrentHashMap<>();
     this.onUpdated = onUpdated;
-    this.dataStorage = dataStorage;
+    this.dataStorage = configuration.getDataStorage();
+    this.configuration = configuration;
+    // without a maximum all data sets are opened at startup and stay open
+    this.idleDataSetCloser = configuration.getMaxOpenDataSets() > 0 ?
+      new IdleDataSetCloser(configuration.getMaxOpenDataSets(),
+        TimeUnit.MINUTES.toMillis(configuration.getDataSetIdleMinutes())) : null;
     readOnlyChecker = new ReadOnlyChecker() {
       @Override
       public boolean isReadonlyPredicate(String predicateIri) {
@@ -118,20 +128,12 @@ public class DataSetRepository {
       for (Map.Entry<String, Set<DataSetMetaData>> entry : ownerMetadataMap.entrySet()) {
         String ownerId = entry.getKey();
         Set<DataSetMetaData> ownerMetaDatas = entry.getValue();
-        HashMap<String, DataSet> ownersSets = new HashMap<>();
+        Map<String, DataSet> ownersSets = new ConcurrentHashMap<>();
         dataSetMap.put(ownerId, ownersSets);
         for (DataSetMetaData dataSetMetaData : ownerMetaDatas) {
           String dataSetName = dataSetMetaData.getDataSetId();
           try {
-            DataSet value = dataSet(
-              dataSetMetaData,
-              executorService,
-              rdfBaseUri,
-              dataStoreFactory,
-              () -> onUpdated.accept(dataSetMetaData.getCombinedId()),
-              dataStorage.getDataSetStorage(ownerId, dataSetName),
-              readOnlyChecker
-            );
+            DataSet value = openDataSet(dataSetMetaData);
             ownersSets.put(
               dataSetName,
               value
@@ -154,27 +156,57 @@ public class DataSetRepository {
   public void reloadDataSet(String dataSetId) throws IOException, DataStoreCreationException {
     final Tuple<String, String> userDataSet = DataSetMetaData.splitCombinedId(dataSetId);
     final String userId = userDataSet.getLeft();
-    if (dataSetMap.containsKey(userId)) {
+    synchronized (dataSetMap) {
       final Map<String, DataSet> userSets = dataSetMap.get(userId);
       final String dataSetName = userDataSet.getRight();
-      if (userSets.containsKey(dataSetName)) {
+      if (userSets != null && userSets.containsKey(dataSetName)) {
         final DataSet dataSet = userSets.remove(dataSetName);
         final DataSetMetaData metadata = dataSet.getMetadata();
-        dataSet.stop();
-        final DataSet reloadedDataSet = dataSet(
-          metadata,
-          executorService,
-          rdfBaseUri,
-          dataStoreFactory,
-          () -> onUpdated.accept(metadata.getCombinedId()),
-          dataStorage.getDataSetStorage(userId, dataSetName),
-          readOnlyChecker
-        );
+        stopDataSet(dataSet);
+        final DataSet reloadedDataSet = openDataSet(metadata);
         userSets.put(dataSetName, reloadedDataSet);
       }
     }
   }
 
+  /**
+   * Creates the data set, or in lazy mode a handle that opens the data set when it is used.
+   */
+  private DataSet openDataSet(DataSetMetaData metadata) throws IOException, DataStoreCreationException {
+    final String ownerId = metadata.getOwnerId();
+    final String dataSetName = metadata.getDataSetId();
+    final LazyDataSet.Opener opener = () -> dataSet(
+      metadata,
+      executorService,
+      rdfBaseUri,
+      dataStoreFactory,
+      () -> onUpdated.accept(metadata.getCombinedId()),
+      dataStorage.getDataSetStorage(ownerId, dataSetName),
+      readOnlyChecker,
+      configuration
+    );
+    if (idleDataSetCloser == null) {
+      return opener.open();
+    }
+    final LazyDataSet dataSet = new LazyDataSet(
+      metadata,
+      dataStoreFactory,
+      dataStorage.getDataSetStorage(ownerId, dataSetName),
+      readOnlyChecker,
+      opener,
+      idleDataSetCloser::onOpened
+    );
+    idleDataSetCloser.add(dataSet);
+    return dataSet;
+  }
+
+  private void stopDataSet(DataSet dataSet) {
+    if (dataSet instanceof LazyDataSet && idleDataSetCloser != null) {
+      idleDataSetCloser.remove((LazyDataSet) dataSet);
+    }
+    dataSet.stop();
+  }
+
   /**
    * Gets the dataSet designated by <code>ownerId</code> and <code>dataSetId</code> but only if the given
    * <code>user</code> has read-access to the dataSet.
@@ -185,28 +217,23 @@ public class DataSetRepository {
    * @return the dataSet designated by <code>ownerId</code> and <code>dataSetId</code>
    */
   public Optional<DataSet> getDataSet(User user, String ownerId, String dataSetId) {
-    synchronized (dataSetMap) {
-      if (dataSetMap.containsKey(ownerId) && dataSetMap.get(ownerId).containsKey(dataSetId)) {
-        try {
-          if (permissionFetcher.hasPermission(user, dataSetMap.get(ownerId).get(dataSetId).getMetadata(), READ)) {
-            return Optional.ofNullable(dataSetMap.get(ownerId).get(dataSetId));
-          }
-        } catch (PermissionFetchingException e) {
-          return Optional.empty();
-        }
+    final Optional<DataSet> dataSet = unsafeGetDataSetWithoutCheckingPermissions(ownerId, dataSetId);
+    try {
+      if (dataSet.isPresent() && permissionFetcher.hasPermission(user, dataSet.get().getMetadata(), READ)) {
+        return dataSet;
       }
+    } catch (PermissionFetchingException e) {
       return Optional.empty();
     }
+    return Optional.empty();
   }
 
   public Optional<DataSet> unsafeGetDataSetWithoutCheckingPermissions(String ownerId, String dataSetId) {
-    synchronized (dataSetMap) {
-      if (dataSetMap.containsKey(ownerId) && dataSetMap.get(ownerId).containsKey(dataSetId)) {
-        return Optional.ofNullable(dataSetMap.get(ownerId).get(dataSetId));
-      } else {
-        return Optional.empty();
-      }
+    final Map<String, DataSet> userDataSets = dataSetMap.get(ownerId);
+    if (userDataSets == null) {
+      return Optional.empty();
     }
+    return Optional.ofNullable(userDataSets.get(dataSetId));
   }
 
   public boolean userMatchesPrefix(User user, String prefix) {
@@ -274,18 +301,12 @@ public class DataSetRepository {
     }
 
     synchronized (dataSetMap) {
-      Map<String, DataSet> userDataSets = dataSetMap.computeIfAbsent(ownerPrefix, key -> new HashMap<>());
+      Map<String, DataSet> userDataSets = dataSetMap.computeIfAbsent(ownerPrefix, key -> new ConcurrentHashMap<>());
 
       if (!userDataSets.containsKey(dataSetId)) {
         try {
           permissionFetcher.initializeOwnerAuthorization(user, dataSet.getOwnerId(), dataSet.getDataSetId());
-          DataSet createdDataset = dataSet(
-            dataSet,
-            executorService,
-            rdfBaseUri,
-            dataStoreFactory,
-            () -> onUpdated.accept(dataSet.getCombinedId()),
-            dataStorage.getDataSetStorage(ownerPrefix, dataSetId), readOnlyChecker);
+          DataSet createdDataset = openDataSet(dataSet);
           userDataSets.put(
             dataSetId,
             createdDataset
@@ -376,8 +397,18 @@ public class DataSetRepository {
 
   public void removeDataSet(String ownerId, String dataSetName, User user)
       throws IOException, NotEnoughPermissionsException, DataSetDoesNotExistException {
+    synchronized (dataSetMap) {
+      removeDataSetFromIndex(ownerId, dataSetName, user);
+    }
+
+    // remove folder
+    dataStorage.getDataSetStorage(ownerId, dataSetName).clear();
+  }
+
+  private void removeDataSetFromIndex(String ownerId, String dataSetName, User user)
+      throws IOException, NotEnoughPermissionsException, DataSetDoesNotExistException {
     try {
-      DataSet dataSet = dataSetMap.get(ownerId).get(dataSetName);
+      DataSet dataSet = unsafeGetDataSetWithoutCheckingPermissions(ownerId, dataSetName).orElse(null);
       if (dataSet == null) {
         LOG.warn("DataSet '{}' of user with id '{}' does not exist (anymore).", dataSetName, ownerId);
         throw new DataSetDoesNotExistException(dataSetName, ownerId);
@@ -393,17 +424,17 @@ public class DataSetRepository {
         );
       }
       dataSetMap.get(ownerId).remove(dataSetName);
-      dataSet.stop();
+      stopDataSet(dataSet);
       permissionFetcher.removeAuthorizations(combinedId);
     } catch (PermissionFetchingException e) {
       throw new IOException(e);
     }
-
-    // remove folder
-    dataStorage.getDataSetStorage(ownerId, dataSetName).clear();
   }
 
   public void stop() {
+    if (idleDataSetCloser != null) {
+      idleDataSetCloser.stop();
+    }
     for (DataSet dataSet : getDataSets()) {
       dataSet.stop();
     }
@@ -414,6 +445,20 @@ public class DataSetRepository {
   public void start() throws IOException {
     dataStoreFactory.start();
     loadDataSetsFromJson();
+    if (idleDataSetCloser != null) {
+      idleDataSetCloser.start();
+    }
+  }
+
+  /**
+   * Marks the start of a use of the data sets, such as a request. The data sets that are accessed during the use are
+   * kept open until the returned use is closed, so the stores that it holds on to stay usable.
+   */
+  public DataSetUse startUse() {
+    if (idleDataSetCloser == null) {
+      return () -> { };
+    }
+    return idleDataSetCloser.startUse();
   }
 
   public void subscribeToDataSetsUpdated(Runnable dataSetsUpdatedListener) {
@@ -426,4 +471,9 @@ public class DataSetRepository {
       super(String.format("DataSet '%s' of user with id '%s' does not exist", dataSetName, ownerId));
     }
   }
+
+  public interface DataSetUse extends AutoCloseable {
+    @Override
+    void close();
+  }
 }
@@ -0,0 +1,107 @@
+package nl.knaw.huygens.timbuctoo.v5.dataset;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import nl.knaw.huygens.timbuctoo.v5.dataset.dto.LazyDataSet;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Keeps the number of data sets with open databases bounded. When more than maxOpen data sets are open, the least
+ * recently used ones are closed. Data sets that have not been used for the idle timeout are closed as well. Data sets
+ * that are importing stay open, as do the data sets that were accessed by a use that is still running.
+ */
+class IdleDataSetCloser {
+  private static final Logger LOG = LoggerFactory.getLogger(IdleDataSetCloser.class);
+
+  private final int maxOpen;
+  private final long idleTimeoutMillis;
+  private final List<LazyDataSet> dataSets = new CopyOnWriteArrayList<>();
+  private final Map<Object, Long> runningUses = new ConcurrentHashMap<>();
+  private ScheduledExecutorService executor;
+
+  IdleDataSetCloser(int maxOpen, long idleTimeoutMillis) {
+    this.maxOpen = maxOpen;
+    this.idleTimeoutMillis = idleTimeoutMillis;
+  }
+
+  void add(LazyDataSet dataSet) {
+    dataSets.add(dataSet);
+  }
+
+  void remove(LazyDataSet dataSet) {
+    dataSets.remove(dataSet);
+  }
+
+  /**
+   * Registers a use of the data sets, such as a request. The data sets that are accessed while the use is running are
+   * not closed until it is closed.
+   */
+  DataSetRepository.DataSetUse startUse() {
+    final Object token = new Object();
+    runningUses.put(token, System.currentTimeMillis());
+    return () -> runningUses.remove(token);
+  }
+
+  private long oldestUse() {
+    return runningUses.values().stream().mapToLong(Long::longValue).min().orElse(Long.MAX_VALUE);
+  }
+
+  /**
+   * Closes the least recently used data sets until at most maxOpen remain open.
+   */
+  void onOpened(LazyDataSet opened) {
+    List<LazyDataSet> open = dataSets.stream()
+      .filter(LazyDataSet::isOpen)
+      .sorted(Comparator.comparingLong(LazyDataSet::getLastAccess))
+      .collect(Collectors.toList());
+    int toClose = open.size() - maxOpen;
+    for (LazyDataSet dataSet : open) {
+      if (toClose <= 0) {
+        break;
+      }
+      if (dataSet != opened && dataSet.close(this::oldestUse)) {
+        LOG.info("Closed least recently used data set '{}'", dataSet.getMetadata().getCombinedId());
+        toClose--;
+      }
+    }
+  }
+
+  void closeIdle() {
+    final long idleSince = System.currentTimeMillis() - idleTimeoutMillis;
+    for (LazyDataSet dataSet : dataSets) {
+      if (dataSet.isOpen() && dataSet.getLastAccess() <= idleSince && dataSet.close(this::oldestUse)) {
+        LOG.info("Closed idle data set '{}'", dataSet.getMetadata().getCombinedId());
+      }
+    }
+  }
+
+  void start() {
+    executor = Executors.newSingleThreadScheduledExecutor(
+      new ThreadFactoryBuilder().setNameFormat("idle-data-set-closer").setDaemon(true).build()
+    );
+    final long period = Math.max(1_000, Math.min(idleTimeoutMillis, TimeUnit.MINUTES.toMillis(1)));
+    executor.scheduleWithFixedDelay(() -> {
+      try {
+        closeIdle();
+      } catch (RuntimeException e) { // an uncaught exception would cancel the schedule
+        LOG.error("Could not close the idle data sets", e);
+      }
+    }, period, period, TimeUnit.MILLISECONDS);
+  }
+
+  void stop() {
+    if (executor != null) {
+      executor.shutdownNow();
+    }
+  }
+}
@@ -7,6 +7,7 @@ import nl.knaw.huygens.timbuctoo.v5.dataset.dto.LogEntry;
 import nl.knaw.huygens.timbuctoo.v5.dataset.dto.LogList;
 import nl.knaw.huygens.timbuctoo.v5.dataset.dto.RdfCreator;
 import nl.knaw.huygens.timbuctoo.v5.dataset.exceptions.RdfProcessingFailedException;
+import nl.knaw.huygens.timbuctoo.v5.dataset.exceptions.RdfProcessingParseException;
 import nl.knaw.huygens.timbuctoo.v5.filestorage.FileStorage;
 import nl.knaw.huygens.timbuctoo.v5.filestorage.LogStorage;
 import nl.knaw.huygens.timbuctoo.v5.filestorage.dto.CachedFile;
@@ -35,6 +36,7 @@ import java.util.Optional;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Function;
 import java.util.zip.GZIPInputStream;
 import java.util.zip.GZIPOutputStream;
@@ -47,6 +49,8 @@ import static org.slf4j.LoggerFactory.getLogger;
  */
 public class ImportManager implements DataProvider {
   private static final Logger LOG = getLogger(ImportManager.class);
+  private static final int PIPELINE_BATCH_SIZE = 1_000;
+  private static final int PIPELINE_QUEUE_SIZE = 16;
   private final FileStorage fileStorage;
   private final FileStorage imageStorage;
   private final LogStorage logStorage;
@@ -57,11 +61,23 @@ public class ImportManager implements DataProvider {
   private final Runnable webhooks;
   private final ImportStatus importStatus;
   private final ArrayList<Runnable> importSucceededListeners;
+  private final boolean pipelinedImport;
+  private final AtomicInteger pendingImports = new AtomicInteger();
   private DataSet dataSet;
 
   public ImportManager(JsonDataStore<LogList> logListStore, FileStorage fileStorage, FileStorage imageStorage,
                        LogStorage logStorage, ExecutorService executorService, RdfIoFactory rdfIoFactory,
                        Runnable onUpdated) {
+    this(logListStore, fileStorage, imageStorage, logStorage, executorService, rdfIoFactory, onUpdated, false);
+  }
+
+  /**
+   * @param pipelinedImport parse the logs on one thread and let the processors apply them on another
+   */
+  public ImportManager(JsonDataStore<LogList> logListStore, FileStorage fileStorage, FileStorage imageStorage,
+                       LogStorage logStorage, ExecutorService executorService, RdfIoFactory rdfIoFactory,
+                       Runnable onUpdated, boolean pipelinedImport) {
+    this.pipelinedImport = pipelinedImport;
     this.webhooks = onUpdated;
     this.fileStorage = fileStorage;
     this.imageStorage = imageStorage;
@@ -80,6 +96,7 @@ public class ImportManager implements DataProvider {
     throws LogStorageFailedException {
 
     importStatus.start(this.getClass().getSimpleName() + ".addLog", baseUri);
+    pendingImports.incrementAndGet();
     int[] index = new int[1];
     try {
       String token = logStorage.saveLog(rdfInputStream, fileName, mediaType, charset);
@@ -88,10 +105,11 @@ public class ImportManager implements DataProvider {
         return logList;
       });
     } catch (IOException e) {
+      pendingImports.decrementAndGet();
       importStatus.addError("Could not save log", e);
       throw new LogStorageFailedException(e);
     }
-    return executorService.submit(() -> processLogsUntil(index[0]));
+    return submitImport(index[0]);
   }
 
   public String addFile(InputStream fileStream, String fileName, MediaType mediaType)
@@ -125,6 +143,7 @@ public class ImportManager implements DataProvider {
     throws LogStorageFailedException {
 
     importStatus.start(this.getClass().getSimpleName() + ".generateLog", baseUri);
+    pendingImports.incrementAndGet();
     try {
       //add to the log structure
       int[] index = new int[1];
@@ -133,8 +152,9 @@ public class ImportManager implements DataProvider {
         return logList;
       });
       //schedule processing
-      return executorService.submit(() -> processLogsUntil(index[0]));
+      return submitImport(index[0]);
     } catch (IOException e) {
+      pendingImports.decrementAndGet();
       importStatus.addError("Could not update logList", e);
       throw new LogStorageFailedException(e);
     }
@@ -153,10 +173,37 @@ public class ImportManager implements DataProvider {
   }
 
   public Future<ImportStatus> processLogs() {
-    return executorService.submit(() -> processLogsUntil(Integer.MAX_VALUE));
+    pendingImports.incrementAndGet();
+    return submitImport(Integer.MAX_VALUE);
+  }
+
+  /**
+   * Whether a log is being stored, waits to be processed or is being processed. The stores of the data set should
+   * stay open until it is done.
+   */
+  public boolean isImporting() {
+    return pendingImports.get() > 0;
+  }
+
+  private Future<ImportStatus> submitImport(int maxIndex) {
+    return executorService.submit(() -> {
+      try {
+        if (processLogsUntil(maxIndex)) {
+          // outside of the lock, so slow listeners do not block the import status or the next import
+          webhooks.run();
+          importSucceededListeners.forEach(Runnable::run);
+        }
+        return importStatus;
+      } finally {
+        pendingImports.decrementAndGet();
+      }
+    });
   }
 
-  private synchronized ImportStatus processLogsUntil(int maxIndex) {
+  /**
+   * @return true if data was added
+   */
+  private synchronized boolean processLogsUntil(int maxIndex) {
     importStatus.start(this.getClass().getSimpleName() + ".processLogs", null);
     ListIterator<LogEntry> unprocessed = logListStore.getData().getUnprocessed();
     boolean dataWasAdded = false;
@@ -234,9 +281,14 @@ public class ImportManager implements DataProvider {
             importStatus.setStatus(msg);
             importStatus.setEntryName(log.getName());
             RdfParser rdfParser = serializerFactory.makeRdfParser(log);
-            processor.start(index);
-            rdfParser.importRdf(log, entry.getBaseUri(), entry.getDefaultGraph(), processor);
-            processor.commit();
+            if (pipelinedImport) {
+              try (PipelinedRdfProcessor pipeline =
+                     new PipelinedRdfProcessor(processor, PIPELINE_BATCH_SIZE, PIPELINE_QUEUE_SIZE)) {
+                importLog(log, entry, index, rdfParser, pipeline);
+              }
+            } else {
+              importLog(log, entry, index, rdfParser, processor);
+            }
           }
         }
         long elapsedTime = stopwatch.elapsed(TimeUnit.SECONDS);
@@ -262,10 +314,6 @@ public class ImportManager implements DataProvider {
       }
       importStatus.finishEntry();
     } // end main while loop
-    if (dataWasAdded) {
-      webhooks.run();
-      importSucceededListeners.forEach(Runnable::run);
-    }
     importStatus.finishList();
     // update log.json
     try {
@@ -274,7 +322,14 @@ public class ImportManager implements DataProvider {
       LOG.error("Updating the log failed", e);
       importStatus.addError("Updating log failed", e);
     }
-    return importStatus;
+    return dataWasAdded;
+  }
+
+  private void importLog(CachedLog log, LogEntry entry, int index, RdfParser rdfParser, RdfProcessor processor)
+    throws RdfProcessingFailedException, RdfProcessingParseException {
+    processor.start(index);
+    rdfParser.importRdf(log, entry.getBaseUri(), entry.getDefaultGraph(), processor);
+    processor.commit();
   }
 
   @Override
@@ -50,6 +50,7 @@ public class ImportStatus {
   private LogEntry currentLogEntry;
   private long currentEntryStart;
   private String currentEntryName;
+  private long itemsPerSecond;
 
   public ImportStatus(LogList logList) {
     this.logList = logList;
@@ -183,6 +184,18 @@ public class ImportStatus {
     return new TimeWithUnit(TIME_UNIT, getElapsedTime(TIME_UNIT.name()));
   }
 
+  /**
+   * @return the number of triples (or subjects while post-processing) that were processed per second during the last
+   *         measured interval
+   */
+  public synchronized long getItemsPerSecond() {
+    return itemsPerSecond;
+  }
+
+  public synchronized void setItemsPerSecond(long itemsPerSecond) {
+    this.itemsPerSecond = itemsPerSecond;
+  }
+
   public synchronized boolean isActive() {
     return stopwatch.isRunning();
   }
@@ -195,6 +208,7 @@ public class ImportStatus {
     methodName = null;
     baseUri = null;
     currentLogEntry = null;
+    itemsPerSecond = 0;
     stopwatch.reset();
   }
 
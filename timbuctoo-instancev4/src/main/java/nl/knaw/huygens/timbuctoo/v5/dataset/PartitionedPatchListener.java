@@ -0,0 +1,21 @@
+package nl.knaw.huygens.timbuctoo.v5.dataset;
+
+import nl.knaw.huygens.timbuctoo.v5.dataset.exceptions.RdfProcessingFailedException;
+
+/**
+ * An OptimizedPatchListener that can process the changed subjects in parallel. Each partition receives a share of the
+ * changed subjects and collects its changes on its own. All partitions are merged before finish is called.
+ *
+ * <p>Each partition receives a range of consecutive subjects and the partitions are merged in the order of their
+ * ranges. Merging them should give the same result as handling all subjects one by one.</p>
+ */
+public interface PartitionedPatchListener<T extends PartitionedPatchListener.Partition> extends OptimizedPatchListener {
+
+  T createPartition();
+
+  void merge(T partition) throws RdfProcessingFailedException;
+
+  interface Partition {
+    void onChangedSubject(String subject, ChangeFetcher changeFetcher) throws RdfProcessingFailedException;
+  }
+}
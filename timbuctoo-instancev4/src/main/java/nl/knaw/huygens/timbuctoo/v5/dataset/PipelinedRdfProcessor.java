@@ -0,0 +1,183 @@
+package nl.knaw.huygens.timbuctoo.v5.dataset;
+
+import nl.knaw.huygens.timbuctoo.v5.dataset.exceptions.RdfProcessingFailedException;
+import org.slf4j.Logger;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+import static org.slf4j.LoggerFactory.getLogger;
+
+/**
+ * Lets the parser and the processor of a log run on their own thread. The parser thread collects the calls in
+ * batches and hands them over through a bounded queue, so a slow processor will slow down the parser instead of
+ * filling up the memory. The processor thread applies the calls in the order they were made.
+ *
+ * <p>start and commit are called on the thread of the caller, commit returns when all calls are applied.</p>
+ */
+public class PipelinedRdfProcessor implements RdfProcessor, AutoCloseable {
+  private static final Logger LOG = getLogger(PipelinedRdfProcessor.class);
+  private static final List<Change> END_OF_LOG = new ArrayList<>();
+
+  private final RdfProcessor processor;
+  private final int batchSize;
+  private final BlockingQueue<List<Change>> queue;
+  private List<Change> batch;
+  private Thread applier;
+  private volatile Exception failure;
+
+  public PipelinedRdfProcessor(RdfProcessor processor, int batchSize, int queueSize) {
+    this.processor = processor;
+    this.batchSize = batchSize;
+    this.queue = new ArrayBlockingQueue<>(queueSize);
+    this.batch = new ArrayList<>(batchSize);
+  }
+
+  @Override
+  public void setPrefix(String prefix, String iri) throws RdfProcessingFailedException {
+    add(rdfProcessor -> rdfProcessor.setPrefix(prefix, iri));
+  }
+
+  @Override
+  public void onQuad(boolean isAssertion, String subject, String predicate, String object, String dataType,
+                     String language, String graph) throws RdfProcessingFailedException {
+    add(rdfProcessor -> rdfProcessor.onQuad(isAssertion, subject, predicate, object, dataType, language, graph));
+  }
+
+  @Override
+  public void addRelation(String subject, String predicate, String object, String graph)
+    throws RdfProcessingFailedException {
+    add(rdfProcessor -> rdfProcessor.addRelation(subject, predicate, object, graph));
+  }
+
+  @Override
+  public void addValue(String subject, String predicate, String value, String dataType, String graph)
+    throws RdfProcessingFailedException {
+    add(rdfProcessor -> rdfProcessor.addValue(subject, predicate, value, dataType, graph));
+  }
+
+  @Override
+  public void addLanguageTaggedString(String subject, String predicate, String value, String language, String graph)
+    throws RdfProcessingFailedException {
+    add(rdfProcessor -> rdfProcessor.addLanguageTaggedString(subject, predicate, value, language, graph));
+  }
+
+  @Override
+  public void delRelation(String subject, String predicate, String object, String graph)
+    throws RdfProcessingFailedException {
+    add(rdfProcessor -> rdfProcessor.delRelation(subject, predicate, object, graph));
+  }
+
+  @Override
+  public void delValue(String subject, String predicate, String value, String valueType, String graph)
+    throws RdfProcessingFailedException {
+    add(rdfProcessor -> rdfProcessor.delValue(subject, predicate, value, valueType, graph));
+  }
+
+  @Override
+  public void delLanguageTaggedString(String subject, String predicate, String value, String language, String graph)
+    throws RdfProcessingFailedException {
+    add(rdfProcessor -> rdfProcessor.delLanguageTaggedString(subject, predicate, value, language, graph));
+  }
+
+  @Override
+  public void start(int index) throws RdfProcessingFailedException {
+    processor.start(index);
+    failure = null;
+    batch = new ArrayList<>(batchSize);
+    applier = new Thread(this::applyBatches, "apply-" + processor.getClass().getSimpleName());
+    applier.setDaemon(true);
+    applier.start();
+  }
+
+  @Override
+  public int getCurrentVersion() {
+    return processor.getCurrentVersion();
+  }
+
+  @Override
+  public void commit() throws RdfProcessingFailedException {
+    if (applier != null) {
+      handOver(batch);
+      stopApplier();
+    }
+    processor.commit();
+  }
+
+  /**
+   * Stops the processor thread if the log was not committed, for example because the parser failed.
+   */
+  @Override
+  public void close() {
+    if (applier != null) {
+      try {
+        stopApplier();
+      } catch (RdfProcessingFailedException e) {
+        LOG.error("Applying the log failed", e);
+      }
+    }
+  }
+
+  private void add(Change change) throws RdfProcessingFailedException {
+    batch.add(change);
+    if (batch.size() >= batchSize) {
+      handOver(batch);
+      batch = new ArrayList<>(batchSize);
+    }
+  }
+
+  private void handOver(List<Change> changes) throws RdfProcessingFailedException {
+    throwIfFailed();
+    try {
+      queue.put(changes);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new RdfProcessingFailedException(e);
+    }
+  }
+
+  private void stopApplier() throws RdfProcessingFailedException {
+    try {
+      queue.put(END_OF_LOG);
+      applier.join();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new RdfProcessingFailedException(e);
+    } finally {
+      applier = null;
+    }
+    throwIfFailed();
+  }
+
+  private void throwIfFailed() throws RdfProcessingFailedException {
+    if (failure != null) {
+      throw new RdfProcessingFailedException(failure);
+    }
+  }
+
+  private void applyBatches() {
+    try {
+      List<Change> changes = queue.take();
+      while (changes != END_OF_LOG) {
+        if (failure == null) { // keep emptying the queue after a failure, so the parser thread is not blocked
+          try {
+            for (Change change : changes) {
+              change.applyTo(processor);
+            }
+          } catch (Exception e) {
+            failure = e;
+          }
+        }
+        changes = queue.take();
+      }
+    } catch (InterruptedException e) {
+      failure = e;
+    }
+  }
+
+  private interface Change {
+    void applyTo(RdfProcessor rdfProcessor) throws RdfProcessingFailedException;
+  }
+}
@@ -3,28 +3,36 @@ package nl.knaw.huygens.timbuctoo.v5.dataset.dto;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.google.common.collect.Lists;
 import com.sleepycat.bind.tuple.TupleBinding;
+import nl.knaw.huygens.timbuctoo.v5.berkeleydb.BdbWrapper;
 import nl.knaw.huygens.timbuctoo.v5.berkeleydb.BdbEnvironmentCreator;
 import nl.knaw.huygens.timbuctoo.v5.berkeleydb.exceptions.BdbDbCreationException;
+import nl.knaw.huygens.timbuctoo.v5.berkeleydb.exceptions.DatabaseWriteException;
 import nl.knaw.huygens.timbuctoo.v5.berkeleydb.isclean.IsCleanHandler;
 import nl.knaw.huygens.timbuctoo.v5.berkeleydb.isclean.StringStringIsCleanHandler;
 import nl.knaw.huygens.timbuctoo.v5.dataset.ChangesRetriever;
 import nl.knaw.huygens.timbuctoo.v5.dataset.CurrentStateRetriever;
+import nl.knaw.huygens.timbuctoo.v5.dataset.DataSetConfiguration;
 import nl.knaw.huygens.timbuctoo.v5.dataset.ImportManager;
 import nl.knaw.huygens.timbuctoo.v5.dataset.ReadOnlyChecker;
 import nl.knaw.huygens.timbuctoo.v5.dataset.exceptions.DataStoreCreationException;
 import nl.knaw.huygens.timbuctoo.v5.datastorage.DataSetStorage;
 import nl.knaw.huygens.timbuctoo.v5.datastores.implementations.RdfDescriptionSaver;
 import nl.knaw.huygens.timbuctoo.v5.datastores.implementations.bdb.BdbBackedData;
+import nl.knaw.huygens.timbuctoo.v5.datastores.implementations.bdb.BdbBinaryTripleStore;
+import nl.knaw.huygens.timbuctoo.v5.datastores.implementations.bdb.BdbQuadIndex;
+import nl.knaw.huygens.timbuctoo.v5.datastores.implementations.bdb.BdbQuadStore;
 import nl.knaw.huygens.timbuctoo.v5.datastores.implementations.bdb.BdbRmlDataSourceStore;
 import nl.knaw.huygens.timbuctoo.v5.datastores.implementations.bdb.BdbSchemaStore;
 import nl.knaw.huygens.timbuctoo.v5.datastores.implementations.bdb.BdbTripleStore;
 import nl.knaw.huygens.timbuctoo.v5.datastores.implementations.bdb.BdbTruePatchStore;
 import nl.knaw.huygens.timbuctoo.v5.datastores.implementations.bdb.BdbTypeNameStore;
 import nl.knaw.huygens.timbuctoo.v5.datastores.implementations.bdb.StoreUpdater;
+import nl.knaw.huygens.timbuctoo.v5.datastores.implementations.bdb.TermDictionary;
 import nl.knaw.huygens.timbuctoo.v5.datastores.implementations.bdb.UpdatedPerPatchStore;
 import nl.knaw.huygens.timbuctoo.v5.datastores.implementations.bdb.VersionStore;
 import nl.knaw.huygens.timbuctoo.v5.datastores.prefixstore.TypeNameStore;
 import nl.knaw.huygens.timbuctoo.v5.datastores.quadstore.QuadStore;
+import nl.knaw.huygens.timbuctoo.v5.datastores.quadstore.dto.CursorQuad;
 import nl.knaw.huygens.timbuctoo.v5.datastores.schemastore.SchemaStore;
 import nl.knaw.huygens.timbuctoo.v5.datastores.schemastore.dto.ExplicitField;
 import nl.knaw.huygens.timbuctoo.v5.filestorage.FileStorage;
@@ -40,18 +48,27 @@ import javax.xml.parsers.ParserConfigurationException;
 import java.io.File;
 import java.io.IOException;
 import java.util.Collections;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ExecutorService;
+import java.util.stream.Stream;
 
 @Value.Immutable
 public abstract class DataSet {
   private static final Logger LOG = LoggerFactory.getLogger(DataSet.class);
+  private static final String RDF_DATA_DATABASE = "rdfData";
+  private static final String TERM_IDS_DATABASE = "termIds";
+  // only created once all quads are copied to the binary layout
+  private static final String BINARY_MIGRATION_DONE_DATABASE = "binaryMigrationDone";
+  private static final String QUADS_BY_OBJECT_DATABASE = "quadsByObject";
+  private static final String QUAD_COUNTS_DATABASE = "quadCounts";
 
 
   public static DataSet dataSet(DataSetMetaData metadata, ExecutorService executorService,
                                 String rdfPrefix, BdbEnvironmentCreator dataStoreFactory,
-                                Runnable onUpdated, DataSetStorage dataSetStorage, ReadOnlyChecker readOnlyChecker)
+                                Runnable onUpdated, DataSetStorage dataSetStorage, ReadOnlyChecker readOnlyChecker,
+                                DataSetConfiguration configuration)
     throws IOException, DataStoreCreationException {
 
     String userId = metadata.getOwnerId();
@@ -66,7 +83,8 @@ public abstract class DataSet {
       dataSetStorage.getLogStorage(),
       executorService,
       dataSetStorage.getRdfIo(),
-      onUpdated
+      onUpdated,
+      configuration.isPipelinedImport()
     );
 
     try {
@@ -79,15 +97,27 @@ public abstract class DataSet {
     final TupleBinding<String> stringBinding = TupleBinding.getPrimitiveBinding(String.class);
     try {
       StringStringIsCleanHandler stringStringIsCleanHandler = new StringStringIsCleanHandler();
-      BdbTripleStore quadStore = new BdbTripleStore(dataStoreFactory.getDatabase(
-        userId,
-        dataSetId,
-        "rdfData",
-        true,
-        stringBinding,
-        stringBinding,
-        stringStringIsCleanHandler
-      ));
+      final boolean quadIndexExists = dataStoreFactory.databaseExists(userId, dataSetId, QUADS_BY_OBJECT_DATABASE) &&
+        dataStoreFactory.databaseExists(userId, dataSetId, QUAD_COUNTS_DATABASE);
+      final BdbQuadIndex quadIndex = createQuadIndex(dataStoreFactory, userId, dataSetId);
+      final BdbQuadStore quadStore;
+      // a data set that started with the string layout only switches when its migration has finished
+      final boolean useBinaryQuadStore = dataStoreFactory.databaseExists(userId, dataSetId, RDF_DATA_DATABASE) ?
+        dataStoreFactory.databaseExists(userId, dataSetId, BINARY_MIGRATION_DONE_DATABASE) :
+        configuration.isBinaryQuadStore() || dataStoreFactory.databaseExists(userId, dataSetId, TERM_IDS_DATABASE);
+      if (useBinaryQuadStore) {
+        quadStore = createBinaryQuadStore(dataStoreFactory, userId, dataSetId, quadIndex);
+      } else {
+        quadStore = new BdbTripleStore(dataStoreFactory.getDatabase(
+          userId,
+          dataSetId,
+          RDF_DATA_DATABASE,
+          true,
+          stringBinding,
+          stringBinding,
+          stringStringIsCleanHandler
+        ), quadIndex);
+      }
       final BdbTypeNameStore typeNameStore = new BdbTypeNameStore(
         new BdbBackedData(dataStoreFactory.getDatabase(
           userId,
@@ -134,16 +164,19 @@ public abstract class DataSet {
           }
         )
       );
-      final BdbTruePatchStore truePatchStore = new BdbTruePatchStore(version ->
-          dataStoreFactory.getDatabase(
-              userId,
-              dataSetId,
-              "truePatch" + version,
-              true,
-              stringBinding,
-              stringBinding,
-              stringStringIsCleanHandler
-          ), updatedPerPatchStore);
+      final BdbTruePatchStore truePatchStore = new BdbTruePatchStore(
+        dataStoreFactory.getDatabase(
+          userId,
+          dataSetId,
+          "truePatchByVersion",
+          true,
+          stringBinding,
+          stringBinding,
+          stringStringIsCleanHandler
+        ),
+        updatedPerPatchStore,
+        BdbTruePatchStore.legacyDatabases(dataStoreFactory, userId, dataSetId)
+      );
       final BdbRmlDataSourceStore rmlDataSourceStore = new BdbRmlDataSourceStore(
         dataStoreFactory.getDatabase(
           userId,
@@ -178,12 +211,15 @@ public abstract class DataSet {
 
       final StoreUpdater storeUpdater = new StoreUpdater(
         quadStore,
+        quadIndex,
         typeNameStore,
         truePatchStore,
         updatedPerPatchStore,
         Lists.newArrayList(schema, rmlDataSourceStore),
         versionStore,
-        importManager.getImportStatus()
+        importManager.getImportStatus(),
+        configuration.getImportBatchSize(),
+        configuration.getListenerPartitions()
       );
       importManager.subscribeToRdf(storeUpdater);
 
@@ -198,6 +234,7 @@ public abstract class DataSet {
         .bdbEnvironmentCreator(dataStoreFactory)
         .metadata(metadata)
         .quadStore(quadStore)
+        .quadIndex(quadIndex)
         .typeNameStore(typeNameStore)
         .schemaStore(schema)
         .updatedPerPatchStore(updatedPerPatchStore)
@@ -214,13 +251,16 @@ public abstract class DataSet {
       importManager.init(dataSet);
 
 
-      if (!quadStore.isClean() || !typeNameStore.isClean() || !schema.isClean() || !truePatchStore.isClean() ||
-        !updatedPerPatchStore.isClean() || !rmlDataSourceStore.isClean() || !versionStore.isClean()) {
+      if (!quadStore.isClean() || !quadIndex.isClean() || !typeNameStore.isClean() || !schema.isClean() ||
+        !truePatchStore.isClean() || !updatedPerPatchStore.isClean() || !rmlDataSourceStore.isClean() ||
+        !versionStore.isClean()) {
         LOG.error("Data set '{}__{}' data is corrupted, starting to reimport.", userId, dataSetId);
         quadStore.empty();
+        quadIndex.empty();
         typeNameStore.empty();
         schema.empty();
         truePatchStore.empty();
+        truePatchStore.removeLegacyDatabases();
         updatedPerPatchStore.empty();
         rmlDataSourceStore.empty();
         versionStore.empty();
@@ -228,6 +268,21 @@ public abstract class DataSet {
         importManager.reprocessLogs();
 
       } else {
+        if (!quadIndexExists) {
+          // data sets that were imported before the secondary indices (or the quad counts) existed
+          LOG.info("Building the quad index of data set '{}__{}'", userId, dataSetId);
+          quadIndex.empty();
+          quadIndex.start();
+          try (Stream<CursorQuad> quads = quadStore.getAllQuads()) {
+            quadIndex.index(quads);
+          }
+          quadIndex.commit();
+        }
+        if (truePatchStore.hasLegacyDatabases()) {
+          // data sets that were imported before the changes were stored per version in one database
+          LOG.info("Migrating the true patch store of data set '{}__{}'", userId, dataSetId);
+          truePatchStore.migrate();
+        }
         importManager.processLogs(); // process unprocessed logs
       }
 
@@ -235,9 +290,158 @@ public abstract class DataSet {
       return dataSet;
     } catch (BdbDbCreationException e) {
       throw new DataStoreCreationException(e.getCause());
+    } catch (DatabaseWriteException e) {
+      throw new DataStoreCreationException(e);
     }
   }
 
+  private static BdbQuadIndex createQuadIndex(BdbEnvironmentCreator dataStoreFactory, String userId,
+                                              String dataSetId) throws BdbDbCreationException {
+    final TupleBinding<String> stringBinding = TupleBinding.getPrimitiveBinding(String.class);
+    final TupleBinding<Long> longBinding = TupleBinding.getPrimitiveBinding(Long.class);
+    return new BdbQuadIndex(
+      dataStoreFactory.getDatabase(
+        userId,
+        dataSetId,
+        "quadsByPredicate",
+        true,
+        stringBinding,
+        stringBinding,
+        new StringStringIsCleanHandler()
+      ),
+      dataStoreFactory.getDatabase(
+        userId,
+        dataSetId,
+        QUADS_BY_OBJECT_DATABASE,
+        true,
+        stringBinding,
+        stringBinding,
+        new StringStringIsCleanHandler()
+      ),
+      dataStoreFactory.getDatabase(
+        userId,
+        dataSetId,
+        QUAD_COUNTS_DATABASE,
+        false,
+        stringBinding,
+        longBinding,
+        new IsCleanHandler<String, Long>() {
+          @Override
+          public String getKey() {
+            return "isClean";
+          }
+
+          @Override
+          public Long getValue() {
+            return Long.MAX_VALUE;
+          }
+        }
+      )
+    );
+  }
+
+  private static BdbBinaryTripleStore createBinaryQuadStore(BdbEnvironmentCreator dataStoreFactory, String userId,
+                                                            String dataSetId, BdbQuadIndex quadIndex)
+    throws BdbDbCreationException {
+    final TupleBinding<String> stringBinding = TupleBinding.getPrimitiveBinding(String.class);
+    final TupleBinding<Integer> integerBinding = TupleBinding.getPrimitiveBinding(Integer.class);
+    final TermDictionary termDictionary = new TermDictionary(
+      dataStoreFactory.getDatabase(
+        userId,
+        dataSetId,
+        TERM_IDS_DATABASE,
+        false,
+        stringBinding,
+        integerBinding,
+        new IsCleanHandler<String, Integer>() {
+          @Override
+          public String getKey() {
+            return "\nisClean";
+          }
+
+          @Override
+          public Integer getValue() {
+            return Integer.MAX_VALUE;
+          }
+        }
+      ),
+      dataStoreFactory.getDatabase(
+        userId,
+        dataSetId,
+        "terms",
+        false,
+        integerBinding,
+        stringBinding,
+        new IsCleanHandler<Integer, String>() {
+          @Override
+          public Integer getKey() {
+            return -1;
+          }
+
+          @Override
+          public String getValue() {
+            return "isClean";
+          }
+        }
+      )
+    );
+    return new BdbBinaryTripleStore(
+      dataStoreFactory.getDatabase(
+        userId,
+        dataSetId,
+        "rdfDataBinary",
+        true,
+        new BdbBinaryTripleStore.QuadKeyBinding(),
+        new BdbBinaryTripleStore.QuadValueBinding(),
+        BdbBinaryTripleStore.IS_CLEAN_HANDLER
+      ),
+      termDictionary,
+      quadIndex
+    );
+  }
+
+  /**
+   * Copies the quads of a data set that still uses the string based layout to the binary layout and empties the old
+   * store. The data set has to be reloaded to start using the binary store. Until the copy has finished, the data set
+   * keeps loading the string based layout, so an interrupted migration can simply be started again.
+   *
+   * @return false if the data set already uses the binary layout
+   */
+  public boolean migrateToBinaryQuadStore() throws DataStoreCreationException {
+    if (!(getQuadStore() instanceof BdbTripleStore)) {
+      return false;
+    }
+    final BdbTripleStore source = (BdbTripleStore) getQuadStore();
+    try {
+      // the quad index does not depend on the layout, so it can be left as is and is only used for reading
+      final BdbBinaryTripleStore target = createBinaryQuadStore(getBdbEnvironmentCreator(), getOwnerId(),
+        getDataSetName(), createQuadIndex(getBdbEnvironmentCreator(), getOwnerId(), getDataSetName()));
+      target.start();
+      target.empty(); // clears what an interrupted migration left behind
+      try (Stream<CursorQuad> quads = source.getAllQuads()) {
+        final Iterator<CursorQuad> iterator = quads.iterator();
+        while (iterator.hasNext()) {
+          final CursorQuad quad = iterator.next();
+          target.putQuad(quad.getSubject(), quad.getPredicate(), quad.getDirection(), quad.getObject(),
+            quad.getValuetype().orElse(null), quad.getLanguage().orElse(null));
+        }
+      }
+      target.commit();
+      final BdbWrapper<String, String> marker = getBdbEnvironmentCreator().getDatabase(getOwnerId(), getDataSetName(),
+        BINARY_MIGRATION_DONE_DATABASE, false, TupleBinding.getPrimitiveBinding(String.class),
+        TupleBinding.getPrimitiveBinding(String.class), new StringStringIsCleanHandler());
+      marker.beginTransaction();
+      marker.put("done", "true");
+      marker.commit();
+    } catch (BdbDbCreationException | DatabaseWriteException e) {
+      throw new DataStoreCreationException(e);
+    }
+    source.start();
+    source.empty();
+    source.commit();
+    return true;
+  }
+
   public void stop() {
     // close the database environment
     getBdbEnvironmentCreator().closeEnvironment(getOwnerId(), getDataSetName());
@@ -304,6 +508,11 @@ public abstract class DataSet {
 
   public abstract QuadStore getQuadStore();
 
+  /**
+   * The secondary indices and counts of the quad store, that have to be updated with every write to the quad store
+   */
+  public abstract BdbQuadIndex getQuadIndex();
+
   public abstract DataSetMetaData getMetadata();
 
   public abstract ChangesRetriever getChangesRetriever();
@@ -312,6 +521,20 @@ public abstract class DataSet {
 
   public abstract ReadOnlyChecker getReadOnlyChecker();
 
+  /**
+   * @see LogList#getProcessedLogCount()
+   */
+  public long getProcessedLogCount() throws IOException {
+    return getDataSetStorage().getLogList().getData().getProcessedLogCount();
+  }
+
+  /**
+   * The file in which the GraphQL types that are generated for this data set are kept between restarts.
+   */
+  public File getSchemaFragmentFile() {
+    return getDataSetStorage().getSchemaFragmentFile();
+  }
+
   public LogInfo getLogInfo() throws IOException {
     return new LogInfo(getDataSetStorage().getLogList().getData());
   }
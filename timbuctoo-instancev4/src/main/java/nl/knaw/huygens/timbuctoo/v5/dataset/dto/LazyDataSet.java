@@ -0,0 +1,218 @@
+package nl.knaw.huygens.timbuctoo.v5.dataset.dto;
+
+import nl.knaw.huygens.timbuctoo.v5.berkeleydb.BdbEnvironmentCreator;
+import nl.knaw.huygens.timbuctoo.v5.dataset.ChangesRetriever;
+import nl.knaw.huygens.timbuctoo.v5.dataset.CurrentStateRetriever;
+import nl.knaw.huygens.timbuctoo.v5.dataset.ImportManager;
+import nl.knaw.huygens.timbuctoo.v5.dataset.ReadOnlyChecker;
+import nl.knaw.huygens.timbuctoo.v5.dataset.exceptions.DataStoreCreationException;
+import nl.knaw.huygens.timbuctoo.v5.datastorage.DataSetStorage;
+import nl.knaw.huygens.timbuctoo.v5.datastores.implementations.bdb.BdbQuadIndex;
+import nl.knaw.huygens.timbuctoo.v5.datastores.implementations.bdb.BdbTruePatchStore;
+import nl.knaw.huygens.timbuctoo.v5.datastores.implementations.bdb.UpdatedPerPatchStore;
+import nl.knaw.huygens.timbuctoo.v5.datastores.implementations.bdb.VersionStore;
+import nl.knaw.huygens.timbuctoo.v5.datastores.prefixstore.TypeNameStore;
+import nl.knaw.huygens.timbuctoo.v5.datastores.quadstore.QuadStore;
+import nl.knaw.huygens.timbuctoo.v5.datastores.schemastore.SchemaStore;
+import nl.knaw.huygens.timbuctoo.v5.rml.RdfDataSourceFactory;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.LongSupplier;
+
+/**
+ * A data set that opens its databases when they are first needed. The databases can be closed again while the data
+ * set is not used, the next call that needs them opens them again. The metadata is available without opening them.
+ */
+public class LazyDataSet extends DataSet {
+  private final DataSetMetaData metadata;
+  private final BdbEnvironmentCreator environmentCreator;
+  private final DataSetStorage dataSetStorage;
+  private final ReadOnlyChecker readOnlyChecker;
+  private final Opener opener;
+  private final Consumer<LazyDataSet> onOpened;
+  private final List<Runnable> updateListeners = new ArrayList<>();
+  private DataSet dataSet;
+  private volatile long lastAccess;
+
+  /**
+   * @param opener   creates the data set with its open databases
+   * @param onOpened is called each time the databases were opened
+   */
+  public LazyDataSet(DataSetMetaData metadata, BdbEnvironmentCreator environmentCreator,
+                     DataSetStorage dataSetStorage, ReadOnlyChecker readOnlyChecker, Opener opener,
+                     Consumer<LazyDataSet> onOpened) {
+    this.metadata = metadata;
+    this.environmentCreator = environmentCreator;
+    this.dataSetStorage = dataSetStorage;
+    this.readOnlyChecker = readOnlyChecker;
+    this.opener = opener;
+    this.onOpened = onOpened;
+  }
+
+  private DataSet opened() {
+    lastAccess = System.currentTimeMillis();
+    boolean wasOpened = false;
+    DataSet result;
+    synchronized (this) {
+      if (dataSet == null) {
+        try {
+          dataSet = opener.open();
+        } catch (IOException | DataStoreCreationException e) {
+          throw new RuntimeException("Could not open data set " + metadata.getCombinedId(), e);
+        }
+        updateListeners.forEach(dataSet::subscribeToDataChanges);
+        wasOpened = true;
+      }
+      result = dataSet;
+    }
+    if (wasOpened) {
+      onOpened.accept(this);
+    }
+    return result;
+  }
+
+  public synchronized boolean isOpen() {
+    return dataSet != null;
+  }
+
+  /**
+   * The time in milliseconds of the last call that needed the databases.
+   */
+  public long getLastAccess() {
+    return lastAccess;
+  }
+
+  /**
+   * Closes the databases unless an import is running or a use that is still running might hold on to them.
+   *
+   * @param oldestUse the start time in milliseconds of the oldest use that is still running. A use that needed the
+   *                  databases accessed them after it started, so the databases stay open when the last access is not
+   *                  before that time.
+   * @return true if the databases were closed
+   */
+  public synchronized boolean close(LongSupplier oldestUse) {
+    // read the last access before the uses, a use is registered before it accesses the databases
+    final long lastAccess = this.lastAccess;
+    if (dataSet == null || lastAccess >= oldestUse.getAsLong() || dataSet.getImportManager().isImporting()) {
+      return false;
+    }
+    dataSet.stop();
+    dataSet = null;
+    return true;
+  }
+
+  @Override
+  public synchronized void stop() {
+    if (dataSet != null) {
+      dataSet.stop();
+      dataSet = null;
+    }
+  }
+
+  @Override
+  public void subscribeToDataChanges(Runnable updateListener) {
+    synchronized (this) {
+      updateListeners.add(updateListener);
+      if (dataSet != null) {
+        dataSet.subscribeToDataChanges(updateListener);
+      }
+    }
+  }
+
+  @Override
+  public void backupDatabases(String backupPath) throws IOException {
+    opened().backupDatabases(backupPath);
+  }
+
+  @Override
+  protected String getOwnerId() {
+    return metadata.getOwnerId();
+  }
+
+  @Override
+  protected String getDataSetName() {
+    return metadata.getDataSetId();
+  }
+
+  @Override
+  protected BdbEnvironmentCreator getBdbEnvironmentCreator() {
+    return environmentCreator;
+  }
+
+  @Override
+  protected DataSetStorage getDataSetStorage() {
+    return dataSetStorage;
+  }
+
+  @Override
+  public DataSetMetaData getMetadata() {
+    return metadata;
+  }
+
+  @Override
+  public ReadOnlyChecker getReadOnlyChecker() {
+    return readOnlyChecker;
+  }
+
+  @Override
+  public SchemaStore getSchemaStore() {
+    return opened().getSchemaStore();
+  }
+
+  @Override
+  public UpdatedPerPatchStore getUpdatedPerPatchStore() {
+    return opened().getUpdatedPerPatchStore();
+  }
+
+  @Override
+  public BdbTruePatchStore getTruePatchStore() {
+    return opened().getTruePatchStore();
+  }
+
+  @Override
+  public TypeNameStore getTypeNameStore() {
+    return opened().getTypeNameStore();
+  }
+
+  @Override
+  public VersionStore getVersionStore() {
+    return opened().getVersionStore();
+  }
+
+  @Override
+  public ImportManager getImportManager() {
+    return opened().getImportManager();
+  }
+
+  @Override
+  public RdfDataSourceFactory getDataSource() {
+    return opened().getDataSource();
+  }
+
+  @Override
+  public QuadStore getQuadStore() {
+    return opened().getQuadStore();
+  }
+
+  @Override
+  public BdbQuadIndex getQuadIndex() {
+    return opened().getQuadIndex();
+  }
+
+  @Override
+  public ChangesRetriever getChangesRetriever() {
+    return opened().getChangesRetriever();
+  }
+
+  @Override
+  public CurrentStateRetriever getCurrentStateRetriever() {
+    return opened().getCurrentStateRetriever();
+  }
+
+  public interface Opener {
+    DataSet open() throws IOException, DataStoreCreationException;
+  }
+}
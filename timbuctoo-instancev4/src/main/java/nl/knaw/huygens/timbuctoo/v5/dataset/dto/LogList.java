@@ -14,6 +14,9 @@ public class LogList {
   @JsonProperty
   private int processedUntil = -1;
 
+  @JsonProperty
+  private long processedLogCount;
+
   @JsonProperty
   private String lastStatus;
 
@@ -41,6 +44,17 @@ public class LogList {
 
   public void markAsProcessed(int marker) {
     this.processedUntil = marker;
+    if (marker >= 0) {
+      processedLogCount++;
+    }
+  }
+
+  /**
+   * The number of times a log was processed, which includes the logs that were processed again. It changes whenever
+   * the processing of the logs might have changed the databases.
+   */
+  public long getProcessedLogCount() {
+    return processedLogCount;
   }
 
   @JsonIgnore
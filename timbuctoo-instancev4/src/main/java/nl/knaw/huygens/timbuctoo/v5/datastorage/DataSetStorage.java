@@ -29,4 +29,6 @@ public interface DataSetStorage {
   void clear() throws IOException;
 
   File getCustomProvenanceFile();
+
+  File getSchemaFragmentFile();
 }
@@ -92,6 +92,11 @@ class FileSystemDataSetStorage implements DataSetStorage {
     return fileHelper.fileInDataSet(ownerPrefix, dataSetId, "customProvenance.json");
   }
 
+  @Override
+  public File getSchemaFragmentFile() {
+    return fileHelper.fileInDataSet(ownerPrefix, dataSetId, "schemaFragment.json");
+  }
+
   @Override
   public JsonDataStore<LogList> getLogList() throws IOException {
     return JsonFileBackedData.getOrCreate(logFile, LogList::new, new TypeReference<LogList>(){});
@@ -0,0 +1,399 @@
+package nl.knaw.huygens.timbuctoo.v5.datastores.implementations.bdb;
+
+import com.sleepycat.bind.tuple.TupleBinding;
+import com.sleepycat.bind.tuple.TupleInput;
+import com.sleepycat.bind.tuple.TupleOutput;
+import com.sleepycat.je.DatabaseEntry;
+import nl.knaw.huygens.timbuctoo.v5.berkeleydb.BdbWrapper;
+import nl.knaw.huygens.timbuctoo.v5.berkeleydb.DatabaseGetter;
+import nl.knaw.huygens.timbuctoo.v5.berkeleydb.exceptions.DatabaseWriteException;
+import nl.knaw.huygens.timbuctoo.v5.berkeleydb.isclean.IsCleanHandler;
+import nl.knaw.huygens.timbuctoo.v5.datastores.quadstore.dto.CursorQuad;
+import nl.knaw.huygens.timbuctoo.v5.datastores.quadstore.dto.Direction;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static nl.knaw.huygens.timbuctoo.v5.berkeleydb.DatabaseGetter.Iterate.BACKWARDS;
+import static nl.knaw.huygens.timbuctoo.v5.berkeleydb.DatabaseGetter.Iterate.FORWARDS;
+import static nl.knaw.huygens.timbuctoo.v5.datastores.implementations.bdb.TermDictionary.NO_TERM;
+
+/**
+ * A quad store that stores the subject, predicate and data type as ids from a {@link TermDictionary}. The key of
+ * every quad is a fixed width (subject id, predicate id, direction) tuple and the value a (data type id, language,
+ * object) tuple.
+ *
+ * <p>Quads are returned ordered by the ids of the terms instead of by the terms themselves.</p>
+ */
+public class BdbBinaryTripleStore implements BdbQuadStore {
+  public static final IsCleanHandler<QuadKey, QuadValue> IS_CLEAN_HANDLER = new IsCleanHandler<QuadKey, QuadValue>() {
+    @Override
+    public QuadKey getKey() {
+      return new QuadKey(NO_TERM, NO_TERM, Direction.OUT);
+    }
+
+    @Override
+    public QuadValue getValue() {
+      return new QuadValue(NO_TERM, "", "isClean");
+    }
+  };
+  private static final Logger LOG = LoggerFactory.getLogger(BdbBinaryTripleStore.class);
+  private static final QuadKeyBinding KEY_BINDING = new QuadKeyBinding();
+  private static final QuadValueBinding VALUE_BINDING = new QuadValueBinding();
+  private static final Comparator<ResolvedQuad> RESOLVED_ORDER = Comparator.<ResolvedQuad>comparingInt(q -> q.subjectId)
+    .thenComparingInt(q -> q.predicateId)
+    .thenComparing(q -> q.quad.getDirection())
+    .thenComparingInt(q -> q.dataTypeId)
+    .thenComparing(q -> q.quad.getLanguage().orElse(""))
+    .thenComparing(q -> q.quad.getObject());
+  private final BdbWrapper<QuadKey, QuadValue> bdbWrapper;
+  private final TermDictionary terms;
+  private final BdbQuadIndex quadIndex;
+  private final Comparator<CursorQuad> comparator;
+
+  /**
+   * @param quadIndex the secondary indices that are used for the lookups by predicate and object. They are maintained
+   *                  by the {@link StoreUpdater}.
+   */
+  public BdbBinaryTripleStore(BdbWrapper<QuadKey, QuadValue> rdfData, TermDictionary terms, BdbQuadIndex quadIndex) {
+    this.bdbWrapper = rdfData;
+    this.terms = terms;
+    this.quadIndex = Objects.requireNonNull(quadIndex);
+    this.comparator = Comparator.<CursorQuad>comparingInt(q -> idOf(q.getSubject()))
+      .thenComparingInt(q -> idOf(q.getPredicate()))
+      .thenComparing(CursorQuad::getDirection)
+      .thenComparingInt(q -> idOf(q.getValuetype().orElse(null)))
+      .thenComparing(q -> q.getLanguage().orElse(""))
+      .thenComparing(CursorQuad::getObject);
+  }
+
+  @Override
+  public Stream<CursorQuad> getQuads(String subject, String predicate, Direction direction, String cursor) {
+    final DatabaseGetter<QuadKey, QuadValue> getter;
+    if (cursor.isEmpty() || cursor.equals("LAST")) {
+      int subjectId = terms.getId(subject);
+      int predicateId = terms.getId(predicate);
+      if (subjectId == NO_TERM || predicateId == NO_TERM) {
+        return Stream.empty();
+      }
+      if (cursor.isEmpty()) {
+        getter = bdbWrapper.databaseGetter()
+          .key(new QuadKey(subjectId, predicateId, direction))
+          .dontSkip()
+          .forwards();
+      } else {
+        getter = bdbWrapper.databaseGetter()
+          .key(new QuadKey(subjectId, predicateId, direction))
+          .skipToEnd()
+          .backwards();
+      }
+    } else {
+      String[] fields = cursor.substring(2).split("\n", 6);
+      getter = bdbWrapper.databaseGetter()
+        .key(new QuadKey(Integer.parseInt(fields[0]), Integer.parseInt(fields[1]), Direction.valueOf(fields[2])))
+        .skipToValue(new QuadValue(Integer.parseInt(fields[3]), fields[4], fields[5]))
+        .skipOne() //we start after the cursor
+        .direction(cursor.startsWith("A\n") ? FORWARDS : BACKWARDS);
+    }
+    return getter.getEntries(this::formatResult);
+  }
+
+  @Override
+  public Stream<CursorQuad> getQuads(String subject) {
+    int subjectId = terms.getId(subject);
+    if (subjectId == NO_TERM) {
+      return Stream.empty();
+    }
+    return subjectGetter(subjectId).getEntries(this::formatResult);
+  }
+
+  @Override
+  public boolean hasQuads(String subject) {
+    int subjectId = terms.getId(subject);
+    return subjectId != NO_TERM && subjectGetter(subjectId).exists();
+  }
+
+  private DatabaseGetter<QuadKey, QuadValue> subjectGetter(int subjectId) {
+    return bdbWrapper.databaseGetter()
+      .keyPrefix(new QuadKey(subjectId, Integer.MIN_VALUE, Direction.IN), Integer.BYTES) // only the subject id
+      .dontSkip()
+      .forwards();
+  }
+
+  @Override
+  public Stream<CursorQuad> getQuadsByPredicate(String predicate) {
+    return quadIndex.getQuadsByPredicate(predicate);
+  }
+
+  @Override
+  public Stream<CursorQuad> getQuadsByValue(String predicate, String object, String cursor) {
+    return quadIndex.getQuadsByValue(predicate, object, cursor);
+  }
+
+  @Override
+  public Stream<CursorQuad> getQuadsByObject(String object, String cursor) {
+    return quadIndex.getQuadsByObject(object, cursor);
+  }
+
+  @Override
+  public Optional<Long> getQuadCount(String subject, String predicate, Direction direction) {
+    return quadIndex.getQuadCount(subject, predicate, direction);
+  }
+
+  @Override
+  public Stream<CursorQuad> getAllQuads() {
+    return bdbWrapper.databaseGetter()
+      .getAll()
+      .getEntries(this::formatResult);
+  }
+
+  private CursorQuad formatResult(DatabaseEntry keyEntry, DatabaseEntry valueEntry) {
+    return formatResult(KEY_BINDING.entryToObject(keyEntry), VALUE_BINDING.entryToObject(valueEntry));
+  }
+
+  private CursorQuad formatResult(QuadKey key, QuadValue value) {
+    String cursor = key.getSubjectId() + "\n" + key.getPredicateId() + "\n" + key.getDirection().name() + "\n" +
+      value.getDataTypeId() + "\n" + value.getLanguage() + "\n" + value.getObject();
+    return CursorQuad.create(
+      terms.getTerm(key.getSubjectId()),
+      terms.getTerm(key.getPredicateId()),
+      key.getDirection(),
+      value.getObject(),
+      terms.getTerm(value.getDataTypeId()),
+      value.getLanguage().isEmpty() ? null : value.getLanguage(),
+      cursor
+    );
+  }
+
+  @Override
+  public boolean putQuad(String subject, String predicate, Direction direction, String object, String dataType,
+                         String language) throws DatabaseWriteException {
+    return bdbWrapper.put(
+      new QuadKey(terms.getOrCreateId(subject), terms.getOrCreateId(predicate), direction),
+      new QuadValue(terms.getOrCreateId(dataType), language == null ? "" : language, object)
+    );
+  }
+
+  @Override
+  public boolean deleteQuad(String subject, String predicate, Direction direction, String object, String dataType,
+                            String language) throws DatabaseWriteException {
+    int subjectId = terms.getId(subject);
+    int predicateId = terms.getId(predicate);
+    int dataTypeId = terms.getId(dataType);
+    if (subjectId == NO_TERM || predicateId == NO_TERM || (dataType != null && dataTypeId == NO_TERM)) {
+      return false; // a quad with an unknown term can't be part of the store
+    }
+    return bdbWrapper.delete(
+      new QuadKey(subjectId, predicateId, direction),
+      new QuadValue(dataTypeId, language == null ? "" : language, object)
+    );
+  }
+
+  @Override
+  public int compare(CursorQuad leftQ, CursorQuad rightQ) {
+    return comparator.compare(leftQ, rightQ);
+  }
+
+  @Override
+  public Stream<CursorQuad> inStoreOrder(Stream<CursorQuad> quads) {
+    return quads.sorted(comparator);
+  }
+
+  /**
+   * Looks up the ids of the terms of every quad once, instead of on every comparison that the sort makes.
+   */
+  @Override
+  public void sortForWriting(List<CursorQuad> quads) {
+    final Map<String, Integer> ids = new HashMap<>();
+    final List<ResolvedQuad> resolved = new ArrayList<>(quads.size());
+    for (CursorQuad quad : quads) {
+      resolved.add(new ResolvedQuad(
+        quad,
+        ids.computeIfAbsent(quad.getSubject(), this::idOf),
+        ids.computeIfAbsent(quad.getPredicate(), this::idOf),
+        quad.getValuetype().map(type -> ids.computeIfAbsent(type, this::idOf)).orElse(NO_TERM)
+      ));
+    }
+    resolved.sort(RESOLVED_ORDER);
+    for (int i = 0; i < resolved.size(); i++) {
+      quads.set(i, resolved.get(i).quad);
+    }
+  }
+
+  private int idOf(String term) {
+    int id = terms.getId(term);
+    return id == NO_TERM && term != null ? Integer.MAX_VALUE : id;
+  }
+
+  @Override
+  public void close() {
+    try {
+      bdbWrapper.close();
+    } catch (Exception e) {
+      LOG.error("Exception closing BdbBinaryTripleStore", e);
+    }
+    terms.close();
+  }
+
+  @Override
+  public void commit() {
+    terms.commit();
+    bdbWrapper.commit();
+  }
+
+  @Override
+  public boolean isClean() {
+    return terms.isClean() && bdbWrapper.isClean();
+  }
+
+  @Override
+  public void start() {
+    terms.start();
+    bdbWrapper.beginTransaction();
+  }
+
+  @Override
+  public void startBatch() {
+    bdbWrapper.startBatch();
+  }
+
+  @Override
+  public void finishBatch() {
+    bdbWrapper.finishBatch();
+  }
+
+  @Override
+  public void empty() {
+    bdbWrapper.empty();
+    terms.empty();
+  }
+
+  private static class ResolvedQuad {
+    private final CursorQuad quad;
+    private final int subjectId;
+    private final int predicateId;
+    private final int dataTypeId;
+
+    ResolvedQuad(CursorQuad quad, int subjectId, int predicateId, int dataTypeId) {
+      this.quad = quad;
+      this.subjectId = subjectId;
+      this.predicateId = predicateId;
+      this.dataTypeId = dataTypeId;
+    }
+  }
+
+  public static class QuadKey {
+    private final int subjectId;
+    private final int predicateId;
+    private final Direction direction;
+
+    public QuadKey(int subjectId, int predicateId, Direction direction) {
+      this.subjectId = subjectId;
+      this.predicateId = predicateId;
+      this.direction = direction;
+    }
+
+    public int getSubjectId() {
+      return subjectId;
+    }
+
+    public int getPredicateId() {
+      return predicateId;
+    }
+
+    public Direction getDirection() {
+      return direction;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+      if (!(obj instanceof QuadKey)) {
+        return false;
+      }
+      QuadKey other = (QuadKey) obj;
+      return subjectId == other.subjectId && predicateId == other.predicateId && direction == other.direction;
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(subjectId, predicateId, direction);
+    }
+  }
+
+  public static class QuadValue {
+    private final int dataTypeId;
+    private final String language;
+    private final String object;
+
+    public QuadValue(int dataTypeId, String language, String object) {
+      this.dataTypeId = dataTypeId;
+      this.language = language;
+      this.object = object;
+    }
+
+    public int getDataTypeId() {
+      return dataTypeId;
+    }
+
+    public String getLanguage() {
+      return language;
+    }
+
+    public String getObject() {
+      return object;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+      if (!(obj instanceof QuadValue)) {
+        return false;
+      }
+      QuadValue other = (QuadValue) obj;
+      return dataTypeId == other.dataTypeId && language.equals(other.language) && object.equals(other.object);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(dataTypeId, language, object);
+    }
+  }
+
+  /**
+   * Writes the key as 9 bytes: two sortable ints and a direction byte.
+   */
+  public static class QuadKeyBinding extends TupleBinding<QuadKey> {
+    @Override
+    public QuadKey entryToObject(TupleInput input) {
+      return new QuadKey(input.readInt(), input.readInt(), input.readByte() == 0 ? Direction.IN : Direction.OUT);
+    }
+
+    @Override
+    public void objectToEntry(QuadKey key, TupleOutput output) {
+      output.writeInt(key.getSubjectId());
+      output.writeInt(key.getPredicateId());
+      output.writeByte(key.getDirection() == Direction.IN ? 0 : 1);
+    }
+  }
+
+  public static class QuadValueBinding extends TupleBinding<QuadValue> {
+    @Override
+    public QuadValue entryToObject(TupleInput input) {
+      return new QuadValue(input.readInt(), input.readString(), input.readString());
+    }
+
+    @Override
+    public void objectToEntry(QuadValue value, TupleOutput output) {
+      output.writeInt(value.getDataTypeId());
+      output.writeString(value.getLanguage());
+      output.writeString(value.getObject());
+    }
+  }
+}
@@ -0,0 +1,297 @@
+package nl.knaw.huygens.timbuctoo.v5.datastores.implementations.bdb;
+
+import com.google.common.hash.Hashing;
+import com.sleepycat.bind.tuple.StringBinding;
+import com.sleepycat.je.DatabaseEntry;
+import nl.knaw.huygens.timbuctoo.v5.berkeleydb.BdbWrapper;
+import nl.knaw.huygens.timbuctoo.v5.berkeleydb.DatabaseGetter;
+import nl.knaw.huygens.timbuctoo.v5.berkeleydb.exceptions.DatabaseWriteException;
+import nl.knaw.huygens.timbuctoo.v5.datastores.quadstore.dto.CursorQuad;
+import nl.knaw.huygens.timbuctoo.v5.datastores.quadstore.dto.Direction;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Optional;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.stream.Stream;
+
+import static nl.knaw.huygens.timbuctoo.v5.berkeleydb.DatabaseGetter.Iterate.BACKWARDS;
+import static nl.knaw.huygens.timbuctoo.v5.berkeleydb.DatabaseGetter.Iterate.FORWARDS;
+
+/**
+ * Secondary indices of the OUT quads of a data set. The quad store itself is keyed subject first, these indices make
+ * it possible to find quads by predicate and object (POS) or by object alone (OSP).
+ *
+ * <p>POS keys are "predicate\nobject" with "subject\ndataType\nlanguage" values, OSP keys are the object with
+ * "subject\npredicate\ndataType\nlanguage" values. IRIs can't contain a newline, so the fields can be split
+ * unambiguously even though the object can.</p>
+ *
+ * <p>Objects longer than {@link #MAX_OBJECT_KEY_LENGTH} characters are only used as (part of) a key in a shortened
+ * form: a prefix followed by a hash of the whole object. The whole object is then appended to the value.</p>
+ *
+ * <p>The index also counts the quads (of both directions) per "subject\npredicate\ndirection" key, so that the total
+ * of a list (e.g. the number of letters that a person wrote) is a lookup instead of a scan. The changes of the counts
+ * are summed in memory and written by {@link #applyCountChanges()}, so that a count is written once per batch.
+ * {@link #index(Stream)} writes them whenever {@link #MAX_COUNT_CHANGES} keys have changed, so that indexing a whole
+ * store does not keep a count per key in memory.</p>
+ */
+public class BdbQuadIndex {
+  static final int MAX_OBJECT_KEY_LENGTH = 256;
+  static final int MAX_COUNT_CHANGES = 10_000;
+  private static final Logger LOG = LoggerFactory.getLogger(BdbQuadIndex.class);
+  private final BdbWrapper<String, String> byPredicate;
+  private final BdbWrapper<String, String> byObject;
+  private final BdbWrapper<String, Long> counts;
+  private final SortedMap<String, Long> countChanges = new TreeMap<>();
+
+  public BdbQuadIndex(BdbWrapper<String, String> byPredicate, BdbWrapper<String, String> byObject) {
+    this(byPredicate, byObject, null);
+  }
+
+  /**
+   * @param counts the number of quads per subject, predicate and direction. The index keeps no counts when it is null.
+   */
+  public BdbQuadIndex(BdbWrapper<String, String> byPredicate, BdbWrapper<String, String> byObject,
+                      BdbWrapper<String, Long> counts) {
+    this.byPredicate = byPredicate;
+    this.byObject = byObject;
+    this.counts = counts;
+  }
+
+  public void put(String subject, String predicate, Direction direction, String object, String dataType,
+                  String language) throws DatabaseWriteException {
+    changeCount(subject, predicate, direction, 1);
+    if (direction == Direction.OUT) {
+      byPredicate.put(predicate + "\n" + objectKey(object), subject + "\n" + formatTail(object, dataType, language));
+      byObject.put(objectKey(object), subject + "\n" + predicate + "\n" + formatTail(object, dataType, language));
+    }
+  }
+
+  public void delete(String subject, String predicate, Direction direction, String object, String dataType,
+                     String language) throws DatabaseWriteException {
+    changeCount(subject, predicate, direction, -1);
+    if (direction == Direction.OUT) {
+      byPredicate.delete(predicate + "\n" + objectKey(object),
+        subject + "\n" + formatTail(object, dataType, language));
+      byObject.delete(objectKey(object), subject + "\n" + predicate + "\n" + formatTail(object, dataType, language));
+    }
+  }
+
+  /**
+   * Fills an empty index with the OUT quads of the stream. The quads of a store are ordered by subject, predicate and
+   * direction, so the changes of a count are mostly written at once.
+   */
+  public void index(Stream<CursorQuad> quads) throws DatabaseWriteException {
+    final Iterator<CursorQuad> iterator = quads.iterator();
+    while (iterator.hasNext()) {
+      final CursorQuad quad = iterator.next();
+      put(quad.getSubject(), quad.getPredicate(), quad.getDirection(), quad.getObject(),
+        quad.getValuetype().orElse(null), quad.getLanguage().orElse(null));
+      if (countChanges.size() >= MAX_COUNT_CHANGES) {
+        applyCountChanges();
+      }
+    }
+    applyCountChanges();
+  }
+
+  private void changeCount(String subject, String predicate, Direction direction, long change) {
+    if (counts != null) {
+      countChanges.merge(countKey(subject, predicate, direction), change, Long::sum);
+    }
+  }
+
+  /**
+   * Writes the changes of the counts of the quads that were put and deleted since the previous call
+   */
+  public void applyCountChanges() throws DatabaseWriteException {
+    for (Map.Entry<String, Long> change : countChanges.entrySet()) {
+      if (change.getValue() != 0) {
+        final long current = getCount(change.getKey());
+        final long count = current + change.getValue();
+        if (count > 0) {
+          counts.put(change.getKey(), count);
+        } else if (current > 0) {
+          counts.delete(change.getKey(), current);
+        }
+      }
+    }
+    countChanges.clear();
+  }
+
+  /**
+   * @return the number of quads with this subject, predicate and direction, or an empty Optional if the index keeps no
+   *     counts
+   */
+  public Optional<Long> getQuadCount(String subject, String predicate, Direction direction) {
+    if (counts == null) {
+      return Optional.empty();
+    }
+    return Optional.of(getCount(countKey(subject, predicate, direction)));
+  }
+
+  private long getCount(String key) {
+    try (Stream<Long> values = counts.databaseGetter()
+      .key(key)
+      .dontSkip()
+      .forwards()
+      .getValues(counts.valueRetriever())) {
+      return values.findFirst().orElse(0L);
+    }
+  }
+
+  private String countKey(String subject, String predicate, Direction direction) {
+    return subject + "\n" + predicate + "\n" + direction.name();
+  }
+
+  public Stream<CursorQuad> getQuadsByPredicate(String predicate) {
+    final String prefix = predicate + "\n";
+    final DatabaseEntry prefixEntry = new DatabaseEntry();
+    StringBinding.stringToEntry(prefix, prefixEntry);
+    return byPredicate.databaseGetter()
+      .keyPrefix(prefix, prefixEntry.getSize() - 1) // ignore the terminating zero byte of the serialized string
+      .dontSkip()
+      .forwards()
+      .getEntries(this::formatPredicateResult);
+  }
+
+  public Stream<CursorQuad> getQuadsByValue(String predicate, String object, String cursor) {
+    return withObject(
+      object,
+      getter(byPredicate, predicate + "\n" + objectKey(object), cursor).getEntries(this::formatPredicateResult)
+    );
+  }
+
+  public Stream<CursorQuad> getQuadsByObject(String object, String cursor) {
+    return withObject(object, getter(byObject, objectKey(object), cursor).getEntries(this::formatObjectResult));
+  }
+
+  private Stream<CursorQuad> withObject(String object, Stream<CursorQuad> quads) {
+    // the shortened keys of two long objects might be the same
+    return object.length() > MAX_OBJECT_KEY_LENGTH ? quads.filter(quad -> quad.getObject().equals(object)) : quads;
+  }
+
+  private static String objectKey(String object) {
+    if (object.length() <= MAX_OBJECT_KEY_LENGTH) {
+      return object;
+    }
+    return object.substring(0, MAX_OBJECT_KEY_LENGTH) + "\n" +
+      Hashing.sha256().hashString(object, StandardCharsets.UTF_8).toString();
+  }
+
+  private DatabaseGetter<String, String> getter(BdbWrapper<String, String> database, String key, String cursor) {
+    if (cursor.isEmpty()) {
+      return database.databaseGetter()
+        .key(key)
+        .dontSkip()
+        .forwards();
+    } else if (cursor.equals("LAST")) {
+      return database.databaseGetter()
+        .key(key)
+        .skipToEnd()
+        .backwards();
+    } else {
+      // the key is part of the request, so the cursor only needs the value
+      return database.databaseGetter()
+        .key(key)
+        .skipToValue(cursor.substring(2))
+        .skipOne() //we start after the cursor
+        .direction(cursor.startsWith("A\n") ? FORWARDS : BACKWARDS);
+    }
+  }
+
+  private CursorQuad formatPredicateResult(DatabaseEntry keyEntry, DatabaseEntry valueEntry) {
+    final String key = StringBinding.entryToString(keyEntry);
+    final String value = StringBinding.entryToString(valueEntry);
+    final int objectStart = key.indexOf('\n') + 1;
+    final String[] valueFields = value.split("\n", 4);
+    return CursorQuad.create(
+      valueFields[0],
+      key.substring(0, objectStart - 1),
+      Direction.OUT,
+      valueFields.length > 3 ? valueFields[3] : key.substring(objectStart),
+      valueFields[1].isEmpty() ? null : valueFields[1],
+      valueFields[2].isEmpty() ? null : valueFields[2],
+      value
+    );
+  }
+
+  private CursorQuad formatObjectResult(DatabaseEntry keyEntry, DatabaseEntry valueEntry) {
+    final String value = StringBinding.entryToString(valueEntry);
+    final String[] valueFields = value.split("\n", 5);
+    return CursorQuad.create(
+      valueFields[0],
+      valueFields[1],
+      Direction.OUT,
+      valueFields.length > 4 ? valueFields[4] : StringBinding.entryToString(keyEntry),
+      valueFields[2].isEmpty() ? null : valueFields[2],
+      valueFields[3].isEmpty() ? null : valueFields[3],
+      value
+    );
+  }
+
+  private String formatTail(String object, String dataType, String language) {
+    final String tail = (dataType == null ? "" : dataType) + "\n" + (language == null ? "" : language);
+    return object.length() > MAX_OBJECT_KEY_LENGTH ? tail + "\n" + object : tail;
+  }
+
+  public void start() {
+    byPredicate.beginTransaction();
+    byObject.beginTransaction();
+    if (counts != null) {
+      counts.beginTransaction();
+    }
+  }
+
+  public void commit() {
+    byPredicate.commit();
+    byObject.commit();
+    if (counts != null) {
+      counts.commit();
+    }
+  }
+
+  public void startBatch() {
+    byPredicate.startBatch();
+    byObject.startBatch();
+    if (counts != null) {
+      counts.startBatch();
+    }
+  }
+
+  public void finishBatch() {
+    byPredicate.finishBatch();
+    byObject.finishBatch();
+    if (counts != null) {
+      counts.finishBatch();
+    }
+  }
+
+  public boolean isClean() {
+    return byPredicate.isClean() && byObject.isClean() && (counts == null || counts.isClean());
+  }
+
+  public void empty() {
+    byPredicate.empty();
+    byObject.empty();
+    countChanges.clear();
+    if (counts != null) {
+      counts.empty();
+    }
+  }
+
+  public void close() {
+    try {
+      byPredicate.close();
+      byObject.close();
+      if (counts != null) {
+        counts.close();
+      }
+    } catch (Exception e) {
+      LOG.error("Exception closing BdbQuadIndex", e);
+    }
+  }
+}
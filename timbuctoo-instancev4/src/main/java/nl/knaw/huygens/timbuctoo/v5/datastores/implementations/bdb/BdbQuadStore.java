@@ -0,0 +1,53 @@
+package nl.knaw.huygens.timbuctoo.v5.datastores.implementations.bdb;
+
+import nl.knaw.huygens.timbuctoo.v5.berkeleydb.exceptions.DatabaseWriteException;
+import nl.knaw.huygens.timbuctoo.v5.datastores.quadstore.QuadStore;
+import nl.knaw.huygens.timbuctoo.v5.datastores.quadstore.dto.CursorQuad;
+import nl.knaw.huygens.timbuctoo.v5.datastores.quadstore.dto.Direction;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * The writable side of a QuadStore that is backed by a berkeley db. Implementations only differ in how they lay out
+ * the quads on disk.
+ */
+public interface BdbQuadStore extends QuadStore {
+  boolean putQuad(String subject, String predicate, Direction direction, String object, String dataType,
+                  String language) throws DatabaseWriteException;
+
+  boolean deleteQuad(String subject, String predicate, Direction direction, String object, String dataType,
+                     String language) throws DatabaseWriteException;
+
+  /**
+   * Compares two quads in the order in which {@link #getQuads(String)} returns them
+   */
+  int compare(CursorQuad leftQ, CursorQuad rightQ);
+
+  /**
+   * Sorts a batch of changes in the order of {@link #compare(CursorQuad, CursorQuad)}. The sort has to be stable.
+   */
+  default void sortForWriting(List<CursorQuad> quads) {
+    quads.sort(this::compare);
+  }
+
+  /**
+   * The true patch store returns the changes of a subject sorted by their string representation. When the store uses
+   * another order, this method should re-order the changes, so they can be merged with the current state.
+   */
+  default Stream<CursorQuad> inStoreOrder(Stream<CursorQuad> quads) {
+    return quads;
+  }
+
+  void start();
+
+  /**
+   * Writes until {@link #finishBatch()} go through one cursor, see {@link
+   * nl.knaw.huygens.timbuctoo.v5.berkeleydb.BdbWrapper#startBatch()}
+   */
+  void startBatch();
+
+  void finishBatch();
+
+  void empty();
+}
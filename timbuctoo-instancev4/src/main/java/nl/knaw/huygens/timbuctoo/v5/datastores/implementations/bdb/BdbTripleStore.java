@@ -1,15 +1,18 @@
 package nl.knaw.huygens.timbuctoo.v5.datastores.implementations.bdb;
 
+import com.sleepycat.bind.tuple.StringBinding;
+import com.sleepycat.je.DatabaseEntry;
 import nl.knaw.huygens.timbuctoo.v5.berkeleydb.BdbWrapper;
 import nl.knaw.huygens.timbuctoo.v5.berkeleydb.DatabaseGetter;
 import nl.knaw.huygens.timbuctoo.v5.berkeleydb.exceptions.DatabaseWriteException;
 import nl.knaw.huygens.timbuctoo.v5.dataset.exceptions.DataStoreCreationException;
-import nl.knaw.huygens.timbuctoo.v5.datastores.quadstore.QuadStore;
 import nl.knaw.huygens.timbuctoo.v5.datastores.quadstore.dto.CursorQuad;
 import nl.knaw.huygens.timbuctoo.v5.datastores.quadstore.dto.Direction;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.Objects;
+import java.util.Optional;
 import java.util.stream.Stream;
 
 import static nl.knaw.huygens.timbuctoo.v5.berkeleydb.DatabaseGetter.Iterate.BACKWARDS;
@@ -18,14 +21,20 @@ import static nl.knaw.huygens.timbuctoo.v5.berkeleydb.DatabaseGetter.Iterate.FOR
 /**
  * This datastore determines the current state of the DataSet.
  */
-public class BdbTripleStore implements QuadStore {
+public class BdbTripleStore implements BdbQuadStore {
 
   private static final Logger LOG = LoggerFactory.getLogger(BdbTripleStore.class);
   private final BdbWrapper<String, String> bdbWrapper;
+  private final BdbQuadIndex quadIndex;
 
-  public BdbTripleStore(BdbWrapper<String, String> rdfData)
+  /**
+   * @param quadIndex the secondary indices that are used for the lookups by predicate and object. They are maintained
+   *                  by the {@link StoreUpdater}.
+   */
+  public BdbTripleStore(BdbWrapper<String, String> rdfData, BdbQuadIndex quadIndex)
     throws DataStoreCreationException {
     this.bdbWrapper = rdfData;
+    this.quadIndex = Objects.requireNonNull(quadIndex);
   }
 
   @Override
@@ -51,23 +60,54 @@ public class BdbTripleStore implements QuadStore {
           .direction(cursor.startsWith("A\n") ? FORWARDS : BACKWARDS);
       }
     }
-    return getter.getKeysAndValues(bdbWrapper.keyValueConverter(this::formatResult));
+    return getter.getEntries(this::formatResult);
   }
 
   @Override
   public Stream<CursorQuad> getQuads(String subject) {
+    return subjectGetter(subject).getEntries(this::formatResult);
+  }
+
+  @Override
+  public boolean hasQuads(String subject) {
+    return subjectGetter(subject).exists();
+  }
+
+  private DatabaseGetter<String, String> subjectGetter(String subject) {
+    final String prefix = subject + "\n";
+    final DatabaseEntry prefixEntry = new DatabaseEntry();
+    StringBinding.stringToEntry(prefix, prefixEntry);
     return bdbWrapper.databaseGetter()
-      .partialKey(subject + "\n", (prefix, key) -> key.startsWith(prefix))
+      .keyPrefix(prefix, prefixEntry.getSize() - 1) // ignore the terminating zero byte of the serialized string
       .dontSkip()
-      .forwards()
-      .getKeysAndValues(bdbWrapper.keyValueConverter(this::formatResult));
+      .forwards();
+  }
+
+  @Override
+  public Stream<CursorQuad> getQuadsByPredicate(String predicate) {
+    return quadIndex.getQuadsByPredicate(predicate);
+  }
+
+  @Override
+  public Stream<CursorQuad> getQuadsByValue(String predicate, String object, String cursor) {
+    return quadIndex.getQuadsByValue(predicate, object, cursor);
+  }
+
+  @Override
+  public Stream<CursorQuad> getQuadsByObject(String object, String cursor) {
+    return quadIndex.getQuadsByObject(object, cursor);
+  }
+
+  @Override
+  public Optional<Long> getQuadCount(String subject, String predicate, Direction direction) {
+    return quadIndex.getQuadCount(subject, predicate, direction);
   }
 
   @Override
   public Stream<CursorQuad> getAllQuads() {
     return bdbWrapper.databaseGetter()
       .getAll()
-      .getKeysAndValues(bdbWrapper.keyValueConverter(this::formatResult));
+      .getEntries(this::formatResult);
   }
 
   @Override
@@ -79,27 +119,32 @@ public class BdbTripleStore implements QuadStore {
     }
   }
 
-  private CursorQuad formatResult(String key, String value) {
-    String cursor = key + "\n\n" + value;
-    String[] keyFields = key.split("\n", 3);
-    String[] valueFields = value.split("\n", 3);
+  private CursorQuad formatResult(DatabaseEntry keyEntry, DatabaseEntry valueEntry) {
+    final String key = StringBinding.entryToString(keyEntry);
+    final String value = StringBinding.entryToString(valueEntry);
+    final int predicateStart = key.indexOf('\n') + 1;
+    final int directionStart = key.indexOf('\n', predicateStart) + 1;
+    final int languageStart = value.indexOf('\n') + 1;
+    final int objectStart = value.indexOf('\n', languageStart) + 1;
     return CursorQuad.create(
-      keyFields[0],
-      keyFields[1],
-      Direction.valueOf(keyFields[2]),
-      valueFields[2],
-      valueFields[0].isEmpty() ? null : valueFields[0],
-      valueFields[1].isEmpty() ? null : valueFields[1],
-      cursor
+      key.substring(0, predicateStart - 1),
+      key.substring(predicateStart, directionStart - 1),
+      Direction.valueOf(key.substring(directionStart)),
+      value.substring(objectStart),
+      languageStart == 1 ? null : value.substring(0, languageStart - 1),
+      objectStart == languageStart + 1 ? null : value.substring(languageStart, objectStart - 1),
+      key + "\n\n" + value
     );
   }
 
+  @Override
   public boolean putQuad(String subject, String predicate, Direction direction, String object, String dataType,
                          String language) throws DatabaseWriteException {
     String value = formatValue(object, dataType, language);
     return bdbWrapper.put(formatKey(subject, predicate, direction), value);
   }
 
+  @Override
   public boolean deleteQuad(String subject, String predicate, Direction direction, String object, String dataType,
                          String language) throws DatabaseWriteException {
     String value = formatValue(object, dataType, language);
@@ -114,6 +159,7 @@ public class BdbTripleStore implements QuadStore {
     return (dataType == null ? "" : dataType) + "\n" + (language == null ? "" : language) + "\n" + object;
   }
 
+  @Override
   public int compare(CursorQuad leftQ, CursorQuad rightQ) {
     final String leftStr = formatKey(leftQ.getSubject(), leftQ.getPredicate(), leftQ.getDirection()) + "\n" +
       formatValue(leftQ.getObject(), leftQ.getValuetype().orElse(null), leftQ.getLanguage().orElse(null));
@@ -132,10 +178,22 @@ public class BdbTripleStore implements QuadStore {
     return bdbWrapper.isClean();
   }
 
+  @Override
   public void start() {
     bdbWrapper.beginTransaction();
   }
 
+  @Override
+  public void startBatch() {
+    bdbWrapper.startBatch();
+  }
+
+  @Override
+  public void finishBatch() {
+    bdbWrapper.finishBatch();
+  }
+
+  @Override
   public void empty() {
     bdbWrapper.empty();
   }
@@ -1,9 +1,14 @@
 package nl.knaw.huygens.timbuctoo.v5.datastores.implementations.bdb;
 
+import com.sleepycat.bind.tuple.StringBinding;
+import com.sleepycat.bind.tuple.TupleBinding;
+import com.sleepycat.je.DatabaseEntry;
 import nl.knaw.huygens.timbuctoo.util.Tuple;
+import nl.knaw.huygens.timbuctoo.v5.berkeleydb.BdbEnvironmentCreator;
 import nl.knaw.huygens.timbuctoo.v5.berkeleydb.BdbWrapper;
 import nl.knaw.huygens.timbuctoo.v5.berkeleydb.exceptions.BdbDbCreationException;
 import nl.knaw.huygens.timbuctoo.v5.berkeleydb.exceptions.DatabaseWriteException;
+import nl.knaw.huygens.timbuctoo.v5.berkeleydb.isclean.StringStringIsCleanHandler;
 import nl.knaw.huygens.timbuctoo.v5.dataset.exceptions.DataStoreCreationException;
 import nl.knaw.huygens.timbuctoo.v5.datastores.quadstore.dto.ChangeType;
 import nl.knaw.huygens.timbuctoo.v5.datastores.quadstore.dto.CursorQuad;
@@ -11,115 +16,85 @@ import nl.knaw.huygens.timbuctoo.v5.datastores.quadstore.dto.Direction;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.util.HashMap;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 import static nl.knaw.huygens.timbuctoo.v5.datastores.quadstore.dto.Direction.IN;
 import static nl.knaw.huygens.timbuctoo.v5.datastores.quadstore.dto.Direction.OUT;
 
+/**
+ * Stores the changes of all versions in one database. The key is "version\nassertion flag\nsubject", so the changes
+ * of a subject in a version are found with one lookup and all assertions or retractions of a version form one range.
+ */
 public class BdbTruePatchStore {
 
   private static final Logger LOG = LoggerFactory.getLogger(BdbTruePatchStore.class);
-  private final HashMap<Integer, BdbWrapper<String, String>> bdbWrappers;
-  private final DatabaseCreator databaseCreator;
-
-  public BdbTruePatchStore(DatabaseCreator databaseCreator,
-                           UpdatedPerPatchStore updatedPerPatchStore) throws DataStoreCreationException {
-    this.databaseCreator = databaseCreator;
-    bdbWrappers = new HashMap<>();
-    try (final Stream<Integer> versions = updatedPerPatchStore.getVersions()) {
-      for (Integer version : versions.collect(Collectors.toList())) {
-        bdbWrappers.put(version, this.databaseCreator.createDatabase(String.valueOf(version)));
-      }
-    } catch (BdbDbCreationException e) {
-      throw new DataStoreCreationException(e);
-    }
-  }
-
-  public BdbWrapper<String, String> getOrCreateBdbWrapper(int version) throws BdbDbCreationException {
-    if (bdbWrappers.containsKey(version)) {
-      return bdbWrappers.get(version);
-    }
+  private final BdbWrapper<String, String> bdbWrapper;
+  private final UpdatedPerPatchStore updatedPerPatchStore;
+  private final LegacyDatabases legacyDatabases;
 
-    BdbWrapper<String, String> bdbWrapper = databaseCreator.createDatabase(String.valueOf(version));
-    bdbWrappers.put(version, bdbWrapper);
-    return bdbWrapper;
+  public BdbTruePatchStore(BdbWrapper<String, String> bdbWrapper, UpdatedPerPatchStore updatedPerPatchStore,
+                           LegacyDatabases legacyDatabases) {
+    this.bdbWrapper = bdbWrapper;
+    this.updatedPerPatchStore = updatedPerPatchStore;
+    this.legacyDatabases = legacyDatabases;
   }
 
   public void put(String subject, int currentversion, String predicate, Direction direction, boolean isAssertion,
                   String object, String valueType, String language) throws DatabaseWriteException {
     //if we assert something and then retract it in the same patch, it's as if it never happened at all
     //so we delete the inversion
-    final String dirStr = direction == OUT ? "1" : "0";
-    try {
-      getOrCreateBdbWrapper(currentversion).delete(
-        subject + "\n" + currentversion + "\n" + (!isAssertion ? 1 : 0),
-        predicate + "\n" +
-          dirStr + "\n" +
-          (valueType == null ? "" : valueType) + "\n" +
-          (language == null ? "" : language) + "\n" +
-          object
-      );
-
-      getOrCreateBdbWrapper(currentversion).put(
-          subject + "\n" + currentversion + "\n" + (isAssertion ? 1 : 0),
-          predicate + "\n" +
-              dirStr + "\n" +
-              (valueType == null ? "" : valueType) + "\n" +
-              (language == null ? "" : language) + "\n" +
-              object
-      );
-    } catch (BdbDbCreationException e) {
-      throw new DatabaseWriteException(e);
-    }
+    final String value = formatValue(predicate, direction, object, valueType, language);
+    bdbWrapper.delete(formatKey(subject, currentversion, !isAssertion), value);
+    bdbWrapper.put(formatKey(subject, currentversion, isAssertion), value);
   }
 
+  public void delete(String subject, int version, String predicate, Direction direction, boolean isAssertion,
+                     String object, String valueType, String language) throws DatabaseWriteException {
+    bdbWrapper.delete(
+      formatKey(subject, version, isAssertion),
+      formatValue(predicate, direction, object, valueType, language)
+    );
+  }
+
+  /**
+   * Returns the changes of a version in subject order. They are read as one range of the database, so this costs time
+   * proportional to the number of changes of the version.
+   */
   public Stream<CursorQuad> getChangesOfVersion(int version, boolean assertions) {
-    // FIXME partialKey does not work well with endsWidth, it stops the iterator with the first match
-    // See issue T141 on https://github.com/knaw-huc/backlogs/blob/master/structured-data.txt
-    if (bdbWrappers.containsKey(version)) {
-      final BdbWrapper<String, String> bdbWrapper = bdbWrappers.get(version);
-      return bdbWrapper.databaseGetter()
-                       .getAll()
-                       // .partialKey("\n" + version + "\n" + (assertions ? "1" : "0"), (pf,
-                       // key) -> key.endsWith(pf))
-                       // .dontSkip()
-                       // .forwards()
-                       .getKeysAndValues(bdbWrapper.keyValueConverter(Tuple::tuple))
-                       .filter(kv -> kv.getLeft().endsWith(version + "\n" + (assertions ? "1" : "0")))
-                       .map((value) -> makeCursorQuad(value.getLeft().split("\n")[0], assertions,value.getRight()));
-    }
-    return Stream.empty();
+    final String prefix = version + "\n" + (assertions ? "1" : "0") + "\n";
+    final DatabaseEntry prefixEntry = new DatabaseEntry();
+    StringBinding.stringToEntry(prefix, prefixEntry);
+    return bdbWrapper.databaseGetter()
+                     .keyPrefix(prefix, prefixEntry.getSize() - 1) // ignore the terminating zero byte of the string
+                     .dontSkip()
+                     .forwards()
+                     .getKeysAndValues(bdbWrapper.keyValueConverter(
+                       (key, value) -> makeCursorQuad(key.substring(prefix.length()), assertions, value)
+                     ));
   }
 
   public Stream<CursorQuad> getChanges(String subject, int version, boolean assertions) {
-    if (bdbWrappers.containsKey(version)) {
-      final BdbWrapper<String, String> bdbWrapper = bdbWrappers.get(version);
-      return bdbWrapper.databaseGetter()
-                       .key(subject + "\n" + version + "\n" + (assertions ? "1" : "0"))
-                       .dontSkip()
-                       .forwards()
-                       .getValues(bdbWrapper.valueRetriever())
-                       .map(v -> makeCursorQuad(subject, assertions, v));
-    }
-    return Stream.empty();
+    return bdbWrapper.databaseGetter()
+                     .key(formatKey(subject, version, assertions))
+                     .dontSkip()
+                     .forwards()
+                     .getValues(bdbWrapper.valueRetriever())
+                     .map(v -> makeCursorQuad(subject, assertions, v));
   }
 
   public Stream<CursorQuad> getChanges(String subject, String predicate, Direction direction, int version,
                                        boolean assertions) {
-    if (bdbWrappers.containsKey(version)) {
-      final BdbWrapper<String, String> bdbWrapper = bdbWrappers.get(version);
-      return bdbWrapper.databaseGetter()
-                       .key(subject + "\n" + version + "\n" + (assertions ? "1" : "0"))
-                       .skipNearValue(predicate + "\n" + (direction == OUT ? "1" : "0") + "\n")
-                       .onlyValuesMatching((prefix, value) -> value.startsWith(prefix))
-                       .forwards()
-                       .getValues(bdbWrapper.valueRetriever())
-                       .map(v -> makeCursorQuad(subject, assertions, v));
-    }
-
-    return Stream.empty();
+    return bdbWrapper.databaseGetter()
+                     .key(formatKey(subject, version, assertions))
+                     .skipNearValue(predicate + "\n" + (direction == OUT ? "1" : "0") + "\n")
+                     .onlyValuesMatching((prefix, value) -> value.startsWith(prefix))
+                     .forwards()
+                     .getValues(bdbWrapper.valueRetriever())
+                     .map(v -> makeCursorQuad(subject, assertions, v));
   }
 
   public CursorQuad makeCursorQuad(String subject, boolean assertions, String value) {
@@ -138,56 +113,171 @@ public class BdbTruePatchStore {
     );
   }
 
+  private static String formatKey(String subject, int version, boolean assertion) {
+    return version + "\n" + (assertion ? "1" : "0") + "\n" + subject;
+  }
+
+  private static String formatValue(String predicate, Direction direction, String object, String valueType,
+                                    String language) {
+    return predicate + "\n" +
+      (direction == OUT ? "1" : "0") + "\n" +
+      (valueType == null ? "" : valueType) + "\n" +
+      (language == null ? "" : language) + "\n" +
+      object;
+  }
+
   public void close() {
     try {
-      for (BdbWrapper<String, String> bdbWrapper : bdbWrappers.values()) {
-        bdbWrapper.close();
-      }
+      bdbWrapper.close();
     } catch (Exception e) {
       LOG.error("Exception closing BdbTruePatchStore", e);
     }
   }
 
   public void commit() {
-    bdbWrappers.values().forEach(BdbWrapper::commit);
+    bdbWrapper.commit();
   }
 
   public void start() {
-    bdbWrappers.values().forEach(BdbWrapper::beginTransaction);
+    bdbWrapper.beginTransaction();
+  }
+
+  public void startBatch() {
+    bdbWrapper.startBatch();
+  }
+
+  public void finishBatch() {
+    bdbWrapper.finishBatch();
   }
 
   public boolean isClean() {
-    return bdbWrappers.values().stream().allMatch(BdbWrapper::isClean);
+    return bdbWrapper.isClean();
   }
 
   public void empty() {
-    bdbWrappers.values().forEach(BdbWrapper::empty);
+    bdbWrapper.empty();
   }
 
-  public void migrate() {
+  /**
+   * Moves the changes of the older layouts into this store. Those are the database with the changes of all versions,
+   * keyed by "subject\nversion\nassertion flag", and the databases per version that used the same key. The old
+   * databases are removed afterwards, so the environment no longer has to keep them open and their space can be
+   * reclaimed.
+   */
+  public void migrate() throws DataStoreCreationException {
     try {
-      final BdbWrapper<String, String> database = databaseCreator.createDatabase("");
-      database.databaseGetter().getAll().getKeysAndValues(database.keyValueConverter(Tuple::tuple)).forEach(tuple -> {
-        try {
-          final String[] split = tuple.getLeft().split("\n");
-          final String version = split[split.length - 2];
-
-          bdbWrappers.get(Integer.parseInt(version)).put(tuple.getLeft(), tuple.getRight());
-        } catch (DatabaseWriteException e) {
-          e.printStackTrace();
+      for (String legacyName : legacyNames()) {
+        if (!legacyDatabases.exists(legacyName)) {
+          continue;
+        }
+        final BdbWrapper<String, String> legacyDatabase = legacyDatabases.open(legacyName);
+        start();
+        try (Stream<Tuple<String, String>> changes = legacyDatabase.databaseGetter().getAll()
+                                                                   .getKeysAndValues(
+                                                                     legacyDatabase.keyValueConverter(Tuple::tuple)
+                                                                   )) {
+          final Iterator<Tuple<String, String>> iterator = changes.iterator();
+          while (iterator.hasNext()) {
+            final Tuple<String, String> change = iterator.next();
+            final String key = change.getLeft();
+            final int flagStart = key.lastIndexOf('\n');
+            final int versionStart = key.lastIndexOf('\n', flagStart - 1);
+            bdbWrapper.put(
+              key.substring(versionStart + 1, flagStart) + "\n" + key.substring(flagStart + 1) + "\n" +
+                key.substring(0, versionStart),
+              change.getRight()
+            );
+          }
         }
-      });
+        commit();
+        legacyDatabase.close();
+        legacyDatabases.remove(legacyName);
+      }
+    } catch (BdbDbCreationException | DatabaseWriteException e) {
+      throw new DataStoreCreationException(e);
+    }
+  }
 
-      bdbWrappers.values().forEach(BdbWrapper::commit);
+  /**
+   * @return true if some of the changes are still stored in the older layouts, see {@link #migrate()}
+   */
+  public boolean hasLegacyDatabases() throws DataStoreCreationException {
+    try {
+      for (String legacyName : legacyNames()) {
+        if (legacyDatabases.exists(legacyName)) {
+          return true;
+        }
+      }
+      return false;
+    } catch (BdbDbCreationException e) {
+      throw new DataStoreCreationException(e);
+    }
+  }
 
-      database.empty();
-      database.close();
+  /**
+   * Removes the databases of the older layouts without moving their changes, for when the store is rebuilt
+   */
+  public void removeLegacyDatabases() throws DataStoreCreationException {
+    try {
+      for (String legacyName : legacyNames()) {
+        if (legacyDatabases.exists(legacyName)) {
+          legacyDatabases.remove(legacyName);
+        }
+      }
     } catch (BdbDbCreationException e) {
-      throw new RuntimeException(e);
+      throw new DataStoreCreationException(e);
+    }
+  }
+
+  private List<String> legacyNames() {
+    final List<String> legacyNames = new ArrayList<>();
+    legacyNames.add("");
+    try (Stream<Integer> versions = updatedPerPatchStore.getVersions()) {
+      legacyNames.addAll(versions.map(String::valueOf).collect(Collectors.toList()));
     }
+    return legacyNames;
   }
 
-  public interface DatabaseCreator {
-    BdbWrapper<String, String> createDatabase(String version) throws BdbDbCreationException;
+  /**
+   * Creates the access to the databases of the older layouts, which were named "truePatch" followed by the version or
+   * by nothing.
+   */
+  public static LegacyDatabases legacyDatabases(BdbEnvironmentCreator environmentCreator, String userId,
+                                                String dataSetId) {
+    return new LegacyDatabases() {
+      @Override
+      public boolean exists(String version) throws BdbDbCreationException {
+        return environmentCreator.databaseExists(userId, dataSetId, "truePatch" + version);
+      }
+
+      @Override
+      public BdbWrapper<String, String> open(String version) throws BdbDbCreationException {
+        return environmentCreator.getDatabase(
+          userId,
+          dataSetId,
+          "truePatch" + version,
+          true,
+          TupleBinding.getPrimitiveBinding(String.class),
+          TupleBinding.getPrimitiveBinding(String.class),
+          new StringStringIsCleanHandler()
+        );
+      }
+
+      @Override
+      public void remove(String version) throws BdbDbCreationException {
+        environmentCreator.removeDatabase(userId, dataSetId, "truePatch" + version);
+      }
+    };
+  }
+
+  /**
+   * The databases of the older layouts. They are only opened when they are migrated.
+   */
+  public interface LegacyDatabases {
+    boolean exists(String version) throws BdbDbCreationException;
+
+    BdbWrapper<String, String> open(String version) throws BdbDbCreationException;
+
+    void remove(String version) throws BdbDbCreationException;
   }
 }
@@ -11,10 +11,10 @@ import static com.google.common.collect.Streams.stream;
 class ChangeFetcherImpl implements ChangeFetcher {
 
   private final BdbTruePatchStore truePatchStore;
-  private final BdbTripleStore tripleStore;
+  private final BdbQuadStore tripleStore;
   private final int currentversion;
 
-  public ChangeFetcherImpl(BdbTruePatchStore truePatchStore, BdbTripleStore tripleStore, int currentversion) {
+  public ChangeFetcherImpl(BdbTruePatchStore truePatchStore, BdbQuadStore tripleStore, int currentversion) {
     this.truePatchStore = truePatchStore;
     this.tripleStore = tripleStore;
     this.currentversion = currentversion;
@@ -34,10 +34,12 @@ class ChangeFetcherImpl implements ChangeFetcher {
       final Stream<CursorQuad> assertions;
       final Stream<CursorQuad> currentState;
       if (predicate != null) {
-        assertions = truePatchStore.getChanges(subject, predicate, direction, currentversion, true);
+        assertions = tripleStore.inStoreOrder(
+          truePatchStore.getChanges(subject, predicate, direction, currentversion, true)
+        );
         currentState = tripleStore.getQuads(subject, predicate, direction, "");
       } else {
-        assertions = truePatchStore.getChanges(subject, currentversion, true);
+        assertions = tripleStore.inStoreOrder(truePatchStore.getChanges(subject, currentversion, true));
         currentState = tripleStore.getQuads(subject);
       }
       //if (!assertions.findAny().isPresent()) {
@@ -62,9 +64,11 @@ class ChangeFetcherImpl implements ChangeFetcher {
     if (getRetracted) {
       final Stream<CursorQuad> retractions;
       if (predicate != null) {
-        retractions = truePatchStore.getChanges(subject, predicate, direction, currentversion, false);
+        retractions = tripleStore.inStoreOrder(
+          truePatchStore.getChanges(subject, predicate, direction, currentversion, false)
+        );
       } else {
-        retractions = truePatchStore.getChanges(subject, currentversion, false);
+        retractions = tripleStore.inStoreOrder(truePatchStore.getChanges(subject, currentversion, false));
       }
       return stream(new RetractionMerger(result, retractions, tripleStore, currentversion)).onClose(() -> {
         result.close();
@@ -0,0 +1,134 @@
+package nl.knaw.huygens.timbuctoo.v5.datastores.implementations.bdb;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import nl.knaw.huygens.timbuctoo.v5.dataset.ChangeFetcher;
+import nl.knaw.huygens.timbuctoo.v5.dataset.PartitionedPatchListener;
+import nl.knaw.huygens.timbuctoo.v5.dataset.PartitionedPatchListener.Partition;
+import nl.knaw.huygens.timbuctoo.v5.dataset.exceptions.RdfProcessingFailedException;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Lets a number of threads call the partitions of PartitionedPatchListeners. The changed subjects are handed out in
+ * ranges of consecutive subjects, each range gets its own partition per listener. The partitions are merged into
+ * their listeners in the order of the ranges, so a listener sees the same sequence of changes as when the subjects are
+ * handled one by one.
+ */
+class PartitionedListenerRunner implements AutoCloseable {
+  private final List<PartitionedPatchListener<?>> listeners;
+  private final ChangeFetcher changeFetcher;
+  private final int rangeSize;
+  private final int maxPendingRanges;
+  private final Deque<Future<List<BoundPartition<?>>>> pendingRanges = new ArrayDeque<>();
+  private final ExecutorService executor;
+  private List<String> range;
+
+  PartitionedListenerRunner(List<PartitionedPatchListener<?>> listeners, ChangeFetcher changeFetcher, int threads,
+                            int rangeSize) {
+    this.listeners = listeners;
+    this.changeFetcher = changeFetcher;
+    this.rangeSize = rangeSize;
+    this.maxPendingRanges = threads * 2;
+    this.range = new ArrayList<>(rangeSize);
+    if (listeners.isEmpty()) {
+      executor = null;
+    } else {
+      executor = Executors.newFixedThreadPool(
+        threads,
+        new ThreadFactoryBuilder().setNameFormat("listener-partition-%d").setDaemon(true).build()
+      );
+    }
+  }
+
+  public void onChangedSubject(String subject) throws RdfProcessingFailedException {
+    if (executor != null) {
+      range.add(subject);
+      if (range.size() >= rangeSize) {
+        handOver(range);
+        range = new ArrayList<>(rangeSize);
+      }
+    }
+  }
+
+  /**
+   * Waits until all subjects are processed and merges the remaining partitions into their listeners.
+   */
+  public void finish() throws RdfProcessingFailedException {
+    if (executor == null) {
+      return;
+    }
+    if (!range.isEmpty()) {
+      handOver(range);
+      range = new ArrayList<>(rangeSize);
+    }
+    while (!pendingRanges.isEmpty()) {
+      mergeOldestRange();
+    }
+  }
+
+  @Override
+  public void close() {
+    if (executor != null) {
+      executor.shutdownNow();
+    }
+  }
+
+  private void handOver(List<String> subjects) throws RdfProcessingFailedException {
+    // merging the oldest range first keeps the memory bounded and the merges in order
+    if (pendingRanges.size() >= maxPendingRanges) {
+      mergeOldestRange();
+    }
+    pendingRanges.addLast(executor.submit(() -> runPartitions(subjects)));
+  }
+
+  private void mergeOldestRange() throws RdfProcessingFailedException {
+    try {
+      for (BoundPartition<?> partition : pendingRanges.removeFirst().get()) {
+        partition.merge();
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new RdfProcessingFailedException(e);
+    } catch (ExecutionException e) {
+      throw new RdfProcessingFailedException(e.getCause());
+    }
+  }
+
+  private List<BoundPartition<?>> runPartitions(List<String> subjects) throws RdfProcessingFailedException {
+    final List<BoundPartition<?>> partitions = new ArrayList<>();
+    for (PartitionedPatchListener<?> listener : listeners) {
+      partitions.add(bind(listener));
+    }
+    for (String subject : subjects) {
+      for (BoundPartition<?> partition : partitions) {
+        partition.partition.onChangedSubject(subject, changeFetcher);
+      }
+    }
+    return partitions;
+  }
+
+  private static <T extends Partition> BoundPartition<T> bind(PartitionedPatchListener<T> listener) {
+    return new BoundPartition<>(listener, listener.createPartition());
+  }
+
+  private static class BoundPartition<T extends Partition> {
+    private final PartitionedPatchListener<T> listener;
+    private final T partition;
+
+    private BoundPartition(PartitionedPatchListener<T> listener, T partition) {
+      this.listener = listener;
+      this.partition = partition;
+    }
+
+    private void merge() throws RdfProcessingFailedException {
+      listener.merge(partition);
+    }
+  }
+}
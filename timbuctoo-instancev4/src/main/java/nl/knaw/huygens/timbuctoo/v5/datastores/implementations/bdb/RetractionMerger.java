@@ -16,10 +16,10 @@ class RetractionMerger implements Iterator<CursorQuad> {
 
   private final PeekingIterator<CursorQuad> state;
   private final PeekingIterator<CursorQuad> retractions;
-  private final BdbTripleStore tripleStore;
+  private final BdbQuadStore tripleStore;
   private final int version;
 
-  public RetractionMerger(Stream<CursorQuad> state, Stream<CursorQuad> retractions, BdbTripleStore tripleStore,
+  public RetractionMerger(Stream<CursorQuad> state, Stream<CursorQuad> retractions, BdbQuadStore tripleStore,
                           int version) {
     this.state = Iterators.peekingIterator(state.iterator());
     this.retractions = Iterators.peekingIterator(retractions.iterator());
@@ -6,12 +6,16 @@ import nl.knaw.huygens.timbuctoo.v5.berkeleydb.exceptions.DatabaseWriteException
 import nl.knaw.huygens.timbuctoo.v5.dataset.ChangeFetcher;
 import nl.knaw.huygens.timbuctoo.v5.dataset.ImportStatus;
 import nl.knaw.huygens.timbuctoo.v5.dataset.OptimizedPatchListener;
+import nl.knaw.huygens.timbuctoo.v5.dataset.PartitionedPatchListener;
 import nl.knaw.huygens.timbuctoo.v5.dataset.RdfProcessor;
 import nl.knaw.huygens.timbuctoo.v5.dataset.dto.ImportStatusLabel;
 import nl.knaw.huygens.timbuctoo.v5.dataset.exceptions.RdfProcessingFailedException;
+import nl.knaw.huygens.timbuctoo.v5.datastores.quadstore.dto.ChangeType;
+import nl.knaw.huygens.timbuctoo.v5.datastores.quadstore.dto.CursorQuad;
 import nl.knaw.huygens.timbuctoo.v5.datastores.quadstore.dto.Direction;
 import org.slf4j.Logger;
 
+import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
 import java.util.concurrent.TimeUnit;
@@ -24,11 +28,16 @@ import static org.slf4j.LoggerFactory.getLogger;
 public class StoreUpdater implements RdfProcessor {
 
   private static final Logger LOG = getLogger(StoreUpdater.class);
-  private final BdbTripleStore tripleStore;
+  private static final int SUBJECTS_PER_PARTITION_RANGE = 1_000;
+  private final BdbQuadStore tripleStore;
+  private final BdbQuadIndex quadIndex;
   private final BdbTypeNameStore typeNameStore;
   private final BdbTruePatchStore truePatchStore;
   private final UpdatedPerPatchStore updatedPerPatchStore;
   private final VersionStore versionStore;
+  private final int batchSize;
+  private final int listenerPartitions;
+  private final List<CursorQuad> batch;
   private int currentversion = -1;
   private Stopwatch stopwatch;
   private long count;
@@ -38,44 +47,63 @@ public class StoreUpdater implements RdfProcessor {
   private String logString;
   private ImportStatus importStatus;
 
-  public StoreUpdater(BdbTripleStore tripleStore, BdbTypeNameStore typeNameStore, BdbTruePatchStore truePatchStore,
-                      UpdatedPerPatchStore updatedPerPatchStore, List<OptimizedPatchListener> listeners,
-                      VersionStore versionStore, ImportStatus importStatus) {
+  public StoreUpdater(BdbQuadStore tripleStore, BdbQuadIndex quadIndex, BdbTypeNameStore typeNameStore,
+                      BdbTruePatchStore truePatchStore, UpdatedPerPatchStore updatedPerPatchStore,
+                      List<OptimizedPatchListener> listeners, VersionStore versionStore, ImportStatus importStatus,
+                      int batchSize, int listenerPartitions) {
     this.tripleStore = tripleStore;
+    this.quadIndex = quadIndex;
     this.typeNameStore = typeNameStore;
     this.truePatchStore = truePatchStore;
     this.updatedPerPatchStore = updatedPerPatchStore;
     this.versionStore = versionStore;
     this.listeners = listeners;
     this.importStatus = importStatus;
+    this.batchSize = batchSize;
+    this.listenerPartitions = listenerPartitions;
+    this.batch = new ArrayList<>(batchSize);
   }
 
   private void updateListeners() throws RdfProcessingFailedException {
     // start updating the derivative stores
     logString = "Processed {} subjects ({} subjects/s)";
+    final List<OptimizedPatchListener> serialListeners = new ArrayList<>();
+    final List<PartitionedPatchListener<?>> partitionedListeners = new ArrayList<>();
     for (OptimizedPatchListener listener : listeners) {
       listener.start();
       importStatus.startProgressItem(listener.getClass().getSimpleName());
+      if (listenerPartitions > 1 && listener instanceof PartitionedPatchListener) {
+        partitionedListeners.add((PartitionedPatchListener<?>) listener);
+      } else {
+        serialListeners.add(listener);
+      }
     }
 
     count = 0;
     prevCount = 0;
     prevTime = stopwatch.elapsed(TimeUnit.SECONDS);
-    try (Stream<String> subjects = updatedPerPatchStore.ofVersion(currentversion)) {
-      final ChangeFetcher getQuads = new ChangeFetcherImpl(truePatchStore, tripleStore, currentversion);
+    final ChangeFetcher getQuads = new ChangeFetcherImpl(truePatchStore, tripleStore, currentversion);
+    try (Stream<String> subjects = updatedPerPatchStore.ofVersion(currentversion);
+         PartitionedListenerRunner partitions = new PartitionedListenerRunner(
+           partitionedListeners, getQuads, listenerPartitions, SUBJECTS_PER_PARTITION_RANGE
+         )) {
       final Iterator<String> iterator = subjects.iterator();
       while (iterator.hasNext()) {
         final boolean needUpdate = notifyUpdate();
 
         final String subject = iterator.next();
-        for (OptimizedPatchListener listener : listeners) {
-          if (needUpdate) {
+        if (needUpdate) {
+          for (OptimizedPatchListener listener : listeners) {
             listener.notifyUpdate();
             importStatus.updateProgressItem(listener.getClass().getSimpleName(), count);
           }
+        }
+        for (OptimizedPatchListener listener : serialListeners) {
           listener.onChangedSubject(subject, getQuads);
         }
+        partitions.onChangedSubject(subject);
       }
+      partitions.finish();
     }
     for (OptimizedPatchListener listener : listeners) {
       listener.finish();
@@ -91,9 +119,65 @@ public class StoreUpdater implements RdfProcessor {
 
   private void putQuad(String subject, String predicate, Direction direction, String object, String valueType,
                        String language) throws RdfProcessingFailedException {
+    addToBatch(subject, predicate, direction, ChangeType.ASSERTED, object, valueType, language);
+  }
+
+  private void deleteQuad(String subject, String predicate, Direction direction, String object, String valueType,
+                          String language) throws RdfProcessingFailedException {
+    addToBatch(subject, predicate, direction, ChangeType.RETRACTED, object, valueType, language);
+  }
+
+  private void addToBatch(String subject, String predicate, Direction direction, ChangeType changeType, String object,
+                          String valueType, String language) throws RdfProcessingFailedException {
+    batch.add(CursorQuad.create(subject, predicate, direction, changeType, object, valueType, language, ""));
+    if (batch.size() >= batchSize) {
+      applyBatch();
+    }
+  }
+
+  /**
+   * Applies the buffered changes in the key order of the quad store, so each store can write them through a single
+   * cursor that mostly moves forward. The sort is stable, so an assertion and a retraction of the same quad are still
+   * applied in the order in which they were read.
+   */
+  private void applyBatch() throws RdfProcessingFailedException {
+    if (batch.isEmpty()) {
+      return;
+    }
+    tripleStore.sortForWriting(batch);
+    try {
+      tripleStore.startBatch();
+      quadIndex.startBatch();
+      truePatchStore.startBatch();
+      updatedPerPatchStore.startBatch();
+      for (CursorQuad quad : batch) {
+        final String valueType = quad.getValuetype().orElse(null);
+        final String language = quad.getLanguage().orElse(null);
+        if (quad.getChangeType() == ChangeType.ASSERTED) {
+          applyPut(quad.getSubject(), quad.getPredicate(), quad.getDirection(), quad.getObject(), valueType, language);
+        } else {
+          applyDelete(quad.getSubject(), quad.getPredicate(), quad.getDirection(), quad.getObject(), valueType,
+            language);
+        }
+      }
+      quadIndex.applyCountChanges();
+    } catch (DatabaseWriteException e) {
+      throw new RdfProcessingFailedException(e);
+    } finally {
+      tripleStore.finishBatch();
+      quadIndex.finishBatch();
+      truePatchStore.finishBatch();
+      updatedPerPatchStore.finishBatch();
+      batch.clear();
+    }
+  }
+
+  private void applyPut(String subject, String predicate, Direction direction, String object, String valueType,
+                        String language) throws RdfProcessingFailedException {
     try {
       final boolean wasChanged = tripleStore.putQuad(subject, predicate, direction, object, valueType, language);
       if (wasChanged) {
+        quadIndex.put(subject, predicate, direction, object, valueType, language);
         truePatchStore.put(subject, currentversion, predicate, direction, true, object, valueType, language);
         updatedPerPatchStore.put(currentversion, subject);
       }
@@ -102,11 +186,12 @@ public class StoreUpdater implements RdfProcessor {
     }
   }
 
-  private void deleteQuad(String subject, String predicate, Direction direction, String object, String valueType,
-                          String language) throws RdfProcessingFailedException {
+  private void applyDelete(String subject, String predicate, Direction direction, String object, String valueType,
+                           String language) throws RdfProcessingFailedException {
     try {
       final boolean wasChanged = tripleStore.deleteQuad(subject, predicate, direction, object, valueType, language);
       if (wasChanged) {
+        quadIndex.delete(subject, predicate, direction, object, valueType, language);
         truePatchStore.put(subject, currentversion, predicate, direction, false, object, valueType, language);
         updatedPerPatchStore.put(currentversion, subject);
       }
@@ -164,6 +249,7 @@ public class StoreUpdater implements RdfProcessor {
   public void start(int index) throws RdfProcessingFailedException {
     stopwatch = Stopwatch.createStarted();
     currentversion = index;
+    batch.clear();
     startTransactions();
     logString = "Processed {} triples ({} triples/s)";
     count = 0; // reset the count to make sure the right amount of imported triples are logged.
@@ -174,6 +260,8 @@ public class StoreUpdater implements RdfProcessor {
     importStatus.addProgressItem(VersionStore.class.getSimpleName(), ImportStatusLabel.IMPORTING);
     tripleStore.start();
     importStatus.addProgressItem(BdbTripleStore.class.getSimpleName(), ImportStatusLabel.IMPORTING);
+    quadIndex.start();
+    importStatus.addProgressItem(BdbQuadIndex.class.getSimpleName(), ImportStatusLabel.IMPORTING);
     truePatchStore.start();
     importStatus.addProgressItem(BdbTruePatchStore.class.getSimpleName(), ImportStatusLabel.IMPORTING);
     typeNameStore.start();
@@ -192,6 +280,7 @@ public class StoreUpdater implements RdfProcessor {
     if (curTime - prevTime > 5) {
       final long itemsPerSecond = (count - prevCount) / (curTime - prevTime);
       LOG.info(logString, count, itemsPerSecond);
+      importStatus.setItemsPerSecond(itemsPerSecond);
       importStatus.setStatus(String.format(logString.replaceAll("\\{\\}", "%d"),
         count, itemsPerSecond));
       prevCount = count;
@@ -205,6 +294,7 @@ public class StoreUpdater implements RdfProcessor {
   private void updateStoreProgress() {
     importStatus.updateProgressItem(VersionStore.class.getSimpleName(), count);
     importStatus.updateProgressItem(BdbTripleStore.class.getSimpleName(), count);
+    importStatus.updateProgressItem(BdbQuadIndex.class.getSimpleName(), count);
     importStatus.updateProgressItem(BdbTruePatchStore.class.getSimpleName(), count);
     importStatus.updateProgressItem(BdbTypeNameStore.class.getSimpleName(), count);
     importStatus.updateProgressItem(UpdatedPerPatchStore.class.getSimpleName(), count);
@@ -218,6 +308,7 @@ public class StoreUpdater implements RdfProcessor {
   @Override
   public void commit() throws RdfProcessingFailedException {
     try {
+      applyBatch(); // the remainder of the last batch
       String msg = "processing " + count + " triples took " + stopwatch.elapsed(TimeUnit.SECONDS) + " seconds";
       LOG.info(msg);
       importStatus.setStatus(msg);
@@ -246,6 +337,8 @@ public class StoreUpdater implements RdfProcessor {
     importStatus.finishProgressItem(BdbTypeNameStore.class.getSimpleName());
     tripleStore.commit();
     importStatus.finishProgressItem(BdbTripleStore.class.getSimpleName());
+    quadIndex.commit();
+    importStatus.finishProgressItem(BdbQuadIndex.class.getSimpleName());
     truePatchStore.commit();
     importStatus.finishProgressItem(BdbTruePatchStore.class.getSimpleName());
     updatedPerPatchStore.commit();
@@ -0,0 +1,140 @@
+package nl.knaw.huygens.timbuctoo.v5.datastores.implementations.bdb;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import nl.knaw.huygens.timbuctoo.v5.berkeleydb.BdbWrapper;
+import nl.knaw.huygens.timbuctoo.v5.berkeleydb.exceptions.DatabaseWriteException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Optional;
+import java.util.stream.Stream;
+
+/**
+ * Maps IRIs to compact integer ids and back. Ids are handed out in increasing order starting at 1, 0 is used for
+ * "no term" (e.g. a value without a data type).
+ */
+public class TermDictionary {
+  public static final int NO_TERM = 0;
+  private static final Logger LOG = LoggerFactory.getLogger(TermDictionary.class);
+  // IRIs can not contain a newline, so this key will never clash with a term
+  private static final String NEXT_ID_KEY = "\nnextId";
+  private static final int CACHE_SIZE = 100_000;
+
+  private final BdbWrapper<String, Integer> idsByTerm;
+  private final BdbWrapper<Integer, String> termsById;
+  private final Cache<String, Integer> idCache = CacheBuilder.newBuilder().maximumSize(CACHE_SIZE).build();
+  private final Cache<Integer, String> termCache = CacheBuilder.newBuilder().maximumSize(CACHE_SIZE).build();
+  private int nextId;
+
+  public TermDictionary(BdbWrapper<String, Integer> idsByTerm, BdbWrapper<Integer, String> termsById) {
+    this.idsByTerm = idsByTerm;
+    this.termsById = termsById;
+    this.nextId = lookupId(NEXT_ID_KEY).orElse(NO_TERM + 1);
+  }
+
+  /**
+   * @return the id of the term or {@link #NO_TERM} if the term is null or not part of the dictionary
+   */
+  public int getId(String term) {
+    if (term == null) {
+      return NO_TERM;
+    }
+    Integer id = idCache.getIfPresent(term);
+    if (id == null) {
+      Optional<Integer> stored = lookupId(term);
+      if (!stored.isPresent()) {
+        return NO_TERM;
+      }
+      id = stored.get();
+      idCache.put(term, id);
+    }
+    return id;
+  }
+
+  public int getOrCreateId(String term) throws DatabaseWriteException {
+    if (term == null) {
+      return NO_TERM;
+    }
+    int id = getId(term);
+    if (id == NO_TERM) {
+      synchronized (this) {
+        id = getId(term);
+        if (id == NO_TERM) {
+          // the counter is stored in the transaction that adds the term and only advanced once the term is stored
+          id = nextId;
+          termsById.put(id, term);
+          idsByTerm.put(term, id);
+          idsByTerm.put(NEXT_ID_KEY, id + 1);
+          nextId = id + 1;
+          idCache.put(term, id);
+          termCache.put(id, term);
+        }
+      }
+    }
+    return id;
+  }
+
+  /**
+   * @return the term that belongs to the id or null if the id is {@link #NO_TERM}
+   */
+  public String getTerm(int id) {
+    if (id == NO_TERM) {
+      return null;
+    }
+    String term = termCache.getIfPresent(id);
+    if (term == null) {
+      try (Stream<String> values = termsById.databaseGetter()
+                                            .key(id)
+                                            .dontSkip()
+                                            .forwards()
+                                            .getValues(termsById.valueRetriever())) {
+        term = values.findFirst().orElseThrow(() -> new IllegalStateException("Unknown term id " + id));
+      }
+      termCache.put(id, term);
+    }
+    return term;
+  }
+
+  private Optional<Integer> lookupId(String term) {
+    try (Stream<Integer> values = idsByTerm.databaseGetter()
+                                           .key(term)
+                                           .dontSkip()
+                                           .forwards()
+                                           .getValues(idsByTerm.valueRetriever())) {
+      return values.findFirst();
+    }
+  }
+
+  public void start() {
+    idsByTerm.beginTransaction();
+    termsById.beginTransaction();
+    nextId = lookupId(NEXT_ID_KEY).orElse(NO_TERM + 1);
+  }
+
+  public void commit() {
+    idsByTerm.commit();
+    termsById.commit();
+  }
+
+  public boolean isClean() {
+    return idsByTerm.isClean() && termsById.isClean();
+  }
+
+  public void empty() {
+    idsByTerm.empty();
+    termsById.empty();
+    idCache.invalidateAll();
+    termCache.invalidateAll();
+    nextId = NO_TERM + 1;
+  }
+
+  public void close() {
+    try {
+      idsByTerm.close();
+      termsById.close();
+    } catch (Exception e) {
+      LOG.error("Exception closing TermDictionary", e);
+    }
+  }
+}
@@ -51,6 +51,14 @@ public class UpdatedPerPatchStore {
     bdbWrapper.beginTransaction();
   }
 
+  public void startBatch() {
+    bdbWrapper.startBatch();
+  }
+
+  public void finishBatch() {
+    bdbWrapper.finishBatch();
+  }
+
   public boolean isClean() {
     return bdbWrapper.isClean();
   }
@@ -3,6 +3,7 @@ package nl.knaw.huygens.timbuctoo.v5.datastores.quadstore;
 import nl.knaw.huygens.timbuctoo.v5.datastores.quadstore.dto.CursorQuad;
 import nl.knaw.huygens.timbuctoo.v5.datastores.quadstore.dto.Direction;
 
+import java.util.Optional;
 import java.util.stream.Stream;
 
 public interface QuadStore {
@@ -10,8 +11,35 @@ public interface QuadStore {
 
   Stream<CursorQuad> getQuads(String subject);
 
+  default boolean hasQuads(String subject) {
+    try (Stream<CursorQuad> quads = getQuads(subject)) {
+      return quads.findAny().isPresent();
+    }
+  }
+
   Stream<CursorQuad> getAllQuads();
 
+  /**
+   * @return the number of quads that getQuads(subject, predicate, direction, "") returns, or an empty Optional if the
+   *     store does not count them
+   */
+  Optional<Long> getQuadCount(String subject, String predicate, Direction direction);
+
+  /**
+   * @return the OUT quads with this predicate, ordered by their object
+   */
+  Stream<CursorQuad> getQuadsByPredicate(String predicate);
+
+  /**
+   * @return the OUT quads with this predicate and object (e.g. all subjects with a certain name), ordered by subject
+   */
+  Stream<CursorQuad> getQuadsByValue(String predicate, String object, String cursor);
+
+  /**
+   * @return the OUT quads that have this object, regardless of their predicate, ordered by subject
+   */
+  Stream<CursorQuad> getQuadsByObject(String object, String cursor);
+
   void close();
 
   void commit();
@@ -11,5 +11,10 @@ public interface SchemaStore {
    */
   Map<String, Type> getStableTypes();
 
+  /**
+   * @return a hash of the stable types that changes whenever the stable types are replaced by a different version
+   */
+  String getStableTypesHash();
+
   void close();
 }
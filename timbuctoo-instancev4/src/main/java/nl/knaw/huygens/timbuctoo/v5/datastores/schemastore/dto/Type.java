@@ -90,7 +90,7 @@ public class Type {
     return predicates.get(direction.name() + "\n" + name);
   }
 
-  public void registerSubject(int mut) {
+  public void registerSubject(long mut) {
     subjectsWithThisType += mut;
   }
 }
@@ -0,0 +1,40 @@
+package nl.knaw.huygens.timbuctoo.v5.dropwizard;
+
+import nl.knaw.huygens.timbuctoo.v5.dataset.DataSetRepository;
+
+import javax.servlet.Filter;
+import javax.servlet.FilterChain;
+import javax.servlet.FilterConfig;
+import javax.servlet.ServletException;
+import javax.servlet.ServletRequest;
+import javax.servlet.ServletResponse;
+import java.io.IOException;
+
+/**
+ * Registers each request as a use of the data sets. This is a servlet filter, so the use lasts until the response
+ * body has been written, which includes the streamed responses that read the stores after the resource method
+ * returned.
+ */
+public class DataSetUseFilter implements Filter {
+  private final DataSetRepository dataSetRepository;
+
+  public DataSetUseFilter(DataSetRepository dataSetRepository) {
+    this.dataSetRepository = dataSetRepository;
+  }
+
+  @Override
+  public void init(FilterConfig filterConfig) {
+  }
+
+  @Override
+  public void doFilter(ServletRequest request, ServletResponse response, FilterChain chain)
+    throws IOException, ServletException {
+    try (DataSetRepository.DataSetUse use = dataSetRepository.startUse()) {
+      chain.doFilter(request, response);
+    }
+  }
+
+  @Override
+  public void destroy() {
+  }
+}
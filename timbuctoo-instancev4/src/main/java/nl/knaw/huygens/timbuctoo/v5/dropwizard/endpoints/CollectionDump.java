@@ -0,0 +1,218 @@
+package nl.knaw.huygens.timbuctoo.v5.dropwizard.endpoints;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import nl.knaw.huygens.timbuctoo.v5.dataset.DataSetRepository;
+import nl.knaw.huygens.timbuctoo.v5.dataset.dto.DataSet;
+import nl.knaw.huygens.timbuctoo.v5.datastores.quadstore.QuadStore;
+import nl.knaw.huygens.timbuctoo.v5.datastores.quadstore.dto.CursorQuad;
+import nl.knaw.huygens.timbuctoo.v5.datastores.quadstore.dto.Direction;
+import nl.knaw.huygens.timbuctoo.v5.datastores.rssource.DataSetQuadGenerator;
+import nl.knaw.huygens.timbuctoo.v5.datastores.schemastore.dto.Predicate;
+import nl.knaw.huygens.timbuctoo.v5.datastores.schemastore.dto.Type;
+import nl.knaw.huygens.timbuctoo.v5.security.UserValidator;
+import nl.knaw.huygens.timbuctoo.v5.security.dto.User;
+import nl.knaw.huygens.timbuctoo.v5.security.exceptions.UserValidationException;
+import nl.knaw.huygens.timbuctoo.v5.util.RdfConstants;
+
+import javax.ws.rs.DefaultValue;
+import javax.ws.rs.GET;
+import javax.ws.rs.HeaderParam;
+import javax.ws.rs.Path;
+import javax.ws.rs.PathParam;
+import javax.ws.rs.QueryParam;
+import javax.ws.rs.core.Response;
+import javax.ws.rs.core.StreamingOutput;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.stream.Stream;
+
+import static nl.knaw.huygens.timbuctoo.v5.util.RdfConstants.RDF_TYPE;
+
+/**
+ * Writes all subjects of a collection in one response, so that a client that mirrors a collection does not have to
+ * request it page by page. The subjects are read with one open cursor and written while they are read.
+ */
+@Path("/v5/{ownerId}/{dataSetId}/dump/collection")
+public class CollectionDump {
+  private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+  private final DataSetRepository dataSetRepository;
+  private final UserValidator userValidator;
+
+  public CollectionDump(DataSetRepository dataSetRepository, UserValidator userValidator) {
+    this.dataSetRepository = dataSetRepository;
+    this.userValidator = userValidator;
+  }
+
+  /**
+   * @param predicates the predicates to write for each subject, all predicates are written when none are specified
+   * @param format either "nquads" or "ndjson" (one JSON-LD object per subject)
+   */
+  @GET
+  public Response getCollection(@HeaderParam("authorization") String authHeader,
+                                @PathParam("ownerId") String ownerId,
+                                @PathParam("dataSetId") String dataSetId,
+                                @QueryParam("collectionUri") String collectionUri,
+                                @QueryParam("predicate") List<String> predicates,
+                                @QueryParam("format") @DefaultValue("nquads") String format) {
+    if (collectionUri == null) {
+      return Response.status(Response.Status.BAD_REQUEST).entity("Missing query parameter collectionUri").build();
+    }
+    final Format dumpFormat = Format.fromName(format);
+    if (dumpFormat == null) {
+      return Response.status(Response.Status.BAD_REQUEST).entity("Unknown format " + format).build();
+    }
+
+    Optional<User> user;
+    try {
+      user = userValidator.getUserFromAccessToken(authHeader);
+    } catch (UserValidationException e) {
+      return Response.status(404).build();
+    }
+
+    Optional<DataSet> dataSet = dataSetRepository.getDataSet(user.orElse(null), ownerId, dataSetId);
+    if (!dataSet.isPresent()) {
+      return Response.status(Response.Status.FORBIDDEN).build();
+    }
+
+    final QuadStore quadStore = dataSet.get().getQuadStore();
+    final String graph = dataSet.get().getMetadata().getGraph();
+    final Optional<Set<String>> predicatesToRead = predicatesToRead(dataSet.get(), collectionUri, predicates);
+    final DataSetQuadGenerator quadGenerator = new DataSetQuadGenerator(graph);
+    StreamingOutput streamingData = output -> {
+      Writer writer = new BufferedWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8));
+      try (Stream<CursorQuad> subjects = quadStore.getQuads(collectionUri, RDF_TYPE, Direction.IN, "")) {
+        for (Iterator<CursorQuad> subjectIt = subjects.iterator(); subjectIt.hasNext(); ) {
+          String subject = subjectIt.next().getObject();
+          List<CursorQuad> quads = new ArrayList<>();
+          if (predicatesToRead.isPresent()) {
+            for (String predicate : predicatesToRead.get()) {
+              try (Stream<CursorQuad> predicateQuads = quadStore.getQuads(subject, predicate, Direction.OUT, "")) {
+                predicateQuads.forEach(quads::add);
+              }
+            }
+          } else {
+            try (Stream<CursorQuad> subjectQuads = quadStore.getQuads(subject)) {
+              subjectQuads.filter(quad -> quad.getDirection() == Direction.OUT).forEach(quads::add);
+            }
+          }
+          dumpFormat.write(writer, quadGenerator, subject, quads, graph);
+        }
+      }
+      writer.flush();
+    };
+
+    // no content length is known, so the response is sent with chunked transfer encoding
+    return Response.ok(streamingData, dumpFormat.mediaType).build();
+  }
+
+  /**
+   * The requested predicates, or else the outgoing predicates of the collection in the schema. The quads of a
+   * subject are stored by predicate and direction, so that reading them per predicate skips the incoming quads.
+   *
+   * @return an empty Optional if the collection is not in the schema, so that all quads of a subject have to be read
+   */
+  private Optional<Set<String>> predicatesToRead(DataSet dataSet, String collectionUri, List<String> predicates) {
+    // sorted, so that the quads are written in the same order as they are stored
+    if (!predicates.isEmpty()) {
+      return Optional.of(new TreeSet<>(predicates));
+    }
+    final Type type = dataSet.getSchemaStore().getStableTypes().get(collectionUri);
+    if (type == null) {
+      return Optional.empty();
+    }
+    final Set<String> outgoing = new TreeSet<>();
+    for (Predicate predicate : type.getPredicates()) {
+      if (predicate.getDirection() == Direction.OUT) {
+        outgoing.add(predicate.getName());
+      }
+    }
+    return Optional.of(outgoing);
+  }
+
+  enum Format {
+    NQUADS("nquads", "application/n-quads") {
+      @Override
+      void write(Writer writer, DataSetQuadGenerator quadGenerator, String subject, List<CursorQuad> quads,
+                 String graph) throws IOException {
+        for (CursorQuad quad : quads) {
+          if (!quad.getValuetype().isPresent()) {
+            writer.write(quadGenerator.onRelation(subject, quad.getPredicate(), quad.getObject(), graph));
+          } else if (quad.getLanguage().isPresent() && quad.getValuetype().get().equals(RdfConstants.LANGSTRING)) {
+            writer.write(quadGenerator.onLanguageTaggedString(
+              subject,
+              quad.getPredicate(),
+              quad.getObject(),
+              quad.getLanguage().get(),
+              graph
+            ));
+          } else {
+            writer.write(quadGenerator.onValue(
+              subject,
+              quad.getPredicate(),
+              quad.getObject(),
+              quad.getValuetype().get(),
+              graph
+            ));
+          }
+        }
+      }
+    },
+    NDJSON("ndjson", "application/x-ndjson") {
+      @Override
+      void write(Writer writer, DataSetQuadGenerator quadGenerator, String subject, List<CursorQuad> quads,
+                 String graph) throws IOException {
+        Map<String, List<Map<String, String>>> values = new LinkedHashMap<>();
+        for (CursorQuad quad : quads) {
+          Map<String, String> value = new LinkedHashMap<>();
+          if (!quad.getValuetype().isPresent()) {
+            value.put("@id", quad.getObject());
+          } else if (quad.getLanguage().isPresent() && quad.getValuetype().get().equals(RdfConstants.LANGSTRING)) {
+            value.put("@value", quad.getObject());
+            value.put("@language", quad.getLanguage().get());
+          } else {
+            value.put("@value", quad.getObject());
+            value.put("@type", quad.getValuetype().get());
+          }
+          values.computeIfAbsent(quad.getPredicate(), predicate -> new ArrayList<>()).add(value);
+        }
+        Map<String, Object> entity = new LinkedHashMap<>();
+        entity.put("@id", subject);
+        entity.putAll(values);
+        writer.write(OBJECT_MAPPER.writeValueAsString(entity));
+        writer.write("\n");
+      }
+    };
+
+    private final String name;
+    private final String mediaType;
+
+    Format(String name, String mediaType) {
+      this.name = name;
+      this.mediaType = mediaType;
+    }
+
+    static Format fromName(String name) {
+      for (Format format : values()) {
+        if (format.name.equals(name)) {
+          return format;
+        }
+      }
+      return null;
+    }
+
+    abstract void write(Writer writer, DataSetQuadGenerator quadGenerator, String subject, List<CursorQuad> quads,
+                        String graph) throws IOException;
+  }
+}
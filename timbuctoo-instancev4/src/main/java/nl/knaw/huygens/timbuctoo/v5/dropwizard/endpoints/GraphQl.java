@@ -1,8 +1,13 @@
 package nl.knaw.huygens.timbuctoo.v5.dropwizard.endpoints;
 
+import com.codahale.metrics.MetricRegistry;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+import com.google.common.io.CountingOutputStream;
 import com.sleepycat.je.DatabaseException;
 import graphql.ExecutionResult;
 import graphql.GraphQL;
@@ -13,23 +18,36 @@ import nl.knaw.huygens.timbuctoo.v5.dataset.DataSetRepository;
 import nl.knaw.huygens.timbuctoo.v5.dataset.exceptions.RdfProcessingFailedException;
 import nl.knaw.huygens.timbuctoo.v5.dropwizard.contenttypes.SerializerWriter;
 import nl.knaw.huygens.timbuctoo.v5.dropwizard.contenttypes.SerializerWriterRegistry;
+import nl.knaw.huygens.timbuctoo.v5.graphql.PreparsedDocumentCache;
+import nl.knaw.huygens.timbuctoo.v5.graphql.datafetchers.FetcherExecutor;
 import nl.knaw.huygens.timbuctoo.v5.graphql.datafetchers.dto.RootData;
+import nl.knaw.huygens.timbuctoo.v5.graphql.querycost.QueryCostBudget;
+import nl.knaw.huygens.timbuctoo.v5.graphql.querycost.QueryCostConfiguration;
+import nl.knaw.huygens.timbuctoo.v5.graphql.querycost.QueryCostEstimator;
+import nl.knaw.huygens.timbuctoo.v5.graphql.querycost.QueryCostInstrumentation;
 import nl.knaw.huygens.timbuctoo.v5.graphql.security.PermissionBasedFieldVisibility;
 import nl.knaw.huygens.timbuctoo.v5.graphql.security.UserPermissionCheck;
+import nl.knaw.huygens.timbuctoo.v5.graphql.serializable.PagedExport;
+import nl.knaw.huygens.timbuctoo.v5.graphql.serializable.PagedExportQuery;
 import nl.knaw.huygens.timbuctoo.v5.graphql.serializable.SerializerExecutionStrategy;
 import nl.knaw.huygens.timbuctoo.v5.security.PermissionFetcher;
 import nl.knaw.huygens.timbuctoo.v5.security.UserValidator;
 import nl.knaw.huygens.timbuctoo.v5.security.dto.User;
 import nl.knaw.huygens.timbuctoo.v5.security.exceptions.UserValidationException;
+import nl.knaw.huygens.timbuctoo.v5.serializable.PagedSerialization;
 import nl.knaw.huygens.timbuctoo.v5.serializable.SerializableResult;
+import nl.knaw.huygens.timbuctoo.v5.serializable.Serialization;
+import nl.knaw.huygens.timbuctoo.v5.serializable.dto.QueryContainer;
 import org.slf4j.LoggerFactory;
 
+import javax.servlet.http.HttpServletRequest;
 import javax.ws.rs.Consumes;
 import javax.ws.rs.GET;
 import javax.ws.rs.HeaderParam;
 import javax.ws.rs.POST;
 import javax.ws.rs.Path;
 import javax.ws.rs.QueryParam;
+import javax.ws.rs.core.Context;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
 import javax.ws.rs.core.StreamingOutput;
@@ -38,7 +56,10 @@ import java.net.URI;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Supplier;
 
 import static com.google.common.collect.Sets.newHashSet;
@@ -49,6 +70,8 @@ import static nl.knaw.huygens.timbuctoo.v5.graphql.datafetchers.dto.ContextData.
 
 @Path("/v5/graphql")
 public class GraphQl {
+  private static final int DOCUMENT_CACHE_SIZE = 1000;
+  private static final int GRAPHQL_CACHE_SIZE = 100;
   private final Supplier<GraphQLSchema> graphqlGetter;
   private final SerializerWriterRegistry serializerWriterRegistry;
   private final UserValidator userValidator;
@@ -56,10 +79,16 @@ public class GraphQl {
   private final PermissionFetcher permissionFetcher;
   private final ObjectMapper objectMapper;
   private final DataSetRepository dataSetRepository;
+  private final PreparsedDocumentCache documentCache;
+  private final QueryCostInstrumentation queryCostInstrumentation;
+  private final FetcherExecutor fetcherExecutor;
+  private final LoadingCache<ExecutionProfile, GraphQL> graphQls;
+  private final AtomicReference<GraphQLSchema> lastSchema = new AtomicReference<>();
 
   public GraphQl(Supplier<GraphQLSchema> graphqlGetter, SerializerWriterRegistry serializerWriterRegistry,
                  UserValidator userValidator, UriHelper uriHelper, PermissionFetcher permissionFetcher,
-                 DataSetRepository dataSetRepository)
+                 DataSetRepository dataSetRepository, QueryCostConfiguration queryCostConfiguration,
+                 FetcherExecutor fetcherExecutor, MetricRegistry metrics)
     throws DatabaseException, RdfProcessingFailedException {
     this.graphqlGetter = graphqlGetter;
     this.serializerWriterRegistry = serializerWriterRegistry;
@@ -67,7 +96,44 @@ public class GraphQl {
     this.uriHelper = uriHelper;
     this.permissionFetcher = permissionFetcher;
     this.dataSetRepository = dataSetRepository;
+    this.fetcherExecutor = fetcherExecutor;
     objectMapper = new ObjectMapper();
+    documentCache = new PreparsedDocumentCache(DOCUMENT_CACHE_SIZE, metrics);
+    queryCostInstrumentation = new QueryCostInstrumentation(
+      new QueryCostEstimator(dataSetRepository),
+      new QueryCostBudget(queryCostConfiguration.getUserBudgetPerMinute()),
+      queryCostConfiguration.getMaxQueryCost()
+    );
+    graphQls = CacheBuilder.newBuilder()
+      .maximumSize(GRAPHQL_CACHE_SIZE)
+      .build(CacheLoader.from(this::createGraphQl));
+  }
+
+  /**
+   * Returns the published schema. When a new schema was published the cached GraphQL instances and documents are
+   * dropped, because they belong to the previous schema and would otherwise stay in the caches until evicted.
+   */
+  private GraphQLSchema currentSchema() {
+    final GraphQLSchema schema = graphqlGetter.get();
+    if (lastSchema.getAndSet(schema) != schema) {
+      graphQls.invalidateAll();
+      documentCache.invalidateAll();
+    }
+    return schema;
+  }
+
+  private GraphQL createGraphQl(ExecutionProfile profile) {
+    final GraphQLSchema transform = profile.schema
+      .transform(b -> b.fieldVisibility(new PermissionBasedFieldVisibility(profile.dataSetNamesWithOutReadPermission)));
+    final GraphQL.Builder builder = GraphQL.newGraphQL(transform)
+      .preparsedDocumentProvider(documentCache.forSchema(transform))
+      .instrumentation(queryCostInstrumentation);
+
+    if (profile.serializing) {
+      builder.queryExecutionStrategy(new SerializerExecutionStrategy());
+    }
+
+    return builder.build();
   }
 
   public URI getUri() {
@@ -79,7 +145,9 @@ public class GraphQl {
   public Response postJson(JsonNode body, @QueryParam("query") String query,
                            @HeaderParam("accept") String acceptHeader,
                            @QueryParam("accept") String acceptParam,
-                           @HeaderParam("Authorization") String authHeader) {
+                           @QueryParam("stream") boolean stream,
+                           @HeaderParam("Authorization") String authHeader,
+                           @Context HttpServletRequest request) {
     final String queryFromBody;
     if (body.has("query")) {
       queryFromBody = body.get("query").asText();
@@ -101,7 +169,8 @@ public class GraphQl {
       body.get("operationName").asText() :
       null;
 
-    return executeGraphql(query, acceptHeader, acceptParam, queryFromBody, variables, operationName, authHeader);
+    return executeGraphql(query, acceptHeader, acceptParam, queryFromBody, variables, operationName, stream,
+      authHeader, request.getRemoteAddr());
   }
 
   @POST
@@ -109,20 +178,33 @@ public class GraphQl {
   public Response postGraphql(String query, @QueryParam("query") String queryParam,
                               @HeaderParam("accept") String acceptHeader,
                               @QueryParam("accept") String acceptParam,
-                              @HeaderParam("Authorization") String authHeader) {
-    return executeGraphql(queryParam, acceptHeader, acceptParam, query, null, null, authHeader);
+                              @QueryParam("stream") boolean stream,
+                              @HeaderParam("Authorization") String authHeader,
+                              @Context HttpServletRequest request) {
+    return executeGraphql(queryParam, acceptHeader, acceptParam, query, null, null, stream, authHeader,
+      request.getRemoteAddr());
   }
 
   @GET
   public Response get(@QueryParam("query") String query, @HeaderParam("accept") String acceptHeader,
                       @QueryParam("accept") String acceptParam,
-                      @HeaderParam("Authorization") String authHeader) {
-    return executeGraphql(null, acceptHeader, acceptParam, query, null, null, authHeader);
+                      @QueryParam("stream") boolean stream,
+                      @HeaderParam("Authorization") String authHeader,
+                      @Context HttpServletRequest request) {
+    return executeGraphql(null, acceptHeader, acceptParam, query, null, null, stream, authHeader,
+      request.getRemoteAddr());
   }
 
 
+  /**
+   * @param stream whether an export should contain all pages of the list that the query requests. The pages are
+   *               requested and written one at a time, up to the count of the list if the query specifies one. Only
+   *               the formats that implement PagedSerialization support it, the others write the first page.
+   * @param clientAddress identifies the anonymous users for the query budget
+   */
   public Response executeGraphql(String query, String acceptHeader, String acceptParam, String queryFromBody,
-                                 Map variables, String operationName, String authHeader) {
+                                 Map variables, String operationName, boolean stream, String authHeader,
+                                 String clientAddress) {
 
     final SerializerWriter serializerWriter;
     if (acceptParam != null && !acceptParam.isEmpty()) {
@@ -161,38 +243,32 @@ public class GraphQl {
           "E.g. {query: \\\"{\\n  persons {\\n ... \\\"}\"]}")
         .build();
     }
-    Optional<User> user;
-    try {
-      user = userValidator.getUserFromAccessToken(authHeader);
-    } catch (UserValidationException e) {
-      user = Optional.empty();
-    }
+    final Optional<User> user = getUser(authHeader);
 
     UserPermissionCheck userPermissionCheck = new UserPermissionCheck(
       user,
       permissionFetcher
     );
 
-    final GraphQLSchema transform = graphqlGetter
-      .get()
-      .transform(b -> b.fieldVisibility(new PermissionBasedFieldVisibility(userPermissionCheck,dataSetRepository)));
-    final GraphQL.Builder builder = GraphQL.newGraphQL(transform);
-
-    if (serializerWriter != null) {
-      builder.queryExecutionStrategy(new SerializerExecutionStrategy());
-    }
+    final GraphQL graphQl = graphQls.getUnchecked(new ExecutionProfile(
+      currentSchema(),
+      PermissionBasedFieldVisibility.dataSetNamesWithOutReadPermission(userPermissionCheck, dataSetRepository),
+      serializerWriter != null
+    ));
 
-    GraphQL graphQl = builder.build();
+    final Map<String, Object> queryVariables = variables == null ? Collections.emptyMap() : variables;
+    final Optional<PagedExportQuery> pagedQuery = stream && serializerWriter != null ?
+      PagedExportQuery.create(queryFromBody, operationName, queryVariables) :
+      Optional.empty();
 
     try {
-      final ExecutionResult result = graphQl
-        .execute(newExecutionInput()
-          .root(new RootData(user))
-          .context(contextData(userPermissionCheck, user))
-          .query(queryFromBody)
-          .operationName(operationName)
-          .variables(variables == null ? Collections.emptyMap() : variables)
-          .build());
+      final ExecutionResult result = graphQl.execute(newExecutionInput()
+        .root(new RootData(user))
+        .context(contextData(userPermissionCheck, user, fetcherExecutor.forRequest(), clientAddress))
+        .query(pagedQuery.map(PagedExportQuery::getQuery).orElse(queryFromBody))
+        .operationName(operationName)
+        .variables(pagedQuery.map(q -> q.getVariables(queryVariables, null)).orElse(queryVariables))
+        .build());
 
       if (serializerWriter == null) {
         return Response
@@ -208,11 +284,35 @@ public class GraphQl {
             .entity(result.toSpecification())
             .build();
         }
+        // only the PagedExport should refer to the first page, so that it can be released after it was written
+        final AtomicReference<QueryContainer> firstPage = new AtomicReference<>(result.getData());
         return Response
           .ok()
           .type(serializerWriter.getMimeType())
           .entity((StreamingOutput) os -> {
-            serializerWriter.getSerializationFactory().create(os).serialize(new SerializableResult(result.getData()));
+            final CountingOutputStream output = new CountingOutputStream(os);
+            final Serialization serialization = serializerWriter.getSerializationFactory().create(output);
+            final Optional<PagedExport> pagedExport = pagedQuery.flatMap(q -> PagedExport.create(
+              firstPage.get(),
+              cursor -> retrievePage(graphQl, q, queryVariables, cursor, user, userPermissionCheck, clientAddress),
+              q.getLimit().orElse(Integer.MAX_VALUE)
+            ));
+            if (serialization instanceof PagedSerialization && pagedExport.isPresent()) {
+              firstPage.set(null);
+              try {
+                ((PagedSerialization) serialization).serialize(pagedExport.get());
+              } catch (RuntimeException e) {
+                if (output.getCount() == 0) {
+                  // nothing was sent yet (e.g. the serialization collects all pages first), so the status can be 500
+                  throw e;
+                }
+                // the status was already sent, so the client can only learn about the failure from the body
+                LoggerFactory.getLogger(GraphQl.class).error("Paged export failed", e);
+                ((PagedSerialization) serialization).writeError(e.getMessage());
+              }
+            } else {
+              serialization.serialize(new SerializableResult(firstPage.getAndSet(null)));
+            }
           })
           .build();
       }
@@ -224,8 +324,63 @@ public class GraphQl {
   }
 
 
+  private Optional<User> getUser(String authHeader) {
+    try {
+      return userValidator.getUserFromAccessToken(authHeader);
+    } catch (UserValidationException e) {
+      return Optional.empty();
+    }
+  }
+
+  private QueryContainer retrievePage(GraphQL graphQl, PagedExportQuery pagedQuery, Map<String, Object> variables,
+                                      String cursor, Optional<User> user, UserPermissionCheck userPermissionCheck,
+                                      String clientAddress) {
+    // each page is a separate execution, so that the caches of the execution only hold one page
+    final ExecutionResult result = graphQl.execute(newExecutionInput()
+      .root(new RootData(user))
+      .context(contextData(userPermissionCheck, user, fetcherExecutor.forRequest(), clientAddress))
+      .query(pagedQuery.getQuery())
+      .operationName(pagedQuery.getOperationName())
+      .variables(pagedQuery.getVariables(variables, cursor))
+      .build());
+    if (result.getErrors() != null && !result.getErrors().isEmpty()) {
+      throw new IllegalStateException("Retrieving the page at cursor " + cursor + " failed: " + result.getErrors());
+    }
+    return result.getData();
+  }
+
   public boolean unSpecifiedAcceptHeader(@HeaderParam("accept") String acceptHeader) {
     return acceptHeader == null || acceptHeader.isEmpty() || "*/*".equals(acceptHeader);
   }
 
+  /**
+   * The GraphQL instances are reused by the requests on the same schema, with the same visible data sets and the same
+   * execution strategy.
+   */
+  private static class ExecutionProfile {
+    private final GraphQLSchema schema;
+    private final Set<String> dataSetNamesWithOutReadPermission;
+    private final boolean serializing;
+
+    private ExecutionProfile(GraphQLSchema schema, Set<String> dataSetNamesWithOutReadPermission, boolean serializing) {
+      this.schema = schema;
+      this.dataSetNamesWithOutReadPermission = dataSetNamesWithOutReadPermission;
+      this.serializing = serializing;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+      if (!(obj instanceof ExecutionProfile)) {
+        return false;
+      }
+      ExecutionProfile other = (ExecutionProfile) obj;
+      return schema == other.schema && serializing == other.serializing &&
+        dataSetNamesWithOutReadPermission.equals(other.dataSetNamesWithOutReadPermission);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(System.identityHashCode(schema), dataSetNamesWithOutReadPermission, serializing);
+    }
+  }
 }
@@ -0,0 +1,86 @@
+package nl.knaw.huygens.timbuctoo.v5.graphql;
+
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.RatioGauge;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import graphql.execution.preparsed.PreparsedDocumentEntry;
+import graphql.execution.preparsed.PreparsedDocumentProvider;
+import graphql.schema.GraphQLSchema;
+
+import java.util.Objects;
+
+import static com.codahale.metrics.MetricRegistry.name;
+
+/**
+ * Keeps the parsed and validated documents of the most recent queries. Validation depends on the schema and on the
+ * fields that are visible in it, so the documents are cached per schema instance.
+ */
+public class PreparsedDocumentCache {
+  private final Cache<Key, PreparsedDocumentEntry> documents;
+  private final Meter hits;
+  private final Meter misses;
+
+  public PreparsedDocumentCache(long maximumSize, MetricRegistry metrics) {
+    documents = CacheBuilder.newBuilder().maximumSize(maximumSize).build();
+    hits = metrics.meter(name(PreparsedDocumentCache.class, "hits"));
+    misses = metrics.meter(name(PreparsedDocumentCache.class, "misses"));
+    // the meters are shared by all caches on the registry, so the gauge of the first cache is reused as well
+    metrics.gauge(name(PreparsedDocumentCache.class, "hitRatio"), () -> new RatioGauge() {
+      @Override
+      protected Ratio getRatio() {
+        return Ratio.of(hits.getOneMinuteRate(), hits.getOneMinuteRate() + misses.getOneMinuteRate());
+      }
+    });
+  }
+
+  /**
+   * @param schema the schema that the GraphQL instance using the provider executes on
+   */
+  public PreparsedDocumentProvider forSchema(GraphQLSchema schema) {
+    return (query, parseAndValidate) -> {
+      final Key key = new Key(schema, query);
+      PreparsedDocumentEntry entry = documents.getIfPresent(key);
+      if (entry == null) {
+        misses.mark();
+        entry = parseAndValidate.apply(query);
+        documents.put(key, entry);
+      } else {
+        hits.mark();
+      }
+      return entry;
+    };
+  }
+
+  /**
+   * Drops all documents, for example because the schema that they were validated against was replaced.
+   */
+  public void invalidateAll() {
+    documents.invalidateAll();
+  }
+
+  private static class Key {
+    private final GraphQLSchema schema;
+    private final String query;
+
+    private Key(GraphQLSchema schema, String query) {
+      this.schema = schema;
+      this.query = query;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+      if (!(obj instanceof Key)) {
+        return false;
+      }
+      Key other = (Key) obj;
+      return schema == other.schema && query.equals(other.query);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(System.identityHashCode(schema), query);
+    }
+  }
+}
@@ -0,0 +1,43 @@
+package nl.knaw.huygens.timbuctoo.v5.graphql.datafetchers;
+
+import graphql.schema.DataFetcher;
+import graphql.schema.DataFetchingEnvironment;
+import nl.knaw.huygens.timbuctoo.v5.graphql.datafetchers.dto.ContextData;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+/**
+ * Runs a data fetcher on the executor of the request (see {@link ContextData#getFetcherExecutor()}), so that the
+ * AsyncExecutionStrategy can resolve sibling fields and the items of a list while the other fetchers read from the
+ * quad store.
+ */
+public class AsyncDataFetcher implements DataFetcher<CompletableFuture<Object>> {
+  private final DataFetcher<?> inner;
+
+  private AsyncDataFetcher(DataFetcher<?> inner) {
+    this.inner = inner;
+  }
+
+  public static AsyncDataFetcher async(DataFetcher<?> inner) {
+    return new AsyncDataFetcher(inner);
+  }
+
+  @Override
+  public CompletableFuture<Object> get(DataFetchingEnvironment environment) {
+    final Executor executor = environment.getContext() instanceof ContextData ?
+      environment.<ContextData>getContext().getFetcherExecutor() :
+      FetcherExecutor.synchronous();
+    final CompletableFuture<Object> result = new CompletableFuture<>();
+    executor.execute(() -> {
+      try {
+        result.complete(inner.get(environment));
+      } catch (Throwable e) {
+        // complete with the exception itself instead of a CompletionException, so that the error message is the same
+        // as that of a synchronous fetcher
+        result.completeExceptionally(e);
+      }
+    });
+    return result;
+  }
+}
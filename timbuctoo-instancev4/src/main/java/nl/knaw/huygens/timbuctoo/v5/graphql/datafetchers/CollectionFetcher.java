@@ -1,10 +1,11 @@
 package nl.knaw.huygens.timbuctoo.v5.graphql.datafetchers;
 
 import nl.knaw.huygens.timbuctoo.v5.dataset.dto.DataSet;
+import nl.knaw.huygens.timbuctoo.v5.graphql.datafetchers.berkeleydb.SubjectCache;
 import nl.knaw.huygens.timbuctoo.v5.graphql.datafetchers.dto.PaginatedList;
 import nl.knaw.huygens.timbuctoo.v5.graphql.datafetchers.dto.PaginationArguments;
 import nl.knaw.huygens.timbuctoo.v5.graphql.datafetchers.dto.SubjectReference;
 
 public interface CollectionFetcher {
-  PaginatedList<SubjectReference> getList(PaginationArguments arguments, DataSet dataSet);
+  PaginatedList<SubjectReference> getList(PaginationArguments arguments, DataSet dataSet, SubjectCache subjectCache);
 }
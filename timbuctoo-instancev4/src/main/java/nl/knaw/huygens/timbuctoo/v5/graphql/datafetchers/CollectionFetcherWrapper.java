@@ -2,6 +2,7 @@ package nl.knaw.huygens.timbuctoo.v5.graphql.datafetchers;
 
 import graphql.schema.DataFetcher;
 import graphql.schema.DataFetchingEnvironment;
+import nl.knaw.huygens.timbuctoo.v5.graphql.datafetchers.berkeleydb.SubjectCache;
 import nl.knaw.huygens.timbuctoo.v5.graphql.datafetchers.dto.DatabaseResult;
 
 public class CollectionFetcherWrapper implements DataFetcher {
@@ -17,7 +18,8 @@ public class CollectionFetcherWrapper implements DataFetcher {
   public Object get(DataFetchingEnvironment environment) {
     return fetcher.getList(
       argumentsHelper.getPaginationArguments(environment),
-      ((DatabaseResult) environment.getSource()).getDataSet()
+      ((DatabaseResult) environment.getSource()).getDataSet(),
+      SubjectCache.of(environment)
     );
   }
 
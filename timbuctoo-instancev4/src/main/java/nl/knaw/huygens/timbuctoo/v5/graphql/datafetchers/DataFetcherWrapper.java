@@ -2,6 +2,7 @@ package nl.knaw.huygens.timbuctoo.v5.graphql.datafetchers;
 
 import graphql.schema.DataFetcher;
 import graphql.schema.DataFetchingEnvironment;
+import nl.knaw.huygens.timbuctoo.v5.graphql.datafetchers.berkeleydb.SubjectCache;
 import nl.knaw.huygens.timbuctoo.v5.graphql.datafetchers.dto.DatabaseResult;
 import nl.knaw.huygens.timbuctoo.v5.graphql.datafetchers.dto.SubjectReference;
 
@@ -24,10 +25,15 @@ public class DataFetcherWrapper implements DataFetcher {
         return inner.getList(
           source,
           argumentsHelper.getPaginationArguments(environment),
-          ((DatabaseResult) environment.getSource()).getDataSet()
+          ((DatabaseResult) environment.getSource()).getDataSet(),
+          SubjectCache.of(environment)
         );
       } else {
-        return inner.getItem(source, ((DatabaseResult) environment.getSource()).getDataSet());
+        return inner.getItem(
+          source,
+          ((DatabaseResult) environment.getSource()).getDataSet(),
+          SubjectCache.of(environment)
+        );
       }
     } else {
       throw new IllegalStateException("Source is not a SubjectReference");
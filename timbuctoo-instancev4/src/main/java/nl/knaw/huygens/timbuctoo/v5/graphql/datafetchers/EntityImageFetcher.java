@@ -4,6 +4,7 @@ import graphql.schema.DataFetcher;
 import graphql.schema.DataFetchingEnvironment;
 import graphql.schema.GraphQLObjectType;
 import nl.knaw.huygens.timbuctoo.v5.dataset.dto.DataSet;
+import nl.knaw.huygens.timbuctoo.v5.graphql.datafetchers.berkeleydb.SubjectCache;
 import nl.knaw.huygens.timbuctoo.v5.graphql.datafetchers.dto.SubjectReference;
 import nl.knaw.huygens.timbuctoo.v5.graphql.datafetchers.dto.TypedValue;
 import nl.knaw.huygens.timbuctoo.v5.graphql.defaultconfiguration.SummaryProp;
@@ -30,7 +31,12 @@ public class EntityImageFetcher implements DataFetcher<TypedValue> {
       if (env.getParentType() instanceof GraphQLObjectType) {
         String type = getDirectiveArgument((GraphQLObjectType) env.getParentType(), "rdfType", "uri").orElse(null);
 
-        Optional<TypedValue> summaryProperty = summaryPropDataRetriever.createSummaryProperty(source, dataSet, type);
+        Optional<TypedValue> summaryProperty = summaryPropDataRetriever.createSummaryProperty(
+          source,
+          dataSet,
+          type,
+          SubjectCache.of(env)
+        );
         if (summaryProperty.isPresent()) {
           return summaryProperty.get();
         }
@@ -0,0 +1,55 @@
+package nl.knaw.huygens.timbuctoo.v5.graphql.datafetchers;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Hands out an executor per request on which the {@link AsyncDataFetcher}s of that request run. All requests share one
+ * bounded thread pool, and each request may only occupy a limited number of its threads. A fetch that would exceed
+ * that limit, or that the pool rejects, runs on the thread that requests it. The fetchers never wait for each other, so
+ * running them on the calling thread cannot deadlock.
+ */
+public class FetcherExecutor {
+  private static final Executor SYNCHRONOUS = Runnable::run;
+
+  private final Executor pool;
+  private final int maxConcurrentFetchesPerRequest;
+
+  /**
+   * @param pool the shared thread pool, or null to resolve all fields on the request thread
+   */
+  public FetcherExecutor(Executor pool, int maxConcurrentFetchesPerRequest) {
+    this.pool = pool;
+    this.maxConcurrentFetchesPerRequest = maxConcurrentFetchesPerRequest;
+  }
+
+  public static Executor synchronous() {
+    return SYNCHRONOUS;
+  }
+
+  public Executor forRequest() {
+    if (pool == null || maxConcurrentFetchesPerRequest <= 0) {
+      return SYNCHRONOUS;
+    }
+    final Semaphore permits = new Semaphore(maxConcurrentFetchesPerRequest);
+    return task -> {
+      if (!permits.tryAcquire()) {
+        task.run();
+        return;
+      }
+      try {
+        pool.execute(() -> {
+          try {
+            task.run();
+          } finally {
+            permits.release();
+          }
+        });
+      } catch (RejectedExecutionException e) {
+        permits.release();
+        task.run();
+      }
+    };
+  }
+}
@@ -0,0 +1,41 @@
+package nl.knaw.huygens.timbuctoo.v5.graphql.datafetchers;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import org.immutables.value.Value;
+
+@Value.Immutable
+public interface FetcherExecutorConfiguration {
+
+  @JsonCreator
+  static FetcherExecutorConfiguration create(@JsonProperty("threads") Integer threads,
+                                             @JsonProperty("maxConcurrentFetchesPerRequest")
+                                               Integer maxConcurrentFetchesPerRequest) {
+    ImmutableFetcherExecutorConfiguration.Builder builder = ImmutableFetcherExecutorConfiguration.builder();
+    if (threads != null) {
+      builder.threads(threads);
+    }
+    if (maxConcurrentFetchesPerRequest != null) {
+      builder.maxConcurrentFetchesPerRequest(maxConcurrentFetchesPerRequest);
+    }
+    return builder.build();
+  }
+
+  /**
+   * The number of threads that the GraphQL data fetchers of all requests share. 0 resolves the fields on the request
+   * thread.
+   */
+  @Value.Default
+  default int getThreads() {
+    return Runtime.getRuntime().availableProcessors();
+  }
+
+  /**
+   * The number of fields of one request that are resolved in parallel. The fetches above this limit run on the thread
+   * that requests them.
+   */
+  @Value.Default
+  default int getMaxConcurrentFetchesPerRequest() {
+    return 4;
+  }
+}
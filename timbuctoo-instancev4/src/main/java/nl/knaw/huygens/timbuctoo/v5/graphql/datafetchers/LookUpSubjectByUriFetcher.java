@@ -1,8 +1,9 @@
 package nl.knaw.huygens.timbuctoo.v5.graphql.datafetchers;
 
 import nl.knaw.huygens.timbuctoo.v5.dataset.dto.DataSet;
+import nl.knaw.huygens.timbuctoo.v5.graphql.datafetchers.berkeleydb.SubjectCache;
 import nl.knaw.huygens.timbuctoo.v5.graphql.datafetchers.dto.SubjectReference;
 
 public interface LookUpSubjectByUriFetcher {
-  SubjectReference getItem(String uri, DataSet dataSet);
+  SubjectReference getItem(String uri, DataSet dataSet, SubjectCache subjectCache);
 }
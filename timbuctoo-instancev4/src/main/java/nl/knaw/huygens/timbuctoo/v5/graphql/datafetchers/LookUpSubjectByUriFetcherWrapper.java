@@ -2,6 +2,7 @@ package nl.knaw.huygens.timbuctoo.v5.graphql.datafetchers;
 
 import graphql.schema.DataFetcher;
 import graphql.schema.DataFetchingEnvironment;
+import nl.knaw.huygens.timbuctoo.v5.graphql.datafetchers.berkeleydb.SubjectCache;
 import nl.knaw.huygens.timbuctoo.v5.graphql.datafetchers.dto.DatabaseResult;
 import org.eclipse.rdf4j.common.net.ParsedURI;
 
@@ -24,7 +25,8 @@ public class LookUpSubjectByUriFetcherWrapper implements DataFetcher {
     String uri = environment.getArgument(uriArgument);
     return lookUpSubjectByUriFetcher.getItem(
       baseUri.resolve(uri).toString(),
-      source.getDataSet()
+      source.getDataSet(),
+      SubjectCache.of(environment)
     );
   }
 }
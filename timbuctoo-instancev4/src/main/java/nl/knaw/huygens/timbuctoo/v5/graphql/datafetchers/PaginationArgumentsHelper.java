@@ -47,7 +47,10 @@ public class PaginationArgumentsHelper {
       }
     }
 
-    return PaginationArguments.create(count, cursor, Optional.ofNullable(filter));
+    final boolean totalRequested = environment.getSelectionSet() != null &&
+      environment.getSelectionSet().contains("total");
+
+    return PaginationArguments.create(count, cursor, Optional.ofNullable(filter), totalRequested);
   }
 
   public String makeListName(String outputTypeName) {
@@ -68,6 +71,7 @@ public class PaginationArgumentsHelper {
 
   public String makePaginatedListDefinition(String outputType) {
     return "type " + makeListName(outputType) + " {\n" +
+      "  total: Int\n" +
       "  prevCursor: ID\n" +
       "  nextCursor: ID\n" +
       "  items: [" + outputType + "!]!\n" +
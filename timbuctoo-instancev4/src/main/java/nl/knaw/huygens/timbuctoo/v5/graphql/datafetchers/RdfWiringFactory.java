@@ -49,6 +49,7 @@ import java.util.Map;
 import java.util.Set;
 
 import static nl.knaw.huygens.timbuctoo.v5.datastores.quadstore.dto.Direction.valueOf;
+import static nl.knaw.huygens.timbuctoo.v5.graphql.datafetchers.AsyncDataFetcher.async;
 import static nl.knaw.huygens.timbuctoo.v5.util.RdfConstants.UNKNOWN;
 
 public class RdfWiringFactory implements WiringFactory {
@@ -141,17 +142,17 @@ public class RdfWiringFactory implements WiringFactory {
       String source = ((StringValue) directive.getArgument("source").getValue()).getValue();
       String predicate = ((StringValue) directive.getArgument("predicate").getValue()).getValue();
       String direction = ((StringValue) directive.getArgument("direction").getValue()).getValue();
-      return new CollectionFetcherWrapper(argumentsHelper, new RelationsOfSubjectDataFetcher(
+      return async(new CollectionFetcherWrapper(argumentsHelper, new RelationsOfSubjectDataFetcher(
         source,
         predicate,
         Direction.valueOf(direction)
-      ));
+      )));
     } else if (environment.getFieldDefinition().getDirective("lookupUri") != null) {
-      return lookupFetcher;
+      return async(lookupFetcher);
     } else if (environment.getFieldDefinition().getDirective("fromCollection") != null) {
       final Directive directive = environment.getFieldDefinition().getDirective("fromCollection");
       String uri = ((StringValue) directive.getArgument("uri").getValue()).getValue();
-      return new CollectionFetcherWrapper(argumentsHelper, new CollectionDataFetcher(uri));
+      return async(new CollectionFetcherWrapper(argumentsHelper, new CollectionDataFetcher(uri)));
     } else if (environment.getFieldDefinition().getDirective("rdf") != null) {
       final Directive directive = environment.getFieldDefinition().getDirective("rdf");
       String uri = ((StringValue) directive.getArgument("predicate").getValue()).getValue();
@@ -160,12 +161,12 @@ public class RdfWiringFactory implements WiringFactory {
       boolean isObject = ((BooleanValue) directive.getArgument("isObject").getValue()).isValue();
       boolean isValue = ((BooleanValue) directive.getArgument("isValue").getValue()).isValue();
       if (isObject && isValue) {
-        return new DataFetcherWrapper(argumentsHelper, isList, new UnionDataFetcher(uri, direction));
+        return async(new DataFetcherWrapper(argumentsHelper, isList, new UnionDataFetcher(uri, direction)));
       } else {
         if (isObject) {
-          return new DataFetcherWrapper(argumentsHelper, isList, new RelationDataFetcher(uri, direction));
+          return async(new DataFetcherWrapper(argumentsHelper, isList, new RelationDataFetcher(uri, direction)));
         } else {
-          return new DataFetcherWrapper(argumentsHelper, isList, new TypedLiteralDataFetcher(uri));
+          return async(new DataFetcherWrapper(argumentsHelper, isList, new TypedLiteralDataFetcher(uri)));
         }
       }
     } else if (environment.getFieldDefinition().getDirective("uri") != null) {
@@ -183,15 +184,15 @@ public class RdfWiringFactory implements WiringFactory {
         }
       };
     } else if (environment.getFieldDefinition().getDirective("entityTitle") != null) {
-      return entityTitleFetcher;
+      return async(entityTitleFetcher);
     } else if (environment.getFieldDefinition().getDirective("entityDescription") != null) {
-      return entityDescriptionFetcher;
+      return async(entityDescriptionFetcher);
     } else if (environment.getFieldDefinition().getDirective("entityImage") != null) {
-      return entityImageFetcher;
+      return async(entityImageFetcher);
     } else if (environment.getFieldDefinition().getDirective("otherDataSets") != null) {
       return otherDataSetFetcher;
     } else if (environment.getFieldDefinition().getDirective("getAllOfPredicate") != null) {
-      return dynamicRelationDataFetcher;
+      return async(dynamicRelationDataFetcher);
     } else if (environment.getFieldDefinition().getDirective("createMutation") != null) {
       Directive directive = environment.getFieldDefinition().getDirective("createMutation");
       StringValue dataSet = (StringValue) directive.getArgument("dataSet").getValue();
@@ -1,13 +1,15 @@
 package nl.knaw.huygens.timbuctoo.v5.graphql.datafetchers;
 
 import nl.knaw.huygens.timbuctoo.v5.dataset.dto.DataSet;
+import nl.knaw.huygens.timbuctoo.v5.graphql.datafetchers.berkeleydb.SubjectCache;
 import nl.knaw.huygens.timbuctoo.v5.graphql.datafetchers.dto.DatabaseResult;
 import nl.knaw.huygens.timbuctoo.v5.graphql.datafetchers.dto.PaginatedList;
 import nl.knaw.huygens.timbuctoo.v5.graphql.datafetchers.dto.PaginationArguments;
 import nl.knaw.huygens.timbuctoo.v5.graphql.datafetchers.dto.SubjectReference;
 
 public interface RelatedDataFetcher<T extends DatabaseResult> {
-  PaginatedList<T> getList(SubjectReference source, PaginationArguments arguments, DataSet dataSet);
+  PaginatedList<T> getList(SubjectReference source, PaginationArguments arguments, DataSet dataSet,
+                           SubjectCache subjectCache);
 
-  T getItem(SubjectReference source, DataSet dataSet);
+  T getItem(SubjectReference source, DataSet dataSet, SubjectCache subjectCache);
 }
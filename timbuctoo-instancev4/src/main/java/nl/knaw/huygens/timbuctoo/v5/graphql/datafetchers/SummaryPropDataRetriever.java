@@ -3,9 +3,9 @@ package nl.knaw.huygens.timbuctoo.v5.graphql.datafetchers;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.datatype.guava.GuavaModule;
 import nl.knaw.huygens.timbuctoo.v5.dataset.dto.DataSet;
-import nl.knaw.huygens.timbuctoo.v5.datastores.quadstore.QuadStore;
 import nl.knaw.huygens.timbuctoo.v5.datastores.quadstore.dto.CursorQuad;
 import nl.knaw.huygens.timbuctoo.v5.datastores.quadstore.dto.Direction;
+import nl.knaw.huygens.timbuctoo.v5.graphql.datafetchers.berkeleydb.SubjectCache;
 import nl.knaw.huygens.timbuctoo.v5.graphql.datafetchers.dto.SubjectReference;
 import nl.knaw.huygens.timbuctoo.v5.graphql.datafetchers.dto.TypedValue;
 import nl.knaw.huygens.timbuctoo.v5.graphql.defaultconfiguration.DirectionalStep;
@@ -31,29 +31,29 @@ public class SummaryPropDataRetriever {
   }
 
 
-  public Optional<TypedValue> createSummaryProperty(SubjectReference source, DataSet dataSet, String typeUri) {
-    QuadStore quadStore = dataSet.getQuadStore();
-
+  /**
+   * @param subjectCache the cache of the query, the types, the configured summary prop and the quads on its path are
+   *                     read from it
+   */
+  public Optional<TypedValue> createSummaryProperty(SubjectReference source, DataSet dataSet, String typeUri,
+                                                    SubjectCache subjectCache) {
     final Optional<TypedValue> localConfiguredSummaryProp =
-      getType(quadStore, source.getSubjectUri(), typeUri)
-        .flatMap(collection -> getDataQuad(quadStore, collection.getObject(), summaryPropConfigPredicate))
-        .flatMap(userConfigured -> {
-          try {
-            SummaryProp summaryProp = OBJECT_MAPPER.readValue(userConfigured.getObject(), SummaryProp.class);
-            return getDataQuad(summaryProp.getPath(), source.getSubjectUri(), quadStore)
-              .map(quad -> createTypedValue(quad, dataSet));
-          } catch (IOException e) {
-            LOG.error("Cannot parse SummaryProp: '{}'", userConfigured.getObject());
-          }
-          return Optional.empty();
-        });
+      getType(subjectCache, dataSet, source.getSubjectUri(), typeUri)
+        .flatMap(collection -> subjectCache.getSummaryProp(
+          dataSet,
+          collection.getObject(),
+          summaryPropConfigPredicate,
+          () -> getSummaryProp(subjectCache, dataSet, collection.getObject())
+        ))
+        .flatMap(summaryProp -> getDataQuad(summaryProp.getPath(), source.getSubjectUri(), subjectCache, dataSet)
+          .map(quad -> createTypedValue(quad, dataSet)));
 
     if (localConfiguredSummaryProp.isPresent()) {
       return localConfiguredSummaryProp;
     } else {
       // fallback to default summary props
       for (SummaryProp prop : defaultProperties) {
-        Optional<CursorQuad> quad = getDataQuad(prop.getPath(), source.getSubjectUri(), quadStore);
+        Optional<CursorQuad> quad = getDataQuad(prop.getPath(), source.getSubjectUri(), subjectCache, dataSet);
         if (quad.isPresent()) {
           return Optional.of(createTypedValue(quad.get(), dataSet));
         }
@@ -63,29 +63,43 @@ public class SummaryPropDataRetriever {
     }
   }
 
-  private Optional<CursorQuad> getType(QuadStore quadStore, String source, String typeUri) {
-    try (Stream<CursorQuad> possibleCollections = quadStore.getQuads(
+  private Optional<SummaryProp> getSummaryProp(SubjectCache subjectCache, DataSet dataSet, String collection) {
+    return getDataQuad(subjectCache, dataSet, collection, summaryPropConfigPredicate)
+      .flatMap(userConfigured -> {
+        try {
+          return Optional.of(OBJECT_MAPPER.readValue(userConfigured.getObject(), SummaryProp.class));
+        } catch (IOException e) {
+          LOG.error("Cannot parse SummaryProp: '{}'", userConfigured.getObject());
+        }
+        return Optional.empty();
+      });
+  }
+
+  private Optional<CursorQuad> getType(SubjectCache subjectCache, DataSet dataSet, String source, String typeUri) {
+    try (Stream<CursorQuad> possibleCollections = subjectCache.getQuads(
+      dataSet,
       source,
       RdfConstants.RDF_TYPE,
-      Direction.OUT,
-      ""
+      Direction.OUT
     )) {
       return possibleCollections.filter(quad -> quad.getObject().equals(typeUri)).findFirst();
     }
   }
 
-  private Optional<CursorQuad> getDataQuad(QuadStore quadStore, String source, String predicate) {
-    try (Stream<CursorQuad> possibleCollections = quadStore.getQuads(
+  private Optional<CursorQuad> getDataQuad(SubjectCache subjectCache, DataSet dataSet, String source,
+                                           String predicate) {
+    try (Stream<CursorQuad> possibleCollections = subjectCache.getQuads(
+      dataSet,
       source,
       predicate,
-      Direction.OUT,
-      ""
+      Direction.OUT
     )) {
       return possibleCollections.findFirst();
     }
   }
 
-  private Optional<CursorQuad> getDataQuad(List<DirectionalStep> path, String uri, QuadStore quadStore) {
+  private Optional<CursorQuad> getDataQuad(List<DirectionalStep> path, String uri, SubjectCache subjectCache,
+                                           DataSet dataSet) {
     /*
      * A collect of the data might look a bit nicer, but that will cause all the data to be loaded from the database.
      * This way only the data needed is retrieved.
@@ -93,7 +107,8 @@ public class SummaryPropDataRetriever {
      */
     Optional<CursorQuad> foundQuad;
     DirectionalStep firstStep = path.get(0);
-    try (Stream<CursorQuad> quads = quadStore.getQuads(uri, firstStep.getStep(), firstStep.getDirection(), "")) {
+    try (Stream<CursorQuad> quads = subjectCache.getQuads(dataSet, uri, firstStep.getStep(),
+      firstStep.getDirection())) {
       foundQuad = quads.map(quad -> {
         if (path.size() > 1) {
           /*
@@ -103,7 +118,7 @@ public class SummaryPropDataRetriever {
           if (quad.getValuetype().isPresent()) {
             return Optional.<CursorQuad>empty();
           }
-          return getDataQuad(path.subList(1, path.size()), quad.getObject(), quadStore);
+          return getDataQuad(path.subList(1, path.size()), quad.getObject(), subjectCache, dataSet);
         } else {
           return Optional.of(quad);
         }
@@ -0,0 +1,102 @@
+package nl.knaw.huygens.timbuctoo.v5.graphql.datafetchers.berkeleydb;
+
+import nl.knaw.huygens.timbuctoo.v5.dataset.dto.DataSet;
+import nl.knaw.huygens.timbuctoo.v5.datastores.quadstore.QuadStore;
+import nl.knaw.huygens.timbuctoo.v5.datastores.quadstore.dto.CursorQuad;
+import nl.knaw.huygens.timbuctoo.v5.datastores.quadstore.dto.Direction;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Stream;
+
+/**
+ * Loads the quads of sibling subjects together: the items of one list, or the subjects that are reached from a batch
+ * through the same predicate. Instead of a cursor per field per subject, the first request for a field of a subject
+ * reads all quads of that subject and of the next {@link #MAX_BATCH_SIZE} subjects of the batch, in sorted order with
+ * one {@link QuadStore#getQuads(String)} per subject. The quads are kept per predicate in the {@link SubjectCache} of
+ * the query, which answers the requests for all the fields of the subjects.
+ *
+ * <p>The batch does not hold quads itself. When the cache is full, or a subject has too many quads, the siblings are
+ * not read ahead and their fields are read from the quad store.</p>
+ */
+public class SubjectBatch {
+  static final int MAX_BATCH_SIZE = 100;
+
+  private final DataSet dataSet;
+  private final SubjectCache cache;
+  private final TreeSet<String> subjects = new TreeSet<>();
+  private final Map<String, CompletableFuture<Void>> reads = new HashMap<>();
+  private final Map<String, SubjectBatch> children = new HashMap<>();
+
+  /**
+   * @param cache the cache of the query, subjects that it already holds are not read again
+   */
+  public SubjectBatch(DataSet dataSet, SubjectCache cache) {
+    this.dataSet = dataSet;
+    this.cache = cache;
+  }
+
+  public synchronized void add(String subject) {
+    subjects.add(subject);
+  }
+
+  /**
+   * @return the batch for the subjects that are reached from the subjects of this batch via the predicate
+   */
+  public synchronized SubjectBatch getChildBatch(String predicate, Direction direction) {
+    return children.computeIfAbsent(SubjectCache.key(predicate, direction), key -> new SubjectBatch(dataSet, cache));
+  }
+
+  /**
+   * @return the same quads, in the same order, as QuadStore.getQuads(subject, predicate, direction, "")
+   */
+  public Stream<CursorQuad> getQuads(String subject, String predicate, Direction direction) {
+    if (!cache.isFull()) {
+      final Map<String, CompletableFuture<Void>> unread = new LinkedHashMap<>();
+      final CompletableFuture<Void> read = startReading(subject, unread);
+      // the subjects are read outside the lock, so that the fetchers of the other siblings are not blocked
+      try {
+        unread.forEach((sibling, subjectRead) -> {
+          cache.readSubject(dataSet, sibling);
+          subjectRead.complete(null);
+        });
+      } finally {
+        // when reading fails the waiting fetchers read their fields themselves
+        unread.values().forEach(subjectRead -> subjectRead.complete(null));
+      }
+      // wait for the fetcher that reads the subject with its siblings
+      read.join();
+    }
+    // read ahead with the siblings, or read from the quad store if the subject has too many quads or the cache is full
+    return cache.getQuads(dataSet, subject, predicate, direction);
+  }
+
+  /**
+   * Adds the subject and, as the siblings are usually requested in order, the subjects after it that are not read yet
+   * to the subjects to read, unless the subject is read already.
+   *
+   * @return the read of the subject
+   */
+  private synchronized CompletableFuture<Void> startReading(String subject,
+                                                           Map<String, CompletableFuture<Void>> unread) {
+    subjects.add(subject);
+    final CompletableFuture<Void> read = reads.get(subject);
+    if (read != null) {
+      return read;
+    }
+    for (String sibling : subjects.tailSet(subject, true)) {
+      if (unread.size() >= MAX_BATCH_SIZE) {
+        break;
+      }
+      reads.computeIfAbsent(sibling, key -> {
+        final CompletableFuture<Void> siblingRead = new CompletableFuture<>();
+        unread.put(key, siblingRead);
+        return siblingRead;
+      });
+    }
+    return reads.get(subject);
+  }
+}
@@ -0,0 +1,191 @@
+package nl.knaw.huygens.timbuctoo.v5.graphql.datafetchers.berkeleydb;
+
+import com.google.common.collect.Streams;
+import graphql.execution.ExecutionContext;
+import graphql.language.OperationDefinition;
+import graphql.schema.DataFetchingEnvironment;
+import nl.knaw.huygens.timbuctoo.v5.dataset.dto.DataSet;
+import nl.knaw.huygens.timbuctoo.v5.datastores.quadstore.dto.CursorQuad;
+import nl.knaw.huygens.timbuctoo.v5.datastores.quadstore.dto.Direction;
+import nl.knaw.huygens.timbuctoo.v5.graphql.datafetchers.dto.ContextData;
+import nl.knaw.huygens.timbuctoo.v5.graphql.defaultconfiguration.SummaryProp;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * Memoizes the quads that the data fetchers read during the execution of one query, so that a subject that is reached
+ * more than once (e.g. via different relations, or for its title, description and image) is read once.
+ *
+ * <p>The cache stops storing quads when it holds {@link #DEFAULT_MAX_QUADS} of them, and does not store the quads of a
+ * predicate of a subject that has too many of them. Mutations change the quads, so they use
+ * {@link #disabled()}, which reads everything from the quad store.</p>
+ */
+public class SubjectCache {
+  public static final long DEFAULT_MAX_QUADS = 50_000;
+  static final int MAX_QUADS_PER_PREDICATE = 100;
+  static final int MAX_QUADS_PER_SUBJECT = 1000;
+  private static final SubjectCache DISABLED = new SubjectCache(0);
+
+  private final long maxQuads;
+  private final AtomicLong quadCount = new AtomicLong();
+  private final Map<String, List<CursorQuad>> predicates = new ConcurrentHashMap<>();
+  private final Map<String, Optional<SummaryProp>> summaryProps = new ConcurrentHashMap<>();
+  private final Set<String> completeSubjects = ConcurrentHashMap.newKeySet();
+
+  public SubjectCache(long maxQuads) {
+    this.maxQuads = maxQuads;
+  }
+
+  public static SubjectCache disabled() {
+    return DISABLED;
+  }
+
+  /**
+   * @return the cache of the query that is executed, or a disabled cache when a mutation is executed
+   */
+  public static SubjectCache of(DataFetchingEnvironment env) {
+    final ExecutionContext executionContext = env.getExecutionContext();
+    if (env.getContext() instanceof ContextData && executionContext != null &&
+      executionContext.getOperationDefinition().getOperation() != OperationDefinition.Operation.MUTATION) {
+      return env.<ContextData>getContext().getSubjectCache();
+    }
+    return DISABLED;
+  }
+
+  /**
+   * @return the same quads, in the same order, as QuadStore.getQuads(subject, predicate, direction, "")
+   */
+  public Stream<CursorQuad> getQuads(DataSet dataSet, String subject, String predicate, Direction direction) {
+    if (this == DISABLED) {
+      return dataSet.getQuadStore().getQuads(subject, predicate, direction, "");
+    }
+    final String subjectKey = key(dataSet, subject);
+    final String key = subjectKey + "\n" + key(predicate, direction);
+    final List<CursorQuad> cached = predicates.get(key);
+    if (cached != null) {
+      return cached.stream();
+    }
+    if (completeSubjects.contains(subjectKey)) {
+      return Stream.empty();
+    }
+
+    final Stream<CursorQuad> quads = dataSet.getQuadStore().getQuads(subject, predicate, direction, "");
+    final Iterator<CursorQuad> iterator = quads.iterator();
+    final List<CursorQuad> result = new ArrayList<>();
+    while (iterator.hasNext() && result.size() <= MAX_QUADS_PER_PREDICATE) {
+      result.add(iterator.next());
+    }
+    if (result.size() > MAX_QUADS_PER_PREDICATE) {
+      // too many to keep, the caller continues reading from the quad store
+      return Stream.concat(result.stream(), Streams.stream(iterator)).onClose(quads::close);
+    }
+    quads.close();
+    if (reserve(result.size())) {
+      predicates.put(key, result);
+    }
+    return result.stream();
+  }
+
+  /**
+   * Reads all quads of the subject with one QuadStore.getQuads(subject) and stores them per predicate, so that the
+   * requests for the other fields of the subject are answered without a cursor each. A subject with more than
+   * {@link #MAX_QUADS_PER_SUBJECT} quads is only partly read: its predicates after that point are read when they are
+   * requested.
+   */
+  void readSubject(DataSet dataSet, String subject) {
+    final String subjectKey = key(dataSet, subject);
+    if (isFull() || completeSubjects.contains(subjectKey)) {
+      return;
+    }
+    boolean complete = true;
+    try (Stream<CursorQuad> quads = dataSet.getQuadStore().getQuads(subject)) {
+      final Iterator<CursorQuad> iterator = quads.iterator();
+      // the quads are ordered by predicate and direction, and per predicate in the order of getQuads(subject, ...)
+      String field = null;
+      List<CursorQuad> fieldQuads = new ArrayList<>();
+      int count = 0;
+      while (iterator.hasNext()) {
+        if (count++ >= MAX_QUADS_PER_SUBJECT) {
+          // the quads of the current field are not complete
+          return;
+        }
+        final CursorQuad quad = iterator.next();
+        final String quadField = key(quad.getPredicate(), quad.getDirection());
+        if (!quadField.equals(field)) {
+          complete &= store(subjectKey, field, fieldQuads);
+          field = quadField;
+          fieldQuads = new ArrayList<>();
+        }
+        fieldQuads.add(quad);
+      }
+      complete &= store(subjectKey, field, fieldQuads);
+    }
+    if (complete) {
+      // the fields that have no quads are empty
+      completeSubjects.add(subjectKey);
+    }
+  }
+
+  private boolean store(String subjectKey, String field, List<CursorQuad> quads) {
+    if (field == null) {
+      return true;
+    }
+    if (quads.size() > MAX_QUADS_PER_PREDICATE || !reserve(quads.size())) {
+      return false;
+    }
+    predicates.putIfAbsent(subjectKey + "\n" + field, quads);
+    return true;
+  }
+
+  /**
+   * @param load parses the summary prop that is configured for the collection
+   */
+  public Optional<SummaryProp> getSummaryProp(DataSet dataSet, String collection, String predicate,
+                                              Supplier<Optional<SummaryProp>> load) {
+    if (this == DISABLED) {
+      return load.get();
+    }
+    final String key = key(dataSet, collection) + "\n" + predicate;
+    final Optional<SummaryProp> cached = summaryProps.get(key);
+    if (cached != null) {
+      return cached;
+    }
+    final Optional<SummaryProp> result = load.get();
+    if (reserve(1)) {
+      summaryProps.put(key, result);
+    }
+    return result;
+  }
+
+  /**
+   * @return true if the cache does not store any more quads
+   */
+  boolean isFull() {
+    return this == DISABLED || quadCount.get() >= maxQuads;
+  }
+
+  private boolean reserve(long quads) {
+    if (quadCount.addAndGet(quads) > maxQuads) {
+      quadCount.addAndGet(-quads);
+      return false;
+    }
+    return true;
+  }
+
+  static String key(String predicate, Direction direction) {
+    return predicate + "\n" + direction.name();
+  }
+
+  private static String key(DataSet dataSet, String subject) {
+    return dataSet.getMetadata().getCombinedId() + "\n" + subject;
+  }
+}
@@ -4,6 +4,8 @@ import nl.knaw.huygens.timbuctoo.v5.dataset.dto.DataSet;
 import nl.knaw.huygens.timbuctoo.v5.datastores.quadstore.dto.CursorQuad;
 import nl.knaw.huygens.timbuctoo.v5.graphql.collectionfilter.FilterResult;
 import nl.knaw.huygens.timbuctoo.v5.graphql.datafetchers.CollectionFetcher;
+import nl.knaw.huygens.timbuctoo.v5.graphql.datafetchers.berkeleydb.SubjectBatch;
+import nl.knaw.huygens.timbuctoo.v5.graphql.datafetchers.berkeleydb.SubjectCache;
 import nl.knaw.huygens.timbuctoo.v5.graphql.datafetchers.berkeleydb.dto.LazyTypeSubjectReference;
 import nl.knaw.huygens.timbuctoo.v5.graphql.datafetchers.dto.PaginatedList;
 import nl.knaw.huygens.timbuctoo.v5.graphql.datafetchers.dto.PaginationArguments;
@@ -30,15 +32,18 @@ public class CollectionDataFetcher implements CollectionFetcher {
   }
 
   @Override
-  public PaginatedList<SubjectReference> getList(PaginationArguments arguments, DataSet dataSet) {
+  public PaginatedList<SubjectReference> getList(PaginationArguments arguments, DataSet dataSet,
+                                                  SubjectCache subjectCache) {
     String cursor = arguments.getCursor();
+    final SubjectBatch batch = new SubjectBatch(dataSet, subjectCache);
     if (arguments.getFilter().isPresent()) {
       try {
         final FilterResult result = arguments.getFilter().get().query();
         return PaginatedList.create(
           result.getPrevToken(),
           result.getNextToken(),
-          result.getUriList().stream().map(x -> new LazyTypeSubjectReference(x, dataSet)).collect(Collectors.toList()),
+          result.getUriList().stream().map(x -> new LazyTypeSubjectReference(x, dataSet, batch))
+            .collect(Collectors.toList()),
           Optional.of((long) result.getTotal()),
           result.getFacets()
         );
@@ -57,7 +62,7 @@ public class CollectionDataFetcher implements CollectionFetcher {
         }
         return getPaginatedList(
           subjectStream,
-          cursorSubject -> new LazyTypeSubjectReference(cursorSubject.getObject(), dataSet),
+          cursorSubject -> new LazyTypeSubjectReference(cursorSubject.getObject(), dataSet, batch),
           arguments,
           total
         );
@@ -7,6 +7,8 @@ import nl.knaw.huygens.timbuctoo.v5.dataset.dto.DataSet;
 import nl.knaw.huygens.timbuctoo.v5.datastores.quadstore.dto.CursorQuad;
 import nl.knaw.huygens.timbuctoo.v5.datastores.quadstore.dto.Direction;
 import nl.knaw.huygens.timbuctoo.v5.graphql.datafetchers.PaginationArgumentsHelper;
+import nl.knaw.huygens.timbuctoo.v5.graphql.datafetchers.berkeleydb.SubjectBatch;
+import nl.knaw.huygens.timbuctoo.v5.graphql.datafetchers.berkeleydb.SubjectCache;
 import nl.knaw.huygens.timbuctoo.v5.graphql.datafetchers.berkeleydb.dto.LazyTypeSubjectReference;
 import nl.knaw.huygens.timbuctoo.v5.graphql.datafetchers.dto.DatabaseResult;
 import nl.knaw.huygens.timbuctoo.v5.graphql.datafetchers.dto.PaginatedDynamicList;
@@ -30,11 +32,11 @@ public class DynamicRelationDataFetcher implements DataFetcher<PaginatedDynamicL
     this.argumentsHelper = argumentsHelper;
   }
 
-  private DatabaseResult makeItem(CursorQuad triple, DataSet dataSet) {
+  private DatabaseResult makeItem(CursorQuad triple, DataSet dataSet, SubjectBatch batch) {
     if (triple.getValuetype().isPresent()) {
       return TypedValue.create(triple.getObject(), triple.getValuetype().get(), dataSet);
     } else {
-      return new LazyTypeSubjectReference(triple.getObject(), dataSet);
+      return new LazyTypeSubjectReference(triple.getObject(), dataSet, batch);
     }
   }
 
@@ -47,19 +49,23 @@ public class DynamicRelationDataFetcher implements DataFetcher<PaginatedDynamicL
       String cursor = arguments.getCursor();
       String predicate = environment.getArgument("uri");
       Direction direction = environment.getArgument("outgoing") ? OUT : IN;
+      final SubjectBatch batch = new SubjectBatch(dataSet, SubjectCache.of(environment));
 
       try (Stream<CursorQuad> q = dataSet.getQuadStore()
         .getQuads(source.getSubjectUri(), predicate, direction, cursor)) {
         final PaginatedList<DatabaseResult> paginatedList = getPaginatedList(
           q,
-          qd -> this.makeItem(qd, dataSet),
+          qd -> this.makeItem(qd, dataSet, batch),
           arguments,
-          Optional.empty()
+          arguments.isTotalRequested() ?
+            dataSet.getQuadStore().getQuadCount(source.getSubjectUri(), predicate, direction) :
+            Optional.empty()
         );
         return PaginatedDynamicList.create(
           paginatedList.getPrevCursor(),
           paginatedList.getNextCursor(),
-          paginatedList.getItems()
+          paginatedList.getItems(),
+          paginatedList.getTotal()
         );
       }
     } else {
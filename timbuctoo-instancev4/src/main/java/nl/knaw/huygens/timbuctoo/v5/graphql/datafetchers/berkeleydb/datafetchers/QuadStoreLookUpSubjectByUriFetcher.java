@@ -2,6 +2,8 @@ package nl.knaw.huygens.timbuctoo.v5.graphql.datafetchers.berkeleydb.datafetcher
 
 import nl.knaw.huygens.timbuctoo.v5.dataset.dto.DataSet;
 import nl.knaw.huygens.timbuctoo.v5.graphql.datafetchers.LookUpSubjectByUriFetcher;
+import nl.knaw.huygens.timbuctoo.v5.graphql.datafetchers.berkeleydb.SubjectBatch;
+import nl.knaw.huygens.timbuctoo.v5.graphql.datafetchers.berkeleydb.SubjectCache;
 import nl.knaw.huygens.timbuctoo.v5.graphql.datafetchers.berkeleydb.dto.LazyTypeSubjectReference;
 import nl.knaw.huygens.timbuctoo.v5.graphql.datafetchers.dto.SubjectReference;
 
@@ -11,7 +13,8 @@ public class QuadStoreLookUpSubjectByUriFetcher implements LookUpSubjectByUriFet
   }
 
   @Override
-  public SubjectReference getItem(String uri, DataSet dataSet) {
-    return new LazyTypeSubjectReference(uri, dataSet);
+  public SubjectReference getItem(String uri, DataSet dataSet, SubjectCache subjectCache) {
+    // a batch of one subject still reads all its fields with one cursor
+    return new LazyTypeSubjectReference(uri, dataSet, new SubjectBatch(dataSet, subjectCache));
   }
 }
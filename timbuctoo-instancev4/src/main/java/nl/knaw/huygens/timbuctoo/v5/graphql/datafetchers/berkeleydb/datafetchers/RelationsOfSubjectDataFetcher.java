@@ -4,6 +4,8 @@ import nl.knaw.huygens.timbuctoo.v5.dataset.dto.DataSet;
 import nl.knaw.huygens.timbuctoo.v5.datastores.quadstore.dto.CursorQuad;
 import nl.knaw.huygens.timbuctoo.v5.datastores.quadstore.dto.Direction;
 import nl.knaw.huygens.timbuctoo.v5.graphql.datafetchers.CollectionFetcher;
+import nl.knaw.huygens.timbuctoo.v5.graphql.datafetchers.berkeleydb.SubjectBatch;
+import nl.knaw.huygens.timbuctoo.v5.graphql.datafetchers.berkeleydb.SubjectCache;
 import nl.knaw.huygens.timbuctoo.v5.graphql.datafetchers.berkeleydb.dto.LazyTypeSubjectReference;
 import nl.knaw.huygens.timbuctoo.v5.graphql.datafetchers.dto.PaginatedList;
 import nl.knaw.huygens.timbuctoo.v5.graphql.datafetchers.dto.PaginationArguments;
@@ -28,20 +30,25 @@ public class RelationsOfSubjectDataFetcher implements CollectionFetcher {
   }
 
   @Override
-  public PaginatedList<SubjectReference> getList(PaginationArguments arguments, DataSet dataSet) {
+  public PaginatedList<SubjectReference> getList(PaginationArguments arguments, DataSet dataSet,
+                                                  SubjectCache subjectCache) {
     String cursor = arguments.getCursor();
+    final SubjectBatch batch = new SubjectBatch(dataSet, subjectCache);
     try (Stream<CursorQuad> q = dataSet.getQuadStore().getQuads(source, predicate, direction, cursor)) {
       return getPaginatedList(
         q,
         cursorSubject -> {
           final LazyTypeSubjectReference lazyTypeSubjectReference = new LazyTypeSubjectReference(
             cursorSubject.getSubject(),
-            dataSet
+            dataSet,
+            batch
           );
           return lazyTypeSubjectReference;
         },
         arguments,
-        Optional.empty()
+        arguments.isTotalRequested() ?
+          dataSet.getQuadStore().getQuadCount(source, predicate, direction) :
+          Optional.empty()
       );
     }
 
@@ -3,6 +3,7 @@ package nl.knaw.huygens.timbuctoo.v5.graphql.datafetchers.berkeleydb.datafetcher
 import nl.knaw.huygens.timbuctoo.v5.dataset.dto.DataSet;
 import nl.knaw.huygens.timbuctoo.v5.datastores.quadstore.dto.CursorQuad;
 import nl.knaw.huygens.timbuctoo.v5.datastores.quadstore.dto.Direction;
+import nl.knaw.huygens.timbuctoo.v5.graphql.datafetchers.berkeleydb.SubjectBatch;
 import nl.knaw.huygens.timbuctoo.v5.graphql.datafetchers.dto.TypedValue;
 
 public class TypedLiteralDataFetcher extends WalkTriplesDataFetcher<TypedValue> {
@@ -12,7 +13,7 @@ public class TypedLiteralDataFetcher extends WalkTriplesDataFetcher<TypedValue>
   }
 
   @Override
-  protected TypedValue makeItem(CursorQuad triple, DataSet dataSet) {
+  protected TypedValue makeItem(CursorQuad triple, DataSet dataSet, SubjectBatch batch) {
     if (triple.getValuetype().isPresent()) {
       return TypedValue.create(triple.getObject(), triple.getValuetype().get(), dataSet);
     } else {
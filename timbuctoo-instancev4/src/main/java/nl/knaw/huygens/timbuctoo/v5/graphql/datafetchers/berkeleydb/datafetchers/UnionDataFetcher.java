@@ -3,6 +3,7 @@ package nl.knaw.huygens.timbuctoo.v5.graphql.datafetchers.berkeleydb.datafetcher
 import nl.knaw.huygens.timbuctoo.v5.dataset.dto.DataSet;
 import nl.knaw.huygens.timbuctoo.v5.datastores.quadstore.dto.CursorQuad;
 import nl.knaw.huygens.timbuctoo.v5.datastores.quadstore.dto.Direction;
+import nl.knaw.huygens.timbuctoo.v5.graphql.datafetchers.berkeleydb.SubjectBatch;
 import nl.knaw.huygens.timbuctoo.v5.graphql.datafetchers.berkeleydb.dto.LazyTypeSubjectReference;
 import nl.knaw.huygens.timbuctoo.v5.graphql.datafetchers.dto.DatabaseResult;
 import nl.knaw.huygens.timbuctoo.v5.graphql.datafetchers.dto.TypedValue;
@@ -14,11 +15,11 @@ public class UnionDataFetcher extends WalkTriplesDataFetcher<DatabaseResult> {
   }
 
   @Override
-  protected DatabaseResult makeItem(CursorQuad quad, DataSet dataSet) {
+  protected DatabaseResult makeItem(CursorQuad quad, DataSet dataSet, SubjectBatch batch) {
     if (quad.getValuetype().isPresent()) {
       return TypedValue.create(quad.getObject(), quad.getValuetype().get(), dataSet);
     } else {
-      return new LazyTypeSubjectReference(quad.getObject(), dataSet);
+      return new LazyTypeSubjectReference(quad.getObject(), dataSet, batch);
     }
   }
 }
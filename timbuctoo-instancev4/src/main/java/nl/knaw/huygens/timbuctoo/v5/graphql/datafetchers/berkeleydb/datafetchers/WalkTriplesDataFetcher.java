@@ -4,6 +4,9 @@ import nl.knaw.huygens.timbuctoo.v5.dataset.dto.DataSet;
 import nl.knaw.huygens.timbuctoo.v5.datastores.quadstore.dto.CursorQuad;
 import nl.knaw.huygens.timbuctoo.v5.datastores.quadstore.dto.Direction;
 import nl.knaw.huygens.timbuctoo.v5.graphql.datafetchers.RelatedDataFetcher;
+import nl.knaw.huygens.timbuctoo.v5.graphql.datafetchers.berkeleydb.SubjectBatch;
+import nl.knaw.huygens.timbuctoo.v5.graphql.datafetchers.berkeleydb.SubjectCache;
+import nl.knaw.huygens.timbuctoo.v5.graphql.datafetchers.berkeleydb.dto.LazyTypeSubjectReference;
 import nl.knaw.huygens.timbuctoo.v5.graphql.datafetchers.dto.DatabaseResult;
 import nl.knaw.huygens.timbuctoo.v5.graphql.datafetchers.dto.PaginatedList;
 import nl.knaw.huygens.timbuctoo.v5.graphql.datafetchers.dto.PaginationArguments;
@@ -23,20 +26,50 @@ public abstract class WalkTriplesDataFetcher<T extends DatabaseResult> implement
     this.direction = direction;
   }
 
-  protected abstract T makeItem(CursorQuad quad, DataSet dataSet);
+  /**
+   * @param batch the batch that the subject references that are created should join
+   */
+  protected abstract T makeItem(CursorQuad quad, DataSet dataSet, SubjectBatch batch);
 
-  public PaginatedList<T> getList(SubjectReference source, PaginationArguments arguments, DataSet dataSet) {
+  public PaginatedList<T> getList(SubjectReference source, PaginationArguments arguments, DataSet dataSet,
+                                  SubjectCache subjectCache) {
     String cursor = arguments.getCursor();
-    try (Stream<CursorQuad> q = dataSet.getQuadStore().getQuads(source.getSubjectUri(), predicate, direction, cursor)) {
-      return getPaginatedList(q, qd -> this.makeItem(qd, dataSet), arguments, Optional.empty());
+    final SubjectBatch batch = getChildBatch(source, dataSet, subjectCache);
+    try (Stream<CursorQuad> q = cursor.isEmpty() ?
+      getQuads(source, dataSet) :
+      dataSet.getQuadStore().getQuads(source.getSubjectUri(), predicate, direction, cursor)) {
+      final Optional<Long> total = arguments.isTotalRequested() ?
+        dataSet.getQuadStore().getQuadCount(source.getSubjectUri(), predicate, direction) :
+        Optional.empty();
+      return getPaginatedList(q, qd -> this.makeItem(qd, dataSet, batch), arguments, total);
     }
   }
 
-  public T getItem(SubjectReference source, DataSet dataSet) {
-    try (Stream<CursorQuad> quads = dataSet.getQuadStore().getQuads(source.getSubjectUri(), predicate, direction, "")) {
+  public T getItem(SubjectReference source, DataSet dataSet, SubjectCache subjectCache) {
+    try (Stream<CursorQuad> quads = getQuads(source, dataSet)) {
       return quads.findFirst()
-        .map(q -> this.makeItem(q, dataSet))
+        .map(q -> this.makeItem(q, dataSet, getChildBatch(source, dataSet, subjectCache)))
         .orElse(null);
     }
   }
+
+  private Stream<CursorQuad> getQuads(SubjectReference source, DataSet dataSet) {
+    if (source instanceof LazyTypeSubjectReference) {
+      return ((LazyTypeSubjectReference) source).getQuads(predicate, direction);
+    }
+    return dataSet.getQuadStore().getQuads(source.getSubjectUri(), predicate, direction, "");
+  }
+
+  /**
+   * The subjects that are reached via this predicate from the subjects in the batch of the source share a batch too
+   */
+  private SubjectBatch getChildBatch(SubjectReference source, DataSet dataSet, SubjectCache subjectCache) {
+    if (source instanceof LazyTypeSubjectReference) {
+      final Optional<SubjectBatch> batch = ((LazyTypeSubjectReference) source).getBatch();
+      if (batch.isPresent()) {
+        return batch.get().getChildBatch(predicate, direction);
+      }
+    }
+    return new SubjectBatch(dataSet, subjectCache);
+  }
 }
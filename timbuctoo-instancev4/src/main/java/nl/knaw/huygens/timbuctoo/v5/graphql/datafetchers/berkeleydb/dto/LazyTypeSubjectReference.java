@@ -3,8 +3,10 @@ package nl.knaw.huygens.timbuctoo.v5.graphql.datafetchers.berkeleydb.dto;
 import nl.knaw.huygens.timbuctoo.v5.dataset.dto.DataSet;
 import nl.knaw.huygens.timbuctoo.v5.datastores.quadstore.dto.CursorQuad;
 import nl.knaw.huygens.timbuctoo.v5.datastores.quadstore.dto.Direction;
+import nl.knaw.huygens.timbuctoo.v5.graphql.datafetchers.berkeleydb.SubjectBatch;
 import nl.knaw.huygens.timbuctoo.v5.graphql.datafetchers.dto.SubjectReference;
 
+import java.util.Optional;
 import java.util.Set;
 import java.util.stream.Stream;
 
@@ -14,11 +16,23 @@ import static nl.knaw.huygens.timbuctoo.v5.util.RdfConstants.RDF_TYPE;
 public class LazyTypeSubjectReference implements SubjectReference {
   private final String subjectUri;
   private final DataSet dataSet;
-  private Set<String> types;
+  private final SubjectBatch batch;
+  private volatile Set<String> types;
 
   public LazyTypeSubjectReference(String subjectUri, DataSet dataSet) {
     this.subjectUri = subjectUri;
     this.dataSet = dataSet;
+    this.batch = null;
+  }
+
+  /**
+   * @param batch the batch that loads the quads of this subject together with those of its siblings
+   */
+  public LazyTypeSubjectReference(String subjectUri, DataSet dataSet, SubjectBatch batch) {
+    this.subjectUri = subjectUri;
+    this.dataSet = dataSet;
+    this.batch = batch;
+    batch.add(subjectUri);
   }
 
   @Override
@@ -29,7 +43,7 @@ public class LazyTypeSubjectReference implements SubjectReference {
   @Override
   public Set<String> getTypes() {
     if (types == null) {
-      try (Stream<CursorQuad> quads = dataSet.getQuadStore().getQuads(subjectUri, RDF_TYPE, Direction.OUT, "")) {
+      try (Stream<CursorQuad> quads = getQuads(RDF_TYPE, Direction.OUT)) {
         types = quads
           .map(CursorQuad::getObject)
           .collect(toSet());
@@ -42,4 +56,18 @@ public class LazyTypeSubjectReference implements SubjectReference {
   public DataSet getDataSet() {
     return dataSet;
   }
+
+  public Optional<SubjectBatch> getBatch() {
+    return Optional.ofNullable(batch);
+  }
+
+  /**
+   * @return the quads of this subject with the predicate, read through the batch if there is one
+   */
+  public Stream<CursorQuad> getQuads(String predicate, Direction direction) {
+    if (batch == null) {
+      return dataSet.getQuadStore().getQuads(subjectUri, predicate, direction, "");
+    }
+    return batch.getQuads(subjectUri, predicate, direction);
+  }
 }
@@ -1,10 +1,14 @@
 package nl.knaw.huygens.timbuctoo.v5.graphql.datafetchers.dto;
 
+import nl.knaw.huygens.timbuctoo.v5.graphql.datafetchers.AsyncDataFetcher;
+import nl.knaw.huygens.timbuctoo.v5.graphql.datafetchers.FetcherExecutor;
+import nl.knaw.huygens.timbuctoo.v5.graphql.datafetchers.berkeleydb.SubjectCache;
 import nl.knaw.huygens.timbuctoo.v5.graphql.security.UserPermissionCheck;
 import nl.knaw.huygens.timbuctoo.v5.security.dto.User;
 import org.immutables.value.Value;
 
 import java.util.Optional;
+import java.util.concurrent.Executor;
 
 @Value.Immutable
 public interface ContextData {
@@ -13,7 +17,47 @@ public interface ContextData {
 
   Optional<User> getUser();
 
+  /**
+   * The address of the client, which identifies the anonymous users that share the query budget
+   */
+  Optional<String> getClientAddress();
+
+  /**
+   * Use {@link SubjectCache#of(graphql.schema.DataFetchingEnvironment)}, which bypasses the cache for mutations
+   */
+  @Value.Default
+  default SubjectCache getSubjectCache() {
+    return new SubjectCache(SubjectCache.DEFAULT_MAX_QUADS);
+  }
+
+  /**
+   * The executor of the {@link AsyncDataFetcher}s of the request
+   */
+  @Value.Default
+  default Executor getFetcherExecutor() {
+    return FetcherExecutor.synchronous();
+  }
+
   static ContextData contextData(UserPermissionCheck userPermissionCheck, Optional<User> user) {
     return ImmutableContextData.builder().userPermissionCheck(userPermissionCheck).user(user).build();
   }
+
+  static ContextData contextData(UserPermissionCheck userPermissionCheck, Optional<User> user,
+                                 Executor fetcherExecutor) {
+    return ImmutableContextData.builder()
+      .userPermissionCheck(userPermissionCheck)
+      .user(user)
+      .fetcherExecutor(fetcherExecutor)
+      .build();
+  }
+
+  static ContextData contextData(UserPermissionCheck userPermissionCheck, Optional<User> user,
+                                 Executor fetcherExecutor, String clientAddress) {
+    return ImmutableContextData.builder()
+      .userPermissionCheck(userPermissionCheck)
+      .user(user)
+      .fetcherExecutor(fetcherExecutor)
+      .clientAddress(Optional.ofNullable(clientAddress))
+      .build();
+  }
 }
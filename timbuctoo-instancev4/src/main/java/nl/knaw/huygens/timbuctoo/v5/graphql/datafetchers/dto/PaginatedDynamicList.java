@@ -21,8 +21,15 @@ public interface PaginatedDynamicList {
 
   List<TypedValue> getValues();
 
+  Optional<Long> getTotal();
+
   static PaginatedDynamicList create(Optional<String> prevCursor, Optional<String> nextCursor,
                                      List<DatabaseResult> items) {
+    return create(prevCursor, nextCursor, items, Optional.empty());
+  }
+
+  static PaginatedDynamicList create(Optional<String> prevCursor, Optional<String> nextCursor,
+                                     List<DatabaseResult> items, Optional<Long> total) {
     List<SubjectReference> entities = new ArrayList<>();
     List<TypedValue> values = new ArrayList<>();
 
@@ -41,6 +48,7 @@ public interface PaginatedDynamicList {
       .nextCursor(nextCursor.map(PaginatedDynamicList::encode))
       .entities(entities)
       .values(values)
+      .total(total)
       .build();
   }
 
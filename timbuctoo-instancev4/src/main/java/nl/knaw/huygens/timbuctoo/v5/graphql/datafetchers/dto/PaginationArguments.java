@@ -29,6 +29,15 @@ public interface PaginationArguments {
    */
   Optional<ConfiguredFilter> getFilter();
 
+  /**
+   * Whether the query selects the total of the list. Data providers that have to do extra work to determine the total
+   * can skip it when it is not requested.
+   */
+  @Value.Default
+  default boolean isTotalRequested() {
+    return false;
+  }
+
   static PaginationArguments create(int count, String cursor, Optional<ConfiguredFilter> filter) {
     return ImmutablePaginationArguments.builder()
       .count(count)
@@ -36,4 +45,14 @@ public interface PaginationArguments {
       .cursor(cursor)
       .build();
   }
+
+  static PaginationArguments create(int count, String cursor, Optional<ConfiguredFilter> filter,
+                                    boolean totalRequested) {
+    return ImmutablePaginationArguments.builder()
+      .count(count)
+      .filter(filter)
+      .cursor(cursor)
+      .isTotalRequested(totalRequested)
+      .build();
+  }
 }
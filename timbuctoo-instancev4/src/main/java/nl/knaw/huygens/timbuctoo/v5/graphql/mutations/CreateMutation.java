@@ -8,8 +8,8 @@ import nl.knaw.huygens.timbuctoo.util.UserUriCreator;
 import nl.knaw.huygens.timbuctoo.v5.dataset.DataSetRepository;
 import nl.knaw.huygens.timbuctoo.v5.dataset.dto.DataSet;
 import nl.knaw.huygens.timbuctoo.v5.dataset.dto.DataSetMetaData;
-import nl.knaw.huygens.timbuctoo.v5.datastores.quadstore.dto.CursorQuad;
 import nl.knaw.huygens.timbuctoo.v5.filestorage.exceptions.LogStorageFailedException;
+import nl.knaw.huygens.timbuctoo.v5.graphql.datafetchers.berkeleydb.SubjectCache;
 import nl.knaw.huygens.timbuctoo.v5.graphql.datafetchers.berkeleydb.datafetchers.QuadStoreLookUpSubjectByUriFetcher;
 import nl.knaw.huygens.timbuctoo.v5.graphql.datafetchers.dto.ImmutableContextData;
 import nl.knaw.huygens.timbuctoo.v5.graphql.mutations.dto.CreateMutationChangeLog;
@@ -19,7 +19,6 @@ import nl.knaw.huygens.timbuctoo.v5.security.dto.User;
 import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.ExecutionException;
-import java.util.stream.Stream;
 
 public class CreateMutation extends Mutation {
   private final DataSetRepository dataSetRepository;
@@ -63,10 +62,8 @@ public class CreateMutation extends Mutation {
       throw new RuntimeException("User should have permissions to create entities of the data set.");
     }
 
-    try (Stream<CursorQuad> quads = dataSet.getQuadStore().getQuads(uri)) {
-      if (quads.findAny().isPresent()) {
-        throw new RuntimeException("Subject with uri '" + uri + "' already exists");
-      }
+    if (dataSet.getQuadStore().hasQuads(uri)) {
+      throw new RuntimeException("Subject with uri '" + uri + "' already exists");
     }
 
     try {
@@ -79,6 +76,6 @@ public class CreateMutation extends Mutation {
       throw new RuntimeException(e);
     }
 
-    return subjectFetcher.getItem(uri, dataSet);
+    return subjectFetcher.getItem(uri, dataSet, SubjectCache.disabled());
   }
 }
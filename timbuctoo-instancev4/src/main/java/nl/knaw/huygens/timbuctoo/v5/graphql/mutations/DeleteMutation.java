@@ -8,7 +8,6 @@ import nl.knaw.huygens.timbuctoo.util.UserUriCreator;
 import nl.knaw.huygens.timbuctoo.v5.dataset.DataSetRepository;
 import nl.knaw.huygens.timbuctoo.v5.dataset.dto.DataSet;
 import nl.knaw.huygens.timbuctoo.v5.dataset.dto.DataSetMetaData;
-import nl.knaw.huygens.timbuctoo.v5.datastores.quadstore.dto.CursorQuad;
 import nl.knaw.huygens.timbuctoo.v5.filestorage.exceptions.LogStorageFailedException;
 import nl.knaw.huygens.timbuctoo.v5.graphql.datafetchers.dto.ImmutableContextData;
 import nl.knaw.huygens.timbuctoo.v5.graphql.mutations.dto.DeleteMutationChangeLog;
@@ -18,7 +17,6 @@ import nl.knaw.huygens.timbuctoo.v5.security.dto.User;
 import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.ExecutionException;
-import java.util.stream.Stream;
 
 public class DeleteMutation extends Mutation {
   private final DataSetRepository dataSetRepository;
@@ -57,10 +55,8 @@ public class DeleteMutation extends Mutation {
       throw new RuntimeException("User should have permissions to delete entities of the data set.");
     }
 
-    try (Stream<CursorQuad> quads = dataSet.getQuadStore().getQuads(uri)) {
-      if (!quads.findAny().isPresent()) {
-        throw new RuntimeException("Subject with uri '" + uri + "' does not exist");
-      }
+    if (!dataSet.getQuadStore().hasQuads(uri)) {
+      throw new RuntimeException("Subject with uri '" + uri + "' does not exist");
     }
 
     try {
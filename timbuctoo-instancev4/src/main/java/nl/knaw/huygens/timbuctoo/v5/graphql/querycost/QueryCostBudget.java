@@ -0,0 +1,76 @@
+package nl.knaw.huygens.timbuctoo.v5.graphql.querycost;
+
+import com.google.common.base.Ticker;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The query cost that each user may spend. The budget of a user fills up at a constant rate until it holds the budget
+ * of one minute. A query is allowed as long as the budget is not exhausted, so one expensive query may take the budget
+ * below zero and the user then has to wait until it has filled up again.
+ */
+public class QueryCostBudget {
+  private static final long NANOS_PER_MINUTE = TimeUnit.MINUTES.toNanos(1);
+
+  private final long budgetPerMinute;
+  private final Ticker ticker;
+  private final Cache<String, Balance> balances;
+
+  public QueryCostBudget(long budgetPerMinute) {
+    this(budgetPerMinute, Ticker.systemTicker());
+  }
+
+  QueryCostBudget(long budgetPerMinute, Ticker ticker) {
+    this.budgetPerMinute = budgetPerMinute;
+    this.ticker = ticker;
+    // a user that has not queried for a minute has a full budget again, so the balance can be forgotten
+    this.balances = CacheBuilder.newBuilder()
+      .expireAfterAccess(1, TimeUnit.MINUTES)
+      .ticker(ticker)
+      .build();
+  }
+
+  public boolean isEnabled() {
+    return budgetPerMinute > 0;
+  }
+
+  /**
+   * @param key identifies the user (e.g. by id or by client address), all queries without a key share one budget
+   * @return false if the budget of the user is exhausted, the cost is then not spent
+   */
+  public boolean spend(String key, long cost) {
+    if (!isEnabled()) {
+      return true;
+    }
+    final Balance balance;
+    try {
+      balance = balances.get(key == null ? "" : key, () -> new Balance(budgetPerMinute, ticker.read()));
+    } catch (ExecutionException e) {
+      throw new RuntimeException(e.getCause());
+    }
+    synchronized (balance) {
+      final long now = ticker.read();
+      final double refill = (double) (now - balance.lastUpdate) / NANOS_PER_MINUTE * budgetPerMinute;
+      balance.amount = Math.min(budgetPerMinute, balance.amount + refill);
+      balance.lastUpdate = now;
+      if (balance.amount <= 0) {
+        return false;
+      }
+      balance.amount -= cost;
+      return true;
+    }
+  }
+
+  private static class Balance {
+    private double amount;
+    private long lastUpdate;
+
+    Balance(double amount, long lastUpdate) {
+      this.amount = amount;
+      this.lastUpdate = lastUpdate;
+    }
+  }
+}
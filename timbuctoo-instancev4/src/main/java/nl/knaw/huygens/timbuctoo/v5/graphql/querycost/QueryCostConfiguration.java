@@ -0,0 +1,39 @@
+package nl.knaw.huygens.timbuctoo.v5.graphql.querycost;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import org.immutables.value.Value;
+
+@Value.Immutable
+public interface QueryCostConfiguration {
+
+  @JsonCreator
+  static QueryCostConfiguration create(@JsonProperty("maxQueryCost") Long maxQueryCost,
+                                       @JsonProperty("userBudgetPerMinute") Long userBudgetPerMinute) {
+    ImmutableQueryCostConfiguration.Builder builder = ImmutableQueryCostConfiguration.builder();
+    if (maxQueryCost != null) {
+      builder.maxQueryCost(maxQueryCost);
+    }
+    if (userBudgetPerMinute != null) {
+      builder.userBudgetPerMinute(userBudgetPerMinute);
+    }
+    return builder.build();
+  }
+
+  /**
+   * Queries of which the estimated cost is higher are not executed.
+   */
+  @Value.Default
+  default long getMaxQueryCost() {
+    return 10_000_000;
+  }
+
+  /**
+   * The estimated cost that a user (or all anonymous users together) may spend per minute. A user can save up the
+   * budget of one minute. 0 disables the budget.
+   */
+  @Value.Default
+  default long getUserBudgetPerMinute() {
+    return 0;
+  }
+}
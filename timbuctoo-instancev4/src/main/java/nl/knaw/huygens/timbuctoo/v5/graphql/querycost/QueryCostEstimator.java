@@ -0,0 +1,146 @@
+package nl.knaw.huygens.timbuctoo.v5.graphql.querycost;
+
+import graphql.analysis.QueryTraversal;
+import graphql.analysis.QueryVisitorFieldEnvironment;
+import graphql.analysis.QueryVisitorStub;
+import graphql.language.Document;
+import graphql.schema.GraphQLFieldDefinition;
+import graphql.schema.GraphQLFieldsContainer;
+import graphql.schema.GraphQLObjectType;
+import graphql.schema.GraphQLSchema;
+import nl.knaw.huygens.timbuctoo.v5.dataset.DataSetRepository;
+import nl.knaw.huygens.timbuctoo.v5.dataset.dto.DataSet;
+import nl.knaw.huygens.timbuctoo.v5.datastores.quadstore.dto.Direction;
+import nl.knaw.huygens.timbuctoo.v5.datastores.schemastore.dto.Type;
+import nl.knaw.huygens.timbuctoo.v5.graphql.DirectiveRetriever;
+import nl.knaw.huygens.timbuctoo.v5.graphql.datafetchers.PaginationArgumentsHelper;
+import nl.knaw.huygens.timbuctoo.v5.graphql.datafetchers.berkeleydb.datafetchers.PaginationHelper;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Estimates the number of fields that the execution of a query resolves. Every field costs 1, and the cost of the
+ * fields below a paginated list is multiplied by the number of items that the list is expected to contain: its count
+ * argument, or fewer if the schema store knows that the subjects have fewer values for the predicate (or that the
+ * collection has fewer subjects).
+ */
+public class QueryCostEstimator {
+  private final DataSetRepository dataSetRepository;
+
+  public QueryCostEstimator(DataSetRepository dataSetRepository) {
+    this.dataSetRepository = dataSetRepository;
+  }
+
+  public long estimate(GraphQLSchema schema, Document document, String operationName,
+                       Map<String, Object> variables) {
+    final QueryTraversal traversal = QueryTraversal.newQueryTraversal()
+      .schema(schema)
+      .document(document)
+      .operationName(operationName)
+      .variables(variables)
+      .build();
+    // the summed cost of the children of each field, the root fields are stored under null
+    final Map<QueryVisitorFieldEnvironment, Long> childCosts = new HashMap<>();
+    traversal.visitPostOrder(new QueryVisitorStub() {
+      @Override
+      public void visitField(QueryVisitorFieldEnvironment env) {
+        final long cost = add(1, multiply(childCosts.getOrDefault(env, 0L), getExpectedItemCount(env)));
+        childCosts.merge(env.getParentEnvironment(), cost, QueryCostEstimator::add);
+      }
+    });
+    return childCosts.getOrDefault(null, 0L);
+  }
+
+  private long getExpectedItemCount(QueryVisitorFieldEnvironment env) {
+    final GraphQLFieldDefinition fieldDefinition = env.getFieldDefinition();
+    if (fieldDefinition.getArgument("count") == null) {
+      return 1;
+    }
+    final Object countArgument = env.getArguments().get("count");
+    long count = countArgument instanceof Integer ? (Integer) countArgument : PaginationArgumentsHelper.DEFAULT_COUNT;
+    if (count < 0 || count > PaginationHelper.MAX_COUNT) {
+      count = PaginationHelper.MAX_COUNT;
+    }
+    if (fieldDefinition.getDefinition() == null) {
+      return count;
+    }
+    final Optional<Long> knownCount;
+    if (fieldDefinition.getDefinition().getDirective("fromCollection") != null) {
+      knownCount = DirectiveRetriever.getDirectiveArgument(fieldDefinition, "fromCollection", "uri")
+        .flatMap(collection -> getType(env, collection))
+        .map(Type::getSubjectsWithThisType);
+    } else if (fieldDefinition.getDefinition().getDirective("rdf") != null) {
+      knownCount = getValuesPerSubject(env, fieldDefinition);
+    } else {
+      knownCount = Optional.empty();
+    }
+    return Math.min(count, knownCount.orElse(count));
+  }
+
+  /**
+   * @return the average number of values (rounded up) of the subjects that have the predicate of the field
+   */
+  private Optional<Long> getValuesPerSubject(QueryVisitorFieldEnvironment env, GraphQLFieldDefinition fieldDefinition) {
+    final GraphQLFieldsContainer parentType = env.getFieldsContainer();
+    if (!(parentType instanceof GraphQLObjectType) || ((GraphQLObjectType) parentType).getDefinition() == null) {
+      return Optional.empty();
+    }
+    final Optional<String> predicateUri = DirectiveRetriever.getDirectiveArgument(fieldDefinition, "rdf", "predicate");
+    final Optional<String> direction = DirectiveRetriever.getDirectiveArgument(fieldDefinition, "rdf", "direction");
+    if (!predicateUri.isPresent() || !direction.isPresent()) {
+      return Optional.empty();
+    }
+    return DirectiveRetriever.getDirectiveArgument((GraphQLObjectType) parentType, "rdfType", "uri")
+      .flatMap(typeUri -> getType(env, typeUri))
+      .map(type -> type.getPredicate(predicateUri.get(), Direction.valueOf(direction.get())))
+      .filter(predicate -> predicate.getSubjectsWithThisPredicate() > 0)
+      .map(predicate -> {
+        final long values = sum(predicate.getValueTypes()) + sum(predicate.getReferenceTypes());
+        return (values + predicate.getSubjectsWithThisPredicate() - 1) / predicate.getSubjectsWithThisPredicate();
+      });
+  }
+
+  private long sum(Map<String, Long> counts) {
+    return counts.values().stream().mapToLong(Long::longValue).sum();
+  }
+
+  private Optional<Type> getType(QueryVisitorFieldEnvironment env, String typeUri) {
+    return getDataSet(env)
+      .map(dataSet -> dataSet.getSchemaStore().getStableTypes())
+      .map(types -> types.get(typeUri));
+  }
+
+  /**
+   * @return the data set of the closest ancestor field that has a dataSet directive
+   */
+  private Optional<DataSet> getDataSet(QueryVisitorFieldEnvironment env) {
+    for (QueryVisitorFieldEnvironment parent = env.getParentEnvironment(); parent != null;
+         parent = parent.getParentEnvironment()) {
+      final GraphQLFieldDefinition definition = parent.getFieldDefinition();
+      if (definition.getDefinition() != null && definition.getDefinition().getDirective("dataSet") != null) {
+        final Optional<String> userId = DirectiveRetriever.getDirectiveArgument(definition, "dataSet", "userId");
+        final Optional<String> dataSetId = DirectiveRetriever.getDirectiveArgument(definition, "dataSet", "dataSetId");
+        if (userId.isPresent() && dataSetId.isPresent()) {
+          return dataSetRepository.unsafeGetDataSetWithoutCheckingPermissions(userId.get(), dataSetId.get());
+        }
+        return Optional.empty();
+      }
+    }
+    return Optional.empty();
+  }
+
+  private static long add(long first, long second) {
+    final long result = first + second;
+    return result < 0 ? Long.MAX_VALUE : result;
+  }
+
+  private static long multiply(long first, long second) {
+    try {
+      return Math.multiplyExact(first, second);
+    } catch (ArithmeticException e) {
+      return Long.MAX_VALUE;
+    }
+  }
+}
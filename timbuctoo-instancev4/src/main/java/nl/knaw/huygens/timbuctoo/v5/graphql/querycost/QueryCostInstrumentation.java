@@ -0,0 +1,114 @@
+package nl.knaw.huygens.timbuctoo.v5.graphql.querycost;
+
+import graphql.ExecutionResult;
+import graphql.ExecutionResultImpl;
+import graphql.execution.AbortExecutionException;
+import graphql.execution.ExecutionContext;
+import graphql.execution.instrumentation.InstrumentationContext;
+import graphql.execution.instrumentation.InstrumentationState;
+import graphql.execution.instrumentation.SimpleInstrumentation;
+import graphql.execution.instrumentation.parameters.InstrumentationExecuteOperationParameters;
+import graphql.execution.instrumentation.parameters.InstrumentationExecutionParameters;
+import graphql.execution.instrumentation.parameters.InstrumentationFieldFetchParameters;
+import nl.knaw.huygens.timbuctoo.v5.graphql.datafetchers.dto.ContextData;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Estimates the cost of a query before it is executed and refuses to execute it when the cost is too high or when the
+ * user has spent their budget. The estimated cost and the actual cost (the number of fetched fields) are reported in
+ * the "cost" extension of the result.
+ *
+ * <p>The check runs when the execution of the operation starts instead of during the validation, because the
+ * validation is skipped for documents that are in the PreparsedDocumentCache.</p>
+ */
+public class QueryCostInstrumentation extends SimpleInstrumentation {
+  private final QueryCostEstimator estimator;
+  private final QueryCostBudget budget;
+  private final long maxQueryCost;
+
+  public QueryCostInstrumentation(QueryCostEstimator estimator, QueryCostBudget budget, long maxQueryCost) {
+    this.estimator = estimator;
+    this.budget = budget;
+    this.maxQueryCost = maxQueryCost;
+  }
+
+  @Override
+  public InstrumentationState createState() {
+    return new CostState();
+  }
+
+  @Override
+  public InstrumentationContext<ExecutionResult> beginExecuteOperation(
+    InstrumentationExecuteOperationParameters parameters) {
+    final ExecutionContext context = parameters.getExecutionContext();
+    final long cost = estimator.estimate(
+      context.getGraphQLSchema(),
+      context.getDocument(),
+      context.getOperationDefinition().getName(),
+      context.getVariables()
+    );
+    final CostState state = parameters.getInstrumentationState();
+    state.estimated = cost;
+    if (cost > maxQueryCost) {
+      throw new AbortExecutionException(
+        "The estimated cost of the query (" + cost + ") is higher than the maximum of " + maxQueryCost + ". Request " +
+          "fewer items per list or fewer nested lists."
+      );
+    }
+    if (!budget.spend(getBudgetKey(context.getContext()), cost)) {
+      throw new AbortExecutionException(
+        "The query budget is exhausted. Wait a moment or reduce the cost of the queries (this query costs " + cost + ")"
+      );
+    }
+    return super.beginExecuteOperation(parameters);
+  }
+
+  /**
+   * Anonymous users have a budget per client address, so that one client can not exhaust the budget of all of them.
+   * The address is the one of the proxy when the server runs behind a proxy that is not configured as such, so
+   * dropwizard should then use the forwarded headers (server.applicationConnectors[].useForwardedHeaders).
+   */
+  private String getBudgetKey(Object context) {
+    if (context instanceof ContextData) {
+      final ContextData contextData = (ContextData) context;
+      if (contextData.getUser().isPresent()) {
+        return "user:" + contextData.getUser().get().getPersistentId();
+      }
+      return contextData.getClientAddress().map(address -> "address:" + address).orElse(null);
+    }
+    return null;
+  }
+
+  @Override
+  public InstrumentationContext<Object> beginFieldFetch(InstrumentationFieldFetchParameters parameters) {
+    final CostState state = parameters.getInstrumentationState();
+    state.actual.incrementAndGet();
+    return super.beginFieldFetch(parameters);
+  }
+
+  @Override
+  public CompletableFuture<ExecutionResult> instrumentExecutionResult(ExecutionResult executionResult,
+                                                                      InstrumentationExecutionParameters parameters) {
+    final CostState state = parameters.getInstrumentationState();
+    final Map<String, Long> cost = new LinkedHashMap<>();
+    cost.put("estimated", state.estimated);
+    cost.put("actual", state.actual.get());
+    final Map<Object, Object> extensions = executionResult.getExtensions() == null ?
+      new LinkedHashMap<>() :
+      new HashMap<>(executionResult.getExtensions());
+    extensions.put("cost", cost);
+    return CompletableFuture.completedFuture(
+      new ExecutionResultImpl(executionResult.getData(), executionResult.getErrors(), extensions)
+    );
+  }
+
+  private static class CostState implements InstrumentationState {
+    private volatile long estimated;
+    private final AtomicLong actual = new AtomicLong();
+  }
+}
@@ -0,0 +1,262 @@
+package nl.knaw.huygens.timbuctoo.v5.graphql.rootquery;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.guava.GuavaModule;
+import com.fasterxml.jackson.datatype.jdk8.Jdk8Module;
+import com.google.common.hash.Hashing;
+import graphql.schema.idl.SchemaParser;
+import graphql.schema.idl.TypeDefinitionRegistry;
+import nl.knaw.huygens.timbuctoo.v5.dataset.dto.DataSet;
+import nl.knaw.huygens.timbuctoo.v5.datastores.schemastore.SchemaStore;
+import nl.knaw.huygens.timbuctoo.v5.datastores.schemastore.dto.ExplicitField;
+import nl.knaw.huygens.timbuctoo.v5.datastores.schemastore.dto.ExplicitType;
+import nl.knaw.huygens.timbuctoo.v5.datastores.schemastore.dto.Type;
+import nl.knaw.huygens.timbuctoo.v5.graphql.customschema.MergeSchemas;
+import nl.knaw.huygens.timbuctoo.v5.graphql.derivedschema.DerivedSchemaContainer;
+import nl.knaw.huygens.timbuctoo.v5.graphql.derivedschema.DerivedSchemaGenerator;
+import nl.knaw.huygens.timbuctoo.v5.graphql.mutations.dto.CustomProvenance;
+import nl.knaw.huygens.timbuctoo.v5.jacksonserializers.TimbuctooCustomSerializers;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Properties;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Caches the GraphQL types that are derived from each data set, so a schema rebuild only generates the types of the
+ * data sets that changed. A fragment is versioned by a hash of the stable types, the custom schema, the custom
+ * provenance and the prefix mappings of its data set, and the version of the code.
+ *
+ * <p>Reading that version needs the databases of the data set. To avoid opening every data set on each rebuild, the
+ * fragment is also keyed by inputs that are read from files: the processed log count, the custom schema, the custom
+ * provenance and the version of the code. While those are unchanged the fragment is used without touching the
+ * databases. The fragments are written to the data set's directory, so they survive a restart.</p>
+ */
+class DataSetSchemaFragments {
+  private static final Logger LOG = LoggerFactory.getLogger(DataSetSchemaFragments.class);
+  private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper()
+    .registerModule(new Jdk8Module())
+    .registerModule(new GuavaModule())
+    .registerModule(new TimbuctooCustomSerializers())
+    .enable(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS);
+
+  private final DerivedSchemaGenerator typeGenerator;
+  private final SchemaParser schemaParser;
+  private final String codeVersion;
+  private final Map<String, Fragment> fragments = new ConcurrentHashMap<>();
+
+  DataSetSchemaFragments(DerivedSchemaGenerator typeGenerator, SchemaParser schemaParser) {
+    this(typeGenerator, schemaParser, readCodeVersion());
+  }
+
+  /**
+   * @param codeVersion the version of the code that generates the types, without it the fragments are only kept in
+   *                    memory
+   */
+  DataSetSchemaFragments(DerivedSchemaGenerator typeGenerator, SchemaParser schemaParser, String codeVersion) {
+    this.typeGenerator = typeGenerator;
+    this.schemaParser = schemaParser;
+    this.codeVersion = codeVersion;
+  }
+
+  /**
+   * @return the fragment of the data set, or an empty optional if the data set has no types
+   */
+  Optional<Fragment> get(DataSet dataSet) {
+    final String name = dataSet.getMetadata().getCombinedId();
+    // read the inputs before the databases, so a change while generating results in a newer version next time
+    final String inputsVersion = inputsVersion(dataSet);
+    Fragment fragment = fragments.get(name);
+    if (fragment == null && inputsVersion != null && codeVersion != null) {
+      fragment = load(dataSet.getSchemaFragmentFile());
+    }
+    if (fragment == null || inputsVersion == null || !inputsVersion.equals(fragment.inputsVersion)) {
+      fragment = generate(dataSet, name, inputsVersion, fragment);
+      if (inputsVersion != null && codeVersion != null) {
+        save(dataSet.getSchemaFragmentFile(), fragment);
+      }
+    }
+    fragments.put(name, fragment);
+    return fragment.schema == null ? Optional.empty() : Optional.of(fragment);
+  }
+
+  private Fragment generate(DataSet dataSet, String name, String inputsVersion, Fragment previous) {
+    final SchemaStore schemaStore = dataSet.getSchemaStore();
+    // read the hash before merging, because the merge adds the custom types to the stable types
+    final String stableTypesHash = schemaStore.getStableTypesHash();
+
+    Map<String, List<ExplicitField>> customSchema = dataSet.getCustomSchema();
+    final Map<String, Type> customTypes = new HashMap<>();
+    for (Map.Entry<String, List<ExplicitField>> entry : customSchema.entrySet()) {
+      ExplicitType explicitType = new ExplicitType(entry.getKey(), entry.getValue());
+      customTypes.put(entry.getKey(), explicitType.convertToType());
+    }
+    Map<String, Type> types = new MergeSchemas().mergeSchema(schemaStore.getStableTypes(), customTypes);
+
+    if (types == null) {
+      return new Fragment(inputsVersion, null, null, false);
+    }
+
+    final CustomProvenance customProvenance = dataSet.getCustomProvenance();
+    final String version = version(stableTypesHash, customSchema, customProvenance,
+      dataSet.getTypeNameStore().getMappings());
+    if (previous != null && previous.schema != null && version != null && version.equals(previous.version)) {
+      // the databases changed, but not in a way that changes the types
+      return new Fragment(inputsVersion, version, previous.schema, previous.hasMutationTypes, previous.registry);
+    }
+    LOG.debug("Generating the schema of data set '{}'", name);
+    final DerivedSchemaContainer schema = typeGenerator.makeGraphQlTypes(
+      name,
+      types,
+      dataSet.getTypeNameStore(),
+      dataSet.getReadOnlyChecker(),
+      customProvenance
+    );
+    // the type generators append to their output on each getSchema() call, so it is called once
+    final String sdl = schema.getSchema();
+    return new Fragment(inputsVersion, version, sdl, schema.hasMutationTypes(), schemaParser.parse(sdl));
+  }
+
+  private Fragment load(File file) {
+    if (file == null || !file.exists()) {
+      return null;
+    }
+    try {
+      return OBJECT_MAPPER.readValue(file, Fragment.class);
+    } catch (IOException e) {
+      LOG.warn("Could not read the schema fragment '{}', the schema will be generated again", file, e);
+      return null;
+    }
+  }
+
+  private void save(File file, Fragment fragment) {
+    if (file == null) {
+      return;
+    }
+    try {
+      OBJECT_MAPPER.writeValue(file, fragment);
+    } catch (IOException e) {
+      LOG.warn("Could not save the schema fragment '{}'", file, e);
+    }
+  }
+
+  /**
+   * Forgets the fragments of the data sets that no longer exist.
+   */
+  void retainAll(Set<String> combinedIds) {
+    fragments.keySet().retainAll(combinedIds);
+  }
+
+  private String inputsVersion(DataSet dataSet) {
+    try {
+      return Hashing.sha256().newHasher()
+        .putString(String.valueOf(codeVersion), StandardCharsets.UTF_8)
+        .putLong(dataSet.getProcessedLogCount())
+        .putString(OBJECT_MAPPER.writeValueAsString(dataSet.getCustomSchema()), StandardCharsets.UTF_8)
+        .putString(OBJECT_MAPPER.writeValueAsString(dataSet.getCustomProvenance()), StandardCharsets.UTF_8)
+        .hash()
+        .toString();
+    } catch (IOException e) {
+      LOG.error("Could not read the inputs of the schema, the databases will be read to check the schema", e);
+      return null;
+    }
+  }
+
+  private static String readCodeVersion() {
+    try (InputStream gitProperties = DataSetSchemaFragments.class.getClassLoader()
+      .getResourceAsStream("git.properties")) {
+      if (gitProperties == null) {
+        return null;
+      }
+      Properties properties = new Properties();
+      properties.load(gitProperties);
+      return properties.getProperty("git.commit.id");
+    } catch (IOException e) {
+      LOG.warn("Could not read the version of the code, the schema fragments will not be saved", e);
+      return null;
+    }
+  }
+
+  private String version(String stableTypesHash, Map<String, List<ExplicitField>> customSchema,
+                                CustomProvenance customProvenance, Map<String, String> prefixMappings) {
+    try {
+      return Hashing.sha256().newHasher()
+        .putString(String.valueOf(codeVersion), StandardCharsets.UTF_8)
+        .putString(stableTypesHash, StandardCharsets.UTF_8)
+        .putString(OBJECT_MAPPER.writeValueAsString(customSchema), StandardCharsets.UTF_8)
+        .putString(OBJECT_MAPPER.writeValueAsString(customProvenance), StandardCharsets.UTF_8)
+        .putString(new TreeMap<>(prefixMappings).toString(), StandardCharsets.UTF_8)
+        .hash()
+        .toString();
+    } catch (JsonProcessingException e) {
+      LOG.error("Could not determine the version of the schema, the schema will be generated again", e);
+      return null;
+    }
+  }
+
+  static class Fragment {
+    private final String inputsVersion;
+    private final String version;
+    private final String schema;
+    private final boolean hasMutationTypes;
+    private volatile TypeDefinitionRegistry registry;
+
+    @JsonCreator
+    private Fragment(@JsonProperty("inputsVersion") String inputsVersion, @JsonProperty("version") String version,
+                     @JsonProperty("schema") String schema,
+                     @JsonProperty("hasMutationTypes") boolean hasMutationTypes) {
+      this(inputsVersion, version, schema, hasMutationTypes, null);
+    }
+
+    private Fragment(String inputsVersion, String version, String schema, boolean hasMutationTypes,
+                     TypeDefinitionRegistry registry) {
+      this.inputsVersion = inputsVersion;
+      this.version = version;
+      this.schema = schema;
+      this.hasMutationTypes = hasMutationTypes;
+      this.registry = registry;
+    }
+
+    @JsonProperty("inputsVersion")
+    private String getInputsVersion() {
+      return inputsVersion;
+    }
+
+    @JsonProperty("version")
+    private String getVersion() {
+      return version;
+    }
+
+    @JsonProperty("schema")
+    private String getSchema() {
+      return schema;
+    }
+
+    @JsonProperty("hasMutationTypes")
+    boolean hasMutationTypes() {
+      return hasMutationTypes;
+    }
+
+    TypeDefinitionRegistry getRegistry() {
+      // a fragment that was read from its file is parsed when it is first needed
+      if (registry == null) {
+        registry = new SchemaParser().parse(schema);
+      }
+      return registry;
+    }
+  }
+}
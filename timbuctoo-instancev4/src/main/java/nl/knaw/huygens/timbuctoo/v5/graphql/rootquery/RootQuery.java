@@ -1,5 +1,8 @@
 package nl.knaw.huygens.timbuctoo.v5.graphql.rootquery;
 
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.Timer;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.google.common.base.Charsets;
 import com.google.common.io.Resources;
@@ -18,11 +21,8 @@ import nl.knaw.huygens.timbuctoo.v5.datastores.prefixstore.TypeNameStore;
 import nl.knaw.huygens.timbuctoo.v5.datastores.quadstore.QuadStore;
 import nl.knaw.huygens.timbuctoo.v5.datastores.quadstore.dto.CursorQuad;
 import nl.knaw.huygens.timbuctoo.v5.datastores.quadstore.dto.Direction;
-import nl.knaw.huygens.timbuctoo.v5.datastores.schemastore.dto.ExplicitField;
-import nl.knaw.huygens.timbuctoo.v5.datastores.schemastore.dto.ExplicitType;
 import nl.knaw.huygens.timbuctoo.v5.datastores.schemastore.dto.Type;
 import nl.knaw.huygens.timbuctoo.v5.dropwizard.SupportedExportFormats;
-import nl.knaw.huygens.timbuctoo.v5.graphql.customschema.MergeSchemas;
 import nl.knaw.huygens.timbuctoo.v5.graphql.datafetchers.DataMetaDataListFetcher;
 import nl.knaw.huygens.timbuctoo.v5.graphql.datafetchers.DataSetImportStatusFetcher;
 import nl.knaw.huygens.timbuctoo.v5.graphql.datafetchers.DiscoverResourceSyncDataFetcher;
@@ -33,7 +33,6 @@ import nl.knaw.huygens.timbuctoo.v5.graphql.datafetchers.dto.ContextData;
 import nl.knaw.huygens.timbuctoo.v5.graphql.datafetchers.dto.DataSetWithDatabase;
 import nl.knaw.huygens.timbuctoo.v5.graphql.datafetchers.dto.RootData;
 import nl.knaw.huygens.timbuctoo.v5.graphql.datafetchers.dto.SubjectReference;
-import nl.knaw.huygens.timbuctoo.v5.graphql.derivedschema.DerivedSchemaContainer;
 import nl.knaw.huygens.timbuctoo.v5.graphql.derivedschema.DerivedSchemaGenerator;
 import nl.knaw.huygens.timbuctoo.v5.graphql.mutations.CollectionMetadataMutation;
 import nl.knaw.huygens.timbuctoo.v5.graphql.mutations.CreateDataSetMutation;
@@ -67,83 +66,174 @@ import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Function;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
+import static com.codahale.metrics.MetricRegistry.name;
 import static com.google.common.io.Resources.getResource;
 import static nl.knaw.huygens.timbuctoo.v5.util.RdfConstants.TIM_HASINDEXERCONFIG;
 
 public class RootQuery implements Supplier<GraphQLSchema> {
 
   private static final Logger LOG = LoggerFactory.getLogger(RootQuery.class);
+  private static final long MAX_UPDATE_WAIT_SECONDS = 30;
 
 
   private final DataSetRepository dataSetRepository;
   private final SupportedExportFormats supportedFormats;
-  private final String archetypes;
   private final RdfWiringFactory wiringFactory;
-  private final DerivedSchemaGenerator typeGenerator;
+  private final DataSetSchemaFragments schemaFragments;
   private final ObjectMapper objectMapper;
   private final ResourceSyncFileLoader resourceSyncFileLoader;
   private final ResourceSyncService resourceSyncService;
   private final ExecutorService schemaAccessQueue;
   private final SchemaParser schemaParser;
-  private final String staticQuery;
-  private GraphQLSchema graphQlSchema;
+  private final TypeDefinitionRegistry staticSchema;
+  private final AtomicReference<GraphQLSchema> graphQlSchema = new AtomicReference<>();
+  private CompletableFuture<Void> scheduledRebuild;
+  private volatile Thread rebuildThread;
+  private final AtomicLong oldestUnbuiltChange = new AtomicLong(0);
+  private volatile long changeInBuild = 0;
+  private final Timer buildTimer;
 
   public RootQuery(DataSetRepository dataSetRepository, SupportedExportFormats supportedFormats,
                    String archetypes, Function<Runnable, RdfWiringFactory> wiringFactory,
                    DerivedSchemaGenerator typeGenerator, ObjectMapper objectMapper,
                    ResourceSyncFileLoader resourceSyncFileLoader, ResourceSyncService resourceSyncService,
-                   ExecutorService schemaAccessQueue)
+                   ExecutorService schemaAccessQueue, MetricRegistry metrics)
     throws IOException {
     this.dataSetRepository = dataSetRepository;
     this.supportedFormats = supportedFormats;
-    this.archetypes = archetypes;
-    this.wiringFactory = wiringFactory.apply(this::scheduleRebuild);
-    this.typeGenerator = typeGenerator;
+    this.wiringFactory = wiringFactory.apply(this::updateSchema);
     this.objectMapper = objectMapper;
     this.resourceSyncFileLoader = resourceSyncFileLoader;
     this.resourceSyncService = resourceSyncService;
     this.schemaAccessQueue = schemaAccessQueue;
-    staticQuery = Resources.toString(getResource(RootQuery.class, "schema.graphql"), Charsets.UTF_8);
     schemaParser = new SchemaParser();
-    dataSetRepository.subscribeToDataSetsUpdated(this::scheduleRebuild);
+    staticSchema = schemaParser.parse(
+      Resources.toString(getResource(RootQuery.class, "schema.graphql"), Charsets.UTF_8)
+    );
+    if (archetypes != null && !archetypes.isEmpty()) {
+      staticSchema.merge(schemaParser.parse(
+        archetypes +
+          "extend type DataSetMetadata {\n" +
+          "  archetypes: Archetypes! @passThrough\n" +
+          "}\n" +
+          "\n")
+      );
+    }
+    schemaFragments = new DataSetSchemaFragments(typeGenerator, schemaParser);
+    buildTimer = metrics.timer(name(RootQuery.class, "schemaBuild"));
+    metrics.register(name(RootQuery.class, "schemaStaleness"), (Gauge<Long>) this::getStaleness);
+    dataSetRepository.subscribeToDataSetsUpdated(this::updateSchema);
   }
 
-  private void scheduleRebuild() {
-    schemaAccessQueue.submit(this::rebuildSchema);
+  /**
+   * Rebuilds the schema in the background and waits until the new schema is published, so the caller's next request
+   * sees its changes. The wait is bounded, a slower rebuild is finished in the background. Requests that read the
+   * schema do not wait for the rebuild.
+   */
+  private void updateSchema() {
+    final CompletableFuture<Void> rebuild = scheduleRebuild();
+    if (Thread.currentThread() == rebuildThread) {
+      return; // the change was made during a rebuild, waiting would block forever
+    }
+    try {
+      rebuild.get(MAX_UPDATE_WAIT_SECONDS, TimeUnit.SECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    } catch (ExecutionException e) {
+      // the rebuild has logged the error, the current schema stays in use
+      LOG.warn("The schema was not updated, the rebuild failed: {}", e.getCause().getMessage());
+    } catch (TimeoutException e) {
+      LOG.info("The schema rebuild takes longer than {} seconds, it is finished in the background",
+        MAX_UPDATE_WAIT_SECONDS);
+    }
+  }
+
+  /**
+   * Schedules a rebuild of the schema. Requests that arrive before the scheduled rebuild has started are handled by
+   * that same rebuild.
+   *
+   * @return a future that completes when the rebuild has finished
+   */
+  private synchronized CompletableFuture<Void> scheduleRebuild() {
+    oldestUnbuiltChange.compareAndSet(0, System.currentTimeMillis());
+    if (scheduledRebuild == null) {
+      scheduledRebuild = new CompletableFuture<>();
+      schemaAccessQueue.submit(this::rebuildSchema);
+    }
+    return scheduledRebuild;
   }
 
   private void rebuildSchema() {
-    try {
-      graphQlSchema = this.generateSchema();
+    // changes that arrive from now on need a new rebuild
+    final CompletableFuture<Void> rebuild;
+    synchronized (this) {
+      rebuild = scheduledRebuild;
+      scheduledRebuild = null;
+    }
+    final long includedChange = oldestUnbuiltChange.getAndSet(0);
+    changeInBuild = includedChange;
+    rebuildThread = Thread.currentThread();
+    // the rebuild is a use of the data sets, so those it reads are not closed under it
+    try (Timer.Context ignored = buildTimer.time(); DataSetRepository.DataSetUse use = dataSetRepository.startUse()) {
+      graphQlSchema.set(this.generateSchema());
     } catch (Exception | Error e) {
       LOG.error("Schema generation error", e);
+      oldestUnbuiltChange.accumulateAndGet(includedChange, RootQuery::oldest);
+      if (rebuild != null) {
+        rebuild.completeExceptionally(e);
+      }
       throw e;
+    } finally {
+      changeInBuild = 0;
+      rebuildThread = null;
+    }
+    if (rebuild != null) {
+      rebuild.complete(null);
     }
   }
 
-  private GraphQLSchema generateSchema() {
-    final TypeDefinitionRegistry staticQuery = schemaParser.parse(this.staticQuery);
-    if (archetypes != null && !archetypes.isEmpty()) {
-      staticQuery.merge(schemaParser.parse(
-        archetypes +
-          "extend type DataSetMetadata {\n" +
-          "  archetypes: Archetypes! @passThrough\n" +
-          "}\n" +
-          "\n")
-      );
+  private void buildIfMissing() {
+    if (graphQlSchema.get() == null) {
+      rebuildSchema();
+    }
+  }
+
+  /**
+   * @return the number of milliseconds since the oldest change that is not part of the published schema, or 0 if the
+   *     schema is up to date
+   */
+  private long getStaleness() {
+    final long oldest = oldest(changeInBuild, oldestUnbuiltChange.get());
+    return oldest == 0 ? 0 : System.currentTimeMillis() - oldest;
+  }
+
+  private static long oldest(long first, long second) {
+    if (first == 0 || second == 0) {
+      return Math.max(first, second);
     }
-    TypeDefinitionRegistry registry = new TypeDefinitionRegistry();
-    registry.merge(staticQuery);
+    return Math.min(first, second);
+  }
+
+  private GraphQLSchema generateSchema() {
+    final TypeDefinitionRegistry staticQuery = new TypeDefinitionRegistry();
+    staticQuery.merge(staticSchema);
 
     final RuntimeWiring.Builder wiring = RuntimeWiring.newRuntimeWiring();
 
@@ -297,21 +387,21 @@ public class RootQuery implements Supplier<GraphQLSchema> {
     );
 
     wiring.type("Mutation", builder -> builder
-      .dataFetcher("setViewConfig", new ViewConfigMutation(this::scheduleRebuild, dataSetRepository))
-      .dataFetcher("setSummaryProperties", new SummaryPropsMutation(this::scheduleRebuild, dataSetRepository))
-      .dataFetcher("setIndexConfig", new IndexConfigMutation(this::scheduleRebuild, dataSetRepository))
-      .dataFetcher("createDataSet", new CreateDataSetMutation(this::scheduleRebuild, dataSetRepository))
-      .dataFetcher("deleteDataSet", new DeleteDataSetMutation(this::scheduleRebuild, dataSetRepository))
-      .dataFetcher("publish", new MakePublicMutation(this::scheduleRebuild, dataSetRepository))
-      .dataFetcher("extendSchema", new ExtendSchemaMutation(this::scheduleRebuild, dataSetRepository))
+      .dataFetcher("setViewConfig", new ViewConfigMutation(this::updateSchema, dataSetRepository))
+      .dataFetcher("setSummaryProperties", new SummaryPropsMutation(this::updateSchema, dataSetRepository))
+      .dataFetcher("setIndexConfig", new IndexConfigMutation(this::updateSchema, dataSetRepository))
+      .dataFetcher("createDataSet", new CreateDataSetMutation(this::updateSchema, dataSetRepository))
+      .dataFetcher("deleteDataSet", new DeleteDataSetMutation(this::updateSchema, dataSetRepository))
+      .dataFetcher("publish", new MakePublicMutation(this::updateSchema, dataSetRepository))
+      .dataFetcher("extendSchema", new ExtendSchemaMutation(this::updateSchema, dataSetRepository))
       .dataFetcher("setDataSetMetadata",
-        new DataSetMetadataMutation(this::scheduleRebuild, dataSetRepository))
+        new DataSetMetadataMutation(this::updateSchema, dataSetRepository))
       .dataFetcher("setCollectionMetadata",
-        new CollectionMetadataMutation(this::scheduleRebuild, dataSetRepository))
+        new CollectionMetadataMutation(this::updateSchema, dataSetRepository))
       .dataFetcher("resourceSyncImport",
-        new ResourceSyncImportMutation(this::scheduleRebuild, dataSetRepository, resourceSyncFileLoader))
+        new ResourceSyncImportMutation(this::updateSchema, dataSetRepository, resourceSyncFileLoader))
       .dataFetcher("resourceSyncUpdate",
-        new ResourceSyncUpdateMutation(this::scheduleRebuild, dataSetRepository, resourceSyncFileLoader))
+        new ResourceSyncUpdateMutation(this::updateSchema, dataSetRepository, resourceSyncFileLoader))
     );
 
     wiring.wiringFactory(wiringFactory);
@@ -321,34 +411,15 @@ public class RootQuery implements Supplier<GraphQLSchema> {
 
     boolean[] dataSetAvailable = new boolean[]{false};
     boolean[] hasTypes = new boolean[]{false};
+    Set<String> dataSetNames = new HashSet<>();
 
     // add data sets query to the schema
     dataSetRepository.getDataSets().forEach(dataSet -> {
       final DataSetMetaData dataSetMetaData = dataSet.getMetadata();
       final String name = dataSetMetaData.getCombinedId();
+      dataSetNames.add(name);
 
-
-      Map<String, Type> types = dataSet.getSchemaStore().getStableTypes();
-
-      Map<String, List<ExplicitField>> customSchema = dataSet.getCustomSchema();
-
-      final Map<String, Type> customTypes = new HashMap<>();
-
-      for (Map.Entry<String, List<ExplicitField>> entry : customSchema.entrySet()) {
-        ExplicitType explicitType = new ExplicitType(entry.getKey(), entry.getValue());
-        customTypes.put(entry.getKey(), explicitType.convertToType());
-      }
-
-      Map<String, Type> mergedTypes;
-
-      MergeSchemas mergeSchemas = new MergeSchemas();
-      mergedTypes = mergeSchemas.mergeSchema(types, customTypes);
-
-      types = mergedTypes;
-
-
-      if (types != null) {
-
+      schemaFragments.get(dataSet).ifPresent(fragment -> {
         // Add to rootQuery
         dataSetAvailable[0] = true;
         rootQuery.append("  ")
@@ -366,15 +437,7 @@ public class RootQuery implements Supplier<GraphQLSchema> {
               new DataSetWithDatabase(dataSet, env.<ContextData>getContext().getUserPermissionCheck()))
         );
 
-        final DerivedSchemaContainer schema = typeGenerator.makeGraphQlTypes(
-          name,
-          types,
-          dataSet.getTypeNameStore(),
-          dataSet.getReadOnlyChecker(),
-          dataSet.getCustomProvenance()
-        );
-
-        if (schema.hasMutationTypes()) {
+        if (fragment.hasMutationTypes()) {
           hasTypes[0] = true;
           rootMut.append("  ")
                  .append(name)
@@ -384,9 +447,10 @@ public class RootQuery implements Supplier<GraphQLSchema> {
                  .append("\n\n");
         }
 
-        staticQuery.merge(schemaParser.parse(schema.getSchema()));
-      }
+        staticQuery.merge(fragment.getRegistry());
+      });
     });
+    schemaFragments.retainAll(dataSetNames);
     rootQuery.append("}\n\nextend type Query {\n  #The actual dataSets\n  dataSets: DataSets @passThrough\n}\n\n");
     rootMut.append("}\n\nextend type Mutation {\n  #The actual dataSets\n" +
       "  dataSets: DataSetMutations @passThrough\n}\n\n");
@@ -473,13 +537,19 @@ public class RootQuery implements Supplier<GraphQLSchema> {
     }
   }
 
+  /**
+   * Returns the latest schema without waiting for rebuilds that are in progress. Only the first call waits until a
+   * schema is available.
+   */
   @Override
   public GraphQLSchema get() {
-    if (graphQlSchema == null) {
-      this.scheduleRebuild();
+    final GraphQLSchema schema = graphQlSchema.get();
+    if (schema != null) {
+      return schema;
     }
     try {
-      return schemaAccessQueue.submit(() -> graphQlSchema).get();
+      schemaAccessQueue.submit(this::buildIfMissing).get();
+      return graphQlSchema.get();
     } catch (InterruptedException | ExecutionException e) {
       LOG.error("Unable to read schema", e);
       throw new RuntimeException("Unable to read schema");
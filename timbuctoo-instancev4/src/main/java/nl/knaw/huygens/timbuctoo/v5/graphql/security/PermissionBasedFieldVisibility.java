@@ -13,14 +13,22 @@ import java.util.Set;
 import java.util.stream.Collectors;
 
 public class PermissionBasedFieldVisibility implements GraphqlFieldVisibility {
-  private final UserPermissionCheck userPermissionCheck;
-  private final DataSetRepository dataSetRepository;
-  private Set<String> dataSetNamesWithOutReadPermission;
+  private final Set<String> dataSetNamesWithOutReadPermission;
 
   public PermissionBasedFieldVisibility(UserPermissionCheck userPermissionCheck, DataSetRepository dataSetRepository) {
-    this.userPermissionCheck = userPermissionCheck;
-    this.dataSetRepository = dataSetRepository;
-    dataSetNamesWithOutReadPermission = dataSetRepository
+    this(dataSetNamesWithOutReadPermission(userPermissionCheck, dataSetRepository));
+  }
+
+  /**
+   * Users with the same set of data sets they cannot read see the same fields, so they can share this visibility.
+   */
+  public PermissionBasedFieldVisibility(Set<String> dataSetNamesWithOutReadPermission) {
+    this.dataSetNamesWithOutReadPermission = dataSetNamesWithOutReadPermission;
+  }
+
+  public static Set<String> dataSetNamesWithOutReadPermission(UserPermissionCheck userPermissionCheck,
+                                                              DataSetRepository dataSetRepository) {
+    return dataSetRepository
         .getDataSets()
         .stream()
         .filter(dataSet -> !userPermissionCheck.hasPermission(dataSet.getMetadata(), Permission.READ))
@@ -0,0 +1,117 @@
+package nl.knaw.huygens.timbuctoo.v5.graphql.serializable;
+
+import nl.knaw.huygens.timbuctoo.v5.serializable.PagedResult;
+import nl.knaw.huygens.timbuctoo.v5.serializable.SerializableResult;
+import nl.knaw.huygens.timbuctoo.v5.serializable.dto.Entity;
+import nl.knaw.huygens.timbuctoo.v5.serializable.dto.GraphqlIntrospectionObject;
+import nl.knaw.huygens.timbuctoo.v5.serializable.dto.QueryContainer;
+import nl.knaw.huygens.timbuctoo.v5.serializable.dto.Serializable;
+import nl.knaw.huygens.timbuctoo.v5.serializable.dto.SerializableList;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * The result of a {@link PagedExportQuery}. The items of the next pages are retrieved while they are iterated. The
+ * items can be iterated once: the first page is released when the iteration moves on to the second page, so that only
+ * one page is kept in memory.
+ */
+public class PagedExport implements PagedResult {
+  private QueryContainer firstPage;
+  private SerializableList list;
+  private final Function<String, QueryContainer> retrievePage;
+  private final int limit;
+
+  private PagedExport(QueryContainer firstPage, SerializableList list, Function<String, QueryContainer> retrievePage,
+                      int limit) {
+    this.firstPage = firstPage;
+    this.list = list;
+    this.retrievePage = retrievePage;
+    this.limit = limit;
+  }
+
+  /**
+   * @param retrievePage executes the query for the page of the cursor
+   * @return an empty Optional if the first page does not contain the list (e.g. because its parent is null)
+   */
+  public static Optional<PagedExport> create(QueryContainer firstPage,
+                                             Function<String, QueryContainer> retrievePage) {
+    return create(firstPage, retrievePage, Integer.MAX_VALUE);
+  }
+
+  /**
+   * @param limit the maximum number of items, the next pages are not retrieved once it is reached
+   */
+  public static Optional<PagedExport> create(QueryContainer firstPage, Function<String, QueryContainer> retrievePage,
+                                             int limit) {
+    return findList(firstPage.getContents()).map(list -> new PagedExport(firstPage, list, retrievePage, limit));
+  }
+
+  private static Optional<SerializableList> findList(Map<?, Serializable> contents) {
+    if (contents.size() != 1) {
+      return Optional.empty();
+    }
+    final Serializable value = contents.values().iterator().next();
+    if (value instanceof SerializableList) {
+      return Optional.of((SerializableList) value);
+    } else if (value instanceof Entity) {
+      return findList(((Entity) value).getContents());
+    } else if (value instanceof GraphqlIntrospectionObject) {
+      return findList(((GraphqlIntrospectionObject) value).getContents());
+    } else {
+      return Optional.empty();
+    }
+  }
+
+  @Override
+  public SerializableResult getFirstPage() {
+    return new SerializableResult(firstPage);
+  }
+
+  @Override
+  public SerializableList getList() {
+    return list;
+  }
+
+  @Override
+  public Iterable<Serializable> getItems() {
+    if (list == null) {
+      throw new IllegalStateException("The items of a paged export can only be iterated once");
+    }
+    return () -> new Iterator<Serializable>() {
+      private SerializableList page = list;
+      private int index = 0;
+      private int count = 0;
+
+      @Override
+      public boolean hasNext() {
+        if (count >= limit) {
+          return false;
+        }
+        while (index >= page.getItems().size()) {
+          if (!page.getNextCursor().isPresent()) {
+            return false;
+          }
+          page = findList(retrievePage.apply(page.getNextCursor().get()).getContents())
+            .orElseThrow(() -> new IllegalStateException("The next page does not contain the list"));
+          index = 0;
+          firstPage = null;
+          list = null;
+        }
+        return true;
+      }
+
+      @Override
+      public Serializable next() {
+        if (!hasNext()) {
+          throw new NoSuchElementException();
+        }
+        count++;
+        return page.getItems().get(index++);
+      }
+    };
+  }
+}
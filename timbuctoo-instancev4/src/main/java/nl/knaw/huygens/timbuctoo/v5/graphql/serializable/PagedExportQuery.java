@@ -0,0 +1,198 @@
+package nl.knaw.huygens.timbuctoo.v5.graphql.serializable;
+
+import graphql.language.Argument;
+import graphql.language.AstPrinter;
+import graphql.language.Definition;
+import graphql.language.Document;
+import graphql.language.Field;
+import graphql.language.IntValue;
+import graphql.language.OperationDefinition;
+import graphql.language.Selection;
+import graphql.language.SelectionSet;
+import graphql.language.StringValue;
+import graphql.language.TypeName;
+import graphql.language.Value;
+import graphql.language.VariableDefinition;
+import graphql.language.VariableReference;
+import graphql.parser.Parser;
+import org.antlr.v4.runtime.misc.ParseCancellationException;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+/**
+ * Rewrites an export query of which the result is one paginated list (possibly nested in fields that have no
+ * siblings), so that the cursor of that list is a variable. The export can then request the pages of the list one by
+ * one. The count of the list, if the query specifies one, limits the number of items of the export.
+ */
+public class PagedExportQuery {
+  public static final String CURSOR_VARIABLE = "timbuctooExportCursor";
+  /**
+   * The page size of lists that do not specify a count
+   */
+  static final int PAGE_SIZE = 1_000;
+
+  private final String query;
+  private final String operationName;
+  private final String cursorVariable;
+  private final String firstCursor;
+  private final String countVariable;
+  private final Integer limit;
+
+  private PagedExportQuery(String query, String operationName, String cursorVariable, String firstCursor,
+                           String countVariable, Integer limit) {
+    this.query = query;
+    this.operationName = operationName;
+    this.cursorVariable = cursorVariable;
+    this.firstCursor = firstCursor;
+    this.countVariable = countVariable;
+    this.limit = limit;
+  }
+
+  /**
+   * @return an empty Optional if the query cannot be parsed, is not a query or does not select one paginated list
+   */
+  public static Optional<PagedExportQuery> create(String query, String operationName, Map<String, Object> variables) {
+    final Document document;
+    try {
+      document = new Parser().parseDocument(query);
+    } catch (ParseCancellationException e) {
+      return Optional.empty(); // the execution reports the syntax error
+    }
+    final List<OperationDefinition> operations = document.getDefinitions().stream()
+      .filter(definition -> definition instanceof OperationDefinition)
+      .map(definition -> (OperationDefinition) definition)
+      .filter(operation -> operationName == null || operationName.equals(operation.getName()))
+      .collect(Collectors.toList());
+    if (operations.size() != 1 || operations.get(0).getOperation() != OperationDefinition.Operation.QUERY) {
+      return Optional.empty();
+    }
+    final OperationDefinition operation = operations.get(0);
+
+    final List<Field> path = new ArrayList<>();
+    SelectionSet selectionSet = operation.getSelectionSet();
+    do {
+      final Optional<Field> field = singleField(selectionSet);
+      if (!field.isPresent()) {
+        return Optional.empty();
+      }
+      path.add(field.get());
+      selectionSet = field.get().getSelectionSet();
+    } while (!isPaginatedList(path.get(path.size() - 1)));
+
+    final Field list = path.get(path.size() - 1);
+    String cursorVariable = CURSOR_VARIABLE;
+    String firstCursor = null;
+    String countVariable = null;
+    Integer limit = null;
+    boolean hasCount = false;
+    final List<Argument> arguments = new ArrayList<>();
+    for (Argument argument : list.getArguments()) {
+      final Value value = argument.getValue();
+      if (argument.getName().equals("cursor")) {
+        if (value instanceof VariableReference) {
+          cursorVariable = ((VariableReference) value).getName();
+          firstCursor = (String) variables.get(cursorVariable);
+        } else if (value instanceof StringValue) {
+          firstCursor = ((StringValue) value).getValue();
+        }
+      } else if (argument.getName().equals("count")) {
+        hasCount = true;
+        if (value instanceof VariableReference) {
+          countVariable = ((VariableReference) value).getName();
+          final Object count = variables.get(countVariable);
+          limit = count instanceof Number ? ((Number) count).intValue() : null;
+          arguments.add(argument);
+        } else if (value instanceof IntValue) {
+          limit = ((IntValue) value).getValue().intValue();
+          arguments.add(new Argument("count", new IntValue(BigInteger.valueOf(pageSize(limit)))));
+        } else {
+          arguments.add(argument);
+        }
+      } else {
+        arguments.add(argument);
+      }
+    }
+    arguments.add(new Argument("cursor", new VariableReference(cursorVariable)));
+    if (!hasCount) {
+      arguments.add(new Argument("count", new IntValue(BigInteger.valueOf(PAGE_SIZE))));
+    }
+
+    Field rewritten = list.transform(builder -> builder.arguments(arguments));
+    for (int i = path.size() - 2; i >= 0; i--) {
+      final SelectionSet child = new SelectionSet(Collections.singletonList(rewritten));
+      rewritten = path.get(i).transform(builder -> builder.selectionSet(child));
+    }
+    final List<VariableDefinition> variableDefinitions = new ArrayList<>(operation.getVariableDefinitions());
+    if (cursorVariable.equals(CURSOR_VARIABLE)) {
+      variableDefinitions.add(new VariableDefinition(CURSOR_VARIABLE, new TypeName("ID")));
+    }
+    final SelectionSet operationSelection = new SelectionSet(Collections.singletonList(rewritten));
+    final OperationDefinition rewrittenOperation = operation.transform(builder -> builder
+      .selectionSet(operationSelection)
+      .variableDefinitions(variableDefinitions)
+    );
+    final List<Definition> definitions = document.getDefinitions().stream()
+      .map(definition -> definition == operation ? rewrittenOperation : definition)
+      .collect(Collectors.toList());
+
+    return Optional.of(new PagedExportQuery(
+      AstPrinter.printAst(document.transform(builder -> builder.definitions(definitions))),
+      operationName,
+      cursorVariable,
+      firstCursor,
+      countVariable,
+      limit
+    ));
+  }
+
+  private static int pageSize(Integer limit) {
+    return limit == null ? PAGE_SIZE : Math.min(limit, PAGE_SIZE);
+  }
+
+  private static Optional<Field> singleField(SelectionSet selectionSet) {
+    if (selectionSet == null || selectionSet.getSelections().size() != 1) {
+      return Optional.empty();
+    }
+    final Selection selection = selectionSet.getSelections().get(0);
+    return selection instanceof Field ? Optional.of((Field) selection) : Optional.empty();
+  }
+
+  private static boolean isPaginatedList(Field field) {
+    return field.getSelectionSet() != null && field.getSelectionSet().getSelections().stream()
+      .anyMatch(selection -> selection instanceof Field && ((Field) selection).getName().equals("items"));
+  }
+
+  public String getQuery() {
+    return query;
+  }
+
+  public String getOperationName() {
+    return operationName;
+  }
+
+  /**
+   * @return the count of the list in the original query
+   */
+  public Optional<Integer> getLimit() {
+    return Optional.ofNullable(limit);
+  }
+
+  /**
+   * @param cursor the cursor of the page, or null for the page that the original query requested
+   */
+  public Map<String, Object> getVariables(Map<String, Object> variables, String cursor) {
+    final Map<String, Object> result = new HashMap<>(variables);
+    result.put(cursorVariable, cursor == null ? firstCursor : cursor);
+    if (countVariable != null && limit != null) {
+      result.put(countVariable, pageSize(limit));
+    }
+    return result;
+  }
+}
@@ -0,0 +1,25 @@
+package nl.knaw.huygens.timbuctoo.v5.serializable;
+
+import nl.knaw.huygens.timbuctoo.v5.serializable.dto.Serializable;
+import nl.knaw.huygens.timbuctoo.v5.serializable.dto.SerializableList;
+
+/**
+ * A result of which one list is retrieved page by page while it is serialized, so that only one page of the list is
+ * in memory at a time.
+ */
+public interface PagedResult {
+  /**
+   * @return the result with the first page of the list
+   */
+  SerializableResult getFirstPage();
+
+  /**
+   * @return the list in the first page that is continued on the next pages
+   */
+  SerializableList getList();
+
+  /**
+   * @return the items of the list on all pages. Each iteration retrieves the next pages again.
+   */
+  Iterable<Serializable> getItems();
+}
@@ -0,0 +1,19 @@
+package nl.knaw.huygens.timbuctoo.v5.serializable;
+
+import java.io.IOException;
+
+/**
+ * A serialization that writes the items of a paged result as they are retrieved
+ */
+public interface PagedSerialization extends Serialization {
+  String ERROR_MARKER = "EXPORT FAILED: ";
+
+  void serialize(PagedResult pagedResult) throws IOException;
+
+  /**
+   * Ends the output after the retrieval of a page failed. It is only used when a part of the output was sent already,
+   * so that the status of the response can no longer tell the failure: the {@link #ERROR_MARKER} tells the reader that
+   * the export is incomplete.
+   */
+  void writeError(String message) throws IOException;
+}
@@ -39,6 +39,13 @@ public class CsvSerialization extends FlatTableSerialization {
     csvPrinter.println();
   }
 
+  @Override
+  public void writeError(String message) throws IOException {
+    csvPrinter.print(ERROR_MARKER + message);
+    csvPrinter.println();
+    finish();
+  }
+
   @Override
   protected void finish() throws IOException {
     csvPrinter.flush();
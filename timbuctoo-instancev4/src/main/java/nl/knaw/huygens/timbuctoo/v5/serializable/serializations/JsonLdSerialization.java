@@ -5,8 +5,9 @@ import com.fasterxml.jackson.core.JsonFactory;
 import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.core.util.DefaultPrettyPrinter;
 import nl.knaw.huygens.timbuctoo.v5.datastores.quadstore.dto.Direction;
+import nl.knaw.huygens.timbuctoo.v5.serializable.PagedResult;
+import nl.knaw.huygens.timbuctoo.v5.serializable.PagedSerialization;
 import nl.knaw.huygens.timbuctoo.v5.serializable.SerializableResult;
-import nl.knaw.huygens.timbuctoo.v5.serializable.Serialization;
 import nl.knaw.huygens.timbuctoo.v5.serializable.dto.Entity;
 import nl.knaw.huygens.timbuctoo.v5.serializable.dto.GraphqlIntrospectionList;
 import nl.knaw.huygens.timbuctoo.v5.serializable.dto.GraphqlIntrospectionObject;
@@ -23,9 +24,11 @@ import java.util.LinkedHashSet;
 import java.util.Map;
 import java.util.Set;
 
-public class JsonLdSerialization implements Serialization {
+public class JsonLdSerialization implements PagedSerialization {
   private final JsonGenerator generator;
   protected final SerializeDispatcher dispatcher;
+  private SerializableList pagedList;
+  private Iterable<Serializable> pagedItems;
 
   public JsonLdSerialization(OutputStream outputStream) throws IOException {
     generator = new JsonFactory().createGenerator(outputStream, JsonEncoding.UTF8)
@@ -33,6 +36,16 @@ public class JsonLdSerialization implements Serialization {
     dispatcher = new SerializeDispatcher();
   }
 
+  /**
+   * Writes the items of all pages in the list of the first page, without its cursors
+   */
+  @Override
+  public void serialize(PagedResult pagedResult) throws IOException {
+    pagedList = pagedResult.getList();
+    pagedItems = pagedResult.getItems();
+    serialize(pagedResult.getFirstPage());
+  }
+
   @Override
   public void serialize(SerializableResult serializableResult) throws IOException {
     final Set<PredicateInfo> context = new LinkedHashSet<>();
@@ -50,6 +63,17 @@ public class JsonLdSerialization implements Serialization {
     generator.close();
   }
 
+  /**
+   * Writes the marker after the part of the document that was written, without closing the open objects
+   */
+  @Override
+  public void writeError(String message) throws IOException {
+    generator.disable(JsonGenerator.Feature.AUTO_CLOSE_JSON_CONTENT);
+    generator.writeRaw("\n" + ERROR_MARKER + message + "\n");
+    generator.flush();
+    generator.close();
+  }
+
   private void writeContext(Set<PredicateInfo> context) throws IOException {
     generator.writeFieldName("@context");
     generator.writeStartObject();
@@ -104,16 +128,17 @@ public class JsonLdSerialization implements Serialization {
 
     @Override
     public void handleList(SerializableList list, Set<PredicateInfo> context) throws IOException {
+      final boolean paged = list == pagedList;
       generator.writeStartObject();
-      if (list.getPrevCursor().isPresent()) {
+      if (!paged && list.getPrevCursor().isPresent()) {
         generator.writeStringField("prevCursor", list.getPrevCursor().get());
       }
-      if (list.getNextCursor().isPresent()) {
+      if (!paged && list.getNextCursor().isPresent()) {
         generator.writeStringField("nextCursor", list.getNextCursor().get());
       }
       generator.writeFieldName("items");
       generator.writeStartArray();
-      for (Serializable o : list.getItems()) {
+      for (Serializable o : paged ? pagedItems : list.getItems()) {
         dispatch(o, context);
       }
       generator.writeEndArray();
@@ -1,8 +1,9 @@
 package nl.knaw.huygens.timbuctoo.v5.serializable.serializations.base;
 
 import nl.knaw.huygens.timbuctoo.util.Tuple;
+import nl.knaw.huygens.timbuctoo.v5.serializable.PagedResult;
+import nl.knaw.huygens.timbuctoo.v5.serializable.PagedSerialization;
 import nl.knaw.huygens.timbuctoo.v5.serializable.SerializableResult;
-import nl.knaw.huygens.timbuctoo.v5.serializable.Serialization;
 import nl.knaw.huygens.timbuctoo.v5.serializable.dto.Entity;
 import nl.knaw.huygens.timbuctoo.v5.serializable.dto.GraphqlIntrospectionList;
 import nl.knaw.huygens.timbuctoo.v5.serializable.dto.GraphqlIntrospectionObject;
@@ -16,9 +17,19 @@ import nl.knaw.huygens.timbuctoo.v5.serializable.serializations.CsvSerialization
 import nl.knaw.huygens.timbuctoo.v5.serializable.serializations.Dispatcher;
 import org.slf4j.Logger;
 
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
@@ -26,7 +37,7 @@ import java.util.Map;
 import static nl.knaw.huygens.timbuctoo.util.Tuple.tuple;
 import static org.slf4j.LoggerFactory.getLogger;
 
-public abstract class FlatTableSerialization implements Serialization {
+public abstract class FlatTableSerialization implements PagedSerialization {
   public static final String SEPARATOR = ".";
   private static final Logger LOG = getLogger(FlatTableSerialization.class);
 
@@ -55,6 +66,41 @@ public abstract class FlatTableSerialization implements Serialization {
 
   }
 
+  /**
+   * Retrieves the pages once. The columns are only known after the last page, so the rows are kept in a temporary
+   * file until the header is written. Only one page is kept in memory.
+   */
+  @Override
+  public void serialize(PagedResult data) throws IOException {
+    final File rowsFile = File.createTempFile("flatTable", ".rows");
+    try {
+      final TocItem toc = new TocItem();
+      final GenerateTocDispatcher tocDispatcher = new GenerateTocDispatcher();
+      final FlattenDispatcher flattenDispatcher = new FlattenDispatcher();
+      int rowCount = 0;
+      try (DataOutputStream rows = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(rowsFile)))) {
+        for (Serializable item : data.getItems()) {
+          tocDispatcher.dispatch(item, toc);
+          final Map<String, Value> row = new HashMap<>();
+          flattenDispatcher.dispatch(item, tuple("", row));
+          spoolRow(rows, row);
+          rowCount++;
+        }
+      }
+
+      final List<String> header = getHeader(toc, "");
+      initialize(header);
+      try (DataInputStream rows = new DataInputStream(new BufferedInputStream(new FileInputStream(rowsFile)))) {
+        for (int i = 0; i < rowCount; i++) {
+          writeColumns(unspoolRow(rows), header);
+        }
+      }
+      finish();
+    } finally {
+      Files.deleteIfExists(rowsFile.toPath());
+    }
+  }
+
   /**
    * is called once at the start of the serialization
    */
@@ -111,6 +157,50 @@ public abstract class FlatTableSerialization implements Serialization {
     return toc;
   }
 
+  private static void spoolRow(DataOutputStream rows, Map<String, Value> row) throws IOException {
+    rows.writeInt(row.size());
+    for (Map.Entry<String, Value> column : row.entrySet()) {
+      writeString(rows, column.getKey());
+      writeString(rows, column.getValue().getValue());
+      writeString(rows, column.getValue().getType());
+      writeString(rows, column.getValue().getGraphqlTypeName().orElse(null));
+    }
+  }
+
+  private static Map<String, Value> unspoolRow(DataInputStream rows) throws IOException {
+    final int size = rows.readInt();
+    final Map<String, Value> row = new HashMap<>();
+    for (int i = 0; i < size; i++) {
+      final String column = readString(rows);
+      final String value = readString(rows);
+      final String type = readString(rows);
+      final String graphqlType = readString(rows);
+      row.put(column, graphqlType == null ? Value.create(value, type) : Value.create(value, type, graphqlType));
+    }
+    return row;
+  }
+
+  // writeUTF is limited to 64KB, values can be longer
+  private static void writeString(DataOutputStream rows, String value) throws IOException {
+    if (value == null) {
+      rows.writeInt(-1);
+    } else {
+      final byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+      rows.writeInt(bytes.length);
+      rows.write(bytes);
+    }
+  }
+
+  private static String readString(DataInputStream rows) throws IOException {
+    final int length = rows.readInt();
+    if (length < 0) {
+      return null;
+    }
+    final byte[] bytes = new byte[length];
+    rows.readFully(bytes);
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+
   private List<String> getHeader(TocItem toc, String prefix) throws IOException {
     List<String> header = new ArrayList<>();
     if (toc.contents.isEmpty()) {
@@ -123,6 +213,14 @@ public abstract class FlatTableSerialization implements Serialization {
     return header;
   }
 
+  private void writeColumns(Map<String, Value> row, List<String> header) throws IOException {
+    final List<Value> values = new ArrayList<>(header.size());
+    for (String column : header) {
+      values.add(row.get(column));
+    }
+    writeRow(values);
+  }
+
   private void writeBody(Collection<Serializable> list, TocItem toc) throws IOException {
     WriteBodyDispatcher dispatcher = new WriteBodyDispatcher();
     for (Serializable item : list) {
@@ -248,6 +346,57 @@ public abstract class FlatTableSerialization implements Serialization {
     }
   }
 
+  /**
+   * Collects the values of an item by their column, which is the path of the item in the table of contents
+   */
+  private class FlattenDispatcher extends Dispatcher<Tuple<String, Map<String, Value>>> {
+
+    @Override
+    public void handleEntity(Entity entity, Tuple<String, Map<String, Value>> context) throws IOException {
+      for (Map.Entry<PredicateInfo, Serializable> entry : entity.getContents().entrySet()) {
+        dispatch(entry.getValue(), tuple(column(context.getLeft(), entry.getKey().getSafeName()), context.getRight()));
+      }
+    }
+
+    @Override
+    public void handleNull(Tuple<String, Map<String, Value>> context) throws IOException {
+
+    }
+
+    @Override
+    public void handleList(SerializableList list, Tuple<String, Map<String, Value>> context) throws IOException {
+      for (int i = 0; i < list.getItems().size(); i++) {
+        dispatch(list.getItems().get(i), tuple(column(context.getLeft(), i + ""), context.getRight()));
+      }
+    }
+
+    @Override
+    public void handleGraphqlObject(GraphqlIntrospectionObject object, Tuple<String, Map<String, Value>> context)
+      throws IOException {
+
+    }
+
+    @Override
+    public void handleGraphqlList(GraphqlIntrospectionList list, Tuple<String, Map<String, Value>> context)
+      throws IOException {
+
+    }
+
+    @Override
+    public void handleGraphqlValue(GraphqlIntrospectionValue object, Tuple<String, Map<String, Value>> context)
+      throws IOException {
+    }
+
+    @Override
+    public void handleValue(Value object, Tuple<String, Map<String, Value>> context) throws IOException {
+      context.getRight().put(context.getLeft(), object);
+    }
+
+    private String column(String prefix, String key) {
+      return prefix.isEmpty() ? key : prefix + SEPARATOR + key;
+    }
+  }
+
   class TocItem {
     public final Map<String, TocItem> contents = new LinkedHashMap<>();
     public int maxCount = 0;
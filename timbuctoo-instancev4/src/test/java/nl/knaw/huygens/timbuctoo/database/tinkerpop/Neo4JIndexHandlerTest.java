@@ -1,7 +1,11 @@
 package nl.knaw.huygens.timbuctoo.database.tinkerpop;
 
 import nl.knaw.huygens.timbuctoo.core.dto.QuickSearch;
+import nl.knaw.huygens.timbuctoo.core.dto.QuickSearchResult;
 import nl.knaw.huygens.timbuctoo.core.dto.dataset.Collection;
+import nl.knaw.huygens.timbuctoo.database.tinkerpop.quicksearch.ImmutableQuickSearchIndexConfiguration;
+import nl.knaw.huygens.timbuctoo.database.tinkerpop.quicksearch.QuickSearchIndex;
+import nl.knaw.huygens.timbuctoo.database.tinkerpop.quicksearch.QuickSearchIndexes;
 import nl.knaw.huygens.timbuctoo.server.TinkerPopGraphManager;
 import org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.GraphTraversal;
 import org.apache.tinkerpop.gremlin.structure.Edge;
@@ -10,19 +14,24 @@ import org.junit.Before;
 import org.junit.Test;
 import org.neo4j.graphdb.Transaction;
 
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
+import static java.util.stream.Collectors.toList;
 import static nl.knaw.huygens.timbuctoo.util.EdgeMatcher.likeEdge;
 import static nl.knaw.huygens.hamcrest.OptionalPresentMatcher.present;
 import static nl.knaw.huygens.timbuctoo.util.TestGraphBuilder.newGraph;
 import static nl.knaw.huygens.timbuctoo.util.VertexMatcher.likeVertex;
+import static org.hamcrest.Matchers.contains;
 import static org.hamcrest.Matchers.containsInAnyOrder;
 import static org.hamcrest.Matchers.empty;
 import static org.hamcrest.Matchers.is;
 import static org.hamcrest.Matchers.not;
 import static org.junit.Assert.assertThat;
+import static org.mockito.BDDMockito.given;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.spy;
 import static org.mockito.Mockito.when;
 
 public class Neo4JIndexHandlerTest {
@@ -277,6 +286,46 @@ public class Neo4JIndexHandlerTest {
     assertThat(instance.findByQuickSearch(collection, QuickSearch.fromQueryString("secondValue")).hasNext(), is(true));
   }
 
+  @Test
+  public void upsertIntoQuickSearchIndexUpdatesTheInMemoryIndexAfterCommit() {
+    String id1 = UUID.randomUUID().toString();
+    String id2 = UUID.randomUUID().toString();
+    TinkerPopGraphManager tinkerPopGraphManager = spy(newGraph()
+      .withVertex(v -> v
+        .withTimId(id1)
+        .withProperty("rev", 1)
+        .withProperty("wwkeyword_value", "novel")
+        .withProperty("keyword_type", "genre")
+      )
+      .withVertex(v -> v
+        .withTimId(id2)
+        .withProperty("rev", 1)
+        .withProperty("wwkeyword_value", "novelist")
+        .withProperty("keyword_type", "profession")
+      )
+      .wrap());
+    QuickSearchIndexes quickSearchIndexes = new QuickSearchIndexes(
+      ImmutableQuickSearchIndexConfiguration.builder().isEnabled(true).build()
+    );
+    given(tinkerPopGraphManager.getQuickSearchIndexes()).willReturn(quickSearchIndexes);
+    Collection keywords = mock(Collection.class);
+    when(keywords.getCollectionName()).thenReturn("wwkeywords");
+    QuickSearchIndex index = quickSearchIndexes.getIndex("wwkeywords", idx -> {
+    }).get();
+    Neo4jIndexHandler instance = new Neo4jIndexHandler(tinkerPopGraphManager);
+    Vertex vertex1 = tinkerPopGraphManager.getGraph().traversal().V().has("tim_id", id1).next();
+    Vertex vertex2 = tinkerPopGraphManager.getGraph().traversal().V().has("tim_id", id2).next();
+    instance.upsertIntoQuickSearchIndex(keywords, "novel", vertex1, null);
+    instance.upsertIntoQuickSearchIndex(keywords, "novelist", vertex2, null);
+    assertThat(index.find(QuickSearch.fromQueryString("nov"), null, 10), is(empty()));
+
+    instance.afterCommit();
+
+    List<QuickSearchResult> results = index.find(QuickSearch.fromQueryString("nov"), "genre", 10);
+    assertThat(results.stream().map(QuickSearchResult::getIndexedValue).collect(toList()), contains("novel"));
+    assertThat(results.get(0).getId(), is(UUID.fromString(id1)));
+  }
+
   private void addToQuickSearchIndex(Neo4jIndexHandler instance, Collection collection, Vertex vertex) {
     instance.upsertIntoQuickSearchIndex(collection, vertex.value("displayName"), vertex, null);
   }
@@ -7,6 +7,7 @@ import io.vavr.control.Try;
 import nl.knaw.huygens.timbuctoo.core.AlreadyUpdatedException;
 import nl.knaw.huygens.timbuctoo.core.NotFoundException;
 import nl.knaw.huygens.timbuctoo.core.RelationNotPossibleException;
+import nl.knaw.huygens.timbuctoo.core.dto.CollectionPage;
 import nl.knaw.huygens.timbuctoo.core.dto.CreateEntity;
 import nl.knaw.huygens.timbuctoo.core.dto.CreateRelation;
 import nl.knaw.huygens.timbuctoo.core.dto.DataStream;
@@ -26,7 +27,11 @@ import nl.knaw.huygens.timbuctoo.model.vre.Vre;
 import nl.knaw.huygens.timbuctoo.model.vre.Vres;
 import nl.knaw.huygens.timbuctoo.model.vre.vres.VresBuilder;
 import nl.knaw.huygens.timbuctoo.server.TinkerPopGraphManager;
+import nl.knaw.huygens.timbuctoo.util.TestGraphBuilder;
 import org.apache.tinkerpop.gremlin.neo4j.process.traversal.LabelP;
+import org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.GraphTraversal;
+import org.apache.tinkerpop.gremlin.process.traversal.step.HasContainerHolder;
+import org.apache.tinkerpop.gremlin.process.traversal.step.util.HasContainer;
 import org.apache.tinkerpop.gremlin.structure.Direction;
 import org.apache.tinkerpop.gremlin.structure.Edge;
 import org.apache.tinkerpop.gremlin.structure.Element;
@@ -41,6 +46,7 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 import static java.util.stream.Collectors.toList;
 import static nl.knaw.huygens.hamcrest.OptionalPresentMatcher.present;
@@ -1295,6 +1301,130 @@ public class TinkerPopOperationsTest {
     assertThat(displayNames, containsInAnyOrder("displayName1", "displayName2"));
   }
 
+  @Test
+  public void getCollectionPageReturnsTheEntitiesAfterTheCursor() {
+    Vres vres = createConfiguration();
+    Collection collection = vres.getCollection("testthings").get();
+    TestGraphBuilder graphBuilder = newGraph();
+    for (int i = 0; i < 5; i++) {
+      final String displayName = "displayName" + i;
+      graphBuilder.withVertex(v -> v
+        .withLabel("testthing")
+        .withVre("test")
+        .withType("thing")
+        .isLatest(true)
+        .withTimId(UUID.randomUUID().toString())
+        .withProperty("testthing_displayName", displayName)
+      );
+    }
+    TinkerPopOperations instance = forGraphWrapperAndMappings(graphBuilder.wrap(), vres);
+
+    CollectionPage<ReadEntity> firstPage = instance.getCollectionPage(collection, Optional.empty(), 2, false,
+      (readEntity, vertex) -> {
+      }, (graphTraversalSource, vre, vertex, relationRef) -> {
+      }
+    );
+    CollectionPage<ReadEntity> secondPage = instance.getCollectionPage(collection, firstPage.getNextCursor(), 2, false,
+      (readEntity, vertex) -> {
+      }, (graphTraversalSource, vre, vertex, relationRef) -> {
+      }
+    );
+    CollectionPage<ReadEntity> lastPage = instance.getCollectionPage(collection, secondPage.getNextCursor(), 2, false,
+      (readEntity, vertex) -> {
+      }, (graphTraversalSource, vre, vertex, relationRef) -> {
+      }
+    );
+
+    List<String> displayNames = Stream.of(firstPage, secondPage, lastPage)
+      .flatMap(page -> page.getEntities().stream())
+      .map(ReadEntity::getDisplayName)
+      .collect(toList());
+    assertThat(displayNames, containsInAnyOrder(
+      "displayName0", "displayName1", "displayName2", "displayName3", "displayName4"
+    ));
+    assertThat(lastPage.getEntities(), hasSize(1));
+    assertThat(lastPage.getNextCursor(), is(Optional.empty()));
+  }
+
+  @Test
+  public void getCollectionPageSkipsTheEntitiesThatAreNotLatest() {
+    Vres vres = createConfiguration();
+    Collection collection = vres.getCollection("testthings").get();
+    TinkerPopGraphManager graphManager = newGraph()
+      .withVertex(v -> v
+        .withLabel("testthing")
+        .withVre("test")
+        .withType("thing")
+        .isLatest(false)
+        .withTimId(UUID.randomUUID().toString())
+        .withProperty("testthing_displayName", "oldDisplayName")
+      )
+      .withVertex(v -> v
+        .withLabel("testthing")
+        .withVre("test")
+        .withType("thing")
+        .isLatest(true)
+        .withTimId(UUID.randomUUID().toString())
+        .withProperty("testthing_displayName", "displayName")
+      )
+      .wrap();
+    TinkerPopOperations instance = forGraphWrapperAndMappings(graphManager, vres);
+
+    CollectionPage<ReadEntity> page = instance.getCollectionPage(collection, Optional.empty(), 2, false,
+      (readEntity, vertex) -> {
+      }, (graphTraversalSource, vre, vertex, relationRef) -> {
+      }
+    );
+
+    assertThat(page.getEntities().stream().map(ReadEntity::getDisplayName).collect(toList()),
+      contains("displayName"));
+  }
+
+  @Test
+  public void getCollectionPageSkipsTheEntitiesBeforeTheCursorBeforeCheckingWhetherTheyAreLatest() {
+    Vres vres = createConfiguration();
+    Collection collection = vres.getCollection("testthings").get();
+    TinkerPopGraphManager graphManager = newGraph()
+      .withVertex(v -> v
+        .withLabel("testthing")
+        .withVre("test")
+        .withType("thing")
+        .isLatest(true)
+        .withTimId(UUID.randomUUID().toString())
+        .withProperty("testthing_displayName", "displayName")
+      )
+      .wrap();
+    TinkerPopOperations instance = forGraphWrapperAndMappings(graphManager, vres);
+    Optional<String> cursor = instance.getCollectionPage(collection, Optional.empty(), 1, false,
+      (readEntity, vertex) -> {
+      }, (graphTraversalSource, vre, vertex, relationRef) -> {
+      }
+    ).getNextCursor();
+
+    GraphTraversal<Vertex, Vertex> page = instance.getCollectionPageTraversal("testthing", cursor);
+    page.asAdmin().applyStrategies();
+
+    // the id predicate is part of the label scan and the isLatest check is not a separate filter step
+    assertThat(page.asAdmin().getSteps(), hasSize(1));
+    List<String> keys = ((HasContainerHolder) page.asAdmin().getStartStep()).getHasContainers().stream()
+      .map(HasContainer::getKey)
+      .collect(toList());
+    assertThat(keys, contains(T.label.getAccessor(), T.id.getAccessor(), "isLatest"));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void getCollectionPageThrowsAnIllegalArgumentExceptionForAnInvalidCursor() {
+    Vres vres = createConfiguration();
+    Collection collection = vres.getCollection("testthings").get();
+    TinkerPopOperations instance = forGraphWrapperAndMappings(newGraph().wrap(), vres);
+
+    instance.getCollectionPage(collection, Optional.of("not a cursor"), 2, false,
+      (readEntity, vertex) -> {
+      }, (graphTraversalSource, vre, vertex, relationRef) -> {
+      }
+    );
+  }
+
   @Test
   public void replaceEntityUpdatesTheRevisionByOne() throws Exception {
     Vres vres = createConfiguration();
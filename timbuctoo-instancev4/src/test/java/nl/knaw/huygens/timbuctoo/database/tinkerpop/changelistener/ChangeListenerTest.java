@@ -170,6 +170,7 @@ public class ChangeListenerTest {
       "rollback",
       "getEntity",
       "getCollection",
+      "getCollectionPage",
       "loadVres",
       "databaseIsEmptyExceptForMigrations",
       "initDb",
@@ -0,0 +1,112 @@
+package nl.knaw.huygens.timbuctoo.database.tinkerpop.changelistener;
+
+import nl.knaw.huygens.timbuctoo.core.dto.dataset.Collection;
+import nl.knaw.huygens.timbuctoo.search.facetindex.FacetIndexes;
+import org.apache.tinkerpop.gremlin.structure.Direction;
+import org.apache.tinkerpop.gremlin.structure.Edge;
+import org.apache.tinkerpop.gremlin.structure.Graph;
+import org.apache.tinkerpop.gremlin.structure.Vertex;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+
+import static java.util.Arrays.asList;
+import static nl.knaw.huygens.timbuctoo.util.TestGraphBuilder.newGraph;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.empty;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class FacetIndexChangeListenerTest {
+  private static final Collection NULL_COLLECTION = null;
+  private final List<Long> markedChanged = new ArrayList<>();
+  private FacetIndexes facetIndexes;
+  private FacetIndexChangeListener instance;
+  private Graph graph;
+
+  @Before
+  public void setUp() {
+    facetIndexes = mock(FacetIndexes.class);
+    when(facetIndexes.isEnabled()).thenReturn(true);
+    when(facetIndexes.getRelationNames()).thenReturn(new HashSet<>(asList("isCreatedBy", "hasBirthPlace", "isPartOf")));
+    // the listener clears its set after reporting it
+    doAnswer(invocation -> markedChanged.addAll(invocation.getArgument(0)))
+      .when(facetIndexes).markChanged(anyCollection());
+    instance = new FacetIndexChangeListener(facetIndexes);
+    // the birth place of the author is a derived facet of the document, the country of the birth place a derived facet
+    // of the author. The collection entity node is connected to all the entities of the collection.
+    graph = newGraph()
+      .withVertex("document", v -> v.withTimId("document").withOutgoingRelation("isCreatedBy", "author"))
+      .withVertex("otherDocument", v -> v.withTimId("otherDocument").withOutgoingRelation("isCreatedBy", "otherAuthor"))
+      .withVertex("author", v -> v.withTimId("author").withOutgoingRelation("hasBirthPlace", "place"))
+      .withVertex("otherAuthor", v -> v.withTimId("otherAuthor"))
+      .withVertex("place", v -> v.withTimId("place").withOutgoingRelation("isPartOf", "country"))
+      .withVertex("country", v -> v.withTimId("country"))
+      .withVertex("persons", v -> v.withTimId("persons")
+        .withOutgoingRelation("hasEntity", "author")
+        .withOutgoingRelation("hasEntity", "otherAuthor"))
+      .build();
+  }
+
+  @Test
+  public void changedVerticesMarkTheVerticesUpToTwoRelationsAway() {
+    instance.onPropertyUpdate(NULL_COLLECTION, Optional.empty(), vertex("country"));
+    instance.afterCommit();
+
+    assertThat(markedChanged, containsInAnyOrder(vertex("country").id(), vertex("place").id(), vertex("author").id()));
+  }
+
+  @Test
+  public void changedEdgesMarkTheNeighboursOfBothSides() {
+    Edge hasBirthPlace = vertex("author").edges(Direction.OUT).next();
+
+    instance.onCreateEdge(NULL_COLLECTION, hasBirthPlace);
+    instance.afterCommit();
+
+    assertThat(markedChanged, containsInAnyOrder(
+      vertex("author").id(), vertex("place").id(), vertex("document").id(), vertex("country").id()
+    ));
+  }
+
+  @Test
+  public void changedVerticesDoNotMarkTheEntitiesOfTheirCollection() {
+    instance.onPropertyUpdate(NULL_COLLECTION, Optional.empty(), vertex("author"));
+    instance.afterCommit();
+
+    assertThat(markedChanged, containsInAnyOrder(
+      vertex("author").id(), vertex("document").id(), vertex("place").id(), vertex("country").id()
+    ));
+  }
+
+  @Test
+  public void changedEdgesThatNoFacetFollowsOnlyMarkBothSides() {
+    Edge hasEntity = vertex("persons").edges(Direction.OUT, "hasEntity").next();
+
+    instance.onCreateEdge(NULL_COLLECTION, hasEntity);
+    instance.afterCommit();
+
+    assertThat(markedChanged, containsInAnyOrder(hasEntity.outVertex().id(), hasEntity.inVertex().id()));
+  }
+
+  @Test
+  public void nothingIsMarkedWhenTheFacetIndexIsDisabled() {
+    when(facetIndexes.isEnabled()).thenReturn(false);
+
+    instance.onPropertyUpdate(NULL_COLLECTION, Optional.empty(), vertex("author"));
+    instance.onCreateEdge(NULL_COLLECTION, vertex("author").edges(Direction.OUT).next());
+    instance.afterCommit();
+
+    assertThat(markedChanged, empty());
+  }
+
+  private Vertex vertex(String timId) {
+    return graph.traversal().V().has("tim_id", timId).next();
+  }
+}
@@ -1,5 +1,6 @@
 package nl.knaw.huygens.timbuctoo.database.tinkerpop.conversion.tinkerpop;
 
+import com.google.common.collect.Lists;
 import nl.knaw.huygens.timbuctoo.core.dto.ReadEntity;
 import nl.knaw.huygens.timbuctoo.core.dto.dataset.Collection;
 import nl.knaw.huygens.timbuctoo.core.dto.dataset.CollectionBuilder;
@@ -11,11 +12,18 @@ import org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.GraphTraversalSo
 import org.apache.tinkerpop.gremlin.structure.Vertex;
 import org.junit.Test;
 
+import java.util.List;
 import java.util.UUID;
 
 import static nl.knaw.huygens.timbuctoo.model.properties.PropertyTypes.localProperty;
+import static nl.knaw.huygens.timbuctoo.model.properties.PropertyTypes.wwPersonNameOrTempName;
 import static nl.knaw.huygens.timbuctoo.util.TestGraphBuilder.newGraph;
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.allOf;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.hasProperty;
+import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.is;
 
 public class TinkerPopToEntityMapperTest {
@@ -46,6 +54,113 @@ public class TinkerPopToEntityMapperTest {
     assertThat(readEntity.getId(), is(bogusId));
   }
 
+  @Test
+  public void mapEntityReadsThePropertiesOfTheCollection() {
+    GraphTraversalSource traversalSource = newGraph()
+      .withVertex(v -> v
+        .withType("thing")
+        .withVre("test")
+        .withProperty("isLatest", true)
+        .withProperty("rev", 1)
+        .withProperty("testthing_prop1", "value1")
+        .withProperty("testthing_displayName", "displayName")
+        .withProperty("otherthing_prop2", "otherValue")
+      ).build().traversal();
+
+    Vres vres = createConfiguration();
+    Collection collection = vres.getCollection("testthings").get();
+    TinkerPopToEntityMapper instance = new TinkerPopToEntityMapper(collection, traversalSource, vres);
+
+    ReadEntity readEntity = instance.mapEntity(traversalSource.V().next(), false);
+
+    assertThat(readEntity.getProperties(), contains(
+      allOf(hasProperty("name", equalTo("prop1")), hasProperty("value", equalTo("value1")))
+    ));
+    assertThat(readEntity.getDisplayName(), is("displayName"));
+  }
+
+  @Test
+  public void mapEntitiesReturnsTheRelationsOfEachEntity() {
+    GraphTraversalSource traversalSource = newGraph()
+      .withVertex("thing1", v -> v
+        .withType("thing")
+        .withVre("test")
+        .isLatest(true)
+        .withTimId(UUID.randomUUID().toString())
+        .withOutgoingRelation("isCreatorOf", "stuff1")
+      )
+      .withVertex("thing2", v -> v
+        .withType("thing")
+        .withVre("test")
+        .isLatest(true)
+        .withTimId(UUID.randomUUID().toString())
+        .withOutgoingRelation("isCreatorOf", "stuff2")
+      )
+      .withVertex("stuff1", v -> v
+        .withVre("test")
+        .withType("stuff")
+        .withTimId(UUID.randomUUID().toString())
+      )
+      .withVertex("stuff2", v -> v
+        .withVre("test")
+        .withType("stuff")
+        .withTimId(UUID.randomUUID().toString())
+      )
+      .build().traversal();
+
+    Vres vres = createConfiguration();
+    Collection collection = vres.getCollection("testthings").get();
+    TinkerPopToEntityMapper instance = new TinkerPopToEntityMapper(collection, traversalSource, vres);
+    List<Vertex> things = traversalSource.V().has("isLatest", true).toList();
+
+    List<ReadEntity> readEntities = instance.mapEntities(things, true);
+
+    assertThat(readEntities, hasSize(2));
+    for (int i = 0; i < things.size(); i++) {
+      String expectedStuffId = traversalSource.V(things.get(i).id()).out("isCreatorOf").<String>values("tim_id").next();
+      assertThat(readEntities.get(i).getRelations(), contains(
+        allOf(
+          hasProperty("entityId", equalTo(expectedStuffId)),
+          hasProperty("collectionName", equalTo("teststuffs")),
+          hasProperty("relationType", equalTo("isCreatorOf"))
+        )
+      ));
+    }
+  }
+
+  @Test
+  public void mapEntitiesReadsTheDerivedDisplayNamesOfEachEntityAndRelationTarget() {
+    GraphTraversalSource traversalSource = newGraph()
+      .withVertex("person1", v -> v
+        .withType("person")
+        .withVre("test")
+        .isLatest(true)
+        .withTimId(UUID.randomUUID().toString())
+        .withProperty("wwperson_tempName", "Jane")
+        .withOutgoingRelation("isCreatorOf", "person2")
+      )
+      .withVertex("person2", v -> v
+        .withType("person")
+        .withVre("test")
+        .isLatest(true)
+        .withTimId(UUID.randomUUID().toString())
+        .withProperty("wwperson_tempName", "Emma")
+      )
+      .build().traversal();
+
+    Vres vres = createConfiguration();
+    Collection collection = vres.getCollection("testpersons").get();
+    TinkerPopToEntityMapper instance = new TinkerPopToEntityMapper(collection, traversalSource, vres);
+    Vertex person1 = traversalSource.V().has("wwperson_tempName", "Jane").next();
+    Vertex person2 = traversalSource.V().has("wwperson_tempName", "Emma").next();
+
+    List<ReadEntity> readEntities = instance.mapEntities(Lists.newArrayList(person1, person2), true);
+
+    assertThat(readEntities.get(0).getDisplayName(), is("[TEMP] Jane"));
+    assertThat(readEntities.get(0).getRelations(), contains(hasProperty("displayName", equalTo("[TEMP] Emma"))));
+    assertThat(readEntities.get(1).getDisplayName(), is("[TEMP] Emma"));
+  }
+
   private Vres createConfiguration() {
     return new VresBuilder()
       .withVre("testVre", "test", vre -> vre
@@ -55,6 +170,9 @@ public class TinkerPopToEntityMapperTest {
           .withDisplayName(localProperty("testthing_displayName"))
         )
         .withCollection("teststuffs")
+        .withCollection("testpersons", col -> col
+          .withDisplayName(wwPersonNameOrTempName())
+        )
         .withCollection("testrelations", CollectionBuilder::isRelationCollection)
         .withCollection("testkeywords", col -> col
           .withDisplayName(localProperty("testkeyword_displayName"))
@@ -0,0 +1,104 @@
+package nl.knaw.huygens.timbuctoo.database.tinkerpop.quicksearch;
+
+import nl.knaw.huygens.timbuctoo.core.dto.QuickSearch;
+import nl.knaw.huygens.timbuctoo.core.dto.QuickSearchResult;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.UUID;
+
+import static java.util.stream.Collectors.toList;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.is;
+
+public class QuickSearchIndexTest {
+
+  @Test
+  public void findReturnsTheEntitiesWithATokenThatStartsWithThePartialMatch() {
+    QuickSearchIndex instance = new QuickSearchIndex();
+    put(instance, 1L, "Jane Austen", null);
+    put(instance, 2L, "Charlotte Brontë", null);
+    put(instance, 3L, "Janet Frame", null);
+
+    List<String> result = find(instance, "jan", null, 10);
+
+    assertThat(result, contains("Jane Austen", "Janet Frame"));
+  }
+
+  @Test
+  public void findReturnsTheEntitiesThatMatchAnyOfTheTermsWithTheBestMatchesFirst() {
+    QuickSearchIndex instance = new QuickSearchIndex();
+    put(instance, 1L, "Jane Austen", null);
+    put(instance, 2L, "Janet Frame", null);
+    put(instance, 3L, "Jane Frame", null);
+    put(instance, 4L, "Charlotte Brontë", null);
+
+    List<String> result = find(instance, "jane fr", null, 10);
+
+    assertThat(result, contains("Jane Frame", "Jane Austen", "Janet Frame"));
+  }
+
+  @Test
+  public void findOnlyReturnsTheEntitiesWithTheKeywordType() {
+    QuickSearchIndex instance = new QuickSearchIndex();
+    put(instance, 1L, "novel", "genre");
+    put(instance, 2L, "novelist", "profession");
+
+    List<String> result = find(instance, "nov", "genre", 10);
+
+    assertThat(result, contains("novel"));
+  }
+
+  @Test
+  public void findReturnsTheFirstResultsOrderedByDisplayName() {
+    QuickSearchIndex instance = new QuickSearchIndex();
+    put(instance, 1L, "c", null);
+    put(instance, 2L, "A", null);
+    put(instance, 3L, "b", null);
+
+    List<String> result = find(instance, "", null, 2);
+
+    assertThat(result, contains("A", "b"));
+  }
+
+  @Test
+  public void findMatchesEachValueOfAnEntity() {
+    QuickSearchIndex instance = new QuickSearchIndex();
+    QuickSearchResult result = result("Jane Austen");
+    instance.put(1L, "Austen, Jane Emma", result, null);
+    instance.put(1L, "Austen, Jane Persuasion", result, null);
+
+    assertThat(find(instance, "emma", null, 10), contains("Jane Austen"));
+    assertThat(find(instance, "persuasion", null, 10), contains("Jane Austen"));
+  }
+
+  @Test
+  public void removeRemovesAllTheValuesOfTheEntity() {
+    QuickSearchIndex instance = new QuickSearchIndex();
+    put(instance, 1L, "Jane Austen", null);
+    put(instance, 2L, "Janet Frame", null);
+
+    instance.remove(1L);
+
+    assertThat(find(instance, "austen", null, 10), is(empty()));
+    assertThat(find(instance, "", null, 10), containsInAnyOrder("Janet Frame"));
+    assertThat(instance.size(), is(1));
+  }
+
+  private void put(QuickSearchIndex instance, long vertexId, String value, String keywordType) {
+    instance.put(vertexId, value, result(value), keywordType);
+  }
+
+  private QuickSearchResult result(String displayName) {
+    return QuickSearchResult.create(displayName, UUID.randomUUID(), 1);
+  }
+
+  private List<String> find(QuickSearchIndex instance, String query, String keywordType, int limit) {
+    return instance.find(QuickSearch.fromQueryString(query), keywordType, limit).stream()
+      .map(QuickSearchResult::getIndexedValue)
+      .collect(toList());
+  }
+}
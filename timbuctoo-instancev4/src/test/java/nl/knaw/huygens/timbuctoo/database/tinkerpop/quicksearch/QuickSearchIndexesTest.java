@@ -0,0 +1,122 @@
+package nl.knaw.huygens.timbuctoo.database.tinkerpop.quicksearch;
+
+import nl.knaw.huygens.timbuctoo.core.dto.QuickSearch;
+import nl.knaw.huygens.timbuctoo.core.dto.QuickSearchResult;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static nl.knaw.huygens.hamcrest.OptionalPresentMatcher.present;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.sameInstance;
+
+public class QuickSearchIndexesTest {
+
+  private static final String COLLECTION = "wwpersons";
+
+  @Test
+  public void getIndexBuildsTheIndexOnlyOnce() {
+    QuickSearchIndexes instance = new QuickSearchIndexes(ImmutableQuickSearchIndexConfiguration.builder().build());
+
+    QuickSearchIndex first = instance.getIndex(COLLECTION, index -> index.put(1L, "value", result(), null)).get();
+    QuickSearchIndex second = instance.getIndex(COLLECTION, index -> index.put(2L, "value", result(), null)).get();
+
+    assertThat(second, is(sameInstance(first)));
+    assertThat(second.size(), is(1));
+  }
+
+  @Test
+  public void putAndRemoveIgnoreTheCollectionsWithoutAnIndex() {
+    QuickSearchIndexes instance = new QuickSearchIndexes(ImmutableQuickSearchIndexConfiguration.builder().build());
+
+    instance.put(COLLECTION, 1L, "value", result(), null);
+    instance.remove("wwdocuments", 1L);
+    QuickSearchIndex index = instance.getIndex(COLLECTION, idx -> {
+    }).get();
+
+    assertThat(index.size(), is(0));
+  }
+
+  @Test
+  public void putUpdatesTheIndexOfTheCollection() {
+    QuickSearchIndexes instance = new QuickSearchIndexes(ImmutableQuickSearchIndexConfiguration.builder().build());
+    QuickSearchIndex index = instance.getIndex(COLLECTION, idx -> {
+    }).get();
+
+    instance.put(COLLECTION, 1L, "value", result(), null);
+
+    assertThat(index.find(QuickSearch.fromQueryString("val"), null, 10).size(), is(1));
+  }
+
+  @Test
+  public void deleteDropsTheIndexOfTheCollection() {
+    QuickSearchIndexes instance = new QuickSearchIndexes(ImmutableQuickSearchIndexConfiguration.builder().build());
+    QuickSearchIndex index = instance.getIndex(COLLECTION, idx -> {
+    }).get();
+
+    instance.delete(COLLECTION);
+
+    assertThat(instance.getIndex(COLLECTION, idx -> {
+    }).get(), is(not(sameInstance(index))));
+  }
+
+  @Test
+  public void getIndexReturnsNothingWhileTheIndexIsBuilt() {
+    List<Runnable> builds = new ArrayList<>();
+    QuickSearchIndexes instance =
+      new QuickSearchIndexes(ImmutableQuickSearchIndexConfiguration.builder().build(), builds::add);
+
+    Optional<QuickSearchIndex> whileBuilding = instance.getIndex(COLLECTION, idx -> {
+    });
+    instance.getIndex(COLLECTION, idx -> {
+    });
+    builds.forEach(Runnable::run);
+
+    assertThat(whileBuilding, is(not(present())));
+    assertThat(builds, hasSize(1));
+    assertThat(instance.getIndex(COLLECTION, idx -> {
+    }), is(present()));
+  }
+
+  @Test
+  public void getIndexAppliesTheChangesThatWereCommittedDuringTheBuild() {
+    List<Runnable> builds = new ArrayList<>();
+    QuickSearchIndexes instance =
+      new QuickSearchIndexes(ImmutableQuickSearchIndexConfiguration.builder().build(), builds::add);
+    instance.getIndex(COLLECTION, index -> index.put(1L, "old", result(), null));
+
+    instance.remove(COLLECTION, 1L);
+    instance.put(COLLECTION, 2L, "new", result(), null);
+    builds.forEach(Runnable::run);
+
+    QuickSearchIndex index = instance.getIndex(COLLECTION, idx -> {
+    }).get();
+    assertThat(index.find(QuickSearch.fromQueryString("old"), null, 10), is(empty()));
+    assertThat(index.find(QuickSearch.fromQueryString("new"), null, 10), hasSize(1));
+  }
+
+  @Test
+  public void getIndexStartsANewBuildAfterAFailedOne() {
+    QuickSearchIndexes instance = new QuickSearchIndexes(ImmutableQuickSearchIndexConfiguration.builder().build());
+
+    Optional<QuickSearchIndex> failed = instance.getIndex(COLLECTION, idx -> {
+      throw new IllegalStateException("The graph is closed");
+    });
+    Optional<QuickSearchIndex> retried = instance.getIndex(COLLECTION, idx -> {
+    });
+
+    assertThat(failed, is(not(present())));
+    assertThat(retried, is(present()));
+  }
+
+  private QuickSearchResult result() {
+    return QuickSearchResult.create("value", UUID.randomUUID(), 1);
+  }
+}
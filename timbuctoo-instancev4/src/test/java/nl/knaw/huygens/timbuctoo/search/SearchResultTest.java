@@ -0,0 +1,73 @@
+package nl.knaw.huygens.timbuctoo.search;
+
+import org.apache.tinkerpop.gremlin.neo4j.structure.Neo4jGraph;
+import org.apache.tinkerpop.gremlin.structure.Vertex;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static java.util.stream.Collectors.toList;
+import static nl.knaw.huygens.timbuctoo.util.TestGraphBuilder.newGraph;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+public class SearchResultTest {
+
+  @Test
+  public void getRefsOnlyReadsTheVerticesOfTheRequestedPage() {
+    Neo4jGraph graph = newGraph()
+      .withVertex(v -> v.withTimId("1"))
+      .withVertex(v -> v.withTimId("2"))
+      .withVertex(v -> v.withTimId("3"))
+      .build();
+    List<Vertex> vertices = vertices(graph, "1", "2", "3");
+    SearchDescription description = searchDescription();
+    SearchResult instance = new SearchResult(vertices, description, null);
+
+    List<EntityRef> refs = instance.getRefs(1, 1);
+
+    assertThat(refs, contains(new EntityRef("type", "2")));
+    verify(description, times(1)).createRef(any());
+  }
+
+  @Test
+  public void getRefsSkipsTheVerticesThatHaveBeenRemoved() {
+    Neo4jGraph graph = newGraph()
+      .withVertex(v -> v.withTimId("1"))
+      .withVertex(v -> v.withTimId("2"))
+      .build();
+    List<Vertex> vertices = vertices(graph, "1", "2");
+    SearchResult instance = new SearchResult(vertices, searchDescription(), null);
+
+    graph.traversal().V().has("tim_id", "1").drop().iterate();
+
+    assertThat(instance.getRefs(0, 10), contains(new EntityRef("type", "2")));
+    assertThat(instance.getCount(), is(2));
+  }
+
+  @Test
+  public void getRefsReturnsAnEmptyListForAnEmptyResult() {
+    SearchResult instance = new SearchResult(null, searchDescription(), null);
+
+    assertThat(instance.getRefs(0, 10).isEmpty(), is(true));
+  }
+
+  private List<Vertex> vertices(Neo4jGraph graph, String... timIds) {
+    return Arrays.stream(timIds).map(timId -> graph.traversal().V().has("tim_id", timId).next()).collect(toList());
+  }
+
+  private SearchDescription searchDescription() {
+    SearchDescription description = mock(SearchDescription.class);
+    given(description.createRef(any())).willAnswer(
+      invocation -> new EntityRef("type", invocation.<Vertex>getArgument(0).value("tim_id"))
+    );
+    return description;
+  }
+}
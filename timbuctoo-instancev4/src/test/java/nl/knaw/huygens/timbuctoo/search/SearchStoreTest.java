@@ -1,14 +1,20 @@
 package nl.knaw.huygens.timbuctoo.search;
 
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.MetricRegistry;
 import nl.knaw.huygens.timbuctoo.util.Timeout;
+import nl.knaw.huygens.timbuctoo.util.TestGraphBuilder;
+import org.apache.tinkerpop.gremlin.structure.Vertex;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 import java.util.concurrent.TimeUnit;
 
 import static nl.knaw.huygens.hamcrest.OptionalPresentMatcher.present;
+import static nl.knaw.huygens.timbuctoo.util.TestGraphBuilder.newGraph;
 import static org.hamcrest.CoreMatchers.not;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.equalTo;
@@ -25,7 +31,8 @@ public class SearchStoreTest {
 
   @Before
   public void setUp() throws Exception {
-    instance = new SearchStore(ONE_SECOND_TIMEOUT);
+    instance = new SearchStore(ONE_SECOND_TIMEOUT, ImmutableSearchStoreConfiguration.builder().build(),
+      new MetricRegistry());
     searchResult = new SearchResult(null, null, null);
   }
 
@@ -101,4 +108,48 @@ public class SearchStoreTest {
     assertThat(searchResultAfterTimeout, is(not(present())));
   }
 
+  @Test
+  public void addRemovesTheLeastRecentlyUsedResultsWhenTheMaximumNumberOfVertexIdsIsReached() {
+    MetricRegistry metrics = new MetricRegistry();
+    SearchStore instance = new SearchStore(ONE_SECOND_TIMEOUT,
+      ImmutableSearchStoreConfiguration.builder().maxStoredVertexIds(1).build(), metrics);
+    UUID id1 = instance.add(searchResult);
+    UUID id2 = instance.add(OTHER_SEARCH_RESULT1);
+
+    assertThat(instance.getSearchResult(id1), is(not(present())));
+    assertThat(instance.getSearchResult(id2), is(present()));
+    assertThat(metrics.getGauges().get(MetricRegistry.name(SearchStore.class, "evictions")).getValue(), is(1L));
+  }
+
+  @Test
+  public void addKeepsAResultThatUsesMostOfTheMaximumNumberOfVertexIds() {
+    SearchStore instance = new SearchStore(ONE_SECOND_TIMEOUT,
+      ImmutableSearchStoreConfiguration.builder().maxStoredVertexIds(100).build(), new MetricRegistry());
+    TestGraphBuilder graphBuilder = newGraph();
+    for (int i = 0; i < 60; i++) {
+      graphBuilder.withVertex(v -> { });
+    }
+    List<Vertex> vertices = graphBuilder.build().traversal().V().toList();
+
+    UUID id = instance.add(new SearchResult(vertices, null, null));
+
+    assertThat(instance.getSearchResult(id), is(present()));
+  }
+
+  @Test
+  public void getSearchResultCountsTheHitsAndMisses() {
+    MetricRegistry metrics = new MetricRegistry();
+    SearchStore instance = new SearchStore(ONE_SECOND_TIMEOUT, ImmutableSearchStoreConfiguration.builder().build(),
+      metrics);
+    UUID id = instance.add(searchResult);
+
+    instance.getSearchResult(id);
+    instance.getSearchResult(UUID.randomUUID());
+    instance.getSearchResult(UUID.randomUUID());
+
+    Gauge hits = metrics.getGauges().get(MetricRegistry.name(SearchStore.class, "hits"));
+    Gauge misses = metrics.getGauges().get(MetricRegistry.name(SearchStore.class, "misses"));
+    assertThat(hits.getValue(), is(1L));
+    assertThat(misses.getValue(), is(2L));
+  }
 }
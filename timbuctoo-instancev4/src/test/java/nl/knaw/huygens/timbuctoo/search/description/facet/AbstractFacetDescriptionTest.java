@@ -2,7 +2,6 @@ package nl.knaw.huygens.timbuctoo.search.description.facet;
 
 
 import com.google.common.collect.Lists;
-import com.google.common.collect.Sets;
 import nl.knaw.huygens.timbuctoo.search.FacetValue;
 import nl.knaw.huygens.timbuctoo.search.description.FacetDescription;
 import org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.GraphTraversal;
@@ -13,7 +12,6 @@ import org.mockito.ArgumentCaptor;
 import java.util.Map;
 import java.util.HashMap;
 import java.util.List;
-import java.util.Set;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.equalTo;
@@ -62,8 +60,8 @@ public class AbstractFacetDescriptionTest {
 
     FacetDescription instance = new FacetDescriptionImpl(FACET_NAME, PROPERTY_NAME, facetGetter, propertyValueGetter);
 
-    Map<String, Set<Vertex>> facetCounts = new HashMap<>();
-    facetCounts.put(PROP_VAL, Sets.newHashSet());
+    Map<String, Integer> facetCounts = new HashMap<>();
+    facetCounts.put(PROP_VAL, 1);
 
     Facet result = instance.getFacet(facetCounts);
 
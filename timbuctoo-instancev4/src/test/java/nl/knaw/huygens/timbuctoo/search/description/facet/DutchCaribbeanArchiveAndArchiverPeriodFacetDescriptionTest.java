@@ -12,7 +12,6 @@ import org.junit.Test;
 
 import java.util.HashMap;
 import java.util.List;
-import java.util.Set;
 
 import static nl.knaw.huygens.timbuctoo.search.MockVertexBuilder.vertex;
 import static nl.knaw.huygens.timbuctoo.util.TestGraphBuilder.newGraph;
@@ -239,7 +238,7 @@ public class DutchCaribbeanArchiveAndArchiverPeriodFacetDescriptionTest {
   @Test
   public void getFacetDelegatesToTheFacetGetter() {
     FacetGetter facetGetter = mock(FacetGetter.class);
-    HashMap<String, Set<Vertex>> values = Maps.newHashMap();
+    HashMap<String, Integer> values = Maps.newHashMap();
     Facet facet = mock(Facet.class);
     given(facetGetter.getFacet(FACET_NAME, values)).willReturn(facet);
     DutchCaribbeanArchiveAndArchiverPeriodFacetDescription instance =
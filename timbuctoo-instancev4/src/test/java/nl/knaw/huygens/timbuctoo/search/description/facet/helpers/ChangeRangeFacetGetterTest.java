@@ -2,22 +2,17 @@ package nl.knaw.huygens.timbuctoo.search.description.facet.helpers;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.google.common.collect.Maps;
-import com.google.common.collect.Sets;
 import nl.knaw.huygens.timbuctoo.model.Change;
 import nl.knaw.huygens.timbuctoo.search.description.facet.Facet;
 import nl.knaw.huygens.timbuctoo.search.description.facet.FacetGetter;
-import org.apache.tinkerpop.gremlin.structure.Vertex;
 import org.junit.Test;
 
 import java.time.Instant;
 import java.time.LocalDate;
 import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
-import java.util.List;
 import java.util.Map;
-import java.util.Set;
 
-import static nl.knaw.huygens.timbuctoo.util.TestGraphBuilder.newGraph;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.containsInAnyOrder;
 import static org.hamcrest.Matchers.equalTo;
@@ -28,16 +23,9 @@ public class ChangeRangeFacetGetterTest {
   @Test
   public void getFacetReturnsLowerAndUpperLimitAsZeroWhenValueKeyIsNotParsableAsModifiedProp() {
     FacetGetter instance = new ChangeRangeFacetGetter();
-    Map<String, Set<Vertex>> values = Maps.newHashMap();
-    List<Vertex> vertices1 = newGraph()
-            .withVertex(v -> v.withTimId("1"))
-            .withVertex(v -> v.withTimId("2"))
-            .build().traversal().V().toList();
-    List<Vertex> vertices2 = newGraph()
-            .withVertex(v -> v.withTimId("3"))
-            .build().traversal().V().toList();
-    values.put("val1", Sets.newHashSet(vertices1));
-    values.put("val2", Sets.newHashSet(vertices2));
+    Map<String, Integer> values = Maps.newHashMap();
+    values.put("val1", 2);
+    values.put("val2", 1);
 
     Facet facet = instance.getFacet(FACET_NAME, values);
 
@@ -49,18 +37,11 @@ public class ChangeRangeFacetGetterTest {
   @Test
   public void getFacetReturnsLowerAndUpperLimit() {
     FacetGetter instance = new ChangeRangeFacetGetter();
-    Map<String, Set<Vertex>> values = Maps.newHashMap();
-    List<Vertex> vertices1 = newGraph()
-            .withVertex(v -> v.withTimId("1"))
-            .withVertex(v -> v.withTimId("2"))
-            .build().traversal().V().toList();
-    List<Vertex> vertices2 = newGraph()
-            .withVertex(v -> v.withTimId("3"))
-            .build().traversal().V().toList();
-    values.put(serializedChangeWithDate("20150101"), Sets.newHashSet(vertices1));
-    values.put("{\"nonParsable\": null}", Sets.newHashSet(vertices1));
-    values.put(serializedChangeWithDate("20121231"), Sets.newHashSet(vertices2));
-    values.put(serializedChangeWithDate("20131231"), Sets.newHashSet(vertices2));
+    Map<String, Integer> values = Maps.newHashMap();
+    values.put(serializedChangeWithDate("20150101"), 2);
+    values.put("{\"nonParsable\": null}", 2);
+    values.put(serializedChangeWithDate("20121231"), 1);
+    values.put(serializedChangeWithDate("20131231"), 1);
 
     Facet facet = instance.getFacet(FACET_NAME, values);
 
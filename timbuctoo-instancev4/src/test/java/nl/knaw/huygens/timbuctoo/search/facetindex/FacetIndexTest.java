@@ -0,0 +1,100 @@
+package nl.knaw.huygens.timbuctoo.search.facetindex;
+
+import com.google.common.collect.ImmutableMap;
+import nl.knaw.huygens.timbuctoo.search.description.FacetDescription;
+import nl.knaw.huygens.timbuctoo.search.description.facet.ListFacetDescription;
+import nl.knaw.huygens.timbuctoo.search.description.propertyparser.PropertyParserFactory;
+import nl.knaw.huygens.timbuctoo.server.TinkerPopGraphManager;
+import org.apache.tinkerpop.gremlin.structure.Vertex;
+import org.junit.Test;
+
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.List;
+
+import static java.util.Collections.singletonList;
+import static nl.knaw.huygens.timbuctoo.util.TestGraphBuilder.newGraph;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.arrayContainingInAnyOrder;
+import static org.hamcrest.Matchers.is;
+
+public class FacetIndexTest {
+
+  private static final String TYPE = "wwperson";
+  private static final String FACET_NAME = "dynamic_s_gender";
+  private static final String PROPERTY_NAME = "wwperson_gender";
+
+  @Test
+  public void countCountsTheEntitiesOfTheHitsForEachValue() {
+    TinkerPopGraphManager graphManager = newGraph()
+      .withVertex(v -> v.withLabel(TYPE).isLatest(true).withProperty(PROPERTY_NAME, "MALE"))
+      .withVertex(v -> v.withLabel(TYPE).isLatest(true).withProperty(PROPERTY_NAME, "MALE"))
+      .withVertex(v -> v.withLabel(TYPE).isLatest(true).withProperty(PROPERTY_NAME, "FEMALE"))
+      .withVertex(v -> v.withLabel(TYPE).isLatest(false).withProperty(PROPERTY_NAME, "FEMALE"))
+      .withVertex(v -> v.withLabel("wwdocument").isLatest(true).withProperty(PROPERTY_NAME, "FEMALE"))
+      .wrap();
+    FacetIndex instance = new FacetIndex(TYPE, facetDescriptions(), 0);
+
+    instance.build(graphManager);
+
+    assertThat(instance.count(FACET_NAME, instance.getEntities()), is(ImmutableMap.of("MALE", 2, "FEMALE", 1)));
+  }
+
+  @Test
+  public void getMatchingReturnsTheEntitiesWithAMatchingValue() {
+    TinkerPopGraphManager graphManager = newGraph()
+      .withVertex("male", v -> v.withLabel(TYPE).isLatest(true).withProperty(PROPERTY_NAME, "MALE"))
+      .withVertex("female", v -> v.withLabel(TYPE).isLatest(true).withProperty(PROPERTY_NAME, "FEMALE"))
+      .wrap();
+    FacetIndex instance = new FacetIndex(TYPE, facetDescriptions(), 0);
+    instance.build(graphManager);
+
+    BitSet matching = instance.getMatching(FACET_NAME, "FEMALE"::equals);
+
+    Object femaleId = graphManager.getGraph().traversal().V().has(PROPERTY_NAME, "FEMALE").next().id();
+    assertThat(instance.getVertexIds(matching), arrayContainingInAnyOrder(femaleId));
+    assertThat(instance.count(FACET_NAME, matching), is(ImmutableMap.of("FEMALE", 1)));
+  }
+
+  @Test
+  public void refreshReadsTheChangedVerticesAgain() {
+    TinkerPopGraphManager graphManager = newGraph()
+      .withVertex(v -> v.withLabel(TYPE).isLatest(true).withProperty(PROPERTY_NAME, "MALE"))
+      .withVertex(v -> v.withLabel(TYPE).isLatest(true).withProperty(PROPERTY_NAME, "MALE"))
+      .wrap();
+    FacetIndex instance = new FacetIndex(TYPE, facetDescriptions(), 0);
+    instance.build(graphManager);
+    List<Vertex> vertices = graphManager.getGraph().traversal().V().toList();
+    Vertex changed = vertices.get(0);
+    changed.property(PROPERTY_NAME, "FEMALE");
+    Vertex removed = vertices.get(1);
+    removed.property("isLatest", false);
+
+    instance.markChanged(singletonList((Long) changed.id()));
+    instance.markChanged(singletonList((Long) removed.id()));
+    instance.refresh(graphManager);
+
+    assertThat(instance.count(FACET_NAME, instance.getEntities()), is(ImmutableMap.of("FEMALE", 1)));
+    assertThat(instance.getRemovedCount(), is(2));
+  }
+
+  @Test
+  public void getEntitiesIgnoresTheVerticesThatAreNotInTheIndex() {
+    TinkerPopGraphManager graphManager = newGraph()
+      .withVertex(v -> v.withLabel(TYPE).isLatest(true).withProperty(PROPERTY_NAME, "MALE"))
+      .withVertex(v -> v.withLabel("wwdocument").isLatest(true))
+      .wrap();
+    FacetIndex instance = new FacetIndex(TYPE, facetDescriptions(), 0);
+    instance.build(graphManager);
+
+    BitSet entities = instance.getEntities(graphManager.getGraph().traversal().V().toList());
+
+    assertThat(entities, is(instance.getEntities()));
+  }
+
+  private List<FacetDescription> facetDescriptions() {
+    return Collections.singletonList(
+      new ListFacetDescription(FACET_NAME, PROPERTY_NAME, new PropertyParserFactory().getParser(String.class))
+    );
+  }
+}
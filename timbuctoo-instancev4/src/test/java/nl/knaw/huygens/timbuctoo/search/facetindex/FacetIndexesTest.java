@@ -0,0 +1,47 @@
+package nl.knaw.huygens.timbuctoo.search.facetindex;
+
+import nl.knaw.huygens.timbuctoo.server.TinkerPopGraphManager;
+import org.junit.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collections;
+
+import static nl.knaw.huygens.timbuctoo.util.TestGraphBuilder.newGraph;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+
+public class FacetIndexesTest {
+
+  private static final String TYPE = "wwperson";
+
+  @Test
+  public void getIndexReusesTheIndexOfTheType() {
+    TinkerPopGraphManager graphManager = newGraph().wrap();
+    FacetIndexes instance = new FacetIndexes(ImmutableFacetIndexConfiguration.builder().build());
+
+    FacetIndex first = instance.getIndex(TYPE, Collections.emptyList(), graphManager);
+    FacetIndex second = instance.getIndex(TYPE, Collections.emptyList(), graphManager);
+
+    assertThat(second, is(sameInstance(first)));
+  }
+
+  @Test
+  public void getIndexRebuildsTheIndexWhenItIsOlderThanTheMaximumAge() {
+    TinkerPopGraphManager graphManager = newGraph().wrap();
+    Clock clock = mock(Clock.class);
+    Instant now = Instant.now();
+    given(clock.millis()).willReturn(now.toEpochMilli(), now.plus(Duration.ofMinutes(61)).toEpochMilli());
+    FacetIndexes instance = new FacetIndexes(ImmutableFacetIndexConfiguration.builder().build(), clock);
+
+    FacetIndex first = instance.getIndex(TYPE, Collections.emptyList(), graphManager);
+    FacetIndex second = instance.getIndex(TYPE, Collections.emptyList(), graphManager);
+
+    assertThat(second, is(not(sameInstance(first))));
+  }
+}
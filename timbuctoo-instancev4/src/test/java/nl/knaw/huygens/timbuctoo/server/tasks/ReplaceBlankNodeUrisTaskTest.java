@@ -0,0 +1,71 @@
+package nl.knaw.huygens.timbuctoo.server.tasks;
+
+import com.google.common.collect.ImmutableMultimap;
+import nl.knaw.huygens.timbuctoo.v5.dataset.DataSetRepository;
+import nl.knaw.huygens.timbuctoo.v5.dataset.dto.DataSet;
+import nl.knaw.huygens.timbuctoo.v5.dataset.dto.DataSetMetaData;
+import nl.knaw.huygens.timbuctoo.v5.datastores.implementations.bdb.BdbQuadIndex;
+import nl.knaw.huygens.timbuctoo.v5.datastores.implementations.bdb.BdbQuadStore;
+import nl.knaw.huygens.timbuctoo.v5.datastores.implementations.bdb.BdbTruePatchStore;
+import nl.knaw.huygens.timbuctoo.v5.datastores.implementations.bdb.UpdatedPerPatchStore;
+import nl.knaw.huygens.timbuctoo.v5.datastores.quadstore.dto.CursorQuad;
+import org.junit.Test;
+import org.mockito.InOrder;
+
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.util.stream.Stream;
+
+import static java.util.Collections.singletonList;
+import static nl.knaw.huygens.timbuctoo.v5.datastores.quadstore.dto.Direction.OUT;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class ReplaceBlankNodeUrisTaskTest {
+  private static final String BLANK_NODE = "BlankNode:file/b1";
+  private static final String REPLACEMENT = "http://example.org/.well-known/genid/8c7dd922ad47494fc02c388e12c00eac_b1";
+
+  @Test
+  public void updatesTheQuadIndexWithTheQuadStore() throws Exception {
+    BdbQuadStore quadStore = mock(BdbQuadStore.class);
+    when(quadStore.getAllQuads()).thenAnswer(inv -> Stream.of(
+      CursorQuad.create(BLANK_NODE, "http://example.org/name", OUT, "Alice", "http://www.w3.org/2001/XMLSchema#string",
+        null, ""),
+      CursorQuad.create("http://example.org/1", "http://example.org/name", OUT, "Bob", null, null, "")
+    ));
+    when(quadStore.deleteQuad(anyString(), anyString(), any(), anyString(), any(), any())).thenReturn(true);
+    when(quadStore.putQuad(anyString(), anyString(), any(), anyString(), any(), any())).thenReturn(true);
+    BdbQuadIndex quadIndex = mock(BdbQuadIndex.class);
+    UpdatedPerPatchStore updatedPerPatchStore = mock(UpdatedPerPatchStore.class);
+    when(updatedPerPatchStore.getVersions()).thenAnswer(inv -> Stream.empty());
+    DataSetMetaData metadata = mock(DataSetMetaData.class);
+    when(metadata.getBaseUri()).thenReturn("http://example.org/");
+    DataSet dataSet = mock(DataSet.class);
+    when(dataSet.getMetadata()).thenReturn(metadata);
+    when(dataSet.getQuadStore()).thenReturn(quadStore);
+    when(dataSet.getQuadIndex()).thenReturn(quadIndex);
+    when(dataSet.getTruePatchStore()).thenReturn(mock(BdbTruePatchStore.class));
+    when(dataSet.getUpdatedPerPatchStore()).thenReturn(updatedPerPatchStore);
+    DataSetRepository dataSetRepository = mock(DataSetRepository.class);
+    when(dataSetRepository.getDataSets()).thenReturn(singletonList(dataSet));
+    ReplaceBlankNodeUrisTask instance = new ReplaceBlankNodeUrisTask(dataSetRepository);
+
+    instance.execute(ImmutableMultimap.of(), new PrintWriter(new StringWriter()));
+
+    InOrder inOrder = inOrder(quadIndex);
+    inOrder.verify(quadIndex).start();
+    inOrder.verify(quadIndex).delete(BLANK_NODE, "http://example.org/name", OUT, "Alice",
+      "http://www.w3.org/2001/XMLSchema#string", null);
+    inOrder.verify(quadIndex).put(REPLACEMENT, "http://example.org/name", OUT, "Alice",
+      "http://www.w3.org/2001/XMLSchema#string", null);
+    inOrder.verify(quadIndex).applyCountChanges();
+    inOrder.verify(quadIndex).commit();
+    verify(quadIndex, never()).delete(
+      "http://example.org/1", "http://example.org/name", OUT, "Bob", null, null);
+  }
+}
@@ -242,7 +242,7 @@ public class IntegrationTest {
             )
         ).toString(), MediaType.APPLICATION_JSON));
 
-    assertThat(queryData.readEntity(ObjectNode.class), is(jsnO(
+    assertThat(readData(queryData), is(jsnO(
         "data",
         jsnO(
             "dataSets",
@@ -303,7 +303,7 @@ public class IntegrationTest {
             )
         ).toString(), MediaType.APPLICATION_JSON));
 
-    assertThat(queryData.readEntity(ObjectNode.class), is(jsnO(
+    assertThat(readData(queryData), is(jsnO(
         "data",
         jsnO(
             "dataSets",
@@ -347,7 +347,7 @@ public class IntegrationTest {
             )
         ).toString(), MediaType.APPLICATION_JSON));
 
-    assertThat(queryData.readEntity(ObjectNode.class), is(jsnO(
+    assertThat(readData(queryData), is(jsnO(
         "data",
         jsnO(
             "dataSets",
@@ -880,7 +880,7 @@ public class IntegrationTest {
       ).toString(), MediaType.valueOf("application/json")));
 
     assertThat(graphQlCall.getStatus(), is(200));
-    assertThat(graphQlCall.readEntity(ObjectNode.class), is(jsnO(
+    assertThat(readData(graphQlCall), is(jsnO(
       "data",
       jsnO("setViewConfig", jsnA(
         jsnO(
@@ -1170,7 +1170,7 @@ public class IntegrationTest {
         "operationName", jsn("Provenance")
       ).toString(), MediaType.APPLICATION_JSON));
 
-    assertThat(mutation.readEntity(ObjectNode.class), is(jsnO(
+    assertThat(readData(mutation), is(jsnO(
       "data",
       jsnO(
         "dataSets",
@@ -1226,7 +1226,7 @@ public class IntegrationTest {
         )
       ).toString(), MediaType.APPLICATION_JSON));
 
-    assertThat(queryAfterMutation.readEntity(ObjectNode.class), is(jsnO(
+    assertThat(readData(queryAfterMutation), is(jsnO(
       "data",
       jsnO(
         "dataSets",
@@ -1261,6 +1261,15 @@ public class IntegrationTest {
     )));
   }
 
+  /**
+   * @return the response without the extensions (i.e. the cost of a GraphQL query)
+   */
+  private ObjectNode readData(Response response) {
+    ObjectNode objectNode = response.readEntity(ObjectNode.class);
+    objectNode.remove("extensions");
+    return objectNode;
+  }
+
   private String createDataSetId(String dataSetName) {
     return PREFIX + "__" + dataSetName;
   }
@@ -1344,7 +1353,7 @@ public class IntegrationTest {
       ).toString(), MediaType.valueOf("application/json")));
 
     assertThat(graphQlCall.getStatus(), is(200));
-    assertThat(graphQlCall.readEntity(ObjectNode.class), is(jsnO(
+    assertThat(readData(graphQlCall), is(jsnO(
       "data",
       jsnO(
         "setIndexConfig", jsnO(
@@ -1440,7 +1449,7 @@ public class IntegrationTest {
       ).toString(), MediaType.valueOf("application/json")));
 
     assertThat(graphQlCall.getStatus(), is(200));
-    assertThat(graphQlCall.readEntity(ObjectNode.class), is(jsnO(
+    assertThat(readData(graphQlCall), is(jsnO(
       "data",
       jsnO(
         "createDataSet", jsnO(
@@ -1471,6 +1480,9 @@ public class IntegrationTest {
 
     assertThat(graphQlCall.getStatus(), is(200));
     ObjectNode metaData = graphQlCall.readEntity(ObjectNode.class);
+    assertThat(metaData.remove("extensions"), is(jsnO(
+      "cost", jsnO("estimated", jsn(2), "actual", jsn(2))
+    )));
     assertThat(metaData, is(
       jsnO(
         "data", jsnO(
@@ -1506,7 +1518,7 @@ public class IntegrationTest {
       ).toString(), MediaType.valueOf("application/json")));
 
     assertThat(createCall.getStatus(), is(200));
-    assertThat(createCall.readEntity(ObjectNode.class), is(jsnO(
+    assertThat(readData(createCall), is(jsnO(
       "data",
       jsnO(
         "createDataSet", jsnO(
@@ -1559,7 +1571,7 @@ public class IntegrationTest {
       ).toString(), MediaType.valueOf("application/json")));
 
     assertThat(deleteCall.getStatus(), is(200));
-    assertThat(deleteCall.readEntity(ObjectNode.class), is(jsnO(
+    assertThat(readData(deleteCall), is(jsnO(
       "data",
       jsnO(
         "deleteDataSet", jsnO(
@@ -1644,7 +1656,7 @@ public class IntegrationTest {
         )
       ).toString(), MediaType.valueOf("application/json")));
 
-    assertThat(checkPublishedCall.readEntity(ObjectNode.class), is(jsnO(
+    assertThat(readData(checkPublishedCall), is(jsnO(
       "data",
       jsnO(
         "dataSetMetadata", jsnO(
@@ -1750,7 +1762,7 @@ public class IntegrationTest {
         )
       ).toString(), MediaType.APPLICATION_JSON));
 
-    assertThat(queryData.readEntity(ObjectNode.class), is(jsnO(
+    assertThat(readData(queryData), is(jsnO(
       "data",
       jsnO(
         "dataSets",
@@ -1817,7 +1829,7 @@ public class IntegrationTest {
         )
       ).toString(), MediaType.APPLICATION_JSON));
 
-    assertThat(queryData.readEntity(ObjectNode.class), is(jsnO(
+    assertThat(readData(queryData), is(jsnO(
       "data",
       jsnO(
         "dataSets",
@@ -1878,7 +1890,7 @@ public class IntegrationTest {
         "operationName", jsn("Create")
       ).toString(), MediaType.APPLICATION_JSON));
 
-    assertThat(create.readEntity(ObjectNode.class), is(jsnO(
+    assertThat(readData(create), is(jsnO(
       "data",
       jsnO(
         "dataSets",
@@ -1957,7 +1969,7 @@ public class IntegrationTest {
         )
       ).toString(), MediaType.APPLICATION_JSON));
 
-    ObjectNode queryAfterCreateNode = queryAfterCreate.readEntity(ObjectNode.class);
+    ObjectNode queryAfterCreateNode = readData(queryAfterCreate);
     JsonNode hasAdditionListNode = queryAfterCreateNode
       .get("data")
       .get("dataSets")
@@ -2094,7 +2106,7 @@ public class IntegrationTest {
         )
       ).toString(), MediaType.APPLICATION_JSON));
 
-    assertThat(queryData.readEntity(ObjectNode.class), is(jsnO(
+    assertThat(readData(queryData), is(jsnO(
       "data",
       jsnO(
         "dataSets",
@@ -2170,7 +2182,7 @@ public class IntegrationTest {
         "operationName", jsn("Edit")
       ).toString(), MediaType.APPLICATION_JSON));
 
-    assertThat(edit.readEntity(ObjectNode.class), is(jsnO(
+    assertThat(readData(edit), is(jsnO(
       "data",
       jsnO(
         "dataSets",
@@ -2277,7 +2289,7 @@ public class IntegrationTest {
         )
       ).toString(), MediaType.APPLICATION_JSON));
 
-    assertThat(queryAfterEdit.readEntity(ObjectNode.class), is(jsnO(
+    assertThat(readData(queryAfterEdit), is(jsnO(
       "data",
       jsnO(
         "dataSets",
@@ -2399,7 +2411,7 @@ public class IntegrationTest {
         )
       ).toString(), MediaType.APPLICATION_JSON));
 
-    assertThat(queryData.readEntity(ObjectNode.class), is(jsnO(
+    assertThat(readData(queryData), is(jsnO(
       "data",
       jsnO(
         "dataSets",
@@ -2448,7 +2460,7 @@ public class IntegrationTest {
         "operationName", jsn("Delete")
       ).toString(), MediaType.APPLICATION_JSON));
 
-    assertThat(edit.readEntity(ObjectNode.class), is(jsnO(
+    assertThat(readData(edit), is(jsnO(
       "data",
       jsnO(
         "dataSets",
@@ -2490,7 +2502,7 @@ public class IntegrationTest {
         )
       ).toString(), MediaType.APPLICATION_JSON));
 
-    assertThat(queryOnEntityAfterDelete.readEntity(ObjectNode.class), is(jsnO(
+    assertThat(readData(queryOnEntityAfterDelete), is(jsnO(
       "data",
       jsnO(
         "dataSets",
@@ -2553,7 +2565,7 @@ public class IntegrationTest {
         )
       ).toString(), MediaType.APPLICATION_JSON));
 
-    ObjectNode queryAfterDeleteNode = queryProvAfterDelete.readEntity(ObjectNode.class);
+    ObjectNode queryAfterDeleteNode = readData(queryProvAfterDelete);
     JsonNode hasDeletionList = queryAfterDeleteNode
       .get("data")
       .get("dataSets")
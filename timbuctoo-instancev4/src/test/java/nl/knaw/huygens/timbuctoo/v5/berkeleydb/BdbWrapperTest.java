@@ -129,6 +129,24 @@ public class BdbWrapperTest {
     }
   }
 
+  @Test
+  public void batchedWritesReportTheSameChangesAsSingleWrites() throws Exception {
+    database.startBatch();
+    final boolean existingAdded = database.put("ab", "bb");
+    final boolean newAdded = database.put("ab", "cc");
+    final boolean existingDeleted = database.delete("aa", "bb");
+    final boolean missingDeleted = database.delete("aa", "zz");
+    database.finishBatch();
+
+    assertThat(existingAdded, is(false));
+    assertThat(newAdded, is(true));
+    assertThat(existingDeleted, is(true));
+    assertThat(missingDeleted, is(false));
+    try (Stream<String> values = database.databaseGetter().getAll().getValues(database.valueRetriever())) {
+      assertThat(values.collect(toList()), contains("ac", "bb", "bc", "cc", "dd", "bb"));
+    }
+  }
+
   @Test
   public void getAllItems() throws Exception {
     final Stream<String> stream = database.databaseGetter()
@@ -208,6 +226,55 @@ public class BdbWrapperTest {
     assertThat(count, is(2L));
   }
 
+  @Test
+  public void getAllItemsWithSameBytePrefix() throws Exception {
+    final long count = database.databaseGetter()
+      .keyPrefix("a", 1)
+      .dontSkip()
+      .forwards()
+      .count();
+    assertThat(count, is(5L));
+  }
+
+  @Test
+  public void existsChecksForItemsWithoutDeserializingThem() throws Exception {
+    assertThat(database.databaseGetter().key("ab").dontSkip().forwards().exists(), is(true));
+    assertThat(database.databaseGetter().key("ac").dontSkip().forwards().exists(), is(false));
+    assertThat(database.databaseGetter().keyPrefix("c", 1).dontSkip().forwards().exists(), is(false));
+  }
+
+  @Test
+  public void getEntriesDecodesOnlyWhatIsNeeded() throws Exception {
+    try (Stream<String> values = database.databaseGetter()
+      .key("ab")
+      .dontSkip()
+      .forwards()
+      .getEntries((key, value) -> STRING_BINDER.entryToObject(value))) {
+      assertThat(values.collect(toList()), contains("ac", "bb", "bc", "dd"));
+    }
+  }
+
+  @Test
+  public void getEntriesSkipsTheEntriesTheConverterReturnsNullFor() throws Exception {
+    try (Stream<String> values = database.databaseGetter()
+      .getAll()
+      .getEntries((key, value) -> {
+        final String keyString = STRING_BINDER.entryToObject(key);
+        return keyString.equals("ab") ? null : keyString;
+      })) {
+      assertThat(values.collect(toList()), contains("aa", "bb"));
+    }
+  }
+
+  @Test
+  public void getEntriesDoesNotReturnIsClean() throws Exception {
+    database.beginTransaction();
+    database.put("ab", "cd");
+    database.commit();
+
+    assertThat(database.databaseGetter().getAll().count(), is(7L));
+  }
+
   @Test
   public void isCleanWhenTheDatabaseContainsNoData() throws Exception {
     BdbWrapper emptyDatabase = creator.getDatabase(
@@ -4,6 +4,7 @@ import com.google.common.collect.Sets;
 import com.google.common.io.Files;
 import nl.knaw.huygens.timbuctoo.v5.dataset.dto.DataSet;
 import nl.knaw.huygens.timbuctoo.v5.dataset.dto.DataSetMetaData;
+import nl.knaw.huygens.timbuctoo.v5.dataset.dto.LazyDataSet;
 import nl.knaw.huygens.timbuctoo.v5.dataset.exceptions.DataSetCreationException;
 import nl.knaw.huygens.timbuctoo.v5.dataset.exceptions.NotEnoughPermissionsException;
 import nl.knaw.huygens.timbuctoo.v5.datastorage.DataStorage;
@@ -23,8 +24,10 @@ import java.io.IOException;
 import java.util.concurrent.Executors;
 
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.instanceOf;
 import static org.hamcrest.Matchers.is;
 import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.notNullValue;
 import static org.hamcrest.Matchers.sameInstance;
 import static org.mockito.BDDMockito.given;
 import static org.mockito.Mockito.RETURNS_DEEP_STUBS;
@@ -44,6 +47,10 @@ public class DataSetRepositoryTest {
   }
 
   private DataSetRepository createDataSetRepo() throws IOException {
+    return createDataSetRepo(0);
+  }
+
+  private DataSetRepository createDataSetRepo(int maxOpenDataSets) throws IOException {
     permissionFetcher = mock(PermissionFetcher.class);
     return new DataSetRepository(
       Executors.newSingleThreadExecutor(),
@@ -52,7 +59,15 @@ public class DataSetRepositoryTest {
       new TimbuctooRdfIdHelper("http://example.org/timbuctoo/"),
       combinedId -> {
       },
-      false, new FileSystemDataStorage(tempFile.getAbsolutePath(), mock(RdfIoFactory.class, RETURNS_DEEP_STUBS))
+      false,
+      ImmutableDataSetConfiguration.builder()
+        .dataStorage(
+          new FileSystemDataStorage(tempFile.getAbsolutePath(), mock(RdfIoFactory.class, RETURNS_DEEP_STUBS))
+        )
+        .importBatchSize(1000)
+        .listenerPartitions(2)
+        .maxOpenDataSets(maxOpenDataSets)
+        .build()
     );
   }
 
@@ -179,4 +194,61 @@ public class DataSetRepositoryTest {
     assertThat(metadata.isPublished(), is(true));
   }
 
+  @Test
+  public void lazyDataSetsAreOpenedWhenTheyAreUsed() throws Exception {
+    dataSetRepository = createDataSetRepo(1);
+
+    DataSet dataSet = dataSetRepository.createDataSet(User.create(null, "user"), "dataset");
+
+    assertThat(dataSet, is(instanceOf(LazyDataSet.class)));
+    assertThat(((LazyDataSet) dataSet).isOpen(), is(false));
+    assertThat(dataSet.getQuadStore(), is(notNullValue()));
+    assertThat(((LazyDataSet) dataSet).isOpen(), is(true));
+  }
+
+  @Test
+  public void lazyDataSetsCloseTheLeastRecentlyUsedDataSetAndReopenItWhenItIsUsedAgain() throws Exception {
+    dataSetRepository = createDataSetRepo(1);
+    LazyDataSet first = (LazyDataSet) dataSetRepository.createDataSet(User.create(null, "user"), "first");
+    LazyDataSet second = (LazyDataSet) dataSetRepository.createDataSet(User.create(null, "user"), "second");
+
+    waitForImports(first);
+    waitForImports(second);
+
+    assertThat(first.isOpen(), is(false));
+    assertThat(second.isOpen(), is(true));
+
+    assertThat(first.getQuadStore(), is(notNullValue()));
+
+    assertThat(first.isOpen(), is(true));
+    assertThat(second.isOpen(), is(false));
+  }
+
+  @Test
+  public void lazyDataSetsThatWereAccessedDuringARunningUseAreNotClosed() throws Exception {
+    dataSetRepository = createDataSetRepo(1);
+    LazyDataSet first = (LazyDataSet) dataSetRepository.createDataSet(User.create(null, "user"), "first");
+    LazyDataSet second = (LazyDataSet) dataSetRepository.createDataSet(User.create(null, "user"), "second");
+    waitForImports(first);
+    waitForImports(second);
+
+    try (DataSetRepository.DataSetUse use = dataSetRepository.startUse()) {
+      assertThat(first.getQuadStore(), is(notNullValue()));
+      assertThat(second.getQuadStore(), is(notNullValue()));
+
+      assertThat(first.isOpen(), is(true));
+      assertThat(second.isOpen(), is(true));
+    }
+
+    LazyDataSet third = (LazyDataSet) dataSetRepository.createDataSet(User.create(null, "user"), "third");
+    waitForImports(third);
+
+    assertThat(first.isOpen(), is(false));
+    assertThat(second.isOpen(), is(false));
+  }
+
+  private void waitForImports(DataSet dataSet) throws Exception {
+    // opening a data set processes its unprocessed logs, a data set is not closed while that is running
+    dataSet.getImportManager().processLogs().get();
+  }
 }
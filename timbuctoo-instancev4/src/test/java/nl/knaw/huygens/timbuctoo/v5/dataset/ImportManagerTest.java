@@ -25,6 +25,7 @@ import java.io.IOException;
 import java.util.Optional;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.hamcrest.MatcherAssert.assertThat;
@@ -109,6 +110,63 @@ public class ImportManagerTest {
     assertThat(status.hasErrors(), is(false));
   }
 
+  @Test
+  public void theImportStatusCanBeReadWhileTheImportSucceededListenersRun() throws Exception {
+    File file = FileHelpers.getFileFromResource(ImportManagerTest.class, "clusius.ttl").toFile();
+    AtomicBoolean statusWasRead = new AtomicBoolean(false);
+    importManager.subscribeImportSucceeded(() -> {
+      Thread reader = new Thread(importManager::getImportStatus);
+      reader.start();
+      try {
+        reader.join(5000);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+      statusWasRead.set(!reader.isAlive());
+    });
+
+    importManager.addLog(
+      "http://example.com/baseUri",
+      "http://example.com/defaultGraph",
+      "http://example.com/clusius.ttl",
+      new FileInputStream(file),
+      Optional.of(Charsets.UTF_8),
+      MediaType.valueOf("text/turtle")
+    ).get();
+
+    assertThat(statusWasRead.get(), is(true));
+  }
+
+  @Test
+  public void callsStoresFromAPipelinedImport() throws Exception {
+    ImportManager importManager = new ImportManager(
+      JsonFileBackedData.getOrCreate(logListLocation, LogList::new, new TypeReference<LogList>() {
+      }),
+      fileStorage,
+      fileStorage,
+      fileStorage,
+      Executors.newSingleThreadExecutor(),
+      new Rdf4jIoFactory(),
+      () -> { },
+      true
+    );
+    File file = FileHelpers.getFileFromResource(ImportManagerTest.class, "clusius.ttl").toFile();
+    CountingProcessor processor = new CountingProcessor();
+    importManager.subscribeToRdf(processor);
+
+    Future<ImportStatus> promise = importManager.addLog(
+      "http://example.com/baseUri",
+      "http://example.com/defaultGraph",
+      "http://example.com/clusius.ttl",
+      new FileInputStream(file),
+      Optional.of(Charsets.UTF_8),
+      MediaType.valueOf("text/turtle")
+    );
+    ImportStatus status = promise.get();
+    assertThat(processor.getCounter(), is(28));
+    assertThat(status.hasErrors(), is(false));
+  }
+
   @Test
   public void generateLogSavesTheLogAndCallsTheStores() throws Exception {
     String defaultGraph = "http://example.com/defaultGraph";
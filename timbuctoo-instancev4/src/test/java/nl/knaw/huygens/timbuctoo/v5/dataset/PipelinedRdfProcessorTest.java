@@ -0,0 +1,64 @@
+package nl.knaw.huygens.timbuctoo.v5.dataset;
+
+import nl.knaw.huygens.timbuctoo.v5.dataset.exceptions.RdfProcessingFailedException;
+import org.junit.Test;
+import org.mockito.InOrder;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+public class PipelinedRdfProcessorTest {
+
+  @Test
+  public void appliesAllCallsInOrderBeforeCommitting() throws Exception {
+    RdfProcessor processor = mock(RdfProcessor.class);
+    PipelinedRdfProcessor instance = new PipelinedRdfProcessor(processor, 2, 1);
+
+    instance.start(3);
+    instance.setPrefix("ex", "http://example.org/");
+    instance.onQuad(true, "http://example.org/s1", "http://example.org/p", "http://example.org/o", null, null, null);
+    instance.onQuad(false, "http://example.org/s2", "http://example.org/p", "val", "http://example.org/dt", null, null);
+    instance.addRelation("http://example.org/s3", "http://example.org/p", "http://example.org/o", null);
+    instance.commit();
+
+    InOrder inOrder = inOrder(processor);
+    inOrder.verify(processor).start(3);
+    inOrder.verify(processor).setPrefix("ex", "http://example.org/");
+    inOrder.verify(processor)
+      .onQuad(true, "http://example.org/s1", "http://example.org/p", "http://example.org/o", null, null, null);
+    inOrder.verify(processor)
+      .onQuad(false, "http://example.org/s2", "http://example.org/p", "val", "http://example.org/dt", null, null);
+    inOrder.verify(processor).addRelation("http://example.org/s3", "http://example.org/p", "http://example.org/o", null);
+    inOrder.verify(processor).commit();
+  }
+
+  @Test(expected = RdfProcessingFailedException.class)
+  public void commitThrowsWhenTheProcessorFailed() throws Exception {
+    RdfProcessor processor = mock(RdfProcessor.class);
+    doThrow(new RdfProcessingFailedException(new RuntimeException()))
+      .when(processor).onQuad(anyBoolean(), anyString(), anyString(), anyString(), any(), any(), any());
+    PipelinedRdfProcessor instance = new PipelinedRdfProcessor(processor, 1, 1);
+
+    instance.start(0);
+    instance.onQuad(true, "http://example.org/s1", "http://example.org/p", "http://example.org/o", null, null, null);
+    instance.commit();
+  }
+
+  @Test
+  public void closeStopsAnUncommittedImportWithoutCommitting() throws Exception {
+    RdfProcessor processor = mock(RdfProcessor.class);
+    PipelinedRdfProcessor instance = new PipelinedRdfProcessor(processor, 1, 1);
+
+    instance.start(0);
+    instance.onQuad(true, "http://example.org/s1", "http://example.org/p", "http://example.org/o", null, null, null);
+    instance.close();
+
+    verify(processor, never()).commit();
+  }
+}
@@ -0,0 +1,179 @@
+package nl.knaw.huygens.timbuctoo.v5.datastores.implementations.bdb;
+
+import com.google.common.base.Strings;
+import com.sleepycat.bind.tuple.TupleBinding;
+import nl.knaw.huygens.timbuctoo.v5.berkeleydb.isclean.IsCleanHandler;
+import nl.knaw.huygens.timbuctoo.v5.berkeleydb.isclean.StringStringIsCleanHandler;
+import nl.knaw.huygens.timbuctoo.v5.datastores.quadstore.dto.CursorQuad;
+import nl.knaw.huygens.timbuctoo.v5.datastores.quadstore.dto.Direction;
+import nl.knaw.huygens.timbuctoo.v5.dropwizard.BdbNonPersistentEnvironmentCreator;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static java.util.stream.Collectors.toList;
+import static nl.knaw.huygens.timbuctoo.v5.datastores.quadstore.dto.CursorQuad.create;
+import static nl.knaw.huygens.timbuctoo.v5.util.RdfConstants.LANGSTRING;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.is;
+
+public class BdbQuadIndexTest {
+  private static final String EX = "http://example.org/";
+  private static final TupleBinding<String> STRING_BINDING = TupleBinding.getPrimitiveBinding(String.class);
+  private static final TupleBinding<Long> LONG_BINDING = TupleBinding.getPrimitiveBinding(Long.class);
+  private BdbNonPersistentEnvironmentCreator databaseCreator;
+  private BdbQuadIndex quadIndex;
+
+  @Before
+  public void setUp() throws Exception {
+    databaseCreator = new BdbNonPersistentEnvironmentCreator();
+    final StringStringIsCleanHandler isCleanHandler = new StringStringIsCleanHandler();
+    quadIndex = new BdbQuadIndex(
+      databaseCreator.getDatabase("user", "dataSet", "quadsByPredicate", true, STRING_BINDING, STRING_BINDING,
+        isCleanHandler),
+      databaseCreator.getDatabase("user", "dataSet", "quadsByObject", true, STRING_BINDING, STRING_BINDING,
+        isCleanHandler),
+      databaseCreator.getDatabase("user", "dataSet", "quadCounts", false, STRING_BINDING, LONG_BINDING,
+        new IsCleanHandler<String, Long>() {
+          @Override
+          public String getKey() {
+            return "isClean";
+          }
+
+          @Override
+          public Long getValue() {
+            return Long.MAX_VALUE;
+          }
+        })
+    );
+    quadIndex.put(EX + "subject1", EX + "name", Direction.OUT, "Walter", LANGSTRING, "en");
+    quadIndex.put(EX + "subject2", EX + "name", Direction.OUT, "Walter", LANGSTRING, "en");
+    quadIndex.put(EX + "subject3", EX + "name", Direction.OUT, "Gauthier", null, null);
+    quadIndex.put(EX + "subject3", EX + "name", Direction.OUT, "Gualterus", null, null);
+    quadIndex.put(EX + "subject3", EX + "knows", Direction.OUT, EX + "subject1", null, null);
+    quadIndex.put(EX + "subject1", EX + "knows", Direction.IN, EX + "subject3", null, null);
+    quadIndex.applyCountChanges();
+  }
+
+  @After
+  public void tearDown() throws Exception {
+    databaseCreator.close();
+  }
+
+  @Test
+  public void getQuadsByValueReturnsTheSubjectsWithThatValue() {
+    try (Stream<CursorQuad> quads = quadIndex.getQuadsByValue(EX + "name", "Walter", "")) {
+      assertThat(quads.collect(toList()), contains(
+        create(EX + "subject1", EX + "name", Direction.OUT, "Walter", LANGSTRING, "en", ""),
+        create(EX + "subject2", EX + "name", Direction.OUT, "Walter", LANGSTRING, "en", "")
+      ));
+    }
+  }
+
+  @Test
+  public void getQuadsByValueContinuesFromTheCursor() {
+    String cursor;
+    try (Stream<CursorQuad> quads = quadIndex.getQuadsByValue(EX + "name", "Walter", "")) {
+      cursor = quads.findFirst().get().getCursor();
+    }
+
+    try (Stream<CursorQuad> quads = quadIndex.getQuadsByValue(EX + "name", "Walter", "A\n" + cursor)) {
+      assertThat(quads.collect(toList()), contains(
+        create(EX + "subject2", EX + "name", Direction.OUT, "Walter", LANGSTRING, "en", "")
+      ));
+    }
+  }
+
+  @Test
+  public void getQuadsByPredicateReturnsAllQuadsOfThePredicateOrderedByObject() {
+    try (Stream<CursorQuad> quads = quadIndex.getQuadsByPredicate(EX + "name")) {
+      assertThat(quads.collect(toList()), contains(
+        create(EX + "subject3", EX + "name", Direction.OUT, "Gauthier", null, null, ""),
+        create(EX + "subject3", EX + "name", Direction.OUT, "Gualterus", null, null, ""),
+        create(EX + "subject1", EX + "name", Direction.OUT, "Walter", LANGSTRING, "en", ""),
+        create(EX + "subject2", EX + "name", Direction.OUT, "Walter", LANGSTRING, "en", "")
+      ));
+    }
+  }
+
+  @Test
+  public void getQuadsByObjectOnlyContainsOutQuads() {
+    try (Stream<CursorQuad> quads = quadIndex.getQuadsByObject(EX + "subject1", "")) {
+      assertThat(quads.collect(toList()), contains(
+        create(EX + "subject3", EX + "knows", Direction.OUT, EX + "subject1", null, null, "")
+      ));
+    }
+  }
+
+  @Test
+  public void deleteRemovesTheQuadFromAllIndices() throws Exception {
+    quadIndex.delete(EX + "subject3", EX + "name", Direction.OUT, "Gauthier", null, null);
+
+    try (Stream<CursorQuad> quads = quadIndex.getQuadsByValue(EX + "name", "Gauthier", "")) {
+      assertThat(quads.collect(toList()), empty());
+    }
+    try (Stream<CursorQuad> quads = quadIndex.getQuadsByObject("Gauthier", "")) {
+      assertThat(quads.collect(toList()), empty());
+    }
+  }
+
+  @Test
+  public void getQuadCountReturnsTheNumberOfQuadsPerSubjectPredicateAndDirection() {
+    assertThat(quadIndex.getQuadCount(EX + "subject3", EX + "name", Direction.OUT), is(Optional.of(2L)));
+    assertThat(quadIndex.getQuadCount(EX + "subject1", EX + "knows", Direction.IN), is(Optional.of(1L)));
+    assertThat(quadIndex.getQuadCount(EX + "subject1", EX + "knows", Direction.OUT), is(Optional.of(0L)));
+  }
+
+  @Test
+  public void getQuadCountIncludesTheAppliedDeletions() throws Exception {
+    quadIndex.delete(EX + "subject3", EX + "name", Direction.OUT, "Gauthier", null, null);
+    quadIndex.delete(EX + "subject1", EX + "knows", Direction.IN, EX + "subject3", null, null);
+    quadIndex.applyCountChanges();
+
+    assertThat(quadIndex.getQuadCount(EX + "subject3", EX + "name", Direction.OUT), is(Optional.of(1L)));
+    assertThat(quadIndex.getQuadCount(EX + "subject1", EX + "knows", Direction.IN), is(Optional.of(0L)));
+  }
+
+  @Test
+  public void indexWritesTheCountsWhileTheQuadsAreIndexed() throws Exception {
+    List<CursorQuad> quads = new ArrayList<>();
+    for (int i = 0; i < BdbQuadIndex.MAX_COUNT_CHANGES; i++) {
+      quads.add(create(EX + "person" + i, EX + "name", Direction.OUT, "Walter", null, null, ""));
+    }
+    // the count of the last person changes again after the changes were written
+    quads.add(create(EX + "person" + (BdbQuadIndex.MAX_COUNT_CHANGES - 1), EX + "name", Direction.OUT, "Wouter", null,
+      null, ""));
+
+    quadIndex.index(quads.stream());
+
+    assertThat(quadIndex.getQuadCount(EX + "person0", EX + "name", Direction.OUT), is(Optional.of(1L)));
+    assertThat(
+      quadIndex.getQuadCount(EX + "person" + (BdbQuadIndex.MAX_COUNT_CHANGES - 1), EX + "name", Direction.OUT),
+      is(Optional.of(2L))
+    );
+  }
+
+  @Test
+  public void longObjectsAreReturnedWholeAndOnlyForTheirOwnValue() throws Exception {
+    String prefix = Strings.repeat("a", BdbQuadIndex.MAX_OBJECT_KEY_LENGTH);
+    quadIndex.put(EX + "subject4", EX + "text", Direction.OUT, prefix + "\nfirst", null, null);
+    quadIndex.put(EX + "subject5", EX + "text", Direction.OUT, prefix + "\nsecond", null, null);
+
+    try (Stream<CursorQuad> quads = quadIndex.getQuadsByValue(EX + "text", prefix + "\nfirst", "")) {
+      assertThat(quads.collect(toList()), contains(
+        create(EX + "subject4", EX + "text", Direction.OUT, prefix + "\nfirst", null, null, "")
+      ));
+    }
+    quadIndex.delete(EX + "subject5", EX + "text", Direction.OUT, prefix + "\nsecond", null, null);
+    try (Stream<CursorQuad> quads = quadIndex.getQuadsByObject(prefix + "\nsecond", "")) {
+      assertThat(quads.collect(toList()), empty());
+    }
+  }
+}
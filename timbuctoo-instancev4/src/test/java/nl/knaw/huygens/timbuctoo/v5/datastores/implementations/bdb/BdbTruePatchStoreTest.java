@@ -0,0 +1,135 @@
+package nl.knaw.huygens.timbuctoo.v5.datastores.implementations.bdb;
+
+import com.sleepycat.bind.tuple.TupleBinding;
+import nl.knaw.huygens.timbuctoo.v5.berkeleydb.BdbWrapper;
+import nl.knaw.huygens.timbuctoo.v5.berkeleydb.isclean.IsCleanHandler;
+import nl.knaw.huygens.timbuctoo.v5.berkeleydb.isclean.StringStringIsCleanHandler;
+import nl.knaw.huygens.timbuctoo.v5.datastores.quadstore.dto.ChangeType;
+import nl.knaw.huygens.timbuctoo.v5.datastores.quadstore.dto.CursorQuad;
+import nl.knaw.huygens.timbuctoo.v5.datastores.quadstore.dto.Direction;
+import nl.knaw.huygens.timbuctoo.v5.dropwizard.BdbNonPersistentEnvironmentCreator;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.stream.Stream;
+
+import static java.util.stream.Collectors.toList;
+import static nl.knaw.huygens.timbuctoo.v5.datastores.quadstore.dto.CursorQuad.create;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.is;
+
+public class BdbTruePatchStoreTest {
+  private static final String EX = "http://example.org/";
+  private static final TupleBinding<String> STRING_BINDING = TupleBinding.getPrimitiveBinding(String.class);
+  private BdbNonPersistentEnvironmentCreator databaseCreator;
+  private BdbTruePatchStore truePatchStore;
+  private UpdatedPerPatchStore updatedPerPatchStore;
+
+  @Before
+  public void setUp() throws Exception {
+    databaseCreator = new BdbNonPersistentEnvironmentCreator();
+    updatedPerPatchStore = new UpdatedPerPatchStore(databaseCreator.getDatabase(
+      "user",
+      "dataSet",
+      "updatedPerPatch",
+      true,
+      TupleBinding.getPrimitiveBinding(Integer.class),
+      STRING_BINDING,
+      new IsCleanHandler<Integer, String>() {
+        @Override
+        public Integer getKey() {
+          return Integer.MAX_VALUE;
+        }
+
+        @Override
+        public String getValue() {
+          return "isClean";
+        }
+      }
+    ));
+    truePatchStore = new BdbTruePatchStore(
+      databaseCreator.getDatabase(
+        "user",
+        "dataSet",
+        "truePatchByVersion",
+        true,
+        STRING_BINDING,
+        STRING_BINDING,
+        new StringStringIsCleanHandler()
+      ),
+      updatedPerPatchStore,
+      BdbTruePatchStore.legacyDatabases(databaseCreator, "user", "dataSet")
+    );
+
+    change(1, EX + "subject2", EX + "name", true, "Walter");
+    change(1, EX + "subject1", EX + "name", true, "Gauthier");
+    change(1, EX + "subject1", EX + "name", false, "Walter");
+    change(2, EX + "subject1", EX + "name", false, "Gauthier");
+  }
+
+  @After
+  public void tearDown() throws Exception {
+    databaseCreator.close();
+  }
+
+  @Test
+  public void getChangesOfVersionReturnsTheAssertionsInSubjectOrder() {
+    try (Stream<CursorQuad> changes = truePatchStore.getChangesOfVersion(1, true)) {
+      assertThat(changes.collect(toList()), contains(
+        quad(EX + "subject1", ChangeType.ASSERTED, "Gauthier"),
+        quad(EX + "subject2", ChangeType.ASSERTED, "Walter")
+      ));
+    }
+  }
+
+  @Test
+  public void getChangesOfVersionReturnsOnlyTheRetractionsOfThatVersion() {
+    try (Stream<CursorQuad> changes = truePatchStore.getChangesOfVersion(1, false)) {
+      assertThat(changes.collect(toList()), contains(
+        quad(EX + "subject1", ChangeType.RETRACTED, "Walter")
+      ));
+    }
+    try (Stream<CursorQuad> changes = truePatchStore.getChangesOfVersion(2, true)) {
+      assertThat(changes.collect(toList()), empty());
+    }
+  }
+
+  @Test
+  public void getChangesOfVersionReturnsNothingForAnUnknownVersion() {
+    try (Stream<CursorQuad> changes = truePatchStore.getChangesOfVersion(3, true)) {
+      assertThat(changes.collect(toList()), empty());
+    }
+  }
+
+  @Test
+  public void migrateMovesTheChangesOfTheLegacyDatabases() throws Exception {
+    BdbWrapper<String, String> legacy = BdbTruePatchStore.legacyDatabases(databaseCreator, "user", "dataSet").open("2");
+    legacy.beginTransaction();
+    legacy.put(EX + "subject3\n2\n1", EX + "name\n1\n\n\nGualterus");
+    legacy.commit();
+    legacy.close();
+    assertThat(truePatchStore.hasLegacyDatabases(), is(true));
+
+    truePatchStore.migrate();
+
+    assertThat(truePatchStore.hasLegacyDatabases(), is(false));
+    try (Stream<CursorQuad> changes = truePatchStore.getChangesOfVersion(2, true)) {
+      assertThat(changes.collect(toList()), contains(
+        quad(EX + "subject3", ChangeType.ASSERTED, "Gualterus")
+      ));
+    }
+  }
+
+  private void change(int version, String subject, String predicate, boolean isAssertion, String value)
+    throws Exception {
+    truePatchStore.put(subject, version, predicate, Direction.OUT, isAssertion, value, null, null);
+    updatedPerPatchStore.put(version, subject);
+  }
+
+  private CursorQuad quad(String subject, ChangeType changeType, String value) {
+    return create(subject, EX + "name", Direction.OUT, changeType, value, null, null, "");
+  }
+}
@@ -31,16 +31,20 @@ public class ChangeFetcherImplTest {
       TupleBinding.getPrimitiveBinding(String.class),
       TupleBinding.getPrimitiveBinding(String.class),
       new StringStringIsCleanHandler()
-    ));
-    final BdbTruePatchStore truePatchStore = new BdbTruePatchStore(version -> databaseCreator.getDatabase(
-      "a",
-      "b",
-      "truePatch" + version,
-      true,
-      TupleBinding.getPrimitiveBinding(String.class),
-      TupleBinding.getPrimitiveBinding(String.class),
-      new StringStringIsCleanHandler()
-    ), updatedPerPatchStore);
+    ), mock(BdbQuadIndex.class));
+    final BdbTruePatchStore truePatchStore = new BdbTruePatchStore(
+      databaseCreator.getDatabase(
+        "a",
+        "b",
+        "truePatchByVersion",
+        true,
+        TupleBinding.getPrimitiveBinding(String.class),
+        TupleBinding.getPrimitiveBinding(String.class),
+        new StringStringIsCleanHandler()
+      ),
+      updatedPerPatchStore,
+      BdbTruePatchStore.legacyDatabases(databaseCreator, "a", "b")
+    );
 
     bdbTripleStore.putQuad("subj", "pred", OUT, "obj", null, null);
     truePatchStore.put("subj", 0, "pred", OUT, true, "obj", null, null);
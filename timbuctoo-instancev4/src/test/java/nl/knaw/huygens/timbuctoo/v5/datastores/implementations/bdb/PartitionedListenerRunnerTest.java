@@ -0,0 +1,104 @@
+package nl.knaw.huygens.timbuctoo.v5.datastores.implementations.bdb;
+
+import com.google.common.collect.Lists;
+import nl.knaw.huygens.timbuctoo.v5.dataset.ChangeFetcher;
+import nl.knaw.huygens.timbuctoo.v5.dataset.PartitionedPatchListener;
+import nl.knaw.huygens.timbuctoo.v5.dataset.exceptions.RdfProcessingFailedException;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.Mockito.mock;
+
+public class PartitionedListenerRunnerTest {
+
+  @Test
+  public void thePartitionsOfTheRangesAreMergedInOrder() throws Exception {
+    CollectingListener listener = new CollectingListener(null);
+    try (PartitionedListenerRunner instance =
+           new PartitionedListenerRunner(Lists.newArrayList(listener), mock(ChangeFetcher.class), 3, 7)) {
+      for (int i = 0; i < 100; i++) {
+        instance.onChangedSubject("http://example.org/" + i);
+      }
+      instance.finish();
+    }
+
+    String[] expected = new String[100];
+    for (int i = 0; i < 100; i++) {
+      expected[i] = "http://example.org/" + i;
+    }
+    assertThat(listener.merged, contains(expected));
+    assertThat(listener.mergeCount, is(15)); // 14 ranges of 7 subjects and 1 of 2
+  }
+
+  @Test(expected = RdfProcessingFailedException.class)
+  public void finishThrowsTheFailureOfAPartition() throws Exception {
+    CollectingListener listener = new CollectingListener("http://example.org/5");
+    try (PartitionedListenerRunner instance =
+           new PartitionedListenerRunner(Lists.newArrayList(listener), mock(ChangeFetcher.class), 2, 1)) {
+      for (int i = 0; i < 10; i++) {
+        instance.onChangedSubject("http://example.org/" + i);
+      }
+      instance.finish();
+    }
+  }
+
+  private static class CollectingListener implements PartitionedPatchListener<CollectingPartition> {
+    private final String failOn;
+    private final List<String> merged = new ArrayList<>();
+    private int mergeCount = 0;
+
+    private CollectingListener(String failOn) {
+      this.failOn = failOn;
+    }
+
+    @Override
+    public CollectingPartition createPartition() {
+      return new CollectingPartition(failOn);
+    }
+
+    @Override
+    public void merge(CollectingPartition partition) {
+      mergeCount++;
+      merged.addAll(partition.subjects);
+    }
+
+    @Override
+    public void start() {
+    }
+
+    @Override
+    public void onChangedSubject(String subject, ChangeFetcher changeFetcher) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void notifyUpdate() {
+    }
+
+    @Override
+    public void finish() {
+    }
+  }
+
+  private static class CollectingPartition implements PartitionedPatchListener.Partition {
+    private final String failOn;
+    private final List<String> subjects = new ArrayList<>();
+
+    private CollectingPartition(String failOn) {
+      this.failOn = failOn;
+    }
+
+    @Override
+    public void onChangedSubject(String subject, ChangeFetcher changeFetcher) throws RdfProcessingFailedException {
+      if (subject.equals(failOn)) {
+        throw new RdfProcessingFailedException(new RuntimeException(subject));
+      }
+      subjects.add(subject);
+    }
+  }
+}
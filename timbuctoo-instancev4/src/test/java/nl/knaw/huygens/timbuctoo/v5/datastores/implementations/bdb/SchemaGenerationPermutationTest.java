@@ -280,7 +280,7 @@ public class SchemaGenerationPermutationTest {
       STRING_BINDING,
       STRING_BINDING,
       STRING_IS_CLEAN_HANDLER
-    ));
+    ), mock(BdbQuadIndex.class));
     final BdbTypeNameStore typeNameStore = new BdbTypeNameStore(
       new BdbBackedData(dataStoreFactory.getDatabase(
         USER,
@@ -316,16 +316,18 @@ public class SchemaGenerationPermutationTest {
         }
       )
     );
-    final BdbTruePatchStore truePatchStore = new BdbTruePatchStore(version ->
-        dataStoreFactory.getDatabase(
-            USER,
-            DATA_SET,
-            "truePatch" + version,
-            true,
-            STRING_BINDING,
-            STRING_BINDING,
-            STRING_IS_CLEAN_HANDLER
-        ), updatedPerPatchStore
+    final BdbTruePatchStore truePatchStore = new BdbTruePatchStore(
+      dataStoreFactory.getDatabase(
+        USER,
+        DATA_SET,
+        "truePatchByVersion",
+        true,
+        STRING_BINDING,
+        STRING_BINDING,
+        STRING_IS_CLEAN_HANDLER
+      ),
+      updatedPerPatchStore,
+      BdbTruePatchStore.legacyDatabases(dataStoreFactory, USER, DATA_SET)
     );
     final BdbRmlDataSourceStore rmlDataSourceStore = new BdbRmlDataSourceStore(
       dataStoreFactory.getDatabase(
@@ -361,12 +363,15 @@ public class SchemaGenerationPermutationTest {
 
     return new StoreUpdater(
       quadStore,
+      mock(BdbQuadIndex.class),
       typeNameStore,
       truePatchStore,
       updatedPerPatchStore,
       Lists.newArrayList(schema, rmlDataSourceStore),
       versionStore,
-      mock(ImportStatus.class)
+      mock(ImportStatus.class),
+      1000,
+      2
     );
   }
 
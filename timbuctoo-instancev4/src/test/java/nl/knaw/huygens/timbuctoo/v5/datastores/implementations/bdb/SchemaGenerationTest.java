@@ -468,7 +468,7 @@ public class SchemaGenerationTest {
       STRING_BINDING,
       STRING_BINDING,
       STRING_IS_CLEAN_HANDLER
-    ));
+    ), mock(BdbQuadIndex.class));
     final BdbTypeNameStore typeNameStore = new BdbTypeNameStore(
       new BdbBackedData(dataStoreFactory.getDatabase(
         USER,
@@ -504,16 +504,18 @@ public class SchemaGenerationTest {
         }
       )
     );
-    final BdbTruePatchStore truePatchStore = new BdbTruePatchStore(version ->
-        dataStoreFactory.getDatabase(
-            USER,
-            DATA_SET,
-            "truePatch" + version,
-            true,
-            STRING_BINDING,
-            STRING_BINDING,
-            STRING_IS_CLEAN_HANDLER
-        ), updatedPerPatchStore
+    final BdbTruePatchStore truePatchStore = new BdbTruePatchStore(
+      dataStoreFactory.getDatabase(
+        USER,
+        DATA_SET,
+        "truePatchByVersion",
+        true,
+        STRING_BINDING,
+        STRING_BINDING,
+        STRING_IS_CLEAN_HANDLER
+      ),
+      updatedPerPatchStore,
+      BdbTruePatchStore.legacyDatabases(dataStoreFactory, USER, DATA_SET)
     );
     final BdbRmlDataSourceStore rmlDataSourceStore = new BdbRmlDataSourceStore(
       dataStoreFactory.getDatabase(
@@ -549,12 +551,15 @@ public class SchemaGenerationTest {
 
     return new StoreUpdater(
       quadStore,
+      mock(BdbQuadIndex.class),
       typeNameStore,
       truePatchStore,
       updatedPerPatchStore,
       Lists.newArrayList(schema, rmlDataSourceStore),
       versionStore,
-      mock(ImportStatus.class)
+      mock(ImportStatus.class),
+      1000,
+      2
     );
   }
 }
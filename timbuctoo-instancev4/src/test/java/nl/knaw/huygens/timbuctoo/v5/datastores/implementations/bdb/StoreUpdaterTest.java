@@ -97,12 +97,15 @@ public class StoreUpdaterTest {
     UpdatedPerPatchStore updatedPerPatchStore = mock(UpdatedPerPatchStore.class);
     return new StoreUpdater(
       bdbTripleStore,
+      mock(BdbQuadIndex.class),
       bdbTypeNameStore,
       bdbTruePatchStore,
       updatedPerPatchStore,
       listeners,
       versionStore,
-      importStatus
+      importStatus,
+      1000,
+      1
     );
   }
 
@@ -0,0 +1,106 @@
+package nl.knaw.huygens.timbuctoo.v5.datastores.implementations.bdb;
+
+import com.sleepycat.bind.tuple.TupleBinding;
+import nl.knaw.huygens.timbuctoo.v5.berkeleydb.BdbWrapper;
+import nl.knaw.huygens.timbuctoo.v5.berkeleydb.exceptions.DatabaseWriteException;
+import nl.knaw.huygens.timbuctoo.v5.berkeleydb.isclean.IsCleanHandler;
+import nl.knaw.huygens.timbuctoo.v5.dropwizard.BdbNonPersistentEnvironmentCreator;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.fail;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doCallRealMethod;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.spy;
+
+public class TermDictionaryTest {
+  private BdbNonPersistentEnvironmentCreator databaseCreator;
+  private BdbWrapper<String, Integer> idsByTerm;
+  private BdbWrapper<Integer, String> termsById;
+
+  @Before
+  public void setUp() throws Exception {
+    databaseCreator = new BdbNonPersistentEnvironmentCreator();
+    idsByTerm = databaseCreator.getDatabase(
+      "userId",
+      "dataSetId",
+      "termIds",
+      false,
+      TupleBinding.getPrimitiveBinding(String.class),
+      TupleBinding.getPrimitiveBinding(Integer.class),
+      new IsCleanHandler<String, Integer>() {
+        @Override
+        public String getKey() {
+          return "\nisClean";
+        }
+
+        @Override
+        public Integer getValue() {
+          return Integer.MAX_VALUE;
+        }
+      }
+    );
+    termsById = spy(databaseCreator.getDatabase(
+      "userId",
+      "dataSetId",
+      "terms",
+      false,
+      TupleBinding.getPrimitiveBinding(Integer.class),
+      TupleBinding.getPrimitiveBinding(String.class),
+      new IsCleanHandler<Integer, String>() {
+        @Override
+        public Integer getKey() {
+          return -1;
+        }
+
+        @Override
+        public String getValue() {
+          return "isClean";
+        }
+      }
+    ));
+  }
+
+  @After
+  public void cleanUp() throws Exception {
+    databaseCreator.close();
+  }
+
+  @Test
+  public void continuesNumberingAfterACommit() throws Exception {
+    TermDictionary terms = new TermDictionary(idsByTerm, termsById);
+    terms.start();
+    terms.getOrCreateId("http://example.org/1");
+    terms.getOrCreateId("http://example.org/2");
+    terms.commit();
+
+    TermDictionary reopened = new TermDictionary(idsByTerm, termsById);
+    reopened.start();
+
+    assertThat(reopened.getOrCreateId("http://example.org/3"), is(3));
+    assertThat(reopened.getId("http://example.org/1"), is(1));
+  }
+
+  @Test
+  public void doesNotUseUpAnIdWhenTheTermCouldNotBeStored() throws Exception {
+    TermDictionary terms = new TermDictionary(idsByTerm, termsById);
+    terms.start();
+    doThrow(new DatabaseWriteException(new RuntimeException()))
+      .when(termsById).put(eq(1), any());
+    try {
+      terms.getOrCreateId("http://example.org/failing");
+      fail("Expected a DatabaseWriteException");
+    } catch (DatabaseWriteException e) {
+      // expected
+    }
+    doCallRealMethod().when(termsById).put(eq(1), any());
+
+    assertThat(terms.getId("http://example.org/failing"), is(TermDictionary.NO_TERM));
+    assertThat(terms.getOrCreateId("http://example.org/stored"), is(1));
+  }
+}
@@ -41,15 +41,19 @@ public class ChangeListBuilderTest {
     when(updatedPerPatchStore.getVersions()).thenReturn(IntStream.of(1).boxed());
 
     BdbNonPersistentEnvironmentCreator dataStoreFactory = new BdbNonPersistentEnvironmentCreator();
-    BdbTruePatchStore bdbTruePatchStore = new BdbTruePatchStore(version -> dataStoreFactory.getDatabase(
-      "user",
-      "dataSet",
-      "schema" + version,
-      false,
-      TupleBinding.getPrimitiveBinding(String.class),
-      TupleBinding.getPrimitiveBinding(String.class),
-      new StringStringIsCleanHandler()
-    ), updatedPerPatchStore);
+    BdbTruePatchStore bdbTruePatchStore = new BdbTruePatchStore(
+      dataStoreFactory.getDatabase(
+        "user",
+        "dataSet",
+        "truePatchByVersion",
+        false,
+        TupleBinding.getPrimitiveBinding(String.class),
+        TupleBinding.getPrimitiveBinding(String.class),
+        new StringStringIsCleanHandler()
+      ),
+      updatedPerPatchStore,
+      BdbTruePatchStore.legacyDatabases(dataStoreFactory, "user", "dataSet")
+    );
 
     int version = 1;
     bdbTruePatchStore.put("s1", version, "p1", Direction.OUT, true, "o1", null, null);
@@ -155,6 +155,26 @@ public class BdbNonPersistentEnvironmentCreator implements BdbEnvironmentCreator
 
   }
 
+  @Override
+  public boolean databaseExists(String ownerId, String dataSetId, String databaseName) {
+    return databases.containsKey(environmentKey(ownerId, dataSetId) + "_" + databaseName);
+  }
+
+  @Override
+  public void removeDatabase(String ownerId, String dataSetId, String databaseName) throws BdbDbCreationException {
+    final String environmentKey = environmentKey(ownerId, dataSetId);
+    try {
+      if (databases.containsKey(environmentKey + "_" + databaseName)) {
+        databases.remove(environmentKey + "_" + databaseName).close();
+      }
+      if (environmentMap.containsKey(environmentKey)) {
+        environmentMap.get(environmentKey).removeDatabase(null, databaseName);
+      }
+    } catch (DatabaseException e) {
+      throw new BdbDbCreationException(e);
+    }
+  }
+
   @Override
   public void closeDatabase(String ownerId, String dataSetId, String dataStore) {
     throw new UnsupportedOperationException("Not yet implemented");//FIXME: implement
@@ -0,0 +1,146 @@
+package nl.knaw.huygens.timbuctoo.v5.dropwizard.endpoints;
+
+import com.google.common.collect.ImmutableMap;
+import nl.knaw.huygens.timbuctoo.v5.dataset.DataSetRepository;
+import nl.knaw.huygens.timbuctoo.v5.dataset.dto.DataSet;
+import nl.knaw.huygens.timbuctoo.v5.dataset.dto.DataSetMetaData;
+import nl.knaw.huygens.timbuctoo.v5.datastores.quadstore.QuadStore;
+import nl.knaw.huygens.timbuctoo.v5.datastores.quadstore.dto.CursorQuad;
+import nl.knaw.huygens.timbuctoo.v5.datastores.schemastore.SchemaStore;
+import nl.knaw.huygens.timbuctoo.v5.datastores.schemastore.dto.Type;
+import nl.knaw.huygens.timbuctoo.v5.security.UserValidator;
+import org.junit.Before;
+import org.junit.Test;
+
+import javax.ws.rs.core.Response;
+import javax.ws.rs.core.StreamingOutput;
+import java.io.ByteArrayOutputStream;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static com.google.common.collect.Lists.newArrayList;
+import static nl.knaw.huygens.timbuctoo.v5.datastores.quadstore.dto.Direction.IN;
+import static nl.knaw.huygens.timbuctoo.v5.datastores.quadstore.dto.Direction.OUT;
+import static nl.knaw.huygens.timbuctoo.v5.util.RdfConstants.RDF_TYPE;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+public class CollectionDumpTest {
+  private static final String COLLECTION = "http://example.org/Person";
+  private static final String STRING = "http://www.w3.org/2001/XMLSchema#string";
+
+  private CollectionDump instance;
+  private QuadStore quadStore;
+  private SchemaStore schemaStore;
+
+  @Before
+  public void setUp() throws Exception {
+    quadStore = mock(QuadStore.class);
+    given(quadStore.getQuads(COLLECTION, RDF_TYPE, IN, "")).willAnswer(invocation -> Stream.of(
+      CursorQuad.create(COLLECTION, RDF_TYPE, IN, "http://example.org/1", null, null, ""),
+      CursorQuad.create(COLLECTION, RDF_TYPE, IN, "http://example.org/2", null, null, "")
+    ));
+    // in the order of the store: by predicate and then by direction
+    List<CursorQuad> quads = newArrayList(
+      CursorQuad.create("http://example.org/1", "http://example.org/knows", IN, "http://example.org/2", null, null,
+        ""),
+      CursorQuad.create("http://example.org/1", "http://example.org/knows", OUT, "http://example.org/2", null, null,
+        ""),
+      CursorQuad.create("http://example.org/1", "http://example.org/name", OUT, "Jan \"de\" Vries", STRING, null, ""),
+      CursorQuad.create("http://example.org/2", "http://example.org/knows", OUT, "http://example.org/1", null, null,
+        "")
+    );
+    given(quadStore.getQuads(anyString())).willAnswer(invocation -> quads.stream()
+      .filter(quad -> quad.getSubject().equals(invocation.getArgument(0))));
+    given(quadStore.getQuads(anyString(), anyString(), eq(OUT), eq(""))).willAnswer(invocation -> quads.stream()
+      .filter(quad -> quad.getSubject().equals(invocation.getArgument(0)))
+      .filter(quad -> quad.getPredicate().equals(invocation.getArgument(1)))
+      .filter(quad -> quad.getDirection() == OUT));
+    Type person = new Type(COLLECTION);
+    person.getOrCreatePredicate("http://example.org/name", OUT);
+    person.getOrCreatePredicate("http://example.org/knows", OUT);
+    person.getOrCreatePredicate("http://example.org/knows", IN);
+    schemaStore = mock(SchemaStore.class);
+    given(schemaStore.getStableTypes()).willReturn(ImmutableMap.of(COLLECTION, person));
+    DataSetMetaData metaData = mock(DataSetMetaData.class);
+    given(metaData.getGraph()).willReturn("http://example.org/graph");
+    DataSet dataSet = mock(DataSet.class);
+    given(dataSet.getQuadStore()).willReturn(quadStore);
+    given(dataSet.getSchemaStore()).willReturn(schemaStore);
+    given(dataSet.getMetadata()).willReturn(metaData);
+    DataSetRepository dataSetRepository = mock(DataSetRepository.class);
+    given(dataSetRepository.getDataSet(any(), anyString(), anyString())).willReturn(Optional.of(dataSet));
+    UserValidator userValidator = mock(UserValidator.class);
+    given(userValidator.getUserFromAccessToken(any())).willReturn(Optional.empty());
+
+    instance = new CollectionDump(dataSetRepository, userValidator);
+  }
+
+  @Test
+  public void writesTheOutgoingQuadsOfAllSubjectsAsNquads() throws Exception {
+    Response response = instance.getCollection(null, "u1", "ds", COLLECTION, Collections.emptyList(), "nquads");
+
+    assertThat(response.getMediaType().toString(), is("application/n-quads"));
+    assertThat(write(response),
+      is("<http://example.org/1> <http://example.org/knows> <http://example.org/2> <http://example.org/graph> .\n" +
+        "<http://example.org/1> <http://example.org/name> \"Jan \\\"de\\\" Vries\"^^<" + STRING + "> " +
+        "<http://example.org/graph> .\n" +
+        "<http://example.org/2> <http://example.org/knows> <http://example.org/1> <http://example.org/graph> .\n"));
+  }
+
+  @Test
+  public void writesOneJsonObjectPerSubjectWithTheRequestedPredicates() throws Exception {
+    Response response = instance.getCollection(
+      null, "u1", "ds", COLLECTION, newArrayList("http://example.org/knows"), "ndjson"
+    );
+
+    assertThat(response.getMediaType().toString(), is("application/x-ndjson"));
+    assertThat(write(response),
+      is("{\"@id\":\"http://example.org/1\",\"http://example.org/knows\":[{\"@id\":\"http://example.org/2\"}]}\n" +
+        "{\"@id\":\"http://example.org/2\",\"http://example.org/knows\":[{\"@id\":\"http://example.org/1\"}]}\n"));
+  }
+
+  @Test
+  public void readsTheOutgoingPredicatesOfTheCollectionWithoutTheIncomingQuads() throws Exception {
+    Response response = instance.getCollection(null, "u1", "ds", COLLECTION, Collections.emptyList(), "ndjson");
+
+    write(response);
+
+    verify(quadStore).getQuads("http://example.org/1", "http://example.org/knows", OUT, "");
+    verify(quadStore).getQuads("http://example.org/1", "http://example.org/name", OUT, "");
+    verify(quadStore, never()).getQuads("http://example.org/1");
+  }
+
+  @Test
+  public void readsAllQuadsOfTheSubjectsWhenTheCollectionIsNotInTheSchema() throws Exception {
+    given(schemaStore.getStableTypes()).willReturn(ImmutableMap.of());
+    Response response = instance.getCollection(null, "u1", "ds", COLLECTION, Collections.emptyList(), "ndjson");
+
+    assertThat(write(response),
+      is("{\"@id\":\"http://example.org/1\",\"http://example.org/knows\":[{\"@id\":\"http://example.org/2\"}]," +
+        "\"http://example.org/name\":[{\"@value\":\"Jan \\\"de\\\" Vries\",\"@type\":\"" + STRING + "\"}]}\n" +
+        "{\"@id\":\"http://example.org/2\",\"http://example.org/knows\":[{\"@id\":\"http://example.org/1\"}]}\n"));
+  }
+
+  @Test
+  public void rejectsUnknownFormats() throws Exception {
+    Response response = instance.getCollection(null, "u1", "ds", COLLECTION, Collections.emptyList(), "xml");
+
+    assertThat(response.getStatus(), is(400));
+  }
+
+  private String write(Response response) throws Exception {
+    ByteArrayOutputStream output = new ByteArrayOutputStream();
+    ((StreamingOutput) response.getEntity()).write(output);
+    return output.toString("UTF-8");
+  }
+}
@@ -0,0 +1,88 @@
+package nl.knaw.huygens.timbuctoo.v5.graphql;
+
+import com.codahale.metrics.MetricRegistry;
+import graphql.execution.preparsed.PreparsedDocumentEntry;
+import graphql.execution.preparsed.PreparsedDocumentProvider;
+import graphql.language.Document;
+import graphql.schema.GraphQLSchema;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static com.codahale.metrics.MetricRegistry.name;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.mockito.Mockito.mock;
+
+public class PreparsedDocumentCacheTest {
+  private MetricRegistry metrics;
+  private PreparsedDocumentCache instance;
+  private AtomicInteger parseCount;
+  private Function<String, PreparsedDocumentEntry> parseAndValidate;
+
+  @Before
+  public void setUp() {
+    metrics = new MetricRegistry();
+    instance = new PreparsedDocumentCache(10, metrics);
+    parseCount = new AtomicInteger();
+    parseAndValidate = query -> {
+      parseCount.incrementAndGet();
+      return new PreparsedDocumentEntry(new Document(null));
+    };
+  }
+
+  @Test
+  public void parsesAQueryOncePerSchema() {
+    PreparsedDocumentProvider provider = instance.forSchema(mock(GraphQLSchema.class));
+
+    PreparsedDocumentEntry first = provider.get("{ aboutMe { id } }", parseAndValidate);
+    PreparsedDocumentEntry second = provider.get("{ aboutMe { id } }", parseAndValidate);
+
+    assertThat(second, is(sameInstance(first)));
+    assertThat(parseCount.get(), is(1));
+    assertThat(metrics.meter(name(PreparsedDocumentCache.class, "hits")).getCount(), is(1L));
+    assertThat(metrics.meter(name(PreparsedDocumentCache.class, "misses")).getCount(), is(1L));
+  }
+
+  @Test
+  public void parsesTheQueryAgainForAnotherSchema() {
+    instance.forSchema(mock(GraphQLSchema.class)).get("{ aboutMe { id } }", parseAndValidate);
+    instance.forSchema(mock(GraphQLSchema.class)).get("{ aboutMe { id } }", parseAndValidate);
+
+    assertThat(parseCount.get(), is(2));
+  }
+
+  @Test
+  public void parsesEachQuery() {
+    PreparsedDocumentProvider provider = instance.forSchema(mock(GraphQLSchema.class));
+
+    provider.get("{ aboutMe { id } }", parseAndValidate);
+    provider.get("{ aboutMe { name } }", parseAndValidate);
+
+    assertThat(parseCount.get(), is(2));
+  }
+
+  @Test
+  public void parsesTheQueryAgainAfterTheDocumentsWereInvalidated() {
+    PreparsedDocumentProvider provider = instance.forSchema(mock(GraphQLSchema.class));
+
+    provider.get("{ aboutMe { id } }", parseAndValidate);
+    instance.invalidateAll();
+    provider.get("{ aboutMe { id } }", parseAndValidate);
+
+    assertThat(parseCount.get(), is(2));
+  }
+
+  @Test
+  public void canBeCreatedTwiceOnTheSameRegistry() {
+    PreparsedDocumentCache other = new PreparsedDocumentCache(10, metrics);
+
+    other.forSchema(mock(GraphQLSchema.class)).get("{ aboutMe { id } }", parseAndValidate);
+
+    assertThat(metrics.meter(name(PreparsedDocumentCache.class, "misses")).getCount(), is(1L));
+    assertThat(metrics.getGauges().containsKey(name(PreparsedDocumentCache.class, "hitRatio")), is(true));
+  }
+}
@@ -0,0 +1,66 @@
+package nl.knaw.huygens.timbuctoo.v5.graphql.datafetchers;
+
+import graphql.schema.DataFetchingEnvironment;
+import nl.knaw.huygens.timbuctoo.v5.graphql.datafetchers.dto.ContextData;
+import nl.knaw.huygens.timbuctoo.v5.graphql.security.UserPermissionCheck;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+import static nl.knaw.huygens.timbuctoo.v5.graphql.datafetchers.AsyncDataFetcher.async;
+import static nl.knaw.huygens.timbuctoo.v5.graphql.datafetchers.dto.ContextData.contextData;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+
+public class AsyncDataFetcherTest {
+
+  @Test
+  public void runsTheFetcherOnTheExecutorOfTheRequest() throws Exception {
+    List<Runnable> submitted = new ArrayList<>();
+    DataFetchingEnvironment environment = environment(
+      contextData(mock(UserPermissionCheck.class), Optional.empty(), submitted::add)
+    );
+
+    CompletableFuture<Object> result = async(env -> "value").get(environment);
+
+    assertThat(result.isDone(), is(false));
+    assertThat(submitted, hasSize(1));
+    submitted.get(0).run();
+    assertThat(result.get(), is("value"));
+  }
+
+  @Test
+  public void runsTheFetcherOnTheCallerWithoutContextData() throws Exception {
+    CompletableFuture<Object> result = async(env -> "value").get(environment(null));
+
+    assertThat(result.isDone(), is(true));
+    assertThat(result.get(), is("value"));
+  }
+
+  @Test
+  public void completesWithTheExceptionOfTheFetcher() {
+    DataFetchingEnvironment environment = environment(
+      contextData(mock(UserPermissionCheck.class), Optional.empty())
+    );
+
+    CompletableFuture<Object> result = async(env -> {
+      throw new IllegalStateException("Source is not a SubjectReference");
+    }).get(environment);
+
+    Throwable thrown = result.handle((value, exception) -> exception).join();
+    assertThat(thrown, is(instanceOf(IllegalStateException.class)));
+  }
+
+  private static DataFetchingEnvironment environment(ContextData contextData) {
+    DataFetchingEnvironment environment = mock(DataFetchingEnvironment.class);
+    given(environment.getContext()).willReturn(contextData);
+    return environment;
+  }
+}
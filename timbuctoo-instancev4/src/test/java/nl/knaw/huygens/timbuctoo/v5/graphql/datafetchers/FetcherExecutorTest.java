@@ -0,0 +1,76 @@
+package nl.knaw.huygens.timbuctoo.v5.graphql.datafetchers;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+
+public class FetcherExecutorTest {
+
+  @Test
+  public void runsAtMostTheMaximumNumberOfFetchesOfARequestOnThePool() {
+    List<Runnable> submitted = new ArrayList<>();
+    FetcherExecutor instance = new FetcherExecutor(submitted::add, 2);
+    Executor request = instance.forRequest();
+    List<String> ranOnCaller = new ArrayList<>();
+
+    request.execute(() -> ranOnCaller.add("first"));
+    request.execute(() -> ranOnCaller.add("second"));
+    request.execute(() -> ranOnCaller.add("third"));
+
+    assertThat(submitted, hasSize(2));
+    assertThat(ranOnCaller, contains("third"));
+  }
+
+  @Test
+  public void releasesThePermitWhenTheFetchIsDone() {
+    List<Runnable> submitted = new ArrayList<>();
+    FetcherExecutor instance = new FetcherExecutor(submitted::add, 1);
+    Executor request = instance.forRequest();
+
+    request.execute(() -> { });
+    submitted.get(0).run();
+    request.execute(() -> { });
+
+    assertThat(submitted, hasSize(2));
+  }
+
+  @Test
+  public void limitsEachRequestSeparately() {
+    List<Runnable> submitted = new ArrayList<>();
+    FetcherExecutor instance = new FetcherExecutor(submitted::add, 1);
+
+    instance.forRequest().execute(() -> { });
+    instance.forRequest().execute(() -> { });
+
+    assertThat(submitted, hasSize(2));
+  }
+
+  @Test
+  public void runsTheFetchOnTheCallerWhenThePoolRejectsIt() {
+    FetcherExecutor instance = new FetcherExecutor(task -> {
+      throw new RejectedExecutionException();
+    }, 1);
+    Executor request = instance.forRequest();
+    List<String> ranOnCaller = new ArrayList<>();
+
+    request.execute(() -> ranOnCaller.add("first"));
+    request.execute(() -> ranOnCaller.add("second"));
+
+    assertThat(ranOnCaller, contains("first", "second"));
+  }
+
+  @Test
+  public void runsTheFetchesOnTheCallerWithoutAPool() {
+    FetcherExecutor instance = new FetcherExecutor(null, 4);
+
+    assertThat(instance.forRequest(), is(FetcherExecutor.synchronous()));
+  }
+}
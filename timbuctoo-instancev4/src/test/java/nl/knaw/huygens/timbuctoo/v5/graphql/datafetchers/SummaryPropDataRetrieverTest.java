@@ -5,9 +5,11 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.datatype.guava.GuavaModule;
 import com.google.common.collect.Lists;
 import nl.knaw.huygens.timbuctoo.v5.dataset.dto.DataSet;
+import nl.knaw.huygens.timbuctoo.v5.dataset.dto.DataSetMetaData;
 import nl.knaw.huygens.timbuctoo.v5.datastores.quadstore.QuadStore;
 import nl.knaw.huygens.timbuctoo.v5.datastores.quadstore.dto.CursorQuad;
 import nl.knaw.huygens.timbuctoo.v5.datastores.quadstore.dto.Direction;
+import nl.knaw.huygens.timbuctoo.v5.graphql.datafetchers.berkeleydb.SubjectCache;
 import nl.knaw.huygens.timbuctoo.v5.graphql.datafetchers.dto.SubjectReference;
 import nl.knaw.huygens.timbuctoo.v5.graphql.datafetchers.dto.TypedValue;
 import nl.knaw.huygens.timbuctoo.v5.graphql.defaultconfiguration.DirectionalPath;
@@ -23,6 +25,7 @@ import java.util.Optional;
 import java.util.stream.Stream;
 
 import static nl.knaw.huygens.hamcrest.OptionalPresentMatcher.present;
+import static nl.knaw.huygens.timbuctoo.v5.graphql.datafetchers.berkeleydb.SubjectCache.disabled;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.hasProperty;
 import static org.hamcrest.Matchers.is;
@@ -34,6 +37,7 @@ import static org.mockito.BDDMockito.given;
 import static org.mockito.Mockito.inOrder;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 
 public class SummaryPropDataRetrieverTest {
@@ -63,7 +67,7 @@ public class SummaryPropDataRetrieverTest {
     given(quadStore.getQuads(SOURCE, RdfConstants.RDF_TYPE, Direction.OUT, ""))
       .willReturn(Stream.of(collectionQuad));
 
-    instance.createSummaryProperty(subjectWithUri(SOURCE), dataSetWithQuadStore(quadStore), COLLECTION);
+    instance.createSummaryProperty(subjectWithUri(SOURCE), dataSetWithQuadStore(quadStore), COLLECTION, disabled());
 
     InOrder inOrder = inOrder(quadStore);
     inOrder.verify(quadStore).getQuads(SOURCE, RdfConstants.RDF_TYPE, Direction.OUT, "");
@@ -88,7 +92,7 @@ public class SummaryPropDataRetrieverTest {
     given(quadStore.getQuads(SOURCE, RdfConstants.RDF_TYPE, Direction.OUT, ""))
       .willReturn(Stream.of(wrongCollection, collection));
 
-    instance.createSummaryProperty(subjectWithUri(SOURCE), dataSetWithQuadStore(quadStore), COLLECTION);
+    instance.createSummaryProperty(subjectWithUri(SOURCE), dataSetWithQuadStore(quadStore), COLLECTION, disabled());
 
     verify(quadStore, never()).getQuads(SOURCE, WRONG_USER_PATH, Direction.OUT, "");
   }
@@ -115,7 +119,7 @@ public class SummaryPropDataRetrieverTest {
     CursorQuad bjectOfPath2 = quadWithObject(OBJECT_OF_PATH2, Optional.empty());
     given(quadStore.getQuads(OBJECT_1, DEFAULT_PATH_2, Direction.OUT, "")).willReturn(Stream.of(bjectOfPath2));
 
-    instance.createSummaryProperty(subjectWithUri(SOURCE), dataSetWithQuadStore(quadStore), COLLECTION);
+    instance.createSummaryProperty(subjectWithUri(SOURCE), dataSetWithQuadStore(quadStore), COLLECTION, disabled());
 
     verify(quadStore).getQuads(SOURCE, DEFAULT_PATH, Direction.OUT, "");
     verify(quadStore).getQuads(OBJECT_1, DEFAULT_PATH_2, Direction.OUT, "");
@@ -137,7 +141,7 @@ public class SummaryPropDataRetrieverTest {
     given(quadStore.getQuads(OBJECT_2, DEFAULT_PATH_2, Direction.OUT, "")).willReturn(Stream.of(objectOfPath2));
 
     Optional<TypedValue> summaryProperty =
-      instance.createSummaryProperty(subjectWithUri(SOURCE), dataSetWithQuadStore(quadStore), COLLECTION);
+      instance.createSummaryProperty(subjectWithUri(SOURCE), dataSetWithQuadStore(quadStore), COLLECTION, disabled());
 
     assertThat(summaryProperty, is(present()));
     assertThat(summaryProperty.get(), hasProperty("value", is(OBJECT_OF_PATH2)));
@@ -169,7 +173,7 @@ public class SummaryPropDataRetrieverTest {
 
     Optional<TypedValue> summaryProperty =
       instance.createSummaryProperty(subjectWithUri(SOURCE), dataSetWithQuadStore(quadStore),
-        COLLECTION);
+        COLLECTION, disabled());
 
     assertThat(summaryProperty, is(present()));
     assertThat(summaryProperty.get(), hasProperty("value", is(OBJECT_OF_PATH2)));
@@ -186,7 +190,7 @@ public class SummaryPropDataRetrieverTest {
     QuadStore quadStore = mock(QuadStore.class);
     given(quadStore.getQuads(SOURCE, DEFAULT_PATH, Direction.OUT, "")).willReturn(Stream.of(foundQuad));
 
-    instance.createSummaryProperty(subjectWithUri(SOURCE), dataSetWithQuadStore(quadStore), COLLECTION);
+    instance.createSummaryProperty(subjectWithUri(SOURCE), dataSetWithQuadStore(quadStore), COLLECTION, disabled());
 
     InOrder inOrder = inOrder(quadStore);
     inOrder.verify(quadStore).getQuads(SOURCE, DEFAULT_PATH, Direction.OUT, "");
@@ -200,7 +204,7 @@ public class SummaryPropDataRetrieverTest {
     QuadStore quadStore = mock(QuadStore.class);
     given(quadStore.getQuads(SOURCE, DEFAULT_PATH, Direction.OUT, "")).willReturn(Stream.empty());
 
-    instance.createSummaryProperty(subjectWithUri(SOURCE), dataSetWithQuadStore(quadStore), COLLECTION);
+    instance.createSummaryProperty(subjectWithUri(SOURCE), dataSetWithQuadStore(quadStore), COLLECTION, disabled());
 
     verify(quadStore).getQuads(SOURCE, DEFAULT_PATH, Direction.OUT, "");
     verify(quadStore, never()).getQuads(anyString(), eq(DEFAULT_PATH_2), eq(Direction.OUT), eq(""));
@@ -220,7 +224,7 @@ public class SummaryPropDataRetrieverTest {
     given(quadStore.getQuads(SOURCE, DEFAULT_PROP_2, Direction.OUT, "")).willReturn(Stream.of(foundQuad));
 
     Optional<TypedValue> found =
-      instance.createSummaryProperty(subjectWithUri(SOURCE), dataSetWithQuadStore(quadStore), COLLECTION);
+      instance.createSummaryProperty(subjectWithUri(SOURCE), dataSetWithQuadStore(quadStore), COLLECTION, disabled());
 
     assertThat(found, is(present()));
     assertThat(found.get(), hasProperty("value", is("http://example.org/value")));
@@ -237,18 +241,44 @@ public class SummaryPropDataRetrieverTest {
     CursorQuad foundQuad = quadWithObject(OBJECT_1, Optional.empty());
     given(foundQuad.getObject()).willReturn("http://example.org/value");
 
-    instance.createSummaryProperty(subjectWithUri(SOURCE), dataSetWithQuadStore(quadStore), COLLECTION);
+    instance.createSummaryProperty(subjectWithUri(SOURCE), dataSetWithQuadStore(quadStore), COLLECTION, disabled());
 
     verify(quadStore).getQuads(SOURCE, DEFAULT_PROP_1, Direction.IN, "");
   }
 
+  @Test
+  public void createSummaryPropertyReadsTheQuadsFromTheSubjectCache() throws JsonProcessingException {
+    List<SummaryProp> defaultProperties = Lists.newArrayList(summaryPropertyWithPath(DEFAULT_PATH));
+    final SummaryPropDataRetriever instance = new SummaryPropDataRetriever(USER_CONFIGURED_PATH, defaultProperties);
+    QuadStore quadStore = mock(QuadStore.class);
+    CursorQuad collectionQuad = createCollectionQuad(quadStore, COLLECTION, USER_PATH);
+    given(quadStore.getQuads(SOURCE, RdfConstants.RDF_TYPE, Direction.OUT, ""))
+      .willAnswer(invocation -> Stream.of(collectionQuad));
+    CursorQuad foundQuad = quadWithObject(OBJECT_1, Optional.empty());
+    given(quadStore.getQuads(SOURCE, USER_PATH, Direction.OUT, "")).willAnswer(invocation -> Stream.of(foundQuad));
+    DataSet dataSet = dataSetWithQuadStore(quadStore);
+    DataSetMetaData metadata = mock(DataSetMetaData.class);
+    given(metadata.getCombinedId()).willReturn("user__dataSet");
+    given(dataSet.getMetadata()).willReturn(metadata);
+    SubjectCache subjectCache = new SubjectCache(SubjectCache.DEFAULT_MAX_QUADS);
+
+    instance.createSummaryProperty(subjectWithUri(SOURCE), dataSet, COLLECTION, subjectCache);
+    Optional<TypedValue> summaryProperty =
+      instance.createSummaryProperty(subjectWithUri(SOURCE), dataSet, COLLECTION, subjectCache);
+
+    assertThat(summaryProperty.get(), hasProperty("value", is(OBJECT_1)));
+    verify(quadStore, times(1)).getQuads(SOURCE, RdfConstants.RDF_TYPE, Direction.OUT, "");
+    verify(quadStore, times(1)).getQuads(COLLECTION, USER_CONFIGURED_PATH, Direction.OUT, "");
+    verify(quadStore, times(1)).getQuads(SOURCE, USER_PATH, Direction.OUT, "");
+  }
+
   @Test
   public void createSummaryPropertyReturnsAnEmptyOptionalWhenNoDefaultPropertiesAreConfigured() {
     SummaryPropDataRetriever instance = new SummaryPropDataRetriever(USER_CONFIGURED_PATH, Lists.newArrayList());
     QuadStore quadStore = mock(QuadStore.class);
 
     Optional<TypedValue> found =
-      instance.createSummaryProperty(subjectWithUri(SOURCE), dataSetWithQuadStore(quadStore), COLLECTION);
+      instance.createSummaryProperty(subjectWithUri(SOURCE), dataSetWithQuadStore(quadStore), COLLECTION, disabled());
 
 
     assertThat(found, not(is(present())));
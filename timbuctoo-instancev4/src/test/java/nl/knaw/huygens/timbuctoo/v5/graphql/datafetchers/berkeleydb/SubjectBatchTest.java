@@ -0,0 +1,133 @@
+package nl.knaw.huygens.timbuctoo.v5.graphql.datafetchers.berkeleydb;
+
+import nl.knaw.huygens.timbuctoo.v5.dataset.dto.DataSet;
+import nl.knaw.huygens.timbuctoo.v5.dataset.dto.DataSetMetaData;
+import nl.knaw.huygens.timbuctoo.v5.datastores.quadstore.QuadStore;
+import nl.knaw.huygens.timbuctoo.v5.datastores.quadstore.dto.CursorQuad;
+import nl.knaw.huygens.timbuctoo.v5.datastores.quadstore.dto.Direction;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static nl.knaw.huygens.timbuctoo.v5.datastores.quadstore.dto.Direction.IN;
+import static nl.knaw.huygens.timbuctoo.v5.datastores.quadstore.dto.Direction.OUT;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+public class SubjectBatchTest {
+  private QuadStore quadStore;
+  private DataSet dataSet;
+  private SubjectBatch instance;
+
+  @Before
+  public void setUp() {
+    quadStore = mock(QuadStore.class);
+    dataSet = mock(DataSet.class);
+    given(dataSet.getQuadStore()).willReturn(quadStore);
+    DataSetMetaData metadata = mock(DataSetMetaData.class);
+    given(metadata.getCombinedId()).willReturn("user__dataSet");
+    given(dataSet.getMetadata()).willReturn(metadata);
+    instance = new SubjectBatch(dataSet, new SubjectCache(SubjectCache.DEFAULT_MAX_QUADS));
+  }
+
+  @Test
+  public void readsAllFieldsOfAllSubjectsOfTheBatchOnce() {
+    given(quadStore.getQuads("http://example.org/1")).willAnswer(inv -> Stream.of(
+      quad("http://example.org/1", "http://example.org/knows", OUT, "http://example.org/2"),
+      quad("http://example.org/1", "http://example.org/name", OUT, "Alice")
+    ));
+    given(quadStore.getQuads("http://example.org/2")).willAnswer(inv -> Stream.of(
+      quad("http://example.org/2", "http://example.org/name", OUT, "Bob")
+    ));
+    instance.add("http://example.org/1");
+    instance.add("http://example.org/2");
+
+    assertThat(objects(instance.getQuads("http://example.org/1", "http://example.org/name", OUT)), contains("Alice"));
+    assertThat(objects(instance.getQuads("http://example.org/1", "http://example.org/knows", OUT)),
+      contains("http://example.org/2"));
+    assertThat(objects(instance.getQuads("http://example.org/2", "http://example.org/name", OUT)), contains("Bob"));
+    assertThat(objects(instance.getQuads("http://example.org/2", "http://example.org/knows", OUT)), is(empty()));
+
+    verify(quadStore, times(1)).getQuads("http://example.org/1");
+    verify(quadStore, times(1)).getQuads("http://example.org/2");
+    verify(quadStore, never()).getQuads(anyString(), anyString(), any(), anyString());
+  }
+
+  @Test
+  public void readsAtMostTheMaximumBatchSizeOfSubjectsAtOnce() {
+    given(quadStore.getQuads(anyString())).willAnswer(inv -> Stream.empty());
+    IntStream.range(0, SubjectBatch.MAX_BATCH_SIZE + 10)
+             .forEach(i -> instance.add(String.format("http://example.org/%03d", i)));
+
+    objects(instance.getQuads("http://example.org/000", "http://example.org/name", OUT));
+
+    verify(quadStore, times(SubjectBatch.MAX_BATCH_SIZE)).getQuads(anyString());
+  }
+
+  @Test
+  public void readsFieldsWithManyQuadsFromTheQuadStore() {
+    final int count = SubjectCache.MAX_QUADS_PER_PREDICATE + 1;
+    given(quadStore.getQuads("http://example.org/1")).willAnswer(inv -> knows(count));
+    given(quadStore.getQuads("http://example.org/1", "http://example.org/knows", IN, "")).willAnswer(inv ->
+      knows(count)
+    );
+
+    assertThat(objects(instance.getQuads("http://example.org/1", "http://example.org/knows", IN)), hasSize(count));
+    assertThat(objects(instance.getQuads("http://example.org/1", "http://example.org/knows", IN)), hasSize(count));
+  }
+
+  @Test
+  public void doesNotReadAheadWhenTheCacheIsFull() {
+    given(quadStore.getQuads(anyString(), eq("http://example.org/name"), eq(OUT), eq("")))
+      .willAnswer(inv -> Stream.of(quad(inv.getArgument(0), "http://example.org/name", OUT, "name")));
+    SubjectBatch batch = new SubjectBatch(dataSet, new SubjectCache(0));
+    batch.add("http://example.org/1");
+    batch.add("http://example.org/2");
+
+    assertThat(objects(batch.getQuads("http://example.org/1", "http://example.org/name", OUT)), contains("name"));
+    assertThat(objects(batch.getQuads("http://example.org/2", "http://example.org/name", OUT)), contains("name"));
+    assertThat(objects(batch.getQuads("http://example.org/2", "http://example.org/name", OUT)), contains("name"));
+
+    verify(quadStore, never()).getQuads(anyString());
+    verify(quadStore, times(1)).getQuads("http://example.org/1", "http://example.org/name", OUT, "");
+    verify(quadStore, times(2)).getQuads("http://example.org/2", "http://example.org/name", OUT, "");
+  }
+
+  @Test
+  public void sharesTheChildBatchPerPredicateAndDirection() {
+    SubjectBatch knows = instance.getChildBatch("http://example.org/knows", OUT);
+
+    assertThat(instance.getChildBatch("http://example.org/knows", OUT), is(sameInstance(knows)));
+    assertThat(instance.getChildBatch("http://example.org/knows", IN), is(not(sameInstance(knows))));
+  }
+
+  private static CursorQuad quad(String subject, String predicate, Direction direction, String object) {
+    return CursorQuad.create(subject, predicate, direction, object, null, null, "");
+  }
+
+  private static Stream<CursorQuad> knows(int count) {
+    return IntStream.range(0, count)
+                    .mapToObj(i -> quad("http://example.org/1", "http://example.org/knows", IN, "http://example.org/" + i));
+  }
+
+  private static List<String> objects(Stream<CursorQuad> quads) {
+    return quads.map(CursorQuad::getObject).collect(Collectors.toList());
+  }
+}
@@ -0,0 +1,133 @@
+package nl.knaw.huygens.timbuctoo.v5.graphql.datafetchers.berkeleydb;
+
+import graphql.execution.ExecutionContext;
+import graphql.language.OperationDefinition;
+import graphql.schema.DataFetchingEnvironment;
+import nl.knaw.huygens.timbuctoo.v5.dataset.dto.DataSet;
+import nl.knaw.huygens.timbuctoo.v5.dataset.dto.DataSetMetaData;
+import nl.knaw.huygens.timbuctoo.v5.datastores.quadstore.QuadStore;
+import nl.knaw.huygens.timbuctoo.v5.datastores.quadstore.dto.CursorQuad;
+import nl.knaw.huygens.timbuctoo.v5.datastores.quadstore.dto.Direction;
+import nl.knaw.huygens.timbuctoo.v5.graphql.datafetchers.dto.ContextData;
+import nl.knaw.huygens.timbuctoo.v5.graphql.security.UserPermissionCheck;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static nl.knaw.huygens.timbuctoo.v5.datastores.quadstore.dto.Direction.OUT;
+import static nl.knaw.huygens.timbuctoo.v5.graphql.datafetchers.dto.ContextData.contextData;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+public class SubjectCacheTest {
+  private static final String SUBJECT = "http://example.org/1";
+  private static final String NAME = "http://example.org/name";
+  private QuadStore quadStore;
+  private DataSet dataSet;
+
+  @Before
+  public void setUp() {
+    quadStore = mock(QuadStore.class);
+    dataSet = mock(DataSet.class);
+    given(dataSet.getQuadStore()).willReturn(quadStore);
+    DataSetMetaData metadata = mock(DataSetMetaData.class);
+    given(metadata.getCombinedId()).willReturn("user__dataSet");
+    given(dataSet.getMetadata()).willReturn(metadata);
+    given(quadStore.getQuads(SUBJECT, NAME, OUT, "")).willAnswer(inv -> Stream.of(quad(SUBJECT, NAME, "Alice")));
+  }
+
+  @Test
+  public void readsTheQuadsOnce() {
+    SubjectCache instance = new SubjectCache(SubjectCache.DEFAULT_MAX_QUADS);
+
+    objects(instance.getQuads(dataSet, SUBJECT, NAME, OUT));
+    List<String> names = objects(instance.getQuads(dataSet, SUBJECT, NAME, OUT));
+
+    assertThat(names, contains("Alice"));
+    verify(quadStore, times(1)).getQuads(SUBJECT, NAME, OUT, "");
+  }
+
+  @Test
+  public void answersAllFieldsFromTheQuadsOfASubjectThatABatchHasRead() {
+    given(quadStore.getQuads(SUBJECT)).willAnswer(inv -> Stream.of(quad(SUBJECT, NAME, "Alice")));
+    SubjectCache instance = new SubjectCache(SubjectCache.DEFAULT_MAX_QUADS);
+
+    instance.readSubject(dataSet, SUBJECT);
+    List<String> names = objects(instance.getQuads(dataSet, SUBJECT, NAME, OUT));
+    List<String> friends = objects(instance.getQuads(dataSet, SUBJECT, "http://example.org/knows", OUT));
+
+    assertThat(names, contains("Alice"));
+    assertThat(friends, is(empty()));
+    verify(quadStore, times(1)).getQuads(SUBJECT);
+    verify(quadStore, never()).getQuads(eq(SUBJECT), anyString(), any(), anyString());
+  }
+
+  @Test
+  public void stopsStoringQuadsWhenItIsFull() {
+    SubjectCache instance = new SubjectCache(0);
+
+    objects(instance.getQuads(dataSet, SUBJECT, NAME, OUT));
+    objects(instance.getQuads(dataSet, SUBJECT, NAME, OUT));
+
+    verify(quadStore, times(2)).getQuads(SUBJECT, NAME, OUT, "");
+  }
+
+  @Test
+  public void returnsAllQuadsOfAPredicateThatHasTooManyToStore() {
+    final int count = SubjectCache.MAX_QUADS_PER_PREDICATE + 10;
+    given(quadStore.getQuads(SUBJECT, NAME, OUT, "")).willAnswer(inv -> IntStream.range(0, count)
+      .mapToObj(i -> quad(SUBJECT, NAME, "name" + i)));
+    SubjectCache instance = new SubjectCache(SubjectCache.DEFAULT_MAX_QUADS);
+
+    assertThat(objects(instance.getQuads(dataSet, SUBJECT, NAME, OUT)), hasSize(count));
+    assertThat(objects(instance.getQuads(dataSet, SUBJECT, NAME, OUT)), hasSize(count));
+    verify(quadStore, times(2)).getQuads(SUBJECT, NAME, OUT, "");
+  }
+
+  @Test
+  public void isBypassedForMutations() {
+    ContextData contextData = contextData(mock(UserPermissionCheck.class), Optional.empty());
+
+    assertThat(SubjectCache.of(environment(contextData, OperationDefinition.Operation.QUERY)),
+      is(sameInstance(contextData.getSubjectCache())));
+    assertThat(SubjectCache.of(environment(contextData, OperationDefinition.Operation.MUTATION)),
+      is(sameInstance(SubjectCache.disabled())));
+  }
+
+  private static DataFetchingEnvironment environment(ContextData contextData,
+                                                     OperationDefinition.Operation operation) {
+    DataFetchingEnvironment env = mock(DataFetchingEnvironment.class);
+    given(env.getContext()).willReturn(contextData);
+    ExecutionContext executionContext = mock(ExecutionContext.class);
+    given(executionContext.getOperationDefinition()).willReturn(new OperationDefinition("operation", operation));
+    given(env.getExecutionContext()).willReturn(executionContext);
+    return env;
+  }
+
+  private static CursorQuad quad(String subject, String predicate, String object) {
+    return CursorQuad.create(subject, predicate, Direction.OUT, object, null, null, "");
+  }
+
+  private static List<String> objects(Stream<CursorQuad> quads) {
+    try (Stream<CursorQuad> stream = quads) {
+      return stream.map(CursorQuad::getObject).collect(Collectors.toList());
+    }
+  }
+}
@@ -0,0 +1,68 @@
+package nl.knaw.huygens.timbuctoo.v5.graphql.datafetchers.berkeleydb.datafetchers;
+
+import nl.knaw.huygens.timbuctoo.v5.dataset.dto.DataSet;
+import nl.knaw.huygens.timbuctoo.v5.datastores.quadstore.QuadStore;
+import nl.knaw.huygens.timbuctoo.v5.datastores.quadstore.dto.CursorQuad;
+import nl.knaw.huygens.timbuctoo.v5.graphql.datafetchers.berkeleydb.SubjectCache;
+import nl.knaw.huygens.timbuctoo.v5.graphql.datafetchers.dto.PaginatedList;
+import nl.knaw.huygens.timbuctoo.v5.graphql.datafetchers.dto.PaginationArguments;
+import nl.knaw.huygens.timbuctoo.v5.graphql.datafetchers.dto.SubjectReference;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static nl.knaw.huygens.timbuctoo.v5.datastores.quadstore.dto.Direction.IN;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+public class RelationsOfSubjectDataFetcherTest {
+  private static final String COLLECTION = "http://example.org/Letter";
+  private static final String AUTHOR = "http://example.org/author";
+
+  private QuadStore quadStore;
+  private DataSet dataSet;
+
+  @Before
+  public void setUp() {
+    quadStore = mock(QuadStore.class);
+    given(quadStore.getQuads(COLLECTION, AUTHOR, IN, "")).willAnswer(invocation -> Stream.of(
+      CursorQuad.create("http://example.org/letter1", AUTHOR, IN, COLLECTION, null, null, "1")
+    ));
+    given(quadStore.getQuadCount(COLLECTION, AUTHOR, IN)).willReturn(Optional.of(342L));
+    dataSet = mock(DataSet.class);
+    given(dataSet.getQuadStore()).willReturn(quadStore);
+  }
+
+  @Test
+  public void getListReturnsTheCountOfTheQuadStoreAsTotal() {
+    RelationsOfSubjectDataFetcher instance = new RelationsOfSubjectDataFetcher(COLLECTION, AUTHOR, IN);
+
+    PaginatedList<SubjectReference> list = instance.getList(
+      PaginationArguments.create(20, "", Optional.empty(), true),
+      dataSet,
+      SubjectCache.disabled()
+    );
+
+    assertThat(list.getTotal(), is(Optional.of(342L)));
+  }
+
+  @Test
+  public void getListDoesNotCountWhenTheTotalIsNotRequested() {
+    RelationsOfSubjectDataFetcher instance = new RelationsOfSubjectDataFetcher(COLLECTION, AUTHOR, IN);
+
+    PaginatedList<SubjectReference> list = instance.getList(
+      PaginationArguments.create(20, "", Optional.empty()),
+      dataSet,
+      SubjectCache.disabled()
+    );
+
+    assertThat(list.getTotal(), is(Optional.empty()));
+    verify(quadStore, never()).getQuadCount(COLLECTION, AUTHOR, IN);
+  }
+}
@@ -0,0 +1,200 @@
+package nl.knaw.huygens.timbuctoo.v5.graphql.datafetchers.berkeleydb.stores;
+
+import com.sleepycat.bind.tuple.TupleBinding;
+import nl.knaw.huygens.timbuctoo.v5.berkeleydb.isclean.IsCleanHandler;
+import nl.knaw.huygens.timbuctoo.v5.datastores.implementations.bdb.BdbBinaryTripleStore;
+import nl.knaw.huygens.timbuctoo.v5.datastores.implementations.bdb.BdbQuadIndex;
+import nl.knaw.huygens.timbuctoo.v5.datastores.implementations.bdb.TermDictionary;
+import nl.knaw.huygens.timbuctoo.v5.datastores.quadstore.dto.CursorQuad;
+import nl.knaw.huygens.timbuctoo.v5.datastores.quadstore.dto.Direction;
+import nl.knaw.huygens.timbuctoo.v5.dropwizard.BdbNonPersistentEnvironmentCreator;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static java.util.stream.Collectors.toList;
+import static nl.knaw.huygens.timbuctoo.v5.datastores.quadstore.dto.CursorQuad.create;
+import static nl.knaw.huygens.timbuctoo.v5.util.RdfConstants.LANGSTRING;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.Mockito.mock;
+
+public class BdbBinaryTripleStoreTest {
+
+  public static final String EX = "http://example.org/";
+  private BdbNonPersistentEnvironmentCreator databaseCreator;
+  private BdbBinaryTripleStore tripleStore;
+
+  @Before
+  public void makeCollection() throws Exception {
+    databaseCreator = new BdbNonPersistentEnvironmentCreator();
+    TermDictionary terms = new TermDictionary(
+      databaseCreator.getDatabase(
+        "userId",
+        "dataSetId",
+        "termIds",
+        false,
+        TupleBinding.getPrimitiveBinding(String.class),
+        TupleBinding.getPrimitiveBinding(Integer.class),
+        new IsCleanHandler<String, Integer>() {
+          @Override
+          public String getKey() {
+            return "\nisClean";
+          }
+
+          @Override
+          public Integer getValue() {
+            return Integer.MAX_VALUE;
+          }
+        }
+      ),
+      databaseCreator.getDatabase(
+        "userId",
+        "dataSetId",
+        "terms",
+        false,
+        TupleBinding.getPrimitiveBinding(Integer.class),
+        TupleBinding.getPrimitiveBinding(String.class),
+        new IsCleanHandler<Integer, String>() {
+          @Override
+          public Integer getKey() {
+            return -1;
+          }
+
+          @Override
+          public String getValue() {
+            return "isClean";
+          }
+        }
+      )
+    );
+    tripleStore = new BdbBinaryTripleStore(
+      databaseCreator.getDatabase(
+        "userId",
+        "dataSetId",
+        "rdfDataBinary",
+        true,
+        new BdbBinaryTripleStore.QuadKeyBinding(),
+        new BdbBinaryTripleStore.QuadValueBinding(),
+        BdbBinaryTripleStore.IS_CLEAN_HANDLER
+      ),
+      terms,
+      mock(BdbQuadIndex.class)
+    );
+  }
+
+  @After
+  public void cleanUp() throws Exception {
+    databaseCreator.close();
+  }
+
+  @Test
+  public void returnsTheData() throws Exception {
+    tripleStore.putQuad(EX + "subject1", "http://pred", Direction.OUT, EX + "subject1", null, null);
+    tripleStore.putQuad(EX + "subject1", "http://pred", Direction.OUT, "12", "http://number", null);
+    tripleStore.putQuad(EX + "subject1", "http://pred", Direction.OUT, "Walter", LANGSTRING, "EN-en");
+    tripleStore.putQuad(EX + "subject1", "http://pred", Direction.IN, EX + "subject2", null, null);
+
+    try (Stream<CursorQuad> quads = tripleStore.getQuads(EX + "subject1", "http://pred", Direction.OUT, "")) {
+      List<CursorQuad> resultList = quads.collect(toList());
+      assertThat(resultList, contains(
+        create(EX + "subject1", "http://pred", Direction.OUT, EX + "subject1", null, null, ""),
+        create(EX + "subject1", "http://pred", Direction.OUT, "12", "http://number", null, ""),
+        create(EX + "subject1", "http://pred", Direction.OUT, "Walter", LANGSTRING, "EN-en", "")
+      ));
+    }
+  }
+
+  @Test
+  public void returnsAllQuadsOfASubject() throws Exception {
+    tripleStore.putQuad(EX + "subject1", "http://pred", Direction.OUT, EX + "subject2", null, null);
+    tripleStore.putQuad(EX + "subject1", "http://pred2", Direction.IN, EX + "subject3", null, null);
+    tripleStore.putQuad(EX + "subject2", "http://pred", Direction.IN, EX + "subject1", null, null);
+
+    try (Stream<CursorQuad> quads = tripleStore.getQuads(EX + "subject1")) {
+      assertThat(quads.collect(toList()), containsInAnyOrder(
+        create(EX + "subject1", "http://pred", Direction.OUT, EX + "subject2", null, null, ""),
+        create(EX + "subject1", "http://pred2", Direction.IN, EX + "subject3", null, null, "")
+      ));
+    }
+  }
+
+  @Test
+  public void canIterateFromCursor() throws Exception {
+    tripleStore.putQuad(EX + "subject1", "http://pred", Direction.OUT, EX + "subject1", null, null);
+    tripleStore.putQuad(EX + "subject1", "http://pred", Direction.OUT, EX + "subject2", null, null);
+    tripleStore.putQuad(EX + "subject1", "http://pred", Direction.OUT, EX + "subject3", null, null);
+    tripleStore.putQuad(EX + "subject1", "http://pred", Direction.OUT, EX + "subject4", null, null);
+
+    String cursor;
+    try (Stream<CursorQuad> quads = tripleStore.getQuads(EX + "subject1", "http://pred", Direction.OUT, "")) {
+      cursor = quads.limit(2).reduce((first, second) -> second).orElse(null).getCursor();
+    }
+    try (Stream<CursorQuad> quads =
+           tripleStore.getQuads(EX + "subject1", "http://pred", Direction.OUT, "A\n" + cursor)) {
+      assertThat(quads.collect(toList()), contains(
+        create(EX + "subject1", "http://pred", Direction.OUT, EX + "subject3", null, null, ""),
+        create(EX + "subject1", "http://pred", Direction.OUT, EX + "subject4", null, null, "")
+      ));
+    }
+    try (Stream<CursorQuad> quads =
+           tripleStore.getQuads(EX + "subject1", "http://pred", Direction.OUT, "D\n" + cursor)) {
+      assertThat(quads.collect(toList()), contains(
+        create(EX + "subject1", "http://pred", Direction.OUT, EX + "subject1", null, null, "")
+      ));
+    }
+  }
+
+  @Test
+  public void deleteQuadRemovesTheQuadFromTheStore() throws Exception {
+    tripleStore.putQuad(EX + "subject1", "http://pred", Direction.OUT, "12", "http://number", null);
+    tripleStore.putQuad(EX + "subject1", "http://pred", Direction.OUT, "14", "http://number", null);
+
+    boolean deleted = tripleStore.deleteQuad(EX + "subject1", "http://pred", Direction.OUT, "12", "http://number", null);
+    boolean unknownDeleted = tripleStore.deleteQuad(EX + "unknown", "http://pred", Direction.OUT, "12", null, null);
+
+    assertThat(deleted, is(true));
+    assertThat(unknownDeleted, is(false));
+    try (Stream<CursorQuad> quads = tripleStore.getQuads(EX + "subject1", "http://pred", Direction.OUT, "")) {
+      assertThat(quads.collect(toList()), contains(
+        create(EX + "subject1", "http://pred", Direction.OUT, "14", "http://number", null, "")
+      ));
+    }
+  }
+
+  @Test
+  public void inStoreOrderSortsQuadsLikeTheStore() throws Exception {
+    tripleStore.putQuad(EX + "subjectB", "http://pred", Direction.OUT, "1", null, null);
+    tripleStore.putQuad(EX + "subjectA", "http://pred", Direction.OUT, "2", null, null);
+
+    List<CursorQuad> sorted = tripleStore.inStoreOrder(Stream.of(
+      create(EX + "subjectA", "http://pred", Direction.OUT, "2", null, null, ""),
+      create(EX + "subjectB", "http://pred", Direction.OUT, "1", null, null, "")
+    )).collect(toList());
+
+    try (Stream<CursorQuad> quads = tripleStore.getAllQuads()) {
+      assertThat(quads.filter(q -> !q.getObject().equals("isClean")).collect(toList()), is(sorted));
+    }
+  }
+
+  @Test
+  public void sortForWritingOrdersLikeCompareAndPutsUnknownTermsLast() throws Exception {
+    tripleStore.putQuad(EX + "subjectB", "http://pred", Direction.OUT, "1", null, null);
+    tripleStore.putQuad(EX + "subjectA", "http://pred", Direction.OUT, "2", null, null);
+    CursorQuad unknown = create(EX + "subjectC", "http://pred", Direction.OUT, "3", null, null, "");
+    CursorQuad first = create(EX + "subjectB", "http://pred", Direction.OUT, "1", null, null, "");
+    CursorQuad second = create(EX + "subjectA", "http://pred", Direction.OUT, "2", null, null, "");
+    List<CursorQuad> batch = new ArrayList<>(Arrays.asList(unknown, second, first));
+
+    tripleStore.sortForWriting(batch);
+
+    assertThat(batch, contains(first, second, unknown));
+  }
+}
@@ -0,0 +1,64 @@
+package nl.knaw.huygens.timbuctoo.v5.graphql.querycost;
+
+import com.google.common.base.Ticker;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+public class QueryCostBudgetTest {
+  private long now;
+  private Ticker ticker;
+
+  @Before
+  public void setUp() {
+    now = 0;
+    ticker = new Ticker() {
+      @Override
+      public long read() {
+        return now;
+      }
+    };
+  }
+
+  @Test
+  public void refusesQueriesWhenTheBudgetIsExhausted() {
+    QueryCostBudget instance = new QueryCostBudget(100, ticker);
+
+    assertThat(instance.spend("user", 60), is(true));
+    assertThat(instance.spend("user", 60), is(true));
+    assertThat(instance.spend("user", 1), is(false));
+  }
+
+  @Test
+  public void refillsTheBudgetOverTime() {
+    QueryCostBudget instance = new QueryCostBudget(100, ticker);
+    instance.spend("user", 150);
+
+    now += TimeUnit.SECONDS.toNanos(30);
+    assertThat(instance.spend("user", 1), is(false));
+    now += TimeUnit.SECONDS.toNanos(31);
+    assertThat(instance.spend("user", 1), is(true));
+  }
+
+  @Test
+  public void keepsABudgetPerUser() {
+    QueryCostBudget instance = new QueryCostBudget(100, ticker);
+    instance.spend("user", 100);
+
+    assertThat(instance.spend("otherUser", 1), is(true));
+    assertThat(instance.spend(null, 1), is(true));
+    assertThat(instance.spend("user", 1), is(false));
+  }
+
+  @Test
+  public void allowsEverythingWhenTheBudgetIsDisabled() {
+    QueryCostBudget instance = new QueryCostBudget(0, ticker);
+
+    assertThat(instance.spend("user", Long.MAX_VALUE), is(true));
+    assertThat(instance.spend("user", Long.MAX_VALUE), is(true));
+  }
+}
@@ -0,0 +1,129 @@
+package nl.knaw.huygens.timbuctoo.v5.graphql.querycost;
+
+import com.google.common.collect.ImmutableMap;
+import graphql.parser.Parser;
+import graphql.schema.GraphQLSchema;
+import graphql.schema.idl.RuntimeWiring;
+import graphql.schema.idl.SchemaGenerator;
+import graphql.schema.idl.SchemaParser;
+import nl.knaw.huygens.timbuctoo.v5.dataset.DataSetRepository;
+import nl.knaw.huygens.timbuctoo.v5.dataset.dto.DataSet;
+import nl.knaw.huygens.timbuctoo.v5.datastores.quadstore.dto.Direction;
+import nl.knaw.huygens.timbuctoo.v5.datastores.schemastore.SchemaStore;
+import nl.knaw.huygens.timbuctoo.v5.datastores.schemastore.dto.Predicate;
+import nl.knaw.huygens.timbuctoo.v5.datastores.schemastore.dto.Type;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.Optional;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+
+public class QueryCostEstimatorTest {
+  static final String SCHEMA = "directive @dataSet(userId:String! dataSetId:String!) on FIELD_DEFINITION\n" +
+    "directive @fromCollection(uri:String! listAll:Boolean) on FIELD_DEFINITION\n" +
+    "directive @rdf(predicate:String! direction:String! isList: Boolean!, isObject: Boolean!, isValue: Boolean!) " +
+    "on FIELD_DEFINITION\n" +
+    "directive @rdfType(uri:String!) on OBJECT\n" +
+    "type Query {\n" +
+    "  dataSet: DataSet @dataSet(userId: \"user\", dataSetId: \"dataSet\")\n" +
+    "}\n" +
+    "type DataSet {\n" +
+    "  persons(cursor: ID, count: Int): PersonList @fromCollection(uri: \"http://example.org/Person\")\n" +
+    "}\n" +
+    "type PersonList {\n" +
+    "  items: [Person]\n" +
+    "}\n" +
+    "type Person @rdfType(uri: \"http://example.org/Person\") {\n" +
+    "  name: String\n" +
+    "  names(cursor: ID, count: Int): ValueList @rdf(predicate: \"http://example.org/name\", direction: \"OUT\", " +
+    "isList: true, isObject: false, isValue: true)\n" +
+    "}\n" +
+    "type ValueList {\n" +
+    "  items: [Value]\n" +
+    "}\n" +
+    "type Value {\n" +
+    "  value: String\n" +
+    "}\n";
+  private static final String QUERY = "{ dataSet { persons(count: 100) { items { name names(count: 5) { " +
+    "items { value } } } } } }";
+
+  private GraphQLSchema schema;
+  private DataSetRepository dataSetRepository;
+
+  static GraphQLSchema createSchema() {
+    return new SchemaGenerator().makeExecutableSchema(
+      new SchemaParser().parse(SCHEMA),
+      RuntimeWiring.newRuntimeWiring().build()
+    );
+  }
+
+  @Before
+  public void setUp() {
+    schema = createSchema();
+    dataSetRepository = mock(DataSetRepository.class);
+    given(dataSetRepository.unsafeGetDataSetWithoutCheckingPermissions("user", "dataSet")).willReturn(Optional.empty());
+  }
+
+  @Test
+  public void multipliesTheCostOfTheItemsByTheCountOfTheList() {
+    QueryCostEstimator instance = new QueryCostEstimator(dataSetRepository);
+
+    long cost = instance.estimate(schema, new Parser().parseDocument(QUERY), null, Collections.emptyMap());
+
+    // value: 1, items: 1 + 1, names: 1 + 2 * 5, Person items: 1 + 1 + 11, persons: 1 + 13 * 100, dataSet: 1 + 1301
+    assertThat(cost, is(1302L));
+  }
+
+  @Test
+  public void usesTheDefaultCountForListsWithoutACountArgument() {
+    QueryCostEstimator instance = new QueryCostEstimator(dataSetRepository);
+
+    long cost = instance.estimate(schema, new Parser().parseDocument("{ dataSet { persons { items { name } } } }"),
+      null, Collections.emptyMap());
+
+    assertThat(cost, is(1L + 1 + 2 * 20));
+  }
+
+  @Test
+  public void readsTheCountFromTheVariables() {
+    QueryCostEstimator instance = new QueryCostEstimator(dataSetRepository);
+
+    long cost = instance.estimate(
+      schema,
+      new Parser().parseDocument("query q($count: Int) { dataSet { persons(count: $count) { items { name } } } }"),
+      "q",
+      ImmutableMap.of("count", 3)
+    );
+
+    assertThat(cost, is(1L + 1 + 2 * 3));
+  }
+
+  @Test
+  public void limitsTheCountByTheStatisticsOfTheSchemaStore() {
+    Predicate names = mock(Predicate.class);
+    given(names.getSubjectsWithThisPredicate()).willReturn(10L);
+    given(names.getValueTypes()).willReturn(ImmutableMap.of("http://www.w3.org/2001/XMLSchema#string", 25L));
+    given(names.getReferenceTypes()).willReturn(Collections.emptyMap());
+    Type person = mock(Type.class);
+    given(person.getSubjectsWithThisType()).willReturn(50L);
+    given(person.getPredicate("http://example.org/name", Direction.OUT)).willReturn(names);
+    SchemaStore schemaStore = mock(SchemaStore.class);
+    given(schemaStore.getStableTypes()).willReturn(ImmutableMap.of("http://example.org/Person", person));
+    DataSet dataSet = mock(DataSet.class);
+    given(dataSet.getSchemaStore()).willReturn(schemaStore);
+    given(dataSetRepository.unsafeGetDataSetWithoutCheckingPermissions("user", "dataSet"))
+      .willReturn(Optional.of(dataSet));
+    QueryCostEstimator instance = new QueryCostEstimator(dataSetRepository);
+
+    long cost = instance.estimate(schema, new Parser().parseDocument(QUERY), null, Collections.emptyMap());
+
+    // 25 names for 10 persons is 3 per person (rounded up), and the collection contains 50 persons
+    // value: 1, items: 1 + 1, names: 1 + 2 * 3, Person items: 1 + 1 + 7, persons: 1 + 9 * 50, dataSet: 1 + 451
+    assertThat(cost, is(452L));
+  }
+}
@@ -0,0 +1,120 @@
+package nl.knaw.huygens.timbuctoo.v5.graphql.querycost;
+
+import com.google.common.base.Ticker;
+import com.google.common.collect.ImmutableMap;
+import graphql.ExecutionResult;
+import graphql.GraphQL;
+import nl.knaw.huygens.timbuctoo.v5.dataset.DataSetRepository;
+import nl.knaw.huygens.timbuctoo.v5.graphql.datafetchers.FetcherExecutor;
+import nl.knaw.huygens.timbuctoo.v5.graphql.security.UserPermissionCheck;
+import org.junit.Test;
+
+import java.util.Map;
+import java.util.Optional;
+
+import static com.google.common.collect.Lists.newArrayList;
+import static graphql.ExecutionInput.newExecutionInput;
+import static nl.knaw.huygens.timbuctoo.v5.graphql.datafetchers.dto.ContextData.contextData;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+
+public class QueryCostInstrumentationTest {
+  private static final String QUERY = "{ dataSet { persons(count: 2) { items { name } } } }";
+
+  @Test
+  public void reportsTheEstimatedAndTheActualCost() {
+    GraphQL graphQl = createGraphQl(1_000, 0);
+
+    ExecutionResult result = execute(graphQl);
+
+    assertThat(result.getErrors(), is(empty()));
+    // the list contains 1 person instead of the 2 that were requested
+    assertThat(result.getExtensions().get("cost"), is(ImmutableMap.of("estimated", 1L + 1 + 2 * 2, "actual", 4L)));
+  }
+
+  @Test
+  public void refusesQueriesThatCostMoreThanTheMaximum() {
+    GraphQL graphQl = createGraphQl(5, 0);
+
+    ExecutionResult result = execute(graphQl);
+
+    assertThat(result.getData(), is(nullValue()));
+    assertThat(result.getErrors(), hasSize(1));
+    assertThat(result.getErrors().get(0).getMessage(), containsString("higher than the maximum of 5"));
+  }
+
+  @Test
+  public void refusesQueriesWhenTheBudgetIsExhausted() {
+    GraphQL graphQl = createGraphQl(1_000, 10);
+
+    ExecutionResult first = execute(graphQl);
+    ExecutionResult second = execute(graphQl);
+    ExecutionResult third = execute(graphQl);
+
+    assertThat(first.getErrors(), is(empty()));
+    assertThat(second.getErrors(), is(empty()));
+    assertThat(third.getErrors(), hasSize(1));
+    assertThat(third.getErrors().get(0).getMessage(), containsString("budget is exhausted"));
+  }
+
+  @Test
+  public void keepsABudgetPerClientAddressForAnonymousUsers() {
+    GraphQL graphQl = createGraphQl(1_000, 10);
+
+    execute(graphQl, "10.0.0.1");
+    execute(graphQl, "10.0.0.1");
+    ExecutionResult exhausted = execute(graphQl, "10.0.0.1");
+    ExecutionResult otherClient = execute(graphQl, "10.0.0.2");
+
+    assertThat(exhausted.getErrors(), hasSize(1));
+    assertThat(otherClient.getErrors(), is(empty()));
+  }
+
+  private ExecutionResult execute(GraphQL graphQl, String clientAddress) {
+    return graphQl.execute(newExecutionInput()
+      .query(QUERY)
+      .root(root())
+      .context(contextData(mock(UserPermissionCheck.class), Optional.empty(), FetcherExecutor.synchronous(),
+        clientAddress))
+      .build());
+  }
+
+  private ExecutionResult execute(GraphQL graphQl) {
+    return graphQl.execute(newExecutionInput().query(QUERY).root(root()).build());
+  }
+
+  private Map<String, Object> root() {
+    return ImmutableMap.of(
+      "dataSet", ImmutableMap.of(
+        "persons", ImmutableMap.of(
+          "items", newArrayList(ImmutableMap.of("name", "Jan"))
+        )
+      )
+    );
+  }
+
+  private GraphQL createGraphQl(long maxQueryCost, long budgetPerMinute) {
+    DataSetRepository dataSetRepository = mock(DataSetRepository.class);
+    given(dataSetRepository.unsafeGetDataSetWithoutCheckingPermissions("user", "dataSet")).willReturn(Optional.empty());
+    Ticker ticker = new Ticker() {
+      @Override
+      public long read() {
+        return 0;
+      }
+    };
+    return GraphQL.newGraphQL(QueryCostEstimatorTest.createSchema())
+      .instrumentation(new QueryCostInstrumentation(
+        new QueryCostEstimator(dataSetRepository),
+        new QueryCostBudget(budgetPerMinute, ticker),
+        maxQueryCost
+      ))
+      .build();
+  }
+}
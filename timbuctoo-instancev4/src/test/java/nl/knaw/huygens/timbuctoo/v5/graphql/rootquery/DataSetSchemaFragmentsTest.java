@@ -0,0 +1,162 @@
+package nl.knaw.huygens.timbuctoo.v5.graphql.rootquery;
+
+import com.google.common.collect.Sets;
+import graphql.schema.idl.SchemaParser;
+import nl.knaw.huygens.timbuctoo.v5.dataset.dto.DataSet;
+import nl.knaw.huygens.timbuctoo.v5.dataset.dto.DataSetMetaData;
+import nl.knaw.huygens.timbuctoo.v5.datastores.prefixstore.TypeNameStore;
+import nl.knaw.huygens.timbuctoo.v5.datastores.schemastore.SchemaStore;
+import nl.knaw.huygens.timbuctoo.v5.datastores.schemastore.dto.Type;
+import nl.knaw.huygens.timbuctoo.v5.graphql.derivedschema.DerivedSchemaContainer;
+import nl.knaw.huygens.timbuctoo.v5.graphql.derivedschema.DerivedSchemaGenerator;
+import nl.knaw.huygens.timbuctoo.v5.graphql.mutations.dto.CustomProvenance;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+public class DataSetSchemaFragmentsTest {
+  @Rule
+  public TemporaryFolder tempFolder = new TemporaryFolder();
+
+  private DerivedSchemaGenerator typeGenerator;
+  private DataSetSchemaFragments instance;
+
+  @Before
+  public void setUp() {
+    typeGenerator = mock(DerivedSchemaGenerator.class);
+    DerivedSchemaContainer container = mock(DerivedSchemaContainer.class);
+    given(container.getSchema()).willReturn("type user__dataSet_Person {\n  name: String\n}\n");
+    given(typeGenerator.makeGraphQlTypes(anyString(), anyMap(), any(), any(), any())).willReturn(container);
+    instance = new DataSetSchemaFragments(typeGenerator, new SchemaParser(), "version");
+  }
+
+  @Test
+  public void reusesTheFragmentWhileTheSchemaOfTheDataSetIsUnchanged() throws Exception {
+    DataSet dataSet = dataSet("user__dataSet", "hash1");
+
+    Optional<DataSetSchemaFragments.Fragment> first = instance.get(dataSet);
+    Optional<DataSetSchemaFragments.Fragment> second = instance.get(dataSet);
+
+    assertThat(second.get(), is(sameInstance(first.get())));
+    verify(typeGenerator, times(1)).makeGraphQlTypes(anyString(), anyMap(), any(), any(), any());
+  }
+
+  @Test
+  public void generatesTheFragmentAgainWhenTheStableTypesChange() throws Exception {
+    DataSet dataSet = dataSet("user__dataSet", "hash1");
+    Optional<DataSetSchemaFragments.Fragment> first = instance.get(dataSet);
+
+    given(dataSet.getSchemaStore().getStableTypesHash()).willReturn("hash2");
+    given(dataSet.getProcessedLogCount()).willReturn(2L);
+    Optional<DataSetSchemaFragments.Fragment> second = instance.get(dataSet);
+
+    assertThat(second.get(), is(not(sameInstance(first.get()))));
+    verify(typeGenerator, times(2)).makeGraphQlTypes(anyString(), anyMap(), any(), any(), any());
+  }
+
+  @Test
+  public void onlyGeneratesTheFragmentOfTheChangedDataSet() throws Exception {
+    DataSet dataSet1 = dataSet("user__dataSet1", "hash1");
+    DataSet dataSet2 = dataSet("user__dataSet2", "hash1");
+    instance.get(dataSet1);
+    instance.get(dataSet2);
+
+    given(dataSet2.getSchemaStore().getStableTypesHash()).willReturn("hash2");
+    given(dataSet2.getProcessedLogCount()).willReturn(2L);
+    instance.get(dataSet1);
+    instance.get(dataSet2);
+
+    verify(typeGenerator, times(1)).makeGraphQlTypes(eq("user__dataSet1"), anyMap(), any(), any(), any());
+    verify(typeGenerator, times(2)).makeGraphQlTypes(eq("user__dataSet2"), anyMap(), any(), any(), any());
+  }
+
+  @Test
+  public void forgetsTheFragmentsOfRemovedDataSets() throws Exception {
+    DataSet dataSet = dataSet("user__dataSet", "hash1");
+    instance.get(dataSet);
+
+    instance.retainAll(Sets.newHashSet("user__otherDataSet"));
+    instance.get(dataSet);
+
+    verify(typeGenerator, times(2)).makeGraphQlTypes(anyString(), anyMap(), any(), any(), any());
+  }
+
+  @Test
+  public void doesNotReadTheDatabasesWhileTheLogsAreUnchanged() throws Exception {
+    DataSet dataSet = dataSet("user__dataSet", "hash1");
+    instance.get(dataSet);
+    instance.get(dataSet);
+
+    verify(dataSet, times(1)).getSchemaStore();
+  }
+
+  @Test
+  public void reusesTheSavedFragmentAfterARestartWithoutReadingTheDatabases() throws Exception {
+    File fragmentFile = new File(tempFolder.getRoot(), "schemaFragment.json");
+    DataSet dataSet = dataSet("user__dataSet", "hash1");
+    given(dataSet.getSchemaFragmentFile()).willReturn(fragmentFile);
+    instance.get(dataSet);
+
+    DataSet afterRestart = dataSet("user__dataSet", "hash1");
+    given(afterRestart.getSchemaFragmentFile()).willReturn(fragmentFile);
+    Optional<DataSetSchemaFragments.Fragment> fragment =
+      new DataSetSchemaFragments(typeGenerator, new SchemaParser(), "version").get(afterRestart);
+
+    assertThat(fragment.get().getRegistry().getType("user__dataSet_Person").isPresent(), is(true));
+    verify(afterRestart, never()).getSchemaStore();
+    verify(typeGenerator, times(1)).makeGraphQlTypes(anyString(), anyMap(), any(), any(), any());
+  }
+
+  @Test
+  public void generatesTheSavedFragmentAgainWhenTheCodeChanged() throws Exception {
+    File fragmentFile = new File(tempFolder.getRoot(), "schemaFragment.json");
+    DataSet dataSet = dataSet("user__dataSet", "hash1");
+    given(dataSet.getSchemaFragmentFile()).willReturn(fragmentFile);
+    instance.get(dataSet);
+
+    new DataSetSchemaFragments(typeGenerator, new SchemaParser(), "otherVersion").get(dataSet);
+
+    verify(typeGenerator, times(2)).makeGraphQlTypes(anyString(), anyMap(), any(), any(), any());
+  }
+
+  private DataSet dataSet(String combinedId, String stableTypesHash) throws Exception {
+    DataSet dataSet = mock(DataSet.class);
+    DataSetMetaData metadata = mock(DataSetMetaData.class);
+    given(metadata.getCombinedId()).willReturn(combinedId);
+    given(dataSet.getMetadata()).willReturn(metadata);
+    SchemaStore schemaStore = mock(SchemaStore.class);
+    Map<String, Type> types = new HashMap<>();
+    types.put("http://example.org/Person", new Type("http://example.org/Person"));
+    given(schemaStore.getStableTypes()).willReturn(types);
+    given(schemaStore.getStableTypesHash()).willReturn(stableTypesHash);
+    given(dataSet.getSchemaStore()).willReturn(schemaStore);
+    given(dataSet.getCustomSchema()).willReturn(new HashMap<>());
+    given(dataSet.getCustomProvenance()).willReturn(new CustomProvenance(Collections.emptyList()));
+    TypeNameStore typeNameStore = mock(TypeNameStore.class);
+    given(typeNameStore.getMappings()).willReturn(new HashMap<>());
+    given(dataSet.getTypeNameStore()).willReturn(typeNameStore);
+    given(dataSet.getProcessedLogCount()).willReturn(1L);
+    return dataSet;
+  }
+}
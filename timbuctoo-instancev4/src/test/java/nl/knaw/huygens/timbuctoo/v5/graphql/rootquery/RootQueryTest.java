@@ -0,0 +1,178 @@
+package nl.knaw.huygens.timbuctoo.v5.graphql.rootquery;
+
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.MetricRegistry;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import graphql.schema.GraphQLSchema;
+import nl.knaw.huygens.timbuctoo.remote.rs.ResourceSyncService;
+import nl.knaw.huygens.timbuctoo.remote.rs.download.ResourceSyncFileLoader;
+import nl.knaw.huygens.timbuctoo.util.UriHelper;
+import nl.knaw.huygens.timbuctoo.v5.dataset.DataSetRepository;
+import nl.knaw.huygens.timbuctoo.v5.dropwizard.SupportedExportFormats;
+import nl.knaw.huygens.timbuctoo.v5.graphql.datafetchers.PaginationArgumentsHelper;
+import nl.knaw.huygens.timbuctoo.v5.graphql.datafetchers.RdfWiringFactory;
+import nl.knaw.huygens.timbuctoo.v5.graphql.defaultconfiguration.DefaultSummaryProps;
+import nl.knaw.huygens.timbuctoo.v5.graphql.derivedschema.DerivedSchemaGenerator;
+import nl.knaw.huygens.timbuctoo.v5.redirectionservice.RedirectionService;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.util.List;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import static com.codahale.metrics.MetricRegistry.name;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+public class RootQueryTest {
+  private ManualExecutorService schemaAccessQueue;
+  private MetricRegistry metrics;
+  private RootQuery instance;
+  private Runnable onDataSetsUpdated;
+
+  @Before
+  public void setUp() throws Exception {
+    DataSetRepository dataSetRepository = mock(DataSetRepository.class);
+    schemaAccessQueue = new ManualExecutorService();
+    metrics = new MetricRegistry();
+    instance = new RootQuery(
+      dataSetRepository,
+      mock(SupportedExportFormats.class),
+      null,
+      schemaUpdater -> new RdfWiringFactory(
+        dataSetRepository,
+        mock(PaginationArgumentsHelper.class),
+        mock(DefaultSummaryProps.class),
+        mock(UriHelper.class),
+        mock(RedirectionService.class),
+        schemaUpdater
+      ),
+      mock(DerivedSchemaGenerator.class),
+      new ObjectMapper(),
+      mock(ResourceSyncFileLoader.class),
+      mock(ResourceSyncService.class),
+      schemaAccessQueue,
+      metrics
+    );
+    ArgumentCaptor<Runnable> listener = ArgumentCaptor.forClass(Runnable.class);
+    verify(dataSetRepository).subscribeToDataSetsUpdated(listener.capture());
+    onDataSetsUpdated = listener.getValue();
+  }
+
+  @Test
+  public void coalescesTheRebuildsThatAreRequestedBeforeTheRebuildStarts() throws Exception {
+    final Thread first = updateDataSets();
+    final Thread second = updateDataSets();
+    final Thread third = updateDataSets();
+
+    assertThat(schemaAccessQueue.tasks.size(), is(1));
+    schemaAccessQueue.runAll();
+    first.join();
+    second.join();
+    third.join();
+  }
+
+  @Test
+  public void schedulesANewRebuildForChangesAfterTheRebuildStarted() throws Exception {
+    Thread first = updateDataSets();
+    schemaAccessQueue.runAll();
+    first.join();
+
+    Thread second = updateDataSets();
+
+    assertThat(schemaAccessQueue.tasks.size(), is(1));
+    schemaAccessQueue.runAll();
+    second.join();
+  }
+
+  @Test
+  public void getDoesNotWaitForAScheduledRebuild() throws Exception {
+    Thread first = updateDataSets();
+    schemaAccessQueue.runAll();
+    first.join();
+    GraphQLSchema schema = instance.get();
+
+    Thread second = updateDataSets();
+
+    assertThat(instance.get(), is(sameInstance(schema)));
+    schemaAccessQueue.runAll();
+    second.join();
+    assertThat(instance.get(), is(not(sameInstance(schema))));
+  }
+
+  @Test
+  public void reportsTheStalenessOfTheSchema() throws Exception {
+    Gauge<?> staleness = metrics.getGauges().get(name(RootQuery.class, "schemaStaleness"));
+
+    final Thread update = updateDataSets();
+    Thread.sleep(5);
+    assertThat((Long) staleness.getValue(), is(greaterThanOrEqualTo(5L)));
+
+    schemaAccessQueue.runAll();
+    update.join();
+    assertThat(staleness.getValue(), is(0L));
+    assertThat(instance.get(), is(notNullValue()));
+    assertThat(metrics.timer(name(RootQuery.class, "schemaBuild")).getCount(), is(1L));
+  }
+
+  /**
+   * Notifies the RootQuery of an update on a separate thread, because the notification waits until the schema is
+   * rebuilt.
+   */
+  private Thread updateDataSets() throws InterruptedException {
+    Thread thread = new Thread(onDataSetsUpdated);
+    thread.start();
+    while (thread.getState() != Thread.State.TIMED_WAITING) {
+      Thread.sleep(1);
+    }
+    return thread;
+  }
+
+  private static class ManualExecutorService extends AbstractExecutorService {
+    private final List<Runnable> tasks = new CopyOnWriteArrayList<>();
+
+    void runAll() {
+      while (!tasks.isEmpty()) {
+        tasks.remove(0).run();
+      }
+    }
+
+    @Override
+    public void execute(Runnable command) {
+      tasks.add(command);
+    }
+
+    @Override
+    public void shutdown() {
+    }
+
+    @Override
+    public List<Runnable> shutdownNow() {
+      return tasks;
+    }
+
+    @Override
+    public boolean isShutdown() {
+      return false;
+    }
+
+    @Override
+    public boolean isTerminated() {
+      return false;
+    }
+
+    @Override
+    public boolean awaitTermination(long timeout, TimeUnit unit) {
+      return true;
+    }
+  }
+}
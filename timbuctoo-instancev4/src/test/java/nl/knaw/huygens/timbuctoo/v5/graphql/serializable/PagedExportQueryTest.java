@@ -0,0 +1,112 @@
+package nl.knaw.huygens.timbuctoo.v5.graphql.serializable;
+
+import com.google.common.collect.ImmutableMap;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.Optional;
+
+import static nl.knaw.huygens.hamcrest.OptionalPresentMatcher.present;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.hasEntry;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+
+public class PagedExportQueryTest {
+
+  @Test
+  public void replacesTheCursorOfTheListWithAVariable() {
+    Optional<PagedExportQuery> instance = PagedExportQuery.create(
+      "{ dataSets { user__dataSet { schema_PersonList(cursor: \"abc\", count: 10) { items { uri } } } } }",
+      null,
+      Collections.emptyMap()
+    );
+
+    assertThat(instance, is(present()));
+    assertThat(instance.get().getQuery(), containsString("($timbuctooExportCursor: ID)"));
+    assertThat(instance.get().getQuery(),
+      containsString("schema_PersonList(count: 10, cursor: $timbuctooExportCursor)"));
+    assertThat(instance.get().getVariables(Collections.emptyMap(), null), hasEntry("timbuctooExportCursor", "abc"));
+    assertThat(instance.get().getVariables(Collections.emptyMap(), "def"), hasEntry("timbuctooExportCursor", "def"));
+  }
+
+  @Test
+  public void requestsLargePagesWhenTheQueryDoesNotSpecifyACount() {
+    Optional<PagedExportQuery> instance = PagedExportQuery.create(
+      "{ dataSets { user__dataSet { schema_PersonList { items { uri } } } } }",
+      null,
+      Collections.emptyMap()
+    );
+
+    assertThat(instance.get().getQuery(), containsString(
+      "schema_PersonList(cursor: $timbuctooExportCursor, count: " + PagedExportQuery.PAGE_SIZE + ")"
+    ));
+  }
+
+  @Test
+  public void limitsTheExportToTheCountOfTheList() {
+    Optional<PagedExportQuery> instance = PagedExportQuery.create(
+      "{ dataSets { user__dataSet { schema_PersonList(count: 2500) { items { uri } } } } }",
+      null,
+      Collections.emptyMap()
+    );
+
+    assertThat(instance.get().getLimit(), is(Optional.of(2500)));
+    assertThat(instance.get().getQuery(), containsString(
+      "schema_PersonList(count: " + PagedExportQuery.PAGE_SIZE + ", cursor: $timbuctooExportCursor)"
+    ));
+  }
+
+  @Test
+  public void limitsTheExportToTheCountVariableOfTheList() {
+    Map<String, Object> variables = ImmutableMap.of("count", 2500);
+    Optional<PagedExportQuery> instance = PagedExportQuery.create(
+      "query Persons($count: Int) {\n" +
+        "  dataSets { user__dataSet { schema_PersonList(count: $count) { items { uri } } } }\n" +
+        "}",
+      "Persons",
+      variables
+    );
+
+    assertThat(instance.get().getLimit(), is(Optional.of(2500)));
+    assertThat(instance.get().getVariables(variables, null), hasEntry("count", PagedExportQuery.PAGE_SIZE));
+  }
+
+  @Test
+  public void reusesTheVariableThatTheQueryUsesForTheCursor() {
+    Map<String, Object> variables = ImmutableMap.of("cursor", "abc");
+    Optional<PagedExportQuery> instance = PagedExportQuery.create(
+      "query Persons($cursor: ID) {\n" +
+        "  dataSets { user__dataSet { schema_PersonList(cursor: $cursor) { items { uri } } } }\n" +
+        "}",
+      "Persons",
+      variables
+    );
+
+    assertThat(instance.get().getQuery(), not(containsString("timbuctooExportCursor")));
+    assertThat(instance.get().getVariables(variables, null), hasEntry("cursor", "abc"));
+    assertThat(instance.get().getVariables(variables, "def"), hasEntry("cursor", "def"));
+  }
+
+  @Test
+  public void onlyPagesQueriesThatSelectOneList() {
+    assertThat(PagedExportQuery.create(
+      "{ dataSets { user__dataSet { schema_PersonList { items { uri } } schema_PlaceList { items { uri } } } } }",
+      null,
+      Collections.emptyMap()
+    ), is(not(present())));
+    assertThat(PagedExportQuery.create(
+      "{ dataSets { user__dataSet { schema_Person(uri: \"http://example.org/1\") { uri } } } }",
+      null,
+      Collections.emptyMap()
+    ), is(not(present())));
+    assertThat(PagedExportQuery.create(
+      "mutation { dataSets { user__dataSet { schema_PersonList { items { uri } } } } }",
+      null,
+      Collections.emptyMap()
+    ), is(not(present())));
+    assertThat(PagedExportQuery.create("{ dataSets {", null, Collections.emptyMap()), is(not(present())));
+  }
+}
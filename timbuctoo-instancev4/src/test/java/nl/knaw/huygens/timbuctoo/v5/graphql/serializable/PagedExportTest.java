@@ -0,0 +1,99 @@
+package nl.knaw.huygens.timbuctoo.v5.graphql.serializable;
+
+import nl.knaw.huygens.timbuctoo.v5.serializable.dto.QueryContainer;
+import nl.knaw.huygens.timbuctoo.v5.serializable.dto.Serializable;
+import nl.knaw.huygens.timbuctoo.v5.serializable.dto.Value;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
+
+import static com.google.common.collect.ImmutableMap.of;
+import static nl.knaw.huygens.hamcrest.OptionalPresentMatcher.present;
+import static nl.knaw.huygens.timbuctoo.v5.serializable.dto.GraphqlIntrospectionObject.graphqlIntrospectionObject;
+import static nl.knaw.huygens.timbuctoo.v5.serializable.dto.QueryContainer.queryContainer;
+import static nl.knaw.huygens.timbuctoo.v5.serializable.dto.SerializableList.serializableList;
+import static nl.knaw.huygens.timbuctoo.v5.serializable.dto.Value.fromRawJavaType;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.nullValue;
+
+public class PagedExportTest {
+
+  @Test
+  public void retrievesTheNextPagesWhileTheItemsAreIterated() {
+    List<String> retrievedCursors = new ArrayList<>();
+    PagedExport instance = PagedExport.create(page(null, "page2", "1", "2"), cursor -> {
+      retrievedCursors.add(cursor);
+      return cursor.equals("page2") ? page("page3", "page3", "3") : page("page2", null, "4");
+    }).get();
+
+    Iterator<Serializable> items = instance.getItems().iterator();
+    List<String> values = new ArrayList<>();
+    values.add(((Value) items.next()).getValue());
+    values.add(((Value) items.next()).getValue());
+    assertThat(retrievedCursors.isEmpty(), is(true));
+
+    items.forEachRemaining(item -> values.add(((Value) item).getValue()));
+    assertThat(values, contains("1", "2", "3", "4"));
+    assertThat(retrievedCursors, contains("page2", "page3"));
+  }
+
+  @Test
+  public void stopsAtTheLimit() {
+    List<String> retrievedCursors = new ArrayList<>();
+    PagedExport instance = PagedExport.create(page(null, "page2", "1", "2"), cursor -> {
+      retrievedCursors.add(cursor);
+      return cursor.equals("page2") ? page("page3", "page3", "3", "4") : page("page2", null, "5");
+    }, 4).get();
+
+    List<String> values = new ArrayList<>();
+    instance.getItems().forEach(item -> values.add(((Value) item).getValue()));
+
+    assertThat(values, contains("1", "2", "3", "4"));
+    assertThat(retrievedCursors, contains("page2"));
+  }
+
+  @Test
+  public void releasesTheFirstPageWhenTheIterationMovesOn() {
+    PagedExport instance = PagedExport.create(page(null, "page2", "1"), cursor -> page("page2", null, "2")).get();
+
+    instance.getItems().forEach(item -> { });
+
+    assertThat(instance.getList(), is(nullValue()));
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void theItemsCanOnlyBeIteratedOnce() {
+    PagedExport instance = PagedExport.create(page(null, "page2", "1"), cursor -> page("page2", null, "2")).get();
+    instance.getItems().forEach(item -> { });
+
+    instance.getItems();
+  }
+
+  @Test
+  public void isOnlyCreatedWhenTheResultContainsTheList() {
+    Optional<PagedExport> instance = PagedExport.create(
+      queryContainer(of("dataSets", graphqlIntrospectionObject(of("user__dataSet", fromRawJavaType("1"))))),
+      cursor -> null
+    );
+
+    assertThat(instance, is(not(present())));
+  }
+
+  private static QueryContainer page(String prevCursor, String nextCursor, String... values) {
+    List<Serializable> items = new ArrayList<>();
+    for (String value : values) {
+      items.add(fromRawJavaType(value));
+    }
+    return queryContainer(of("dataSets", graphqlIntrospectionObject(of(
+      "user__dataSet", graphqlIntrospectionObject(of(
+        "schema_PersonList", serializableList(prevCursor, nextCursor, items)
+      ))
+    ))));
+  }
+}
@@ -166,4 +166,15 @@ public class JsonLdSerializationTest {
       "}"));
   }
 
+  @Test
+  public void serializesTheItemsOfAllPages() throws Exception {
+    ByteArrayOutputStream expected = new ByteArrayOutputStream();
+    new JsonLdSerialization(expected).serialize(SourceData.simpleResult());
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    JsonLdSerialization cs = new JsonLdSerialization(out);
+
+    cs.serialize(SourceData.pagedResult());
+
+    assertThat(out.toString(), is(expected.toString()));
+  }
 }
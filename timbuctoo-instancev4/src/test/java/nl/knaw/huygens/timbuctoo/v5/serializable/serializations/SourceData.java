@@ -1,7 +1,10 @@
 package nl.knaw.huygens.timbuctoo.v5.serializable.serializations;
 
 import nl.knaw.huygens.timbuctoo.v5.datastores.quadstore.dto.Direction;
+import nl.knaw.huygens.timbuctoo.v5.serializable.PagedResult;
 import nl.knaw.huygens.timbuctoo.v5.serializable.SerializableResult;
+import nl.knaw.huygens.timbuctoo.v5.serializable.dto.Serializable;
+import nl.knaw.huygens.timbuctoo.v5.serializable.dto.SerializableList;
 import nl.knaw.huygens.timbuctoo.v5.serializable.dto.Value;
 
 import java.io.IOException;
@@ -66,4 +69,34 @@ public class SourceData {
     )));
   }
 
+  /**
+   * The simple result, of which the first page only contains the first person
+   */
+  public static PagedResult pagedResult() throws IOException {
+    final SerializableList persons = (SerializableList) simpleResult().getData().getContents().get("Persons");
+    final SerializableList firstPage = serializableList(null, "page2", persons.getItems().subList(0, 1));
+    return new PagedResult() {
+      private boolean iterated = false;
+
+      @Override
+      public SerializableResult getFirstPage() {
+        return new SerializableResult(queryContainer(of("Persons", firstPage)));
+      }
+
+      @Override
+      public SerializableList getList() {
+        return firstPage;
+      }
+
+      @Override
+      public Iterable<Serializable> getItems() {
+        // like the PagedExport, the pages are only retrieved once
+        if (iterated) {
+          throw new IllegalStateException("The items were already iterated");
+        }
+        iterated = true;
+        return persons.getItems();
+      }
+    };
+  }
 }